@@ -32,5 +32,31 @@ import java.lang.annotation.Target;
 public @interface HTTPMonitored {
     
     boolean tracing() default false;
-    
+
+    /**
+     * How the raw events of the monitored requests are sampled. Per route summaries are always published.
+     */
+    SamplingMode sampling() default SamplingMode.ALL;
+
+    /**
+     * Fraction of the requests published when {@link SamplingMode#FIXED_RATE} is used. A value between 0 and 1.
+     */
+    double samplingRate() default 1.0;
+
+    /**
+     * Maximum number of events published per second for the route when {@link SamplingMode#RATE_LIMITED} is used.
+     */
+    int maxEventsPerSecond() default 100;
+
+    /**
+     * Always publish requests which ended up with a server error (5xx) status, regardless of the sampling mode.
+     */
+    boolean keepErrors() default true;
+
+    /**
+     * Always publish requests which took at least this many milliseconds, regardless of the sampling mode.
+     * A negative value disables this.
+     */
+    long slowRequestThresholdMillis() default -1;
+
 }
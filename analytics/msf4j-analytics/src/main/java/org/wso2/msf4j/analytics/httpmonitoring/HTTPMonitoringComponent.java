@@ -19,6 +19,7 @@ import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.wso2.carbon.kernel.utils.Utils;
+import org.wso2.msf4j.analytics.tracing.Tracing;
 import org.wso2.msf4j.util.SystemVariableUtil;
 
 import java.io.File;
@@ -43,6 +44,7 @@ public class HTTPMonitoringComponent {
             System.setProperty(HTTP_MONITORING_DAS_DATAAGENTCONFIGPATH, dataAgentConfigPath);
             HTTPMonitoringDataPublisher.init();
         }
+        Tracing.init();
     }
 
     @Deactivate
@@ -50,5 +52,6 @@ public class HTTPMonitoringComponent {
         if (Boolean.parseBoolean(SystemVariableUtil.getValue(HTTP_MONITORING_ENABLED, Boolean.FALSE.toString()))) {
             HTTPMonitoringDataPublisher.destroy();
         }
+        Tracing.destroy();
     }
 }
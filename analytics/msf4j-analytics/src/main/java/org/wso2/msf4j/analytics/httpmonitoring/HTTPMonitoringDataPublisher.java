@@ -34,7 +34,13 @@ import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A utility class to initialize/destroy HTTP Monitoring Data Publisher for DAS.
@@ -49,10 +55,17 @@ public final class HTTPMonitoringDataPublisher {
     private static final String HTTP_MONITORING_DAS_USERNAME = "HTTP_MONITORING_DAS_USERNAME";
     private static final String HTTP_MONITORING_DAS_PASSWORD = "HTTP_MONITORING_DAS_PASSWORD";
     private static final String HTTP_MONITORING_DAS_DATAAGENTCONFIGPATH = "HTTP_MONITORING_DAS_DATAAGENTCONFIGPATH";
+    private static final String HTTP_MONITORING_QUEUE_SIZE = "HTTP_MONITORING_QUEUE_SIZE";
+    private static final String HTTP_MONITORING_BATCH_SIZE = "HTTP_MONITORING_BATCH_SIZE";
+    private static final String HTTP_MONITORING_OVERFLOW_POLICY = "HTTP_MONITORING_OVERFLOW_POLICY";
+    private static final String HTTP_MONITORING_SHUTDOWN_TIMEOUT_MILLIS = "HTTP_MONITORING_SHUTDOWN_TIMEOUT_MILLIS";
+    private static final String HTTP_MONITORING_SUMMARY_INTERVAL_SECONDS = "HTTP_MONITORING_SUMMARY_INTERVAL_SECONDS";
 
     private static final String HTTP_MONITORING_STREAM = "org.wso2.msf4j.analytics.httpmonitoring";
     private static final String VERSION = "1.0.0";
     private static final String HTTP_MONITORING_STREAM_ID;
+    private static final String HTTP_MONITORING_SUMMARY_STREAM = "org.wso2.msf4j.analytics.httpmonitoring.summary";
+    private static final String HTTP_MONITORING_SUMMARY_STREAM_ID;
 
     private static final String SERVER_HOST_ADDRESS;
     private static final String SERVER_HOSTNAME;
@@ -60,10 +73,16 @@ public final class HTTPMonitoringDataPublisher {
     private static final String MICROSERVICE = "Microservice";
 
     private static DataPublisher dataPublisher;
+    private static volatile HTTPMonitoringEventQueue eventQueue;
+    private static ScheduledExecutorService summaryPublisher;
+    private static long summaryIntervalMillis;
+    private static final List<HTTPMonitoringRouteSummary> routeSummaries = new CopyOnWriteArrayList<>();
     private static Map<String, String> arbitraryAttributes;
 
     static {
         HTTP_MONITORING_STREAM_ID = DataBridgeCommonsUtils.generateStreamId(HTTP_MONITORING_STREAM, VERSION);
+        HTTP_MONITORING_SUMMARY_STREAM_ID =
+                DataBridgeCommonsUtils.generateStreamId(HTTP_MONITORING_SUMMARY_STREAM, VERSION);
         try {
             InetAddress localAddress = getLocalAddress();
             SERVER_HOST_ADDRESS = localAddress.getHostAddress();
@@ -112,6 +131,9 @@ public final class HTTPMonitoringDataPublisher {
         String username = "admin";
         String password = "admin";
         String dataAgentConfigPath;
+        int queueSize;
+        int batchSize;
+        HTTPMonitoringEventQueue.OverflowPolicy overflowPolicy;
 
         type = SystemVariableUtil.getValue(HTTP_MONITORING_DAS_TYPE, type);
         receiverURL = SystemVariableUtil.getValue(HTTP_MONITORING_DAS_RECEIVER_URL, receiverURL);
@@ -119,6 +141,13 @@ public final class HTTPMonitoringDataPublisher {
         username = SystemVariableUtil.getValue(HTTP_MONITORING_DAS_USERNAME, username);
         password = SystemVariableUtil.getValue(HTTP_MONITORING_DAS_PASSWORD, password);
         dataAgentConfigPath = SystemVariableUtil.getValue(HTTP_MONITORING_DAS_DATAAGENTCONFIGPATH, null);
+        queueSize = Integer.parseInt(SystemVariableUtil.getValue(HTTP_MONITORING_QUEUE_SIZE, "8192"));
+        batchSize = Integer.parseInt(SystemVariableUtil.getValue(HTTP_MONITORING_BATCH_SIZE, "256"));
+        overflowPolicy = HTTPMonitoringEventQueue.OverflowPolicy.valueOf(
+                SystemVariableUtil.getValue(HTTP_MONITORING_OVERFLOW_POLICY,
+                        HTTPMonitoringEventQueue.OverflowPolicy.DROP.name()).toUpperCase(Locale.ENGLISH));
+        summaryIntervalMillis = TimeUnit.SECONDS.toMillis(
+                Long.parseLong(SystemVariableUtil.getValue(HTTP_MONITORING_SUMMARY_INTERVAL_SECONDS, "60")));
 
         if (type == null) {
             throw new IllegalArgumentException("Type cannot be null");
@@ -143,9 +172,36 @@ public final class HTTPMonitoringDataPublisher {
                 | DataEndpointAuthenticationException | TransportException e) {
             throw new IllegalStateException("Error when initializing the Data Publisher", e);
         }
+        eventQueue = new HTTPMonitoringEventQueue(queueSize, batchSize, overflowPolicy,
+                HTTPMonitoringDataPublisher::sendEvent);
+        eventQueue.start();
+        summaryPublisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HTTPMonitoringSummaryPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        summaryPublisher.scheduleAtFixedRate(HTTPMonitoringDataPublisher::publishRouteSummaries,
+                summaryIntervalMillis, summaryIntervalMillis, TimeUnit.MILLISECONDS);
     }
 
     static synchronized void destroy() {
+        if (summaryPublisher != null) {
+            summaryPublisher.shutdownNow();
+            summaryPublisher = null;
+            if (dataPublisher != null) {
+                publishRouteSummaries();
+            }
+        }
+        if (eventQueue != null) {
+            // Publish the events which are already queued before shutting down the data publisher
+            eventQueue.stop(Long.parseLong(
+                    SystemVariableUtil.getValue(HTTP_MONITORING_SHUTDOWN_TIMEOUT_MILLIS, "5000")),
+                    TimeUnit.MILLISECONDS);
+            if (eventQueue.getPendingEventCount() > 0) {
+                logger.warn("Discarding " + eventQueue.getPendingEventCount() + " unpublished HTTP monitoring events");
+            }
+            eventQueue = null;
+        }
         if (dataPublisher != null) {
             try {
                 dataPublisher.shutdownWithAgent();
@@ -157,7 +213,84 @@ public final class HTTPMonitoringDataPublisher {
         }
     }
 
+    /**
+     * Queue an event to be published asynchronously. This is called on the request thread.
+     *
+     * @param httpMonitoringEvent event to publish
+     */
     static void publishEvent(HTTPMonitoringEvent httpMonitoringEvent) {
+        HTTPMonitoringEventQueue queue = eventQueue;
+        if (queue != null) {
+            queue.offer(httpMonitoringEvent);
+        }
+    }
+
+    /**
+     * @return number of events accepted into the publishing queue
+     */
+    public static long getQueuedEventCount() {
+        HTTPMonitoringEventQueue queue = eventQueue;
+        return queue != null ? queue.getQueuedEventCount() : 0;
+    }
+
+    /**
+     * @return number of events dropped because the publishing queue was full
+     */
+    public static long getDroppedEventCount() {
+        HTTPMonitoringEventQueue queue = eventQueue;
+        return queue != null ? queue.getDroppedEventCount() : 0;
+    }
+
+    /**
+     * @return number of events which are waiting in the publishing queue
+     */
+    public static int getPendingEventCount() {
+        HTTPMonitoringEventQueue queue = eventQueue;
+        return queue != null ? queue.getPendingEventCount() : 0;
+    }
+
+    /**
+     * Register the counters of a monitored route, to be published periodically.
+     *
+     * @param routeSummary counters of the route
+     */
+    static void registerRouteSummary(HTTPMonitoringRouteSummary routeSummary) {
+        routeSummaries.add(routeSummary);
+    }
+
+    private static void publishRouteSummaries() {
+        long timestamp = System.currentTimeMillis();
+        for (HTTPMonitoringRouteSummary routeSummary : routeSummaries) {
+            long requestCount = routeSummary.resetRequestCount();
+            if (requestCount == 0) {
+                continue;
+            }
+            Object[] meta = new Object[4];
+            meta[0] = timestamp;
+            meta[1] = SERVER_HOST_ADDRESS;
+            meta[2] = SERVER_HOSTNAME;
+            meta[3] = MICROSERVICE;
+            Object[] payload = new Object[10];
+            payload[0] = routeSummary.getServiceClass();
+            payload[1] = routeSummary.getServiceName();
+            payload[2] = routeSummary.getServiceMethod();
+            payload[3] = routeSummary.getServiceContext();
+            payload[4] = requestCount;
+            payload[5] = routeSummary.resetErrorCount();
+            payload[6] = routeSummary.resetSampledCount();
+            payload[7] = routeSummary.resetTotalResponseTime();
+            payload[8] = routeSummary.resetMaxResponseTime();
+            payload[9] = summaryIntervalMillis;
+            try {
+                dataPublisher.publish(new Event(HTTP_MONITORING_SUMMARY_STREAM_ID, timestamp, meta, null, payload,
+                        arbitraryAttributes));
+            } catch (RuntimeException e) {
+                logger.error("Error while publishing HTTP monitoring summary", e);
+            }
+        }
+    }
+
+    private static void sendEvent(HTTPMonitoringEvent httpMonitoringEvent) {
         Object[] meta = new Object[4];
         meta[0] = httpMonitoringEvent.getTimestamp();
         meta[1] = SERVER_HOST_ADDRESS;
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.httpmonitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.analytics.internal.MpscRingBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Queues {@link HTTPMonitoringEvent}s on request threads and hands them over to a publisher in batches from a single
+ * background drainer thread. Request threads only pay for a CAS on a bounded ring buffer.
+ */
+final class HTTPMonitoringEventQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(HTTPMonitoringEventQueue.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * What to do when the queue is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Drop the event and count it as dropped.
+         */
+        DROP,
+        /**
+         * Make the request thread wait until the drainer frees up a slot.
+         */
+        BLOCK
+    }
+
+    private final MpscRingBuffer<HTTPMonitoringEvent> ringBuffer;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+    private final Consumer<HTTPMonitoringEvent> publisher;
+    private final Thread drainer;
+    private final LongAdder queuedEvents = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private volatile boolean running = true;
+
+    HTTPMonitoringEventQueue(int capacity, int batchSize, OverflowPolicy overflowPolicy,
+                             Consumer<HTTPMonitoringEvent> publisher) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be a positive value");
+        }
+        this.ringBuffer = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.publisher = publisher;
+        this.drainer = new Thread(this::drain, "HTTPMonitoringEventDrainer");
+        this.drainer.setDaemon(true);
+    }
+
+    void start() {
+        drainer.start();
+    }
+
+    /**
+     * Add an event to the queue. Never blocks with the {@link OverflowPolicy#DROP} policy.
+     *
+     * @param event event to publish
+     * @return false if the event was dropped
+     */
+    boolean offer(HTTPMonitoringEvent event) {
+        while (!ringBuffer.offer(event)) {
+            if (overflowPolicy == OverflowPolicy.DROP || !running) {
+                droppedEvents.increment();
+                return false;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        queuedEvents.increment();
+        return true;
+    }
+
+    /**
+     * Stop the drainer after publishing the events which are already in the queue.
+     *
+     * @param timeout  maximum time to wait for the remaining events to be published
+     * @param timeUnit unit of the timeout
+     */
+    void stop(long timeout, TimeUnit timeUnit) {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(timeUnit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long getQueuedEventCount() {
+        return queuedEvents.sum();
+    }
+
+    long getDroppedEventCount() {
+        return droppedEvents.sum();
+    }
+
+    long getFailedEventCount() {
+        return failedEvents.sum();
+    }
+
+    int getPendingEventCount() {
+        return ringBuffer.size();
+    }
+
+    private void drain() {
+        List<HTTPMonitoringEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            HTTPMonitoringEvent event;
+            while (batch.size() < batchSize && (event = ringBuffer.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+            for (HTTPMonitoringEvent httpMonitoringEvent : batch) {
+                try {
+                    publisher.accept(httpMonitoringEvent);
+                } catch (RuntimeException e) {
+                    failedEvents.increment();
+                    logger.error("Error while publishing HTTP monitoring event", e);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
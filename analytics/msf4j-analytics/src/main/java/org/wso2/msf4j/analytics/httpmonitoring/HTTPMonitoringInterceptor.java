@@ -20,12 +20,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.msf4j.Interceptor;
 import org.wso2.msf4j.Request;
+import org.wso2.msf4j.RequestTimings;
 import org.wso2.msf4j.Response;
 import org.wso2.msf4j.ServiceMethodInfo;
+import org.wso2.msf4j.analytics.tracing.Span;
+import org.wso2.msf4j.analytics.tracing.SpanExporter;
+import org.wso2.msf4j.analytics.tracing.TraceContext;
+import org.wso2.msf4j.analytics.tracing.Tracing;
 
 import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import javax.ws.rs.Path;
@@ -53,11 +59,23 @@ public class HTTPMonitoringInterceptor implements Interceptor {
 
     public HTTPMonitoringInterceptor init() {
         HTTPMonitoringDataPublisher.init();
+        Tracing.init();
         // Destroy the publisher at shutdown
         Runtime.getRuntime().addShutdownHook(new ShutdownHook());
         return this;
     }
 
+    /**
+     * Initialize the data publisher and export the spans of traced requests with the given exporter.
+     *
+     * @param spanExporter exporter to hand the spans to
+     * @return This {@link HTTPMonitoringInterceptor} instance
+     */
+    public HTTPMonitoringInterceptor init(SpanExporter spanExporter) {
+        Tracing.init(spanExporter);
+        return init();
+    }
+
     /**
      * Returns the final annotation that is application to the given method. For example,
      * the {@link HTTPMonitored} annotation can be mentioned in class level, and also in
@@ -79,8 +97,7 @@ public class HTTPMonitoringInterceptor implements Interceptor {
         if (interceptor == null) {
             HTTPMonitored httpMon = this.extractFinalAnnotation(method);
             if (httpMon != null) {
-                interceptor = new HTTPInterceptor(httpMon.tracing());
-                map.put(method, interceptor);
+                interceptor = map.computeIfAbsent(method, key -> new HTTPInterceptor(key, httpMon));
             }
         }
 
@@ -104,6 +121,7 @@ public class HTTPMonitoringInterceptor implements Interceptor {
         @Override
         public void run() {
             HTTPMonitoringDataPublisher.destroy();
+            Tracing.destroy();
         }
     }
 
@@ -119,39 +137,132 @@ public class HTTPMonitoringInterceptor implements Interceptor {
 
         private static final String PARENT_REQUEST = "parent-request";
 
-        private String serviceClass;
-        private String serviceName;
-        private String serviceMethod;
-        private String servicePath;
+        private static final String TRACE_CONTEXT = "TRACE_CONTEXT";
+
+        private static final String INBOUND_TRACE_CONTEXT = "INBOUND_TRACE_CONTEXT";
+
+        private static final String PARENT_SPAN_ID = "PARENT_SPAN_ID";
+
+        private static final long NANOS_PER_MILLI = 1_000_000L;
+
+        private final String serviceClass;
+        private final String serviceName;
+        private final String serviceMethod;
+        private final String servicePath;
 
-        private boolean tracing;
+        private final boolean tracing;
+        private final HTTPMonitoringSampler sampler;
+        private final HTTPMonitoringRouteSummary routeSummary;
 
-        private HTTPInterceptor(boolean tracing) {
-            this.tracing = tracing;
+        private HTTPInterceptor(Method method, HTTPMonitored httpMonitored) {
+            this.tracing = httpMonitored.tracing();
+            Class<?> serviceClass = method.getDeclaringClass();
+            this.serviceClass = serviceClass.getName();
+            serviceName = serviceClass.getSimpleName();
+            serviceMethod = method.getName();
+            if (serviceClass.isAnnotationPresent(Path.class)) {
+                Path path = serviceClass.getAnnotation(Path.class);
+                servicePath = path.value();
+            } else {
+                servicePath = null;
+            }
+            sampler = new HTTPMonitoringSampler(httpMonitored);
+            routeSummary = new HTTPMonitoringRouteSummary(this.serviceClass, serviceName, serviceMethod, servicePath);
+            HTTPMonitoringDataPublisher.registerRouteSummary(routeSummary);
         }
 
         boolean isTracing() {
             return tracing;
         }
 
-        private String generateTraceId() {
-            return UUID.randomUUID().toString();
-        }
-
-        private void handleTracing(Request request, HTTPMonitoringEvent httpMonitoringEvent) {
+        private void handleTracing(Request request, HTTPMonitoringEvent httpMonitoringEvent,
+                                   ServiceMethodInfo serviceMethodInfo) {
+            if (!this.isTracing()) {
+                httpMonitoringEvent.setActivityId(DEFAULT_TRACE_ID);
+                httpMonitoringEvent.setParentRequest(DEFAULT_PARENT_REQUEST);
+                return;
+            }
+            TraceContext inboundContext = TraceContext.parse(request.getHeader(TraceContext.TRACEPARENT),
+                    request.getHeader(TraceContext.TRACESTATE));
+            TraceContext traceContext;
             String traceId, parentRequest;
-            if (this.isTracing()) {
-                traceId = request.getHeader(ACTIVITY_ID);
-                if (traceId == null) {
-                    traceId = this.generateTraceId();
-                }
-                parentRequest = request.getHeader(PARENT_REQUEST);
+            if (inboundContext != null) {
+                traceContext = inboundContext.newChild();
+                traceId = traceContext.getTraceId();
+                parentRequest = inboundContext.getSpanId();
             } else {
-                traceId = DEFAULT_TRACE_ID;
-                parentRequest = DEFAULT_PARENT_REQUEST;
+                // Fall back to the legacy headers for callers which do not send a traceparent. The activity id is
+                // used as the trace id, so that the monitoring events and the spans of the request can be joined.
+                traceContext = toTraceContext(request.getHeader(ACTIVITY_ID));
+                traceId = traceContext.getTraceId();
+                parentRequest = request.getHeader(PARENT_REQUEST);
             }
             httpMonitoringEvent.setActivityId(traceId);
             httpMonitoringEvent.setParentRequest(parentRequest);
+            // Let the resource method propagate the trace to downstream services
+            request.setProperty(Tracing.TRACE_CONTEXT_PROPERTY, traceContext);
+            serviceMethodInfo.setAttribute(TRACE_CONTEXT, traceContext);
+            serviceMethodInfo.setAttribute(INBOUND_TRACE_CONTEXT, inboundContext);
+            serviceMethodInfo.setAttribute(PARENT_SPAN_ID, inboundContext != null ? parentRequest : null);
+        }
+
+        /**
+         * Start a trace from a legacy activity id. Activity ids are UUIDs, which are valid trace ids once the dashes
+         * are removed. A new trace id is used when the activity id is missing or cannot be converted.
+         */
+        private static TraceContext toTraceContext(String activityId) {
+            TraceContext traceContext = null;
+            if (activityId != null) {
+                traceContext = TraceContext.newTrace(activityId.trim().replace("-", "").toLowerCase(Locale.ENGLISH),
+                        true);
+            }
+            return traceContext != null ? traceContext : TraceContext.newTrace(true);
+        }
+
+        /**
+         * Record the server span of the request, and a child span for each phase of the request processing which
+         * ended: routing, interceptor preCalls, resource method invocation and response serialization.
+         */
+        private void recordSpans(Request request, int status, HTTPMonitoringEvent httpMonitoringEvent,
+                                 ServiceMethodInfo serviceMethodInfo) {
+            TraceContext traceContext = (TraceContext) serviceMethodInfo.getAttribute(TRACE_CONTEXT);
+            String traceId = traceContext.getTraceId();
+            String serverSpanId = traceContext.getSpanId();
+            RequestTimings timings = request.getTimings();
+            // Anchor the monotonic marks to the wall clock once per request
+            long nowNanoTime = System.nanoTime();
+            long nowEpochNanos = System.currentTimeMillis() * NANOS_PER_MILLI;
+            long receivedEpochNanos = nowEpochNanos - (nowNanoTime - timings.get(RequestTimings.Phase.RECEIVED));
+
+            Map<String, String> attributes = new HashMap<>();
+            attributes.put("http.method", httpMonitoringEvent.getHttpMethod());
+            attributes.put("http.target", httpMonitoringEvent.getRequestUri());
+            attributes.put("http.status_code", Integer.toString(status));
+            attributes.put("code.namespace", serviceClass);
+            attributes.put("code.function", serviceMethod);
+            Tracing.record(new Span(traceId, serverSpanId, (String) serviceMethodInfo.getAttribute(PARENT_SPAN_ID),
+                    serviceName + "." + serviceMethod, Span.Kind.SERVER, receivedEpochNanos, nowEpochNanos,
+                    status >= 500, attributes));
+
+            recordPhase(traceId, serverSpanId, "msf4j.routing", timings, RequestTimings.Phase.RECEIVED,
+                    RequestTimings.Phase.ROUTED, nowNanoTime, nowEpochNanos);
+            recordPhase(traceId, serverSpanId, "msf4j.interceptors", timings, RequestTimings.Phase.ROUTED,
+                    RequestTimings.Phase.PRE_CALLS_DONE, nowNanoTime, nowEpochNanos);
+            recordPhase(traceId, serverSpanId, "msf4j.invocation", timings, RequestTimings.Phase.PRE_CALLS_DONE,
+                    RequestTimings.Phase.INVOKED, nowNanoTime, nowEpochNanos);
+            recordPhase(traceId, serverSpanId, "msf4j.serialization", timings, RequestTimings.Phase.INVOKED,
+                    RequestTimings.Phase.SERIALIZED, nowNanoTime, nowEpochNanos);
+        }
+
+        private void recordPhase(String traceId, String parentSpanId, String name, RequestTimings timings,
+                                 RequestTimings.Phase start, RequestTimings.Phase end, long nowNanoTime,
+                                 long nowEpochNanos) {
+            if (!timings.isMarked(start) || !timings.isMarked(end)) {
+                return;
+            }
+            Tracing.record(new Span(traceId, Tracing.newSpanId(), parentSpanId, name,
+                    Span.Kind.INTERNAL, nowEpochNanos - (nowNanoTime - timings.get(start)),
+                    nowEpochNanos - (nowNanoTime - timings.get(end)), false, null));
         }
 
         @Override
@@ -159,17 +270,6 @@ public class HTTPMonitoringInterceptor implements Interceptor {
             HTTPMonitoringEvent httpMonitoringEvent = new HTTPMonitoringEvent();
             httpMonitoringEvent.setTimestamp(System.currentTimeMillis());
             httpMonitoringEvent.setStartNanoTime(System.nanoTime());
-            if (serviceClass == null) {
-                Method method = serviceMethodInfo.getMethod();
-                Class<?> serviceClass = method.getDeclaringClass();
-                this.serviceClass = serviceClass.getName();
-                serviceName = serviceClass.getSimpleName();
-                serviceMethod = method.getName();
-                if (serviceClass.isAnnotationPresent(Path.class)) {
-                    Path path = serviceClass.getAnnotation(Path.class);
-                    servicePath = path.value();
-                }
-            }
             httpMonitoringEvent.setServiceClass(serviceClass);
             httpMonitoringEvent.setServiceName(serviceName);
             httpMonitoringEvent.setServiceMethod(serviceMethod);
@@ -186,7 +286,7 @@ public class HTTPMonitoringInterceptor implements Interceptor {
             }
             httpMonitoringEvent.setReferrer(httpHeaders.get(REFERER));
 
-            this.handleTracing(request, httpMonitoringEvent);
+            this.handleTracing(request, httpMonitoringEvent, serviceMethodInfo);
 
             serviceMethodInfo.setAttribute(MONITORING_EVENT, httpMonitoringEvent);
 
@@ -197,10 +297,22 @@ public class HTTPMonitoringInterceptor implements Interceptor {
         public void postCall(Request request, int status, ServiceMethodInfo serviceMethodInfo) {
             HTTPMonitoringEvent httpMonitoringEvent =
                     (HTTPMonitoringEvent) serviceMethodInfo.getAttribute(MONITORING_EVENT);
-            httpMonitoringEvent.setResponseTime(
-                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - httpMonitoringEvent.getStartNanoTime()));
-            httpMonitoringEvent.setResponseHttpStatusCode(status);
-            HTTPMonitoringDataPublisher.publishEvent(httpMonitoringEvent);
+            long responseTime =
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - httpMonitoringEvent.getStartNanoTime());
+            boolean sampled = sampler.sample(status, responseTime);
+            routeSummary.record(status, responseTime, sampled);
+            if (tracing && Tracing.isEnabled()) {
+                TraceContext inboundContext = (TraceContext) serviceMethodInfo.getAttribute(INBOUND_TRACE_CONTEXT);
+                // A caller which sampled the trace expects every hop to record its spans
+                if (sampled || (inboundContext != null && inboundContext.isSampled())) {
+                    recordSpans(request, status, httpMonitoringEvent, serviceMethodInfo);
+                }
+            }
+            if (sampled) {
+                httpMonitoringEvent.setResponseTime(responseTime);
+                httpMonitoringEvent.setResponseHttpStatusCode(status);
+                HTTPMonitoringDataPublisher.publishEvent(httpMonitoringEvent);
+            }
         }
     }
 }
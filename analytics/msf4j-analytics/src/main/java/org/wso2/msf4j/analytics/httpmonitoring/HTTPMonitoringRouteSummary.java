@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.httpmonitoring;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per route counters which are aggregated on request threads and published periodically, so that totals stay
+ * accurate even when most of the raw events are dropped by sampling.
+ */
+final class HTTPMonitoringRouteSummary {
+
+    private final String serviceClass;
+    private final String serviceName;
+    private final String serviceMethod;
+    private final String serviceContext;
+
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder sampledCount = new LongAdder();
+    private final LongAdder totalResponseTime = new LongAdder();
+    private final LongAccumulator maxResponseTime = new LongAccumulator(Math::max, 0);
+
+    HTTPMonitoringRouteSummary(String serviceClass, String serviceName, String serviceMethod, String serviceContext) {
+        this.serviceClass = serviceClass;
+        this.serviceName = serviceName;
+        this.serviceMethod = serviceMethod;
+        this.serviceContext = serviceContext;
+    }
+
+    void record(int status, long responseTime, boolean sampled) {
+        requestCount.increment();
+        if (status >= 500) {
+            errorCount.increment();
+        }
+        if (sampled) {
+            sampledCount.increment();
+        }
+        totalResponseTime.add(responseTime);
+        maxResponseTime.accumulate(responseTime);
+    }
+
+    String getServiceClass() {
+        return serviceClass;
+    }
+
+    String getServiceName() {
+        return serviceName;
+    }
+
+    String getServiceMethod() {
+        return serviceMethod;
+    }
+
+    String getServiceContext() {
+        return serviceContext;
+    }
+
+    long resetRequestCount() {
+        return requestCount.sumThenReset();
+    }
+
+    long resetErrorCount() {
+        return errorCount.sumThenReset();
+    }
+
+    long resetSampledCount() {
+        return sampledCount.sumThenReset();
+    }
+
+    long resetTotalResponseTime() {
+        return totalResponseTime.sumThenReset();
+    }
+
+    long resetMaxResponseTime() {
+        return maxResponseTime.getThenReset();
+    }
+}
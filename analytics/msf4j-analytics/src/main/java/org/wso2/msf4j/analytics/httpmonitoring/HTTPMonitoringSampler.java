@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.httpmonitoring;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether the event of a completed request should be published. The decision is made after the request is
+ * served, so errors and slow requests can always be kept even when most of the events are dropped.
+ */
+final class HTTPMonitoringSampler {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SamplingMode samplingMode;
+    private final double samplingRate;
+    private final int maxEventsPerSecond;
+    private final boolean keepErrors;
+    private final long slowRequestThresholdMillis;
+
+    private final AtomicLong currentSecond = new AtomicLong(System.nanoTime() / NANOS_PER_SECOND);
+    private final AtomicInteger requestsInSecond = new AtomicInteger();
+    private final AtomicInteger eventsInSecond = new AtomicInteger();
+    private volatile double adaptiveRate = 1.0;
+
+    HTTPMonitoringSampler(HTTPMonitored httpMonitored) {
+        this(httpMonitored.sampling(), httpMonitored.samplingRate(), httpMonitored.maxEventsPerSecond(),
+                httpMonitored.keepErrors(), httpMonitored.slowRequestThresholdMillis());
+    }
+
+    HTTPMonitoringSampler(SamplingMode samplingMode, double samplingRate, int maxEventsPerSecond, boolean keepErrors,
+                          long slowRequestThresholdMillis) {
+        if (samplingRate < 0 || samplingRate > 1) {
+            throw new IllegalArgumentException("Sampling rate should be between 0 and 1");
+        }
+        if (maxEventsPerSecond < 0) {
+            throw new IllegalArgumentException("Maximum events per second cannot be negative");
+        }
+        this.samplingMode = samplingMode;
+        this.samplingRate = samplingRate;
+        this.maxEventsPerSecond = maxEventsPerSecond;
+        this.keepErrors = keepErrors;
+        this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+    }
+
+    /**
+     * @param status       HTTP status code of the response
+     * @param responseTime response time in milliseconds
+     * @return true if the event should be published
+     */
+    boolean sample(int status, long responseTime) {
+        if (keepErrors && status >= 500) {
+            return true;
+        }
+        if (slowRequestThresholdMillis >= 0 && responseTime >= slowRequestThresholdMillis) {
+            return true;
+        }
+        switch (samplingMode) {
+            case FIXED_RATE:
+                return samplingRate >= 1 || ThreadLocalRandom.current().nextDouble() < samplingRate;
+            case RATE_LIMITED:
+                return sampleRateLimited();
+            default:
+                return true;
+        }
+    }
+
+    private boolean sampleRateLimited() {
+        long second = System.nanoTime() / NANOS_PER_SECOND;
+        long previousSecond = currentSecond.get();
+        if (second != previousSecond && currentSecond.compareAndSet(previousSecond, second)) {
+            // Adapt the sampling rate to the request rate of the second that just ended, so that sampled events
+            // are spread over the whole second instead of taking the first requests of every second.
+            int requests = requestsInSecond.getAndSet(0);
+            eventsInSecond.set(0);
+            adaptiveRate = requests <= maxEventsPerSecond ? 1.0 : (double) maxEventsPerSecond / requests;
+        }
+        requestsInSecond.incrementAndGet();
+        double rate = adaptiveRate;
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return false;
+        }
+        return eventsInSecond.incrementAndGet() <= maxEventsPerSecond;
+    }
+}
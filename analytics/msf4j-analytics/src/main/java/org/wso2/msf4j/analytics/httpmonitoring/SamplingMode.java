@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.httpmonitoring;
+
+/**
+ * Sampling modes of the HTTP monitoring events.
+ */
+public enum SamplingMode {
+
+    /**
+     * Publish an event for every request.
+     */
+    ALL,
+
+    /**
+     * Publish a fixed fraction of the requests, given by {@link HTTPMonitored#samplingRate()}.
+     */
+    FIXED_RATE,
+
+    /**
+     * Publish at most {@link HTTPMonitored#maxEventsPerSecond()} events per second for each route. The sampling
+     * probability adapts to the request rate observed in the previous second.
+     */
+    RATE_LIMITED
+}
@@ -22,7 +22,7 @@ import org.wso2.carbon.kernel.startupresolver.CapabilityProvider;
 
 /**
  * This class signals Startup Order Resolver module in kernel that this bundle provides
- * two services of type {@code Interceptor}
+ * three services of type {@code Interceptor}
  */
 @Component(
         name = "org.wso2.msf4j.analytics.internal.InterceptorCapabilityProvider",
@@ -34,9 +34,10 @@ public class InterceptorCapabilityProvider implements CapabilityProvider {
     /**
      * Returns the count of {@code Interceptor} OSGi services registered by this bundle.
      * <p>
-     * This bundle registers two Interceptors
+     * This bundle registers three Interceptors
      * 1. {@code HTTPMonitoringInterceptor}
      * 2. {@code MetricsInterceptor}
+     * 3. {@code RouteLatencyInterceptor}
      *
      * But here we return count as one, due to a bug in the startup launcher in Kernel.
      *
@@ -44,6 +45,6 @@ public class InterceptorCapabilityProvider implements CapabilityProvider {
      */
     @Override
     public int getCount() {
-        return 2;
+        return 3;
     }
 }
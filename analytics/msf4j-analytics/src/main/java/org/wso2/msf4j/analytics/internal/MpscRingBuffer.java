@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free, multi producer single consumer ring buffer.
+ * <p>
+ * Each slot carries a sequence number. A producer claims a slot by advancing the producer index with a CAS and
+ * publishes the element by moving the slot sequence forward. The single consumer only reads slots whose sequence
+ * shows a published element, so {@link #poll()} must only ever be called from one thread.
+ *
+ * @param <E> type of the elements
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile long consumerIndex;
+
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity <= 0) {
+            throw new IllegalArgumentException("Capacity should be a positive value");
+        }
+        capacity = requestedCapacity == 1 ? 1 : Integer.highestOneBit(requestedCapacity - 1) << 1;
+        mask = capacity - 1;
+        elements = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element to the buffer.
+     *
+     * @param element element to add
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long index;
+        int slot;
+        while (true) {
+            index = producerIndex.get();
+            slot = (int) index & mask;
+            long difference = sequences.get(slot) - index;
+            if (difference == 0) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+        elements.lazySet(slot, element);
+        sequences.set(slot, index + 1);
+        return true;
+    }
+
+    /**
+     * Remove the oldest element in the buffer. Must only be called by the single consumer thread.
+     *
+     * @return the element or null if the buffer is empty
+     */
+    public E poll() {
+        long index = consumerIndex;
+        int slot = (int) index & mask;
+        if (sequences.get(slot) != index + 1) {
+            return null;
+        }
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.lazySet(slot, index + capacity);
+        consumerIndex = index + 1;
+        return element;
+    }
+
+    /**
+     * @return approximate number of elements in the buffer
+     */
+    public int size() {
+        long size = producerIndex.get() - consumerIndex;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
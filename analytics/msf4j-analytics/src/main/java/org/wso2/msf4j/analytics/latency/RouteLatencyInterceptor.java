@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.latency;
+
+import org.osgi.service.component.annotations.Component;
+import org.wso2.msf4j.Interceptor;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.ServiceMethodInfo;
+
+import javax.ws.rs.core.HttpHeaders;
+
+/**
+ * Records the latency, status code, and request/response sizes of every resource method call, without requiring
+ * any annotations on the resource methods.
+ */
+@Component(
+        name = "org.wso2.msf4j.analytics.latency.RouteLatencyInterceptor",
+        service = Interceptor.class,
+        immediate = true)
+public class RouteLatencyInterceptor implements Interceptor {
+
+    private static final String START_NANO_TIME = "ROUTE_LATENCY_START_NANO_TIME";
+    private static final String RESPONDER = "ROUTE_LATENCY_RESPONDER";
+
+    private final RouteLatencyRegistry registry;
+
+    public RouteLatencyInterceptor() {
+        this(RouteLatencyRegistry.getInstance());
+    }
+
+    public RouteLatencyInterceptor(RouteLatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public boolean preCall(Request request, Response responder, ServiceMethodInfo serviceMethodInfo) {
+        serviceMethodInfo.setAttribute(START_NANO_TIME, System.nanoTime());
+        serviceMethodInfo.setAttribute(RESPONDER, responder);
+        return true;
+    }
+
+    @Override
+    public void postCall(Request request, int status, ServiceMethodInfo serviceMethodInfo) {
+        Long startNanoTime = (Long) serviceMethodInfo.getAttribute(START_NANO_TIME);
+        if (startNanoTime == null) {
+            return;
+        }
+        Response responder = (Response) serviceMethodInfo.getAttribute(RESPONDER);
+        registry.getRecorder(serviceMethodInfo.getMethod()).record(System.nanoTime() - startNanoTime, status,
+                contentLength(request.getHeader(HttpHeaders.CONTENT_LENGTH)),
+                responder != null ? contentLength(responder.getHeader(HttpHeaders.CONTENT_LENGTH)) : -1);
+    }
+
+    private static long contentLength(String header) {
+        if (header == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
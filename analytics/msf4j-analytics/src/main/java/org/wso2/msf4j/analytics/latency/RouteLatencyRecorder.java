@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters of a single route. Recording a request does not allocate, and does not block
+ * readers or other writers.
+ */
+public final class RouteLatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int MAX_STATUS_CODE = 599;
+
+    private final String service;
+    private final String javaMethod;
+    private final String httpMethod;
+    private final String path;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final AtomicLongArray statusCounts = new AtomicLongArray(MAX_STATUS_CODE + 1);
+    private final LongAdder requestBytes = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder totalLatencyMicros = new LongAdder();
+
+    // Guarded by this. Only touched when a snapshot is taken.
+    private final Histogram cumulativeHistogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram intervalHistogram;
+
+    RouteLatencyRecorder(String service, String javaMethod, String httpMethod, String path) {
+        this.service = service;
+        this.javaMethod = javaMethod;
+        this.httpMethod = httpMethod;
+        this.path = path;
+    }
+
+    /**
+     * Record a completed request.
+     *
+     * @param latencyNanos  time taken to serve the request in nanoseconds
+     * @param status        HTTP status code of the response
+     * @param requestBytes  size of the request body, or a negative value if not known
+     * @param responseBytes size of the response body, or a negative value if not known
+     */
+    public void record(long latencyNanos, int status, long requestBytes, long responseBytes) {
+        long latencyMicros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 0),
+                HIGHEST_TRACKABLE_MICROS);
+        recorder.recordValue(latencyMicros);
+        totalLatencyMicros.add(latencyMicros);
+        statusCounts.incrementAndGet(status >= 0 && status <= MAX_STATUS_CODE ? status : 0);
+        if (requestBytes > 0) {
+            this.requestBytes.add(requestBytes);
+        }
+        if (responseBytes > 0) {
+            this.responseBytes.add(responseBytes);
+        }
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getJavaMethod() {
+        return javaMethod;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return a consistent view of the latency percentiles and counters recorded since the route was first called
+     */
+    public synchronized RouteLatencySnapshot snapshot() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        cumulativeHistogram.add(intervalHistogram);
+        Map<Integer, Long> statusCodes = new LinkedHashMap<>();
+        for (int i = 0; i <= MAX_STATUS_CODE; i++) {
+            long count = statusCounts.get(i);
+            if (count > 0) {
+                statusCodes.put(i, count);
+            }
+        }
+        return new RouteLatencySnapshot(this, cumulativeHistogram, statusCodes, totalLatencyMicros.sum(),
+                requestBytes.sum(), responseBytes.sum());
+    }
+}
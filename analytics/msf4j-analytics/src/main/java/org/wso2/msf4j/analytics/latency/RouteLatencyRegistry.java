@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.latency;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+
+/**
+ * Holds a {@link RouteLatencyRecorder} per resource method.
+ */
+public final class RouteLatencyRegistry {
+
+    private static final RouteLatencyRegistry instance = new RouteLatencyRegistry();
+
+    private final Map<Method, RouteLatencyRecorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * @return the registry shared by the {@link RouteLatencyInterceptor} and {@link RouteLatencyService} instances
+     * created with their default constructors
+     */
+    public static RouteLatencyRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Get the recorder of a resource method, creating it on the first call.
+     *
+     * @param method resource method
+     * @return recorder of the route
+     */
+    public RouteLatencyRecorder getRecorder(Method method) {
+        RouteLatencyRecorder recorder = recorders.get(method);
+        if (recorder == null) {
+            recorder = recorders.computeIfAbsent(method, RouteLatencyRegistry::createRecorder);
+        }
+        return recorder;
+    }
+
+    public Collection<RouteLatencyRecorder> getRecorders() {
+        return Collections.unmodifiableCollection(recorders.values());
+    }
+
+    public List<RouteLatencySnapshot> snapshots() {
+        return recorders.values().stream().map(RouteLatencyRecorder::snapshot).collect(Collectors.toList());
+    }
+
+    private static RouteLatencyRecorder createRecorder(Method method) {
+        Class<?> serviceClass = method.getDeclaringClass();
+        String httpMethod = null;
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethodAnnotation = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethodAnnotation != null) {
+                httpMethod = httpMethodAnnotation.value();
+                break;
+            }
+        }
+        return new RouteLatencyRecorder(serviceClass.getName(), method.getName(), httpMethod,
+                joinPaths(serviceClass.getAnnotation(Path.class), method.getAnnotation(Path.class)));
+    }
+
+    private static String joinPaths(Path classPath, Path methodPath) {
+        String path = classPath != null ? classPath.value() : "";
+        if (methodPath != null) {
+            String subPath = methodPath.value();
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            path = subPath.startsWith("/") ? path + subPath : path + "/" + subPath;
+        }
+        return path.isEmpty() ? "/" : path;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.latency;
+
+import org.osgi.service.component.annotations.Component;
+import org.wso2.msf4j.Microservice;
+import org.wso2.msf4j.analytics.metrics.PrometheusFormat;
+
+import java.util.List;
+import java.util.Map;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Exposes the per route latency percentiles and counters collected by {@link RouteLatencyInterceptor} as JSON and
+ * in the Prometheus text exposition format. Latencies are in microseconds in the JSON output and in seconds in the
+ * Prometheus output.
+ */
+@Component(
+        name = "org.wso2.msf4j.analytics.latency.RouteLatencyService",
+        service = Microservice.class,
+        immediate = true)
+@Path("/route-latency")
+public class RouteLatencyService implements Microservice {
+
+    private static final double MICROS_PER_SECOND = 1_000_000d;
+    private static final String[] QUANTILES = {"0.5", "0.9", "0.99", "0.999"};
+
+    private final RouteLatencyRegistry registry;
+
+    public RouteLatencyService() {
+        this(RouteLatencyRegistry.getInstance());
+    }
+
+    public RouteLatencyService(RouteLatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<RouteLatencySnapshot> getRouteLatency() {
+        return registry.snapshots();
+    }
+
+    @GET
+    @Path("/prometheus")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String getPrometheusRouteLatency() {
+        StringBuilder builder = new StringBuilder(1024);
+        writePrometheus(registry.snapshots(), builder);
+        return builder.toString();
+    }
+
+    /**
+     * Write the given snapshots in the Prometheus text exposition format.
+     *
+     * @param snapshots route snapshots
+     * @param builder   target to write to
+     */
+    public static void writePrometheus(List<RouteLatencySnapshot> snapshots, StringBuilder builder) {
+        PrometheusFormat.appendHeader(builder, "msf4j_route_latency_seconds", "summary",
+                "Latency of the resource methods.");
+        for (RouteLatencySnapshot snapshot : snapshots) {
+            long[] values = {snapshot.getP50(), snapshot.getP90(), snapshot.getP99(), snapshot.getP999()};
+            for (int i = 0; i < QUANTILES.length; i++) {
+                builder.append("msf4j_route_latency_seconds");
+                appendLabels(builder, snapshot).append(",quantile=\"").append(QUANTILES[i]).append("\"} ")
+                        .append(values[i] / MICROS_PER_SECOND).append('\n');
+            }
+            builder.append("msf4j_route_latency_seconds_sum");
+            appendLabels(builder, snapshot).append("} ").append(snapshot.getSum() / MICROS_PER_SECOND).append('\n');
+            builder.append("msf4j_route_latency_seconds_count");
+            appendLabels(builder, snapshot).append("} ").append(snapshot.getCount()).append('\n');
+        }
+
+        PrometheusFormat.appendHeader(builder, "msf4j_route_responses_total", "counter",
+                "Responses of the resource methods by status code.");
+        for (RouteLatencySnapshot snapshot : snapshots) {
+            for (Map.Entry<Integer, Long> entry : snapshot.getStatusCodes().entrySet()) {
+                builder.append("msf4j_route_responses_total");
+                appendLabels(builder, snapshot).append(",status=\"").append(entry.getKey()).append("\"} ")
+                        .append(entry.getValue()).append('\n');
+            }
+        }
+
+        PrometheusFormat.appendHeader(builder, "msf4j_route_request_bytes_total", "counter",
+                "Request body bytes received by the resource methods.");
+        for (RouteLatencySnapshot snapshot : snapshots) {
+            builder.append("msf4j_route_request_bytes_total");
+            appendLabels(builder, snapshot).append("} ").append(snapshot.getRequestBytes()).append('\n');
+        }
+
+        PrometheusFormat.appendHeader(builder, "msf4j_route_response_bytes_total", "counter",
+                "Response body bytes sent by the resource methods.");
+        for (RouteLatencySnapshot snapshot : snapshots) {
+            builder.append("msf4j_route_response_bytes_total");
+            appendLabels(builder, snapshot).append("} ").append(snapshot.getResponseBytes()).append('\n');
+        }
+    }
+
+    private static StringBuilder appendLabels(StringBuilder builder, RouteLatencySnapshot snapshot) {
+        builder.append("{service=\"");
+        PrometheusFormat.appendLabelValue(builder, snapshot.getService()).append("\",method=\"");
+        PrometheusFormat.appendLabelValue(builder, snapshot.getJavaMethod()).append("\",http_method=\"");
+        PrometheusFormat.appendLabelValue(builder, snapshot.getHttpMethod()).append("\",path=\"");
+        return PrometheusFormat.appendLabelValue(builder, snapshot.getPath()).append('"');
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.latency;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * Point in time view of a {@link RouteLatencyRecorder}. Latencies are in microseconds.
+ */
+public final class RouteLatencySnapshot {
+
+    private final String service;
+    private final String javaMethod;
+    private final String httpMethod;
+    private final String path;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final Map<Integer, Long> statusCodes;
+    private final long requestBytes;
+    private final long responseBytes;
+
+    RouteLatencySnapshot(RouteLatencyRecorder recorder, Histogram histogram, Map<Integer, Long> statusCodes,
+                         long sum, long requestBytes, long responseBytes) {
+        this.service = recorder.getService();
+        this.javaMethod = recorder.getJavaMethod();
+        this.httpMethod = recorder.getHttpMethod();
+        this.path = recorder.getPath();
+        this.count = histogram.getTotalCount();
+        this.sum = sum;
+        this.min = count == 0 ? 0 : histogram.getMinValue();
+        this.max = histogram.getMaxValue();
+        this.mean = histogram.getMean();
+        this.p50 = histogram.getValueAtPercentile(50);
+        this.p90 = histogram.getValueAtPercentile(90);
+        this.p99 = histogram.getValueAtPercentile(99);
+        this.p999 = histogram.getValueAtPercentile(99.9);
+        this.statusCodes = statusCodes;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+    }
+
+    public String getService() {
+        return service;
+    }
+
+    public String getJavaMethod() {
+        return javaMethod;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public Map<Integer, Long> getStatusCodes() {
+        return statusCodes;
+    }
+
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.metrics;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+/**
+ * Renders JVM memory, GC, buffer pool, thread and class loading gauges in the Prometheus text exposition format.
+ * The platform MXBeans are read directly, which is much cheaper than going through JMX attribute lookups.
+ */
+final class JvmMetrics {
+
+    private static final double MILLIS_PER_SECOND = 1000d;
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private final List<MemoryPoolMXBean> memoryPoolMXBeans = ManagementFactory.getMemoryPoolMXBeans();
+    private final List<GarbageCollectorMXBean> garbageCollectorMXBeans =
+            ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<BufferPoolMXBean> bufferPoolMXBeans =
+            ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final ClassLoadingMXBean classLoadingMXBean = ManagementFactory.getClassLoadingMXBean();
+    private final RuntimeMXBean runtimeMXBean = ManagementFactory.getRuntimeMXBean();
+
+    void write(StringBuilder builder) {
+        MemoryUsage heap = memoryMXBean.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memoryMXBean.getNonHeapMemoryUsage();
+        PrometheusFormat.appendHeader(builder, "jvm_memory_bytes_used", "gauge", "Used bytes of a JVM memory area.");
+        appendArea(builder, "jvm_memory_bytes_used", "heap", heap.getUsed());
+        appendArea(builder, "jvm_memory_bytes_used", "nonheap", nonHeap.getUsed());
+        PrometheusFormat.appendHeader(builder, "jvm_memory_bytes_committed", "gauge",
+                "Committed bytes of a JVM memory area.");
+        appendArea(builder, "jvm_memory_bytes_committed", "heap", heap.getCommitted());
+        appendArea(builder, "jvm_memory_bytes_committed", "nonheap", nonHeap.getCommitted());
+        PrometheusFormat.appendHeader(builder, "jvm_memory_bytes_max", "gauge", "Max bytes of a JVM memory area.");
+        appendArea(builder, "jvm_memory_bytes_max", "heap", heap.getMax());
+        appendArea(builder, "jvm_memory_bytes_max", "nonheap", nonHeap.getMax());
+
+        PrometheusFormat.appendHeader(builder, "jvm_memory_pool_bytes_used", "gauge",
+                "Used bytes of a JVM memory pool.");
+        for (MemoryPoolMXBean memoryPoolMXBean : memoryPoolMXBeans) {
+            MemoryUsage usage = memoryPoolMXBean.getUsage();
+            if (usage != null) {
+                builder.append("jvm_memory_pool_bytes_used{pool=\"");
+                PrometheusFormat.appendLabelValue(builder, memoryPoolMXBean.getName()).append("\"} ")
+                        .append(usage.getUsed()).append('\n');
+            }
+        }
+
+        PrometheusFormat.appendHeader(builder, "jvm_gc_collection_seconds_count", "counter",
+                "Number of collections of a garbage collector.");
+        for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans) {
+            appendGc(builder, "jvm_gc_collection_seconds_count", garbageCollectorMXBean.getName())
+                    .append(garbageCollectorMXBean.getCollectionCount()).append('\n');
+        }
+        PrometheusFormat.appendHeader(builder, "jvm_gc_collection_seconds_sum", "counter",
+                "Time spent in a garbage collector.");
+        for (GarbageCollectorMXBean garbageCollectorMXBean : garbageCollectorMXBeans) {
+            appendGc(builder, "jvm_gc_collection_seconds_sum", garbageCollectorMXBean.getName())
+                    .append(garbageCollectorMXBean.getCollectionTime() / MILLIS_PER_SECOND).append('\n');
+        }
+
+        PrometheusFormat.appendHeader(builder, "jvm_buffer_pool_used_bytes", "gauge",
+                "Used bytes of a JVM buffer pool.");
+        for (BufferPoolMXBean bufferPoolMXBean : bufferPoolMXBeans) {
+            appendPool(builder, "jvm_buffer_pool_used_bytes", bufferPoolMXBean.getName())
+                    .append(bufferPoolMXBean.getMemoryUsed()).append('\n');
+        }
+        PrometheusFormat.appendHeader(builder, "jvm_buffer_pool_capacity_bytes", "gauge",
+                "Capacity in bytes of a JVM buffer pool.");
+        for (BufferPoolMXBean bufferPoolMXBean : bufferPoolMXBeans) {
+            appendPool(builder, "jvm_buffer_pool_capacity_bytes", bufferPoolMXBean.getName())
+                    .append(bufferPoolMXBean.getTotalCapacity()).append('\n');
+        }
+        PrometheusFormat.appendHeader(builder, "jvm_buffer_pool_used_buffers", "gauge",
+                "Number of buffers in a JVM buffer pool.");
+        for (BufferPoolMXBean bufferPoolMXBean : bufferPoolMXBeans) {
+            appendPool(builder, "jvm_buffer_pool_used_buffers", bufferPoolMXBean.getName())
+                    .append(bufferPoolMXBean.getCount()).append('\n');
+        }
+
+        PrometheusFormat.appendHeader(builder, "jvm_threads_current", "gauge", "Current thread count of the JVM.");
+        builder.append("jvm_threads_current ").append(threadMXBean.getThreadCount()).append('\n');
+        PrometheusFormat.appendHeader(builder, "jvm_threads_daemon", "gauge", "Daemon thread count of the JVM.");
+        builder.append("jvm_threads_daemon ").append(threadMXBean.getDaemonThreadCount()).append('\n');
+        PrometheusFormat.appendHeader(builder, "jvm_classes_loaded", "gauge",
+                "Number of classes currently loaded in the JVM.");
+        builder.append("jvm_classes_loaded ").append(classLoadingMXBean.getLoadedClassCount()).append('\n');
+        PrometheusFormat.appendHeader(builder, "jvm_uptime_seconds", "gauge", "Uptime of the JVM.");
+        builder.append("jvm_uptime_seconds ").append(runtimeMXBean.getUptime() / MILLIS_PER_SECOND).append('\n');
+    }
+
+    private static void appendArea(StringBuilder builder, String name, String area, long value) {
+        builder.append(name).append("{area=\"").append(area).append("\"} ").append(value).append('\n');
+    }
+
+    private static StringBuilder appendGc(StringBuilder builder, String name, String gc) {
+        builder.append(name).append("{gc=\"");
+        return PrometheusFormat.appendLabelValue(builder, gc).append("\"} ");
+    }
+
+    private static StringBuilder appendPool(StringBuilder builder, String name, String pool) {
+        builder.append(name).append("{pool=\"");
+        return PrometheusFormat.appendLabelValue(builder, pool).append("\"} ");
+    }
+}
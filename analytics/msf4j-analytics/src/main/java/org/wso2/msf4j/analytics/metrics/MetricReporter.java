@@ -19,5 +19,5 @@ package org.wso2.msf4j.analytics.metrics;
  * Metric Reporter Types.
  */
 public enum MetricReporter {
-    CONSOLE, JMX, DAS
+    CONSOLE, JMX, DAS, PROMETHEUS
 }
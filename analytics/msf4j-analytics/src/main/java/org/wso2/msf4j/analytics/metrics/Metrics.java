@@ -36,6 +36,8 @@ public final class Metrics {
 
     private static MetricService metricService;
 
+    private static volatile boolean prometheusEnabled;
+
     private Metrics() {
     }
 
@@ -74,6 +76,10 @@ public final class Metrics {
                 builder.addReporterBuilder(
                         new JmxReporterBuilder().setEnabled(true).configure(metricsEnvConfiguration));
                 break;
+            case PROMETHEUS:
+                // Rendered on demand by PrometheusMetricsService, there is no carbon reporter to schedule
+                prometheusEnabled = true;
+                break;
             default:
                 break;
 
@@ -90,7 +96,15 @@ public final class Metrics {
             metricService.disable();
             metricService = null;
         }
+        prometheusEnabled = false;
         ServiceReferenceHolder.getInstance().setMetricService(null);
     }
 
+    /**
+     * @return true if the {@link MetricReporter#PROMETHEUS} reporter was requested at initialization
+     */
+    public static boolean isPrometheusEnabled() {
+        return prometheusEnabled;
+    }
+
 }
@@ -15,16 +15,20 @@
  */
 package org.wso2.msf4j.analytics.metrics;
 
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.wso2.carbon.kernel.utils.Utils;
+import org.wso2.msf4j.Microservice;
 import org.wso2.msf4j.util.SystemVariableUtil;
 
 import java.io.File;
 
 /**
- * Metrics OSGi Component to Initialize/Destroy Metrics.
+ * Metrics OSGi Component to Initialize/Destroy Metrics. When the Prometheus reporter is enabled, the
+ * {@link PrometheusMetricsService} is registered as a microservice as well.
  */
 @Component(
     name = "org.wso2.msf4j.analytics.metrics.MetricsComponent",
@@ -33,20 +37,34 @@ public class MetricsComponent {
 
     private static final String METRICS_ENABLED = "METRICS_ENABLED";
     private static final String METRICS_REPORTING_DAS_DATAAGENTCONFIGPATH = "METRICS_REPORTING_DAS_DATAAGENTCONFIGPATH";
+    private static final String METRICS_REPORTING_PROMETHEUS_ENABLED = "METRICS_REPORTING_PROMETHEUS_ENABLED";
+
+    private ServiceRegistration<Microservice> prometheusRegistration;
 
     @Activate
-    protected void init() {
+    protected void init(BundleContext bundleContext) {
         if (Boolean.parseBoolean(SystemVariableUtil.getValue(METRICS_ENABLED, Boolean.FALSE.toString()))) {
             String dataAgentConfigPath =
                     SystemVariableUtil.getValue(METRICS_REPORTING_DAS_DATAAGENTCONFIGPATH, Utils.getCarbonConfigHome()
                             + File.separator + "data-bridge" + File.separator + "data-agent-conf.xml");
             System.setProperty(METRICS_REPORTING_DAS_DATAAGENTCONFIGPATH, dataAgentConfigPath);
-            Metrics.init(MetricReporter.JMX, MetricReporter.DAS);
+            if (Boolean.parseBoolean(
+                    SystemVariableUtil.getValue(METRICS_REPORTING_PROMETHEUS_ENABLED, Boolean.FALSE.toString()))) {
+                Metrics.init(MetricReporter.JMX, MetricReporter.DAS, MetricReporter.PROMETHEUS);
+                prometheusRegistration = bundleContext.registerService(Microservice.class,
+                        new PrometheusMetricsService(), null);
+            } else {
+                Metrics.init(MetricReporter.JMX, MetricReporter.DAS);
+            }
         }
     }
 
     @Deactivate
     protected void destroy() {
+        if (prometheusRegistration != null) {
+            prometheusRegistration.unregister();
+            prometheusRegistration = null;
+        }
         if (Boolean.parseBoolean(SystemVariableUtil.getValue(METRICS_ENABLED, Boolean.FALSE.toString()))) {
             Metrics.destroy();
         }
@@ -80,7 +80,9 @@ public class MetricsInterceptor implements Interceptor {
                 String name = buildName(annotation.name(), annotation.absolute(), method);
                 Level level = annotation.level();
                 Timer timer = MetricManager.timer(toLevel(level), name);
-                Interceptor interceptor = new TimerInterceptor(timer);
+                PrometheusTimer prometheusTimer = Metrics.isPrometheusEnabled() ?
+                        PrometheusMetricsRegistry.getInstance().registerTimer(name) : null;
+                Interceptor interceptor = new TimerInterceptor(timer, prometheusTimer);
                 interceptors = new HashSet<>();
                 interceptors.add(interceptor);
             }
@@ -90,6 +92,9 @@ public class MetricsInterceptor implements Interceptor {
                 String name = buildName(annotation.name(), annotation.absolute(), method);
                 Level level = annotation.level();
                 Meter meter = MetricManager.meter(toLevel(level), name);
+                if (Metrics.isPrometheusEnabled()) {
+                    PrometheusMetricsRegistry.getInstance().registerMeter(name, meter);
+                }
                 Interceptor interceptor = new MeterInterceptor(meter);
                 if (interceptors == null) {
                     interceptors = new HashSet<>();
@@ -102,6 +107,9 @@ public class MetricsInterceptor implements Interceptor {
                 String name = buildName(annotation.name(), annotation.absolute(), method);
                 Level level = annotation.level();
                 Counter counter = MetricManager.counter(toLevel(level), name);
+                if (Metrics.isPrometheusEnabled()) {
+                    PrometheusMetricsRegistry.getInstance().registerCounter(name, counter);
+                }
                 Interceptor interceptor = new CounterInterceptor(counter, annotation.monotonic());
                 if (interceptors == null) {
                     interceptors = new HashSet<>();
@@ -163,17 +171,23 @@ public class MetricsInterceptor implements Interceptor {
     private static class TimerInterceptor implements Interceptor {
 
         private final Timer timer;
+        private final PrometheusTimer prometheusTimer;
 
         private static final String TIMER_CONTEXT = "TIMER_CONTEXT";
+        private static final String TIMER_START_NANO_TIME = "TIMER_START_NANO_TIME";
 
-        private TimerInterceptor(Timer timer) {
+        private TimerInterceptor(Timer timer, PrometheusTimer prometheusTimer) {
             this.timer = timer;
+            this.prometheusTimer = prometheusTimer;
         }
 
         @Override
         public boolean preCall(Request request, Response responder, ServiceMethodInfo serviceMethodInfo) {
             Context context = timer.start();
             serviceMethodInfo.setAttribute(TIMER_CONTEXT, context);
+            if (prometheusTimer != null) {
+                serviceMethodInfo.setAttribute(TIMER_START_NANO_TIME, System.nanoTime());
+            }
             return true;
         }
 
@@ -181,6 +195,10 @@ public class MetricsInterceptor implements Interceptor {
         public void postCall(Request request, int status, ServiceMethodInfo serviceMethodInfo) {
             Context context = (Context) serviceMethodInfo.getAttribute(TIMER_CONTEXT);
             context.stop();
+            if (prometheusTimer != null) {
+                long startTime = (long) serviceMethodInfo.getAttribute(TIMER_START_NANO_TIME);
+                prometheusTimer.update(System.nanoTime() - startTime);
+            }
         }
     }
 
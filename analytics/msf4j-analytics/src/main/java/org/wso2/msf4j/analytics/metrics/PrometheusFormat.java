@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.metrics;
+
+/**
+ * Helpers to write the Prometheus text exposition format.
+ */
+public final class PrometheusFormat {
+
+    /**
+     * Content type of the Prometheus text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusFormat() {
+    }
+
+    /**
+     * Append a metric name, replacing the characters which are not allowed in Prometheus metric names with '_'. A
+     * name which starts with a digit is prefixed with '_'.
+     *
+     * @param builder target to append to
+     * @param name    metric name
+     * @return the builder
+     */
+    public static StringBuilder appendName(StringBuilder builder, String name) {
+        if (!name.isEmpty() && name.charAt(0) >= '0' && name.charAt(0) <= '9') {
+            builder.append('_');
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':' ||
+                    (c >= '0' && c <= '9');
+            builder.append(valid ? c : '_');
+        }
+        return builder;
+    }
+
+    /**
+     * Append a label value, escaping backslashes, double quotes and line feeds.
+     *
+     * @param builder target to append to
+     * @param value   label value, null is written as an empty value
+     * @return the builder
+     */
+    public static StringBuilder appendLabelValue(StringBuilder builder, String value) {
+        if (value == null) {
+            return builder;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Append the HELP and TYPE lines of a metric family. Backslashes and line feeds in the help text are escaped.
+     *
+     * @param builder target to append to
+     * @param name    metric family name
+     * @param type    metric type (counter, gauge, summary, untyped)
+     * @param help    help text
+     * @return the builder
+     */
+    public static StringBuilder appendHeader(StringBuilder builder, String name, String type, String help) {
+        builder.append("# HELP ");
+        appendName(builder, name).append(' ');
+        for (int i = 0; i < help.length(); i++) {
+            char c = help.charAt(i);
+            switch (c) {
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                default:
+                    builder.append(c);
+            }
+        }
+        builder.append('\n');
+        builder.append("# TYPE ");
+        return appendName(builder, name).append(' ').append(type).append('\n');
+    }
+}
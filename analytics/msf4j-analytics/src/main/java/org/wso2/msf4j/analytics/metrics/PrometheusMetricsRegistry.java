@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.wso2.carbon.metrics.manager.Counter;
+import org.wso2.carbon.metrics.manager.Meter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps track of the metrics created by {@link MetricsInterceptor} when the {@link MetricReporter#PROMETHEUS}
+ * reporter is enabled, and renders them in the Prometheus text exposition format.
+ */
+public final class PrometheusMetricsRegistry {
+
+    private static final double MICROS_PER_SECOND = 1_000_000d;
+    private static final double[] QUANTILES = {0.5, 0.75, 0.95, 0.98, 0.99, 0.999};
+
+    private static final PrometheusMetricsRegistry instance = new PrometheusMetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Meter> meters = new ConcurrentSkipListMap<>();
+    private final Map<String, PrometheusTimer> timers = new ConcurrentSkipListMap<>();
+
+    private PrometheusMetricsRegistry() {
+    }
+
+    public static PrometheusMetricsRegistry getInstance() {
+        return instance;
+    }
+
+    void registerCounter(String name, Counter counter) {
+        counters.put(name, counter);
+    }
+
+    void registerMeter(String name, Meter meter) {
+        meters.put(name, meter);
+    }
+
+    PrometheusTimer registerTimer(String name) {
+        return timers.computeIfAbsent(name, key -> new PrometheusTimer());
+    }
+
+    /**
+     * Write all the registered metrics in the Prometheus text exposition format.
+     *
+     * @param builder target to write to
+     */
+    public void write(StringBuilder builder) {
+        counters.forEach((name, counter) -> {
+            PrometheusFormat.appendHeader(builder, name, "gauge", "Counter " + name);
+            PrometheusFormat.appendName(builder, name).append(' ').append(counter.getCount()).append('\n');
+        });
+        meters.forEach((name, meter) -> {
+            String totalName = name + "_total";
+            PrometheusFormat.appendHeader(builder, totalName, "counter", "Meter " + name);
+            PrometheusFormat.appendName(builder, totalName).append(' ').append(meter.getCount()).append('\n');
+        });
+        timers.forEach((name, timer) -> {
+            String secondsName = name + "_seconds";
+            PrometheusFormat.appendHeader(builder, secondsName, "summary", "Timer " + name);
+            Histogram histogram = timer.getHistogram();
+            for (double quantile : QUANTILES) {
+                PrometheusFormat.appendName(builder, secondsName).append("{quantile=\"").append(quantile)
+                        .append("\"} ").append(histogram.getValueAtPercentile(quantile * 100) / MICROS_PER_SECOND)
+                        .append('\n');
+            }
+            PrometheusFormat.appendName(builder, secondsName).append("_sum ")
+                    .append(timer.getSumMicros() / MICROS_PER_SECOND).append('\n');
+            PrometheusFormat.appendName(builder, secondsName).append("_count ")
+                    .append(histogram.getTotalCount()).append('\n');
+        });
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.Microservice;
+import org.wso2.msf4j.analytics.latency.RouteLatencyRegistry;
+import org.wso2.msf4j.analytics.latency.RouteLatencyService;
+import org.wso2.msf4j.circuitbreaker.Bulkhead;
+import org.wso2.msf4j.circuitbreaker.CircuitBreaker;
+import org.wso2.msf4j.circuitbreaker.CircuitBreakers;
+import org.wso2.msf4j.io.TempFileManager;
+import org.wso2.msf4j.limit.ConcurrencyLimiter;
+import org.wso2.msf4j.limit.ConcurrencyLimiters;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * Exposes the metrics collected by {@link MetricsInterceptor}, JVM gauges and the per route latencies in the
+ * Prometheus text exposition format. In OSGi mode, {@link MetricsComponent} deploys this service when
+ * {@code METRICS_REPORTING_PROMETHEUS_ENABLED} is set. Otherwise, initialize the {@link MetricsInterceptor} with
+ * {@link MetricReporter#PROMETHEUS} and deploy this service to let Prometheus scrape it.
+ * <p>
+ * The rendered output is cached for {@code METRICS_PROMETHEUS_CACHE_MILLIS} milliseconds (one second by default)
+ * so that several scrapers hitting the endpoint at the same time do not render it more than once.
+ */
+@Path("/metrics")
+public class PrometheusMetricsService implements Microservice {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusMetricsService.class);
+
+    private static final String METRICS_PROMETHEUS_CACHE_MILLIS = "METRICS_PROMETHEUS_CACHE_MILLIS";
+    private static final long DEFAULT_CACHE_MILLIS = 1000;
+
+    private final PrometheusMetricsRegistry registry = PrometheusMetricsRegistry.getInstance();
+    private final JvmMetrics jvmMetrics = new JvmMetrics();
+    private final long cacheNanos;
+
+    // Guarded by this
+    private String cachedOutput;
+    private long cachedAt;
+    private int lastLength = 4096;
+
+    public PrometheusMetricsService() {
+        this(getConfiguredCacheMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public PrometheusMetricsService(long cacheDuration, TimeUnit timeUnit) {
+        this.cacheNanos = timeUnit.toNanos(Math.max(cacheDuration, 0));
+    }
+
+    private static long getConfiguredCacheMillis() {
+        String value = SystemVariableUtil.getValue(METRICS_PROMETHEUS_CACHE_MILLIS,
+                String.valueOf(DEFAULT_CACHE_MILLIS));
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid {} value '{}', using {}", METRICS_PROMETHEUS_CACHE_MILLIS, value,
+                    DEFAULT_CACHE_MILLIS);
+            return DEFAULT_CACHE_MILLIS;
+        }
+    }
+
+    @GET
+    @Produces(PrometheusFormat.CONTENT_TYPE)
+    public synchronized String getMetrics() {
+        long now = System.nanoTime();
+        if (cachedOutput == null || now - cachedAt >= cacheNanos) {
+            StringBuilder builder = new StringBuilder(lastLength + (lastLength >> 3));
+            registry.write(builder);
+            jvmMetrics.write(builder);
+            writeTempFileMetrics(builder);
+            writeConcurrencyLimiterMetrics(builder);
+            writeCircuitBreakerMetrics(builder);
+            RouteLatencyService.writePrometheus(RouteLatencyRegistry.getInstance().snapshots(), builder);
+            cachedOutput = builder.toString();
+            cachedAt = now;
+            lastLength = builder.length();
+        }
+        return cachedOutput;
+    }
+
+    private static void writeTempFileMetrics(StringBuilder builder) {
+        PrometheusFormat.appendHeader(builder, "msf4j_temp_files_outstanding_bytes", "gauge",
+                "Bytes held in temporary files by requests in progress.");
+        builder.append("msf4j_temp_files_outstanding_bytes ").append(TempFileManager.getOutstandingBytes())
+                .append('\n');
+        PrometheusFormat.appendHeader(builder, "msf4j_temp_files_outstanding", "gauge",
+                "Temporary files held by requests in progress.");
+        builder.append("msf4j_temp_files_outstanding ").append(TempFileManager.getOutstandingFileCount())
+                .append('\n');
+    }
+
+    private static void writeConcurrencyLimiterMetrics(StringBuilder builder) {
+        List<ConcurrencyLimiter> limiters = new ArrayList<>(ConcurrencyLimiters.getRouteLimiters());
+        ConcurrencyLimiters.getGlobalLimiter().ifPresent(limiters::add);
+        if (limiters.isEmpty()) {
+            return;
+        }
+        PrometheusFormat.appendHeader(builder, "msf4j_concurrency_limit", "gauge",
+                "Current limit of a concurrency limiter.");
+        for (ConcurrencyLimiter limiter : limiters) {
+            appendLimiter(builder, "msf4j_concurrency_limit", limiter).append(limiter.getLimit()).append('\n');
+        }
+        PrometheusFormat.appendHeader(builder, "msf4j_concurrency_in_flight", "gauge",
+                "Requests in progress within a concurrency limiter.");
+        for (ConcurrencyLimiter limiter : limiters) {
+            appendLimiter(builder, "msf4j_concurrency_in_flight", limiter).append(limiter.getInFlight()).append('\n');
+        }
+        PrometheusFormat.appendHeader(builder, "msf4j_concurrency_accepted_total", "counter",
+                "Requests admitted by a concurrency limiter.");
+        for (ConcurrencyLimiter limiter : limiters) {
+            appendLimiter(builder, "msf4j_concurrency_accepted_total", limiter).append(limiter.getAcceptedCount())
+                    .append('\n');
+        }
+        PrometheusFormat.appendHeader(builder, "msf4j_concurrency_rejected_total", "counter",
+                "Requests rejected with 503 by a concurrency limiter.");
+        for (ConcurrencyLimiter limiter : limiters) {
+            appendLimiter(builder, "msf4j_concurrency_rejected_total", limiter).append(limiter.getRejectedCount())
+                    .append('\n');
+        }
+    }
+
+    private static StringBuilder appendLimiter(StringBuilder builder, String name, ConcurrencyLimiter limiter) {
+        builder.append(name).append("{limiter=\"");
+        return PrometheusFormat.appendLabelValue(builder, limiter.getName()).append("\"} ");
+    }
+
+    private static void writeCircuitBreakerMetrics(StringBuilder builder) {
+        if (!CircuitBreakers.getCircuitBreakers().isEmpty()) {
+            PrometheusFormat.appendHeader(builder, "msf4j_circuit_breaker_state", "gauge",
+                    "1 for the current state of a circuit breaker, 0 for the other states.");
+            for (CircuitBreaker circuitBreaker : CircuitBreakers.getCircuitBreakers()) {
+                CircuitBreaker.State currentState = circuitBreaker.getState();
+                for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+                    appendName(builder, "msf4j_circuit_breaker_state", circuitBreaker.getName())
+                            .append(",state=\"").append(state.name().toLowerCase(Locale.ENGLISH)).append("\"} ")
+                            .append(state == currentState ? 1 : 0).append('\n');
+                }
+            }
+            PrometheusFormat.appendHeader(builder, "msf4j_circuit_breaker_failure_rate", "gauge",
+                    "Percentage of failed calls in the sliding window, -1 until it holds enough calls.");
+            for (CircuitBreaker circuitBreaker : CircuitBreakers.getCircuitBreakers()) {
+                appendName(builder, "msf4j_circuit_breaker_failure_rate", circuitBreaker.getName()).append("} ")
+                        .append(circuitBreaker.getFailureRate()).append('\n');
+            }
+            PrometheusFormat.appendHeader(builder, "msf4j_circuit_breaker_slow_call_rate", "gauge",
+                    "Percentage of slow calls in the sliding window, -1 until it holds enough calls.");
+            for (CircuitBreaker circuitBreaker : CircuitBreakers.getCircuitBreakers()) {
+                appendName(builder, "msf4j_circuit_breaker_slow_call_rate", circuitBreaker.getName()).append("} ")
+                        .append(circuitBreaker.getSlowCallRate()).append('\n');
+            }
+            PrometheusFormat.appendHeader(builder, "msf4j_circuit_breaker_rejected_total", "counter",
+                    "Calls rejected by a circuit breaker.");
+            for (CircuitBreaker circuitBreaker : CircuitBreakers.getCircuitBreakers()) {
+                appendName(builder, "msf4j_circuit_breaker_rejected_total", circuitBreaker.getName()).append("} ")
+                        .append(circuitBreaker.getRejectedCount()).append('\n');
+            }
+        }
+        if (!CircuitBreakers.getBulkheads().isEmpty()) {
+            PrometheusFormat.appendHeader(builder, "msf4j_bulkhead_available_permits", "gauge",
+                    "Calls which a bulkhead can still permit.");
+            for (Bulkhead bulkhead : CircuitBreakers.getBulkheads()) {
+                appendName(builder, "msf4j_bulkhead_available_permits", bulkhead.getName()).append("} ")
+                        .append(bulkhead.getAvailablePermits()).append('\n');
+            }
+            PrometheusFormat.appendHeader(builder, "msf4j_bulkhead_max_permits", "gauge",
+                    "Maximum concurrent calls of a bulkhead.");
+            for (Bulkhead bulkhead : CircuitBreakers.getBulkheads()) {
+                appendName(builder, "msf4j_bulkhead_max_permits", bulkhead.getName()).append("} ")
+                        .append(bulkhead.getMaxConcurrentCalls()).append('\n');
+            }
+            PrometheusFormat.appendHeader(builder, "msf4j_bulkhead_rejected_total", "counter",
+                    "Calls rejected by a full bulkhead.");
+            for (Bulkhead bulkhead : CircuitBreakers.getBulkheads()) {
+                appendName(builder, "msf4j_bulkhead_rejected_total", bulkhead.getName()).append("} ")
+                        .append(bulkhead.getRejectedCount()).append('\n');
+            }
+        }
+    }
+
+    private static StringBuilder appendName(StringBuilder builder, String metric, String name) {
+        builder.append(metric).append("{name=\"");
+        return PrometheusFormat.appendLabelValue(builder, name).append('"');
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram of a {@code @Timed} method, kept alongside the carbon-metrics timer so that quantiles can be
+ * rendered for Prometheus without going through a reporter.
+ */
+final class PrometheusTimer {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private final LongAdder sumMicros = new LongAdder();
+
+    // Guarded by this
+    private final Histogram cumulativeHistogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    private Histogram intervalHistogram;
+
+    void update(long durationNanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(durationNanos), 0), HIGHEST_TRACKABLE_MICROS);
+        recorder.recordValue(micros);
+        sumMicros.add(micros);
+    }
+
+    long getSumMicros() {
+        return sumMicros.sum();
+    }
+
+    synchronized Histogram getHistogram() {
+        intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+        cumulativeHistogram.add(intervalHistogram);
+        return cumulativeHistogram;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.analytics.internal.MpscRingBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Buffers finished spans in a bounded ring buffer and hands them over to a {@link SpanExporter} in batches from a
+ * single background thread. A batch is exported when it is full or when the oldest span in it has waited for the
+ * configured delay. Spans are dropped, never blocked on, when the buffer is full.
+ */
+public final class BatchSpanProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchSpanProcessor.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MpscRingBuffer<Span> ringBuffer;
+    private final SpanExporter exporter;
+    private final int batchSize;
+    private final long scheduleDelayNanos;
+    private final Thread exporterThread;
+    private final LongAdder droppedSpans = new LongAdder();
+    private final LongAdder exportedSpans = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * @param exporter      exporter to hand the batches to
+     * @param capacity      maximum number of buffered spans
+     * @param batchSize     maximum number of spans in a batch
+     * @param scheduleDelay maximum time a span waits for its batch to fill up
+     * @param timeUnit      unit of the delay
+     */
+    public BatchSpanProcessor(SpanExporter exporter, int capacity, int batchSize, long scheduleDelay,
+                              TimeUnit timeUnit) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be a positive value");
+        }
+        this.ringBuffer = new MpscRingBuffer<>(capacity);
+        this.exporter = exporter;
+        this.batchSize = batchSize;
+        this.scheduleDelayNanos = timeUnit.toNanos(scheduleDelay);
+        this.exporterThread = new Thread(this::export, "SpanExporter");
+        this.exporterThread.setDaemon(true);
+        this.exporterThread.start();
+    }
+
+    /**
+     * Queue a finished span for export.
+     *
+     * @param span finished span
+     * @return false if the span was dropped
+     */
+    public boolean onEnd(Span span) {
+        if (!running || !ringBuffer.offer(span)) {
+            droppedSpans.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Export the spans which are already buffered, then shut down the exporter.
+     *
+     * @param timeout  maximum time to wait for the remaining spans to be exported
+     * @param timeUnit unit of the timeout
+     */
+    public void shutdown(long timeout, TimeUnit timeUnit) {
+        running = false;
+        LockSupport.unpark(exporterThread);
+        try {
+            exporterThread.join(timeUnit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDroppedSpanCount() {
+        return droppedSpans.sum();
+    }
+
+    public long getExportedSpanCount() {
+        return exportedSpans.sum();
+    }
+
+    private void export() {
+        List<Span> batch = new ArrayList<>(batchSize);
+        long batchStartTime = 0;
+        try {
+            while (true) {
+                Span span;
+                while (batch.size() < batchSize && (span = ringBuffer.poll()) != null) {
+                    if (batch.isEmpty()) {
+                        batchStartTime = System.nanoTime();
+                    }
+                    batch.add(span);
+                }
+                boolean stopping = !running;
+                if (batch.size() >= batchSize || (!batch.isEmpty()
+                        && (stopping || System.nanoTime() - batchStartTime >= scheduleDelayNanos))) {
+                    exportBatch(batch);
+                    continue;
+                }
+                if (stopping && batch.isEmpty() && ringBuffer.size() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        } finally {
+            exporter.shutdown();
+        }
+    }
+
+    private void exportBatch(List<Span> batch) {
+        try {
+            exporter.export(batch);
+            exportedSpans.add(batch.size());
+        } catch (RuntimeException e) {
+            logger.error("Error while exporting spans", e);
+        }
+        batch.clear();
+    }
+}
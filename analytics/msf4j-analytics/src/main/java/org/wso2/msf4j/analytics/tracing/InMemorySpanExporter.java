@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps exported spans in memory. Meant for tests and local debugging.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final ConcurrentLinkedQueue<Span> spans = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public void export(List<Span> batch) {
+        spans.addAll(batch);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    /**
+     * @return a copy of the spans exported so far
+     */
+    public List<Span> getFinishedSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    public void reset() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends spans to a file in the OTLP JSON encoding, one {@code ExportTraceServiceRequest} per line. The file can be
+ * shipped with the OpenTelemetry Collector {@code otlpjsonfile} receiver.
+ */
+public class OtlpJsonFileSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtlpJsonFileSpanExporter.class);
+
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+    private static final int STATUS_CODE_ERROR = 2;
+    private static final String SCOPE_NAME = "org.wso2.msf4j";
+
+    private final Writer writer;
+    private final String serviceName;
+    private final StringBuilder builder = new StringBuilder(4096);
+
+    /**
+     * Create an exporter which appends to the given file.
+     *
+     * @param file        file to append to. Created if it does not exist
+     * @param serviceName value of the {@code service.name} resource attribute
+     * @throws IOException if the file cannot be opened
+     */
+    public OtlpJsonFileSpanExporter(Path file, String serviceName) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE));
+        this.serviceName = serviceName;
+    }
+
+    @Override
+    public void export(List<Span> spans) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        builder.setLength(0);
+        builder.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[");
+        appendAttribute(builder, "service.name", serviceName);
+        builder.append("]},\"scopeSpans\":[{\"scope\":{\"name\":\"").append(SCOPE_NAME).append("\"},\"spans\":[");
+        for (int i = 0; i < spans.size(); i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendSpan(builder, spans.get(i));
+        }
+        builder.append("]}]}]}\n");
+        try {
+            writer.append(builder);
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Error while writing spans to the OTLP JSON file", e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.error("Error while closing the OTLP JSON file", e);
+        }
+    }
+
+    private static void appendSpan(StringBuilder builder, Span span) {
+        builder.append("{\"traceId\":\"").append(span.getTraceId())
+                .append("\",\"spanId\":\"").append(span.getSpanId()).append('"');
+        if (span.getParentSpanId() != null) {
+            builder.append(",\"parentSpanId\":\"").append(span.getParentSpanId()).append('"');
+        }
+        builder.append(",\"name\":");
+        appendString(builder, span.getName());
+        builder.append(",\"kind\":").append(span.getKind() == Span.Kind.SERVER ? SPAN_KIND_SERVER : SPAN_KIND_INTERNAL)
+                // 64 bit integers are strings in the OTLP JSON encoding
+                .append(",\"startTimeUnixNano\":\"").append(span.getStartEpochNanos())
+                .append("\",\"endTimeUnixNano\":\"").append(span.getEndEpochNanos()).append("\",\"attributes\":[");
+        boolean first = true;
+        for (Map.Entry<String, String> attribute : span.getAttributes().entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            appendAttribute(builder, attribute.getKey(), attribute.getValue());
+            first = false;
+        }
+        builder.append(']');
+        if (span.isError()) {
+            builder.append(",\"status\":{\"code\":").append(STATUS_CODE_ERROR).append('}');
+        }
+        builder.append('}');
+    }
+
+    private static void appendAttribute(StringBuilder builder, String key, String value) {
+        builder.append("{\"key\":");
+        appendString(builder, key);
+        builder.append(",\"value\":{\"stringValue\":");
+        appendString(builder, value);
+        builder.append("}}");
+    }
+
+    private static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+}
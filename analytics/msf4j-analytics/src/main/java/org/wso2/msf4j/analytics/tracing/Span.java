@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A finished span. Times are nanoseconds since the epoch.
+ */
+public final class Span {
+
+    /**
+     * Role of the span in the trace.
+     */
+    public enum Kind {
+        /**
+         * Work done inside the service.
+         */
+        INTERNAL,
+        /**
+         * Handling of an incoming request.
+         */
+        SERVER
+    }
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final Kind kind;
+    private final long startEpochNanos;
+    private final long endEpochNanos;
+    private final boolean error;
+    private final Map<String, String> attributes;
+
+    public Span(String traceId, String spanId, String parentSpanId, String name, Kind kind, long startEpochNanos,
+                long endEpochNanos, boolean error, Map<String, String> attributes) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startEpochNanos = startEpochNanos;
+        this.endEpochNanos = endEpochNanos;
+        this.error = error;
+        this.attributes = attributes == null ? Collections.emptyMap() : Collections.unmodifiableMap(attributes);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * @return span identifier of the parent, or null for a root span
+     */
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public long getDurationNanos() {
+        return endEpochNanos - startEpochNanos;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public String toString() {
+        return "Span{traceId=" + traceId + ", spanId=" + spanId + ", parentSpanId=" + parentSpanId + ", name=" + name
+                + ", durationNanos=" + getDurationNanos() + '}';
+    }
+}
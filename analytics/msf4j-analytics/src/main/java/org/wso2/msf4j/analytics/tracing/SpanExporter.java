@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import java.util.List;
+
+/**
+ * Sends finished spans to a tracing backend. Called from a single background thread of the
+ * {@link BatchSpanProcessor}, never from request threads.
+ */
+public interface SpanExporter {
+
+    /**
+     * Export a batch of spans.
+     *
+     * @param spans spans to export. The list is reused after this method returns
+     */
+    void export(List<Span> spans);
+
+    /**
+     * Release the resources held by the exporter. Called once, after the last batch was exported.
+     */
+    void shutdown();
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+/**
+ * A W3C trace context, as carried by the {@code traceparent} and {@code tracestate} headers.
+ *
+ * @see <a href="https://www.w3.org/TR/trace-context/">Trace Context</a>
+ */
+public final class TraceContext {
+
+    /**
+     * Name of the header which carries the trace and parent span identifiers.
+     */
+    public static final String TRACEPARENT = "traceparent";
+
+    /**
+     * Name of the header which carries vendor specific trace state.
+     */
+    public static final String TRACESTATE = "tracestate";
+
+    private static final String VERSION = "00";
+    private static final int FLAG_SAMPLED = 0x01;
+    // version(2) - trace-id(32) - parent-id(16) - flags(2)
+    private static final int TRACEPARENT_LENGTH = 55;
+    private static final int TRACE_ID_OFFSET = 3;
+    private static final int SPAN_ID_OFFSET = TRACE_ID_OFFSET + TraceIds.TRACE_ID_LENGTH + 1;
+    private static final int FLAGS_OFFSET = SPAN_ID_OFFSET + TraceIds.SPAN_ID_LENGTH + 1;
+    private static final int MAX_TRACESTATE_LENGTH = 512;
+
+    private final String traceId;
+    private final String spanId;
+    private final int traceFlags;
+    private final String traceState;
+
+    private TraceContext(String traceId, String spanId, int traceFlags, String traceState) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.traceFlags = traceFlags;
+        this.traceState = traceState;
+    }
+
+    /**
+     * Create the context of a new trace.
+     *
+     * @param sampled whether the trace is sampled
+     * @return a context with new trace and span identifiers
+     */
+    public static TraceContext newTrace(boolean sampled) {
+        return new TraceContext(TraceIds.newTraceId(), TraceIds.newSpanId(), sampled ? FLAG_SAMPLED : 0, null);
+    }
+
+    /**
+     * Create the context of a new trace with a given trace identifier, such as the activity id sent by a caller
+     * which does not send a traceparent.
+     *
+     * @param traceId 32 lower case hex characters, not all zeros
+     * @param sampled whether the trace is sampled
+     * @return a context with the given trace identifier and a new span identifier, or null if the trace identifier
+     * is invalid
+     */
+    public static TraceContext newTrace(String traceId, boolean sampled) {
+        if (traceId == null || traceId.length() != TraceIds.TRACE_ID_LENGTH
+                || !TraceIds.isValidId(traceId, 0, TraceIds.TRACE_ID_LENGTH)) {
+            return null;
+        }
+        return new TraceContext(traceId, TraceIds.newSpanId(), sampled ? FLAG_SAMPLED : 0, null);
+    }
+
+    /**
+     * Parse the {@code traceparent} and {@code tracestate} header values.
+     *
+     * @param traceparent value of the traceparent header, may be null
+     * @param tracestate  value of the tracestate header, may be null
+     * @return the parsed context, or null if the traceparent is missing or invalid
+     */
+    public static TraceContext parse(String traceparent, String tracestate) {
+        if (traceparent == null) {
+            return null;
+        }
+        String value = traceparent.trim();
+        if (value.length() < TRACEPARENT_LENGTH
+                || !TraceIds.isHex(value.charAt(0)) || !TraceIds.isHex(value.charAt(1))
+                || value.charAt(TRACE_ID_OFFSET - 1) != '-' || value.charAt(SPAN_ID_OFFSET - 1) != '-'
+                || value.charAt(FLAGS_OFFSET - 1) != '-') {
+            return null;
+        }
+        boolean version00 = value.charAt(0) == '0' && value.charAt(1) == '0';
+        if ((value.charAt(0) == 'f' && value.charAt(1) == 'f')
+                // Version 00 has exactly four fields, later versions may append more
+                || (version00 && value.length() != TRACEPARENT_LENGTH)
+                || (!version00 && value.length() > TRACEPARENT_LENGTH && value.charAt(TRACEPARENT_LENGTH) != '-')) {
+            return null;
+        }
+        if (!TraceIds.isValidId(value, TRACE_ID_OFFSET, TraceIds.TRACE_ID_LENGTH)
+                || !TraceIds.isValidId(value, SPAN_ID_OFFSET, TraceIds.SPAN_ID_LENGTH)
+                || !TraceIds.isHex(value.charAt(FLAGS_OFFSET)) || !TraceIds.isHex(value.charAt(FLAGS_OFFSET + 1))) {
+            return null;
+        }
+        int flags = (TraceIds.hexValue(value.charAt(FLAGS_OFFSET)) << 4)
+                | TraceIds.hexValue(value.charAt(FLAGS_OFFSET + 1));
+        if (tracestate != null) {
+            tracestate = tracestate.trim();
+            if (tracestate.isEmpty() || tracestate.length() > MAX_TRACESTATE_LENGTH) {
+                tracestate = null;
+            }
+        }
+        return new TraceContext(value.substring(TRACE_ID_OFFSET, TRACE_ID_OFFSET + TraceIds.TRACE_ID_LENGTH),
+                value.substring(SPAN_ID_OFFSET, SPAN_ID_OFFSET + TraceIds.SPAN_ID_LENGTH), flags, tracestate);
+    }
+
+    /**
+     * Create the context of a child span in the same trace.
+     *
+     * @return a context with the same trace identifier, flags and state, and a new span identifier
+     */
+    public TraceContext newChild() {
+        return new TraceContext(traceId, TraceIds.newSpanId(), traceFlags, traceState);
+    }
+
+    /**
+     * @return 32 lower case hex characters identifying the trace
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * @return 16 lower case hex characters identifying the span
+     */
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public boolean isSampled() {
+        return (traceFlags & FLAG_SAMPLED) != 0;
+    }
+
+    /**
+     * @return value of the tracestate header to propagate, or null
+     */
+    public String getTraceState() {
+        return traceState;
+    }
+
+    /**
+     * @return value of the traceparent header to send to downstream services
+     */
+    public String toTraceparent() {
+        StringBuilder builder = new StringBuilder(TRACEPARENT_LENGTH);
+        builder.append(VERSION).append('-').append(traceId).append('-').append(spanId).append('-');
+        if (traceFlags < 0x10) {
+            builder.append('0');
+        }
+        return builder.append(Integer.toHexString(traceFlags)).toString();
+    }
+
+    @Override
+    public String toString() {
+        return toTraceparent();
+    }
+}
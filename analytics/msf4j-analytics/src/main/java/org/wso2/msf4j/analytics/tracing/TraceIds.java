@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates and validates W3C trace context identifiers.
+ * <p>
+ * Identifiers are taken from {@link ThreadLocalRandom}, which never blocks and is not shared between threads, unlike
+ * the {@link java.security.SecureRandom} behind {@link java.util.UUID#randomUUID()}. Trace identifiers only need to be
+ * unique, not unpredictable.
+ */
+final class TraceIds {
+
+    static final int TRACE_ID_LENGTH = 32;
+    static final int SPAN_ID_LENGTH = 16;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private TraceIds() {
+    }
+
+    static String newTraceId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = random.nextLong();
+        long low;
+        do {
+            low = random.nextLong();
+        } while (high == 0 && low == 0);
+        char[] chars = new char[TRACE_ID_LENGTH];
+        appendHex(chars, 0, high);
+        appendHex(chars, SPAN_ID_LENGTH, low);
+        return new String(chars);
+    }
+
+    static String newSpanId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id;
+        do {
+            id = random.nextLong();
+        } while (id == 0);
+        char[] chars = new char[SPAN_ID_LENGTH];
+        appendHex(chars, 0, id);
+        return new String(chars);
+    }
+
+    /**
+     * @return true if the given range of the value is lower case hex and not all zeros
+     */
+    static boolean isValidId(CharSequence value, int start, int length) {
+        boolean nonZero = false;
+        for (int i = start; i < start + length; i++) {
+            char c = value.charAt(i);
+            if (!isHex(c)) {
+                return false;
+            }
+            nonZero |= c != '0';
+        }
+        return nonZero;
+    }
+
+    static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+    }
+
+    static int hexValue(char c) {
+        return c <= '9' ? c - '0' : c - 'a' + 10;
+    }
+
+    private static void appendHex(char[] chars, int offset, long value) {
+        for (int i = SPAN_ID_LENGTH - 1; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.analytics.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A utility class to initialize/destroy span export.
+ * <p>
+ * The exporter is selected with {@code MSF4J_TRACING_EXPORTER}: {@code none} (the default, spans are not recorded),
+ * {@code memory} or {@code otlp-file}. The OTLP JSON file is set with {@code MSF4J_TRACING_OTLP_FILE}. Other
+ * exporters can be plugged in with {@link #init(SpanExporter)}.
+ */
+public final class Tracing {
+
+    /**
+     * Name of the request property which holds the {@link TraceContext} of the request being served, so that
+     * resource methods can propagate the trace to downstream services.
+     */
+    public static final String TRACE_CONTEXT_PROPERTY = "MSF4J_TRACE_CONTEXT";
+
+    private static final Logger logger = LoggerFactory.getLogger(Tracing.class);
+
+    private static final String MSF4J_TRACING_EXPORTER = "MSF4J_TRACING_EXPORTER";
+    private static final String MSF4J_TRACING_OTLP_FILE = "MSF4J_TRACING_OTLP_FILE";
+    private static final String MSF4J_TRACING_SERVICE_NAME = "MSF4J_TRACING_SERVICE_NAME";
+    private static final String MSF4J_TRACING_QUEUE_SIZE = "MSF4J_TRACING_QUEUE_SIZE";
+    private static final String MSF4J_TRACING_BATCH_SIZE = "MSF4J_TRACING_BATCH_SIZE";
+    private static final String MSF4J_TRACING_SCHEDULE_DELAY_MILLIS = "MSF4J_TRACING_SCHEDULE_DELAY_MILLIS";
+    private static final String MSF4J_TRACING_SHUTDOWN_TIMEOUT_MILLIS = "MSF4J_TRACING_SHUTDOWN_TIMEOUT_MILLIS";
+
+    private static final String EXPORTER_NONE = "none";
+    private static final String EXPORTER_MEMORY = "memory";
+    private static final String EXPORTER_OTLP_FILE = "otlp-file";
+
+    private static volatile BatchSpanProcessor spanProcessor;
+    private static SpanExporter spanExporter;
+
+    private Tracing() {
+    }
+
+    /**
+     * Initialize span export with the exporter selected in the environment.
+     */
+    public static synchronized void init() {
+        if (spanProcessor != null) {
+            return;
+        }
+        String exporterType = SystemVariableUtil.getValue(MSF4J_TRACING_EXPORTER, EXPORTER_NONE)
+                .trim().toLowerCase(Locale.ENGLISH);
+        SpanExporter exporter;
+        switch (exporterType) {
+            case EXPORTER_NONE:
+                return;
+            case EXPORTER_MEMORY:
+                exporter = new InMemorySpanExporter();
+                break;
+            case EXPORTER_OTLP_FILE:
+                String file = SystemVariableUtil.getValue(MSF4J_TRACING_OTLP_FILE, "traces.jsonl");
+                String serviceName = SystemVariableUtil.getValue(MSF4J_TRACING_SERVICE_NAME, "msf4j");
+                try {
+                    exporter = new OtlpJsonFileSpanExporter(Paths.get(file), serviceName);
+                } catch (IOException e) {
+                    logger.error("Cannot open the span file " + file + ", spans will not be exported", e);
+                    return;
+                }
+                break;
+            default:
+                logger.warn("Unknown span exporter " + exporterType + ", spans will not be exported");
+                return;
+        }
+        init(exporter);
+    }
+
+    /**
+     * Initialize span export with the given exporter.
+     *
+     * @param exporter exporter to hand the spans to
+     */
+    public static synchronized void init(SpanExporter exporter) {
+        if (spanProcessor != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Span export is already initialized");
+            }
+            return;
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Initializing span export with " + exporter.getClass().getName());
+        }
+        int queueSize = Integer.parseInt(SystemVariableUtil.getValue(MSF4J_TRACING_QUEUE_SIZE, "4096"));
+        int batchSize = Integer.parseInt(SystemVariableUtil.getValue(MSF4J_TRACING_BATCH_SIZE, "512"));
+        long scheduleDelay =
+                Long.parseLong(SystemVariableUtil.getValue(MSF4J_TRACING_SCHEDULE_DELAY_MILLIS, "1000"));
+        spanExporter = exporter;
+        spanProcessor = new BatchSpanProcessor(exporter, queueSize, batchSize, scheduleDelay, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void destroy() {
+        if (spanProcessor != null) {
+            long timeout =
+                    Long.parseLong(SystemVariableUtil.getValue(MSF4J_TRACING_SHUTDOWN_TIMEOUT_MILLIS, "5000"));
+            spanProcessor.shutdown(timeout, TimeUnit.MILLISECONDS);
+            spanProcessor = null;
+            spanExporter = null;
+        }
+    }
+
+    /**
+     * @return true if finished spans are exported
+     */
+    public static boolean isEnabled() {
+        return spanProcessor != null;
+    }
+
+    /**
+     * @return the exporter in use, or null if span export is not initialized
+     */
+    public static synchronized SpanExporter getExporter() {
+        return spanExporter;
+    }
+
+    /**
+     * Queue a finished span for export. Does nothing if span export is not initialized.
+     *
+     * @param span finished span
+     */
+    public static void record(Span span) {
+        BatchSpanProcessor processor = spanProcessor;
+        if (processor != null) {
+            processor.onEnd(span);
+        }
+    }
+
+    /**
+     * @return 16 lower case hex characters identifying a new span
+     */
+    public static String newSpanId() {
+        return TraceIds.newSpanId();
+    }
+
+    /**
+     * @return number of spans dropped because the export queue was full
+     */
+    public static long getDroppedSpanCount() {
+        BatchSpanProcessor processor = spanProcessor;
+        return processor == null ? 0 : processor.getDroppedSpanCount();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.analytics.httpmonitoring;
+
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link HTTPMonitoringEventQueue}.
+ */
+public class HTTPMonitoringEventQueueTest {
+
+    @Test
+    public void testEventsOfAllProducersArePublished() throws Exception {
+        int producers = 4;
+        int perProducer = 5000;
+        List<HTTPMonitoringEvent> published = new CopyOnWriteArrayList<>();
+        HTTPMonitoringEventQueue queue = new HTTPMonitoringEventQueue(128, 16,
+                HTTPMonitoringEventQueue.OverflowPolicy.BLOCK, published::add);
+        queue.start();
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        queue.offer(new HTTPMonitoringEvent());
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+            queue.stop(30, TimeUnit.SECONDS);
+
+            assertEquals(producers * perProducer, published.size());
+            assertEquals(producers * perProducer, queue.getQueuedEventCount());
+            assertEquals(0, queue.getDroppedEventCount());
+            assertEquals(0, queue.getPendingEventCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception {
+        BlockingPublisher publisher = new BlockingPublisher();
+        HTTPMonitoringEventQueue queue = new HTTPMonitoringEventQueue(2, 1,
+                HTTPMonitoringEventQueue.OverflowPolicy.DROP, publisher);
+        queue.start();
+        try {
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+            assertTrue("Drainer should be publishing the first event", publisher.awaitPublishing());
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+
+            assertFalse("Event should be dropped when the queue is full", queue.offer(new HTTPMonitoringEvent()));
+            assertEquals(3, queue.getQueuedEventCount());
+            assertEquals(1, queue.getDroppedEventCount());
+            assertEquals(2, queue.getPendingEventCount());
+        } finally {
+            publisher.release();
+            queue.stop(10, TimeUnit.SECONDS);
+        }
+        assertEquals(3, publisher.published.size());
+        assertEquals(0, queue.getPendingEventCount());
+    }
+
+    @Test
+    public void testBlockWhenFull() throws Exception {
+        BlockingPublisher publisher = new BlockingPublisher();
+        HTTPMonitoringEventQueue queue = new HTTPMonitoringEventQueue(2, 1,
+                HTTPMonitoringEventQueue.OverflowPolicy.BLOCK, publisher);
+        queue.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+            assertTrue("Drainer should be publishing the first event", publisher.awaitPublishing());
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+
+            Future<Boolean> blocked = executor.submit(() -> queue.offer(new HTTPMonitoringEvent()));
+            Thread.sleep(50);
+            assertFalse("Producer should wait while the queue is full", blocked.isDone());
+
+            publisher.release();
+            assertTrue(blocked.get(10, TimeUnit.SECONDS));
+        } finally {
+            publisher.release();
+            executor.shutdownNow();
+            queue.stop(10, TimeUnit.SECONDS);
+        }
+        assertEquals(4, publisher.published.size());
+        assertEquals(4, queue.getQueuedEventCount());
+        assertEquals(0, queue.getDroppedEventCount());
+    }
+
+    @Test
+    public void testFailedEventsAreCounted() throws Exception {
+        HTTPMonitoringEventQueue queue = new HTTPMonitoringEventQueue(8, 4,
+                HTTPMonitoringEventQueue.OverflowPolicy.DROP, event -> {
+                    throw new IllegalStateException("Publisher is not available");
+                });
+        queue.start();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(queue.offer(new HTTPMonitoringEvent()));
+        }
+        queue.stop(10, TimeUnit.SECONDS);
+        assertEquals(3, queue.getFailedEventCount());
+    }
+
+    /**
+     * Publisher which holds the drainer in the first event until it is released.
+     */
+    private static class BlockingPublisher implements Consumer<HTTPMonitoringEvent> {
+
+        private final List<HTTPMonitoringEvent> published = new CopyOnWriteArrayList<>();
+        private final CountDownLatch publishing = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+
+        @Override
+        public void accept(HTTPMonitoringEvent event) {
+            publishing.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            published.add(event);
+        }
+
+        boolean awaitPublishing() throws InterruptedException {
+            return publishing.await(10, TimeUnit.SECONDS);
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+}
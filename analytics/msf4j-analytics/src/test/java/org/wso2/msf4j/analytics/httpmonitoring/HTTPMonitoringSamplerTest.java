@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.analytics.httpmonitoring;
+
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link HTTPMonitoringSampler} and {@link HTTPMonitoringRouteSummary}.
+ */
+public class HTTPMonitoringSamplerTest {
+
+    @Test
+    public void testAllSamplesEveryRequest() {
+        HTTPMonitoringSampler sampler = new HTTPMonitoringSampler(SamplingMode.ALL, 0, 0, false, -1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sampler.sample(200, 1));
+        }
+    }
+
+    @Test
+    public void testFixedRate() {
+        HTTPMonitoringSampler none = new HTTPMonitoringSampler(SamplingMode.FIXED_RATE, 0, 0, false, -1);
+        HTTPMonitoringSampler all = new HTTPMonitoringSampler(SamplingMode.FIXED_RATE, 1, 0, false, -1);
+        HTTPMonitoringSampler half = new HTTPMonitoringSampler(SamplingMode.FIXED_RATE, 0.5, 0, false, -1);
+        int sampled = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(none.sample(200, 1));
+            assertTrue(all.sample(200, 1));
+            if (half.sample(200, 1)) {
+                sampled++;
+            }
+        }
+        assertTrue("Around half of the requests should be sampled, not " + sampled, sampled > 4000 && sampled < 6000);
+    }
+
+    @Test
+    public void testErrorsAndSlowRequestsAreKept() {
+        HTTPMonitoringSampler sampler = new HTTPMonitoringSampler(SamplingMode.FIXED_RATE, 0, 0, true, 100);
+        assertTrue("Server errors should be kept", sampler.sample(503, 1));
+        assertFalse("Client errors are not kept", sampler.sample(404, 1));
+        assertTrue("Slow requests should be kept", sampler.sample(200, 100));
+        assertFalse(sampler.sample(200, 99));
+
+        HTTPMonitoringSampler withoutThreshold = new HTTPMonitoringSampler(SamplingMode.FIXED_RATE, 0, 0, false, -1);
+        assertFalse(withoutThreshold.sample(500, 1));
+        assertFalse(withoutThreshold.sample(200, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRateLimited() {
+        int maxEventsPerSecond = 10;
+        HTTPMonitoringSampler sampler =
+                new HTTPMonitoringSampler(SamplingMode.RATE_LIMITED, 1, maxEventsPerSecond, false, -1);
+        int sampled = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (sampler.sample(200, 1)) {
+                sampled++;
+            }
+        }
+        // The calls may span the start of a new second, which allows another set of events
+        assertTrue("At most " + maxEventsPerSecond + " events should be sampled per second, not " + sampled,
+                sampled >= 1 && sampled <= 2 * maxEventsPerSecond);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidSamplingRate() {
+        new HTTPMonitoringSampler(SamplingMode.FIXED_RATE, 1.5, 0, false, -1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeMaxEventsPerSecond() {
+        new HTTPMonitoringSampler(SamplingMode.RATE_LIMITED, 1, -1, false, -1);
+    }
+
+    @Test
+    public void testRouteSummaryReset() {
+        HTTPMonitoringRouteSummary summary =
+                new HTTPMonitoringRouteSummary("org.example.Service", "Service", "get", "/service");
+        summary.record(200, 10, true);
+        summary.record(500, 30, false);
+        summary.record(404, 20, true);
+
+        assertEquals(3, summary.resetRequestCount());
+        assertEquals(1, summary.resetErrorCount());
+        assertEquals(2, summary.resetSampledCount());
+        assertEquals(60, summary.resetTotalResponseTime());
+        assertEquals(30, summary.resetMaxResponseTime());
+
+        assertEquals(0, summary.resetRequestCount());
+        assertEquals(0, summary.resetErrorCount());
+        assertEquals(0, summary.resetSampledCount());
+        assertEquals(0, summary.resetTotalResponseTime());
+        assertEquals(0, summary.resetMaxResponseTime());
+
+        summary.record(200, 5, false);
+        assertEquals(1, summary.resetRequestCount());
+        assertEquals(5, summary.resetMaxResponseTime());
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.analytics.internal;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link MpscRingBuffer}.
+ */
+public class MpscRingBufferTest {
+
+    @Test
+    public void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(1, new MpscRingBuffer<>(1).capacity());
+        assertEquals(2, new MpscRingBuffer<>(2).capacity());
+        assertEquals(8, new MpscRingBuffer<>(5).capacity());
+        assertEquals(1024, new MpscRingBuffer<>(1024).capacity());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new MpscRingBuffer<>(0);
+    }
+
+    @Test
+    public void testOfferAndPollInOrder() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        assertNull(buffer.poll());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertEquals(3, buffer.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void testOfferFailsWhenFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse("Buffer should be full", buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue("A slot should be free after polling", buffer.offer(4));
+        assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    public void testWrapAround() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        int next = 0;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(round * 3 + i));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(Integer.valueOf(next++), buffer.poll());
+            }
+            assertNull(buffer.poll());
+        }
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 50000;
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(producer * perProducer + i)) {
+                            Thread.yield();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+
+            int[] lastSeen = new int[producers];
+            Arrays.fill(lastSeen, -1);
+            boolean[] seen = new boolean[producers * perProducer];
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            int received = 0;
+            while (received < producers * perProducer) {
+                assertTrue("Timed out waiting for the producers", System.nanoTime() < deadline);
+                Integer value = buffer.poll();
+                if (value == null) {
+                    Thread.yield();
+                    continue;
+                }
+                assertFalse("Element " + value + " was received twice", seen[value]);
+                seen[value] = true;
+                int producer = value / perProducer;
+                assertTrue("Elements of a producer should be received in order",
+                        value % perProducer > lastSeen[producer]);
+                lastSeen[producer] = value % perProducer;
+                received++;
+            }
+            assertNull(buffer.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
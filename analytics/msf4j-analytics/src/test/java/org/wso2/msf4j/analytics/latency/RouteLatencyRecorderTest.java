@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.analytics.latency;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link RouteLatencyRecorder} snapshots and {@link RouteLatencyRegistry}.
+ */
+public class RouteLatencyRecorderTest {
+
+    @Test
+    public void testEmptySnapshot() {
+        RouteLatencySnapshot snapshot = new RouteLatencyRecorder("Service", "get", "GET", "/").snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getP99());
+        assertTrue(snapshot.getStatusCodes().isEmpty());
+    }
+
+    @Test
+    public void testPercentiles() {
+        RouteLatencyRecorder recorder = new RouteLatencyRecorder("Service", "get", "GET", "/");
+        for (int i = 1; i <= 100; i++) {
+            recorder.record(TimeUnit.MICROSECONDS.toNanos(i), 200, -1, -1);
+        }
+        RouteLatencySnapshot snapshot = recorder.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(5050, snapshot.getSum());
+        assertEquals(1, snapshot.getMin());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(50.5, snapshot.getMean(), 0.01);
+        assertEquals(50, snapshot.getP50());
+        assertEquals(90, snapshot.getP90());
+        assertEquals(99, snapshot.getP99());
+        assertEquals(100, snapshot.getP999());
+    }
+
+    @Test
+    public void testSnapshotsAreCumulativeAndImmutable() {
+        RouteLatencyRecorder recorder = new RouteLatencyRecorder("Service", "get", "GET", "/");
+        recorder.record(TimeUnit.MICROSECONDS.toNanos(10), 200, -1, -1);
+        RouteLatencySnapshot first = recorder.snapshot();
+
+        recorder.record(TimeUnit.MICROSECONDS.toNanos(30), 200, -1, -1);
+        RouteLatencySnapshot second = recorder.snapshot();
+        RouteLatencySnapshot third = recorder.snapshot();
+
+        assertEquals(1, first.getCount());
+        assertEquals(10, first.getMax());
+        assertEquals(2, second.getCount());
+        assertEquals(10, second.getMin());
+        assertEquals(30, second.getMax());
+        assertEquals(2, third.getCount());
+        assertEquals(40, third.getSum());
+    }
+
+    @Test
+    public void testCountersAndOutOfRangeValues() {
+        RouteLatencyRecorder recorder = new RouteLatencyRecorder("Service", "post", "POST", "/items");
+        recorder.record(-5, 201, 100, 20);
+        recorder.record(TimeUnit.HOURS.toNanos(2), 201, -1, 30);
+        recorder.record(1000, 700, 50, -1);
+
+        RouteLatencySnapshot snapshot = recorder.snapshot();
+        assertEquals(3, snapshot.getCount());
+        assertEquals(0, snapshot.getMin());
+        // Latencies above the trackable range are capped at one hour, within the precision of the histogram
+        long hourMicros = TimeUnit.HOURS.toMicros(1);
+        assertTrue(snapshot.getMax() >= hourMicros && snapshot.getMax() <= hourMicros + hourMicros / 100);
+        assertEquals(Long.valueOf(2), snapshot.getStatusCodes().get(201));
+        assertEquals("Unknown status codes should be counted as 0", Long.valueOf(1),
+                snapshot.getStatusCodes().get(0));
+        assertEquals(150, snapshot.getRequestBytes());
+        assertEquals(50, snapshot.getResponseBytes());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        int threads = 4;
+        int perThread = 10000;
+        RouteLatencyRecorder recorder = new RouteLatencyRecorder("Service", "get", "GET", "/");
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < perThread; i++) {
+                        recorder.record(1000, 200, 1, 1);
+                    }
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            long previousCount = 0;
+            while (!executor.isTerminated()) {
+                long count = recorder.snapshot().getCount();
+                assertTrue("Snapshot counts should never go down", count >= previousCount);
+                previousCount = count;
+            }
+            RouteLatencySnapshot snapshot = recorder.snapshot();
+            assertEquals(threads * perThread, snapshot.getCount());
+            assertEquals(Long.valueOf(threads * perThread), snapshot.getStatusCodes().get(200));
+            assertEquals(threads * perThread, snapshot.getRequestBytes());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRegistryCreatesOneRecorderPerMethod() throws Exception {
+        RouteLatencyRegistry registry = new RouteLatencyRegistry();
+        RouteLatencyRecorder recorder = registry.getRecorder(TestService.class.getMethod("get"));
+        assertSame(recorder, registry.getRecorder(TestService.class.getMethod("get")));
+        assertEquals(TestService.class.getName(), recorder.getService());
+        assertEquals("get", recorder.getJavaMethod());
+        assertEquals("GET", recorder.getHttpMethod());
+        assertEquals("/test/items", recorder.getPath());
+        assertEquals(1, registry.snapshots().size());
+    }
+
+    /**
+     * Resource used to create recorders.
+     */
+    @Path("/test/")
+    public static class TestService {
+
+        @GET
+        @Path("items")
+        public String get() {
+            return "items";
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.analytics.metrics;
+
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests for {@link PrometheusFormat}.
+ */
+public class PrometheusFormatTest {
+
+    @Test
+    public void testName() {
+        assertEquals("http_requests_total", name("http_requests_total"));
+        assertEquals("org_wso2_msf4j_Service_get", name("org.wso2.msf4j.Service.get"));
+        assertEquals("jvm:memory_used", name("jvm:memory-used"));
+        assertEquals("_2xx_responses", name("2xx.responses"));
+        assertEquals("route_1", name("route 1"));
+    }
+
+    @Test
+    public void testLabelValue() {
+        assertEquals("plain /path", labelValue("plain /path"));
+        assertEquals("C:\\\\temp", labelValue("C:\\temp"));
+        assertEquals("say \\\"hi\\\"", labelValue("say \"hi\""));
+        assertEquals("first\\nsecond", labelValue("first\nsecond"));
+        assertEquals("\\\\\\\"\\n", labelValue("\\\"\n"));
+        assertEquals("tab\tand unicode \u00e9", labelValue("tab\tand unicode \u00e9"));
+        assertEquals("", labelValue(null));
+        assertEquals("", labelValue(""));
+    }
+
+    @Test
+    public void testHeader() {
+        StringBuilder builder = new StringBuilder();
+        PrometheusFormat.appendHeader(builder, "timer.name", "summary", "Timer timer.name");
+        assertEquals("# HELP timer_name Timer timer.name\n# TYPE timer_name summary\n", builder.toString());
+    }
+
+    @Test
+    public void testHelpIsEscaped() {
+        StringBuilder builder = new StringBuilder();
+        PrometheusFormat.appendHeader(builder, "counter", "gauge", "Counter a\\b\nc \"quoted\"");
+        assertEquals("# HELP counter Counter a\\\\b\\nc \"quoted\"\n# TYPE counter gauge\n", builder.toString());
+    }
+
+    @Test
+    public void testSample() {
+        StringBuilder builder = new StringBuilder();
+        PrometheusFormat.appendName(builder, "msf4j.route").append("{path=\"");
+        PrometheusFormat.appendLabelValue(builder, "/items/{id}\n\"x\"").append("\"} ").append(1);
+        assertEquals("msf4j_route{path=\"/items/{id}\\n\\\"x\\\"\"} 1", builder.toString());
+    }
+
+    private static String name(String name) {
+        return PrometheusFormat.appendName(new StringBuilder(), name).toString();
+    }
+
+    private static String labelValue(String value) {
+        return PrometheusFormat.appendLabelValue(new StringBuilder(), value).toString();
+    }
+}
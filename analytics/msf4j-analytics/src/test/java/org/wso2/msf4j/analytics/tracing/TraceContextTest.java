@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.analytics.tracing;
+
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for parsing and propagating {@link TraceContext}.
+ */
+public class TraceContextTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SPAN_ID = "00f067aa0ba902b7";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-" + SPAN_ID + "-01";
+
+    @Test
+    public void testParse() {
+        TraceContext context = TraceContext.parse(TRACEPARENT, "congo=t61rcWkgMzE");
+        assertNotNull(context);
+        assertEquals(TRACE_ID, context.getTraceId());
+        assertEquals(SPAN_ID, context.getSpanId());
+        assertTrue(context.isSampled());
+        assertEquals("congo=t61rcWkgMzE", context.getTraceState());
+        assertEquals(TRACEPARENT, context.toTraceparent());
+    }
+
+    @Test
+    public void testParseFlags() {
+        assertFalse(TraceContext.parse("00-" + TRACE_ID + "-" + SPAN_ID + "-00", null).isSampled());
+        TraceContext context = TraceContext.parse("00-" + TRACE_ID + "-" + SPAN_ID + "-03", null);
+        assertTrue("Only the sampled bit should be checked", context.isSampled());
+        assertEquals("00-" + TRACE_ID + "-" + SPAN_ID + "-03", context.toTraceparent());
+    }
+
+    @Test
+    public void testSurroundingWhitespaceIsIgnored() {
+        TraceContext context = TraceContext.parse("  " + TRACEPARENT + " ", " state=1 ");
+        assertNotNull(context);
+        assertEquals("state=1", context.getTraceState());
+    }
+
+    @Test
+    public void testFutureVersions() {
+        assertNotNull(TraceContext.parse("01-" + TRACE_ID + "-" + SPAN_ID + "-01", null));
+        assertNotNull("Later versions may add fields",
+                TraceContext.parse("cc-" + TRACE_ID + "-" + SPAN_ID + "-01-extra", null));
+        assertNull(TraceContext.parse("cc-" + TRACE_ID + "-" + SPAN_ID + "-01extra", null));
+    }
+
+    @Test
+    public void testRejected() {
+        assertNull(TraceContext.parse(null, null));
+        assertNull(TraceContext.parse("", null));
+        assertNull("Too short", TraceContext.parse(TRACEPARENT.substring(1), null));
+        assertNull("Version 00 has no more fields", TraceContext.parse(TRACEPARENT + "-extra", null));
+        assertNull("Version ff is invalid", TraceContext.parse("ff-" + TRACE_ID + "-" + SPAN_ID + "-01", null));
+        assertNull("Upper case hex", TraceContext.parse("00-" + TRACE_ID.toUpperCase() + "-" + SPAN_ID + "-01", null));
+        assertNull("Zero trace id", TraceContext.parse("00-" + repeat('0', 32) + "-" + SPAN_ID + "-01", null));
+        assertNull("Zero span id", TraceContext.parse("00-" + TRACE_ID + "-" + repeat('0', 16) + "-01", null));
+        assertNull("Wrong separator", TraceContext.parse("00_" + TRACE_ID + "-" + SPAN_ID + "-01", null));
+        assertNull("Wrong separator", TraceContext.parse("00-" + TRACE_ID + "_" + SPAN_ID + "-01", null));
+        assertNull("Invalid flags", TraceContext.parse("00-" + TRACE_ID + "-" + SPAN_ID + "-0g", null));
+        assertNull("Invalid version", TraceContext.parse("0x-" + TRACE_ID + "-" + SPAN_ID + "-01", null));
+        assertNull("Non hex trace id",
+                TraceContext.parse("00-" + TRACE_ID.replace('4', 'z') + "-" + SPAN_ID + "-01", null));
+    }
+
+    @Test
+    public void testInvalidTraceStateIsDropped() {
+        assertNull(TraceContext.parse(TRACEPARENT, " ").getTraceState());
+        assertNull(TraceContext.parse(TRACEPARENT, "a=" + repeat('b', 511)).getTraceState());
+        assertNull(TraceContext.parse(TRACEPARENT, null).getTraceState());
+    }
+
+    @Test
+    public void testNewTraceAndChild() {
+        TraceContext trace = TraceContext.newTrace(true);
+        assertTrue(TraceIds.isValidId(trace.getTraceId(), 0, TraceIds.TRACE_ID_LENGTH));
+        assertTrue(TraceIds.isValidId(trace.getSpanId(), 0, TraceIds.SPAN_ID_LENGTH));
+        assertTrue(trace.isSampled());
+        assertFalse(TraceContext.newTrace(false).isSampled());
+
+        TraceContext child = TraceContext.parse(TRACEPARENT, "state=1").newChild();
+        assertEquals(TRACE_ID, child.getTraceId());
+        assertFalse(SPAN_ID.equals(child.getSpanId()));
+        assertTrue(child.isSampled());
+        assertEquals("state=1", child.getTraceState());
+
+        TraceContext roundTrip = TraceContext.parse(trace.toTraceparent(), null);
+        assertEquals(trace.getTraceId(), roundTrip.getTraceId());
+        assertEquals(trace.getSpanId(), roundTrip.getSpanId());
+    }
+
+    @Test
+    public void testNewTraceWithTraceId() {
+        TraceContext context = TraceContext.newTrace(TRACE_ID, true);
+        assertEquals(TRACE_ID, context.getTraceId());
+        assertTrue(TraceIds.isValidId(context.getSpanId(), 0, TraceIds.SPAN_ID_LENGTH));
+        assertTrue(context.isSampled());
+
+        assertNull(TraceContext.newTrace(null, true));
+        assertNull("Too short", TraceContext.newTrace(TRACE_ID.substring(1), true));
+        assertNull("Upper case hex", TraceContext.newTrace(TRACE_ID.toUpperCase(), true));
+        assertNull("Zero trace id", TraceContext.newTrace(repeat('0', 32), true));
+        assertNull("UUID with dashes", TraceContext.newTrace("4bf92f35-77b3-4da6-a3ce-929d0e0e4736", true));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
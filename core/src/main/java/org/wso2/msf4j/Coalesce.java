@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets concurrent identical GET requests share one invocation of the resource method. While the method runs for a
+ * request, requests with the same path, query string, {@code Accept} header and {@link #headers()} wait for it
+ * instead of invoking the method again, and all of them get a copy of the same serialized response. Interceptors
+ * still run for every request. The invocation is shared only while it runs, nothing is cached afterwards.
+ * <p>
+ * Only the headers set by the resource method are shared; headers set by interceptors stay per request. A response
+ * which is streamed, such as a file or a {@code StreamingOutput}, cannot be shared, so the waiting requests invoke
+ * the method themselves. A resource method which sends its response through a {@code @Context Response} parameter
+ * should not be coalesced.
+ *
+ * @since 2.0.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Coalesce {
+
+    /**
+     * Request headers which are part of the key of a request, in addition to the {@code Accept} header. Any header
+     * which changes the response must be listed, so that one client never gets the response of another.
+     *
+     * @return names of the headers
+     */
+    String[] headers() default {"Authorization", "Cookie"};
+}
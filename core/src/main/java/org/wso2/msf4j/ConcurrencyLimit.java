@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits the number of requests a resource method processes at the same time. When placed on the class, every
+ * resource method of the microservice gets its own limiter with these settings. A request which goes over the limit
+ * is answered with {@code 503 Service Unavailable} and a {@code Retry-After} header right after routing, without
+ * resolving the arguments of the method or calling the interceptors.
+ * <p>
+ * A server wide limit, checked before routing, can be set through the {@code MSF4J_MAX_CONCURRENT_REQUESTS},
+ * {@code MSF4J_CONCURRENCY_LIMIT_ALGORITHM}, {@code MSF4J_CONCURRENCY_MIN_LIMIT},
+ * {@code MSF4J_CONCURRENCY_MAX_LIMIT} and {@code MSF4J_RETRY_AFTER_SECONDS} system properties or environment
+ * variables.
+ *
+ * @since 2.0.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimit {
+
+    /**
+     * How the limit is maintained.
+     */
+    enum Algorithm {
+        /**
+         * The limit never changes.
+         */
+        STATIC,
+        /**
+         * Additive increase, multiplicative decrease. The limit grows by one after each successful request which
+         * used at least half of it and is cut by 10% when a request fails with a server error.
+         */
+        AIMD,
+        /**
+         * The limit follows the ratio between the lowest observed latency and the current latency, in the style of
+         * TCP Vegas. It shrinks as soon as requests start queuing up behind a slow dependency, before they fail.
+         */
+        GRADIENT
+    }
+
+    /**
+     * Maximum number of requests in progress, or the initial limit of an adaptive algorithm.
+     */
+    int value();
+
+    Algorithm algorithm() default Algorithm.STATIC;
+
+    /**
+     * Lower bound of an adaptive limit.
+     */
+    int minLimit() default 1;
+
+    /**
+     * Upper bound of an adaptive limit.
+     */
+    int maxLimit() default 1000;
+
+    /**
+     * Value of the {@code Retry-After} header sent with a rejection.
+     */
+    int retryAfterSeconds() default 1;
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget of a request, and the signal that the work done for it is no longer needed. A resource method gets the
+ * deadline of its request with a {@code @Context Deadline} parameter, so that it can stop early or hand the
+ * remaining budget over to the services it calls:
+ * <pre>
+ * &#64;GET
+ * &#64;Path("/{id}")
+ * public Order get(&#64;PathParam("id") String id, &#64;Context Deadline deadline) {
+ *     return orderClient.get(id, deadline.timeRemaining(TimeUnit.MILLISECONDS));
+ * }
+ * </pre>
+ * The deadline of a request is taken from the {@link RequestTimeout} annotation of its resource method, or the
+ * server wide {@code MSF4J_REQUEST_TIMEOUT} in milliseconds, and is shortened to the timeout the client sent in a
+ * {@value #REQUEST_TIMEOUT_HEADER} or {@value #GRPC_TIMEOUT_HEADER} header. When it expires, MSF4J answers with
+ * {@code 504 Gateway Timeout} right away and whatever the resource method sends afterwards is dropped. The resource
+ * method itself is not interrupted; it should check {@link #isCancelled()} or register a listener with
+ * {@link #onCancel(Runnable)}.
+ * <p>
+ * The deadline is also set as the {@value #PROPERTY} property of the carbon message of the request, so that the
+ * transport can {@link #cancel()} it when the client disconnects.
+ *
+ * @since 2.0.0
+ */
+public final class Deadline {
+
+    /**
+     * Header through which a client sends its timeout, in the {@value #GRPC_TIMEOUT_HEADER} format.
+     */
+    public static final String REQUEST_TIMEOUT_HEADER = "Request-Timeout";
+
+    /**
+     * gRPC timeout header: a positive integer of at most 8 digits followed by one of the units H, M, S, m, u or n.
+     */
+    public static final String GRPC_TIMEOUT_HEADER = "grpc-timeout";
+
+    /**
+     * Name of the carbon message property which holds the deadline of a request.
+     */
+    public static final String PROPERTY = "MSF4J_REQUEST_DEADLINE";
+
+    private static final int MAX_TIMEOUT_DIGITS = 8;
+    private static final long MAX_TIMEOUT_VALUE = 99999999L;
+
+    private static final ScheduledThreadPoolExecutor timer = createTimer();
+
+    private enum State {
+        ACTIVE, EXPIRED, CANCELLED, COMPLETED
+    }
+
+    private final long deadlineNanos;
+    private final boolean hasTimeout;
+    private volatile State state = State.ACTIVE;
+    private List<Runnable> listeners;
+    private ScheduledFuture<?> expiry;
+
+    private Deadline(long timeoutNanos, boolean hasTimeout) {
+        this.hasTimeout = hasTimeout;
+        this.deadlineNanos = hasTimeout ? System.nanoTime() + timeoutNanos : 0;
+    }
+
+    /**
+     * Create a deadline which expires after the given time.
+     *
+     * @param timeout  time until the deadline expires, expired right away if not positive
+     * @param timeUnit unit of the timeout
+     * @return the deadline
+     */
+    public static Deadline after(long timeout, TimeUnit timeUnit) {
+        long timeoutNanos = timeUnit.toNanos(timeout);
+        Deadline deadline = new Deadline(timeoutNanos, true);
+        if (timeoutNanos <= 0) {
+            deadline.finish(State.EXPIRED);
+        } else {
+            ScheduledFuture<?> expiry = timer.schedule(() -> deadline.finish(State.EXPIRED), timeoutNanos,
+                    TimeUnit.NANOSECONDS);
+            synchronized (deadline) {
+                deadline.expiry = expiry;
+            }
+        }
+        return deadline;
+    }
+
+    /**
+     * Create a deadline which never expires, but can still be cancelled.
+     *
+     * @return the deadline
+     */
+    public static Deadline none() {
+        return new Deadline(0, false);
+    }
+
+    /**
+     * @return true if the deadline expires at some point
+     */
+    public boolean hasTimeout() {
+        return hasTimeout;
+    }
+
+    /**
+     * @param timeUnit unit of the returned time
+     * @return time left until the deadline expires, 0 once it has expired, or {@link Long#MAX_VALUE} if it has no
+     * timeout
+     */
+    public long timeRemaining(TimeUnit timeUnit) {
+        if (!hasTimeout) {
+            return Long.MAX_VALUE;
+        }
+        if (state == State.EXPIRED) {
+            return 0;
+        }
+        return timeUnit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return true if the deadline has expired
+     */
+    public boolean isExpired() {
+        State current = state;
+        // The timer may lag behind, so an active deadline is also checked against the clock
+        return current == State.EXPIRED
+                || (hasTimeout && current == State.ACTIVE && deadlineNanos - System.nanoTime() <= 0);
+    }
+
+    /**
+     * @return true if the deadline has expired or was cancelled, which means nobody waits for the result anymore
+     */
+    public boolean isCancelled() {
+        return state == State.CANCELLED || isExpired();
+    }
+
+    /**
+     * Throw if the result of the work is no longer needed.
+     *
+     * @throws CancellationException if the deadline has expired or was cancelled
+     */
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException(isExpired() ? "Request deadline expired" : "Request cancelled");
+        }
+    }
+
+    /**
+     * Signal that the result is no longer needed, for example because the client disconnected. Does nothing if the
+     * deadline has already expired, was cancelled or the request has completed.
+     */
+    public void cancel() {
+        finish(State.CANCELLED);
+    }
+
+    /**
+     * Called by MSF4J once the response of the request has been sent. Stops the expiry timer without calling the
+     * listeners.
+     */
+    public void complete() {
+        finish(State.COMPLETED);
+    }
+
+    /**
+     * Register a listener which is called once when the deadline expires or is cancelled. The listener runs on the
+     * thread which cancelled the deadline or on the timer thread, so it should not block. It runs right away if the
+     * deadline has already expired or was cancelled, and never runs if the request has completed.
+     *
+     * @param listener listener to call
+     */
+    public void onCancel(Runnable listener) {
+        synchronized (this) {
+            if (state == State.ACTIVE) {
+                if (listeners == null) {
+                    listeners = new ArrayList<>(2);
+                }
+                listeners.add(listener);
+                return;
+            }
+        }
+        if (state != State.COMPLETED) {
+            listener.run();
+        }
+    }
+
+    /**
+     * @return the time remaining as a {@value #GRPC_TIMEOUT_HEADER} header value, to be sent to the services called
+     * for the request, or null if the deadline has no timeout
+     */
+    public String toTimeoutHeaderValue() {
+        if (!hasTimeout) {
+            return null;
+        }
+        long millis = timeRemaining(TimeUnit.MILLISECONDS);
+        return (millis <= MAX_TIMEOUT_VALUE) ? millis + "m" : Math.min(millis / 1000, MAX_TIMEOUT_VALUE) + "S";
+    }
+
+    /**
+     * Parse a timeout in the {@value #GRPC_TIMEOUT_HEADER} format. A value without a unit is read as seconds.
+     *
+     * @param value header value
+     * @return the timeout in nanoseconds, or -1 if the value is not a valid timeout
+     */
+    public static long parseTimeoutNanos(String value) {
+        if (value == null) {
+            return -1;
+        }
+        String timeout = value.trim();
+        if (timeout.isEmpty()) {
+            return -1;
+        }
+        TimeUnit timeUnit = TimeUnit.SECONDS;
+        int digits = timeout.length();
+        switch (timeout.charAt(timeout.length() - 1)) {
+            case 'H':
+                timeUnit = TimeUnit.HOURS;
+                digits--;
+                break;
+            case 'M':
+                timeUnit = TimeUnit.MINUTES;
+                digits--;
+                break;
+            case 'S':
+                digits--;
+                break;
+            case 'm':
+                timeUnit = TimeUnit.MILLISECONDS;
+                digits--;
+                break;
+            case 'u':
+                timeUnit = TimeUnit.MICROSECONDS;
+                digits--;
+                break;
+            case 'n':
+                timeUnit = TimeUnit.NANOSECONDS;
+                digits--;
+                break;
+            default:
+                break;
+        }
+        if (digits == 0 || digits > MAX_TIMEOUT_DIGITS) {
+            return -1;
+        }
+        long amount = 0;
+        for (int i = 0; i < digits; i++) {
+            char c = timeout.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            amount = amount * 10 + (c - '0');
+        }
+        return timeUnit.toNanos(amount);
+    }
+
+    private void finish(State finalState) {
+        List<Runnable> toNotify;
+        ScheduledFuture<?> toCancel;
+        synchronized (this) {
+            if (state != State.ACTIVE) {
+                return;
+            }
+            state = finalState;
+            toNotify = listeners;
+            listeners = null;
+            toCancel = expiry;
+            expiry = null;
+        }
+        if (toCancel != null && finalState != State.EXPIRED) {
+            toCancel.cancel(false);
+        }
+        if (toNotify != null && finalState != State.COMPLETED) {
+            toNotify.forEach(Runnable::run);
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "msf4j-request-deadline-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Most requests complete in time, so their expiry tasks should not pile up in the queue
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
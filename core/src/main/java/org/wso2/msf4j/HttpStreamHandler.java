@@ -32,6 +32,19 @@ public interface HttpStreamHandler {
      */
     void init(Response response);
 
+    /**
+     * Called after {@link #init(Response)} and before the first chunk. The handler receives chunks only as it
+     * requests them through the subscription, and {@link #end()} is called once the last chunk is delivered, whether
+     * or not the handler has requested more. The thread which streams the request parks while there is no demand.
+     * <p>
+     * By default, the whole body is requested upfront.
+     *
+     * @param subscription subscription to request chunks through
+     */
+    default void onSubscribe(HttpStreamSubscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
     /**
      * Http request content will be streamed directly to this method.
      *
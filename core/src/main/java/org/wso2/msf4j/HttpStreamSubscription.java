@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j;
+
+/**
+ * Lets an {@link HttpStreamHandler} control how many body chunks are delivered to it. Chunks are only taken off the
+ * request while the handler has outstanding demand, so a handler which falls behind is not handed more data than it
+ * asked for.
+ * <p>
+ * Both methods can be called from any thread, including from within the callbacks of the handler.
+ */
+public interface HttpStreamSubscription {
+
+    /**
+     * Ask for more chunks. Demand adds up, and {@link Long#MAX_VALUE} asks for the whole body.
+     *
+     * @param n number of additional chunks to deliver, must be positive
+     */
+    void request(long n);
+
+    /**
+     * Stop delivering chunks. Neither {@link HttpStreamHandler#chunk(java.nio.ByteBuffer)} nor
+     * {@link HttpStreamHandler#end()} is called after the subscription is cancelled, and the rest of the request body
+     * is discarded.
+     */
+    void cancel();
+}
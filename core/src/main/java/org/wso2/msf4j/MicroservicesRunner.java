@@ -24,11 +24,15 @@ import org.wso2.carbon.transport.http.netty.config.TransportsConfiguration;
 import org.wso2.carbon.transport.http.netty.config.YAMLTransportConfigurationBuilder;
 import org.wso2.carbon.transport.http.netty.internal.NettyTransportContextHolder;
 import org.wso2.carbon.transport.http.netty.listener.NettyListener;
+import org.wso2.msf4j.internal.InFlightRequests;
 import org.wso2.msf4j.internal.MSF4JMessageProcessor;
 import org.wso2.msf4j.internal.MicroservicesRegistry;
 import org.wso2.msf4j.internal.swagger.SwaggerDefinitionService;
+import org.wso2.msf4j.util.SystemVariableUtil;
 
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.ws.rs.ext.ExceptionMapper;
 
 /**
@@ -38,9 +42,12 @@ import javax.ws.rs.ext.ExceptionMapper;
 public class MicroservicesRunner {
 
     private static final Logger log = LoggerFactory.getLogger(MicroservicesRunner.class);
+    private static final String SHUTDOWN_TIMEOUT = "MSF4J_SHUTDOWN_TIMEOUT";
+    private static final String DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = "30000";
     private TransportManager transportManager = new TransportManager();
     private long startTime = System.currentTimeMillis();
     private boolean isStarted;
+    private final AtomicBoolean isStopped = new AtomicBoolean();
     private MicroservicesRegistry msRegistry = new MicroservicesRegistry();
 
     /**
@@ -162,10 +169,47 @@ public class MicroservicesRunner {
     }
 
     /**
-     * Stop this Microservices runner. This will stop all the Netty transports.
+     * Stop this Microservices runner gracefully, waiting for the requests which are being processed for at most
+     * {@code MSF4J_SHUTDOWN_TIMEOUT} milliseconds, 30 seconds by default.
+     * {@link #stop(long, TimeUnit)}
      */
     public void stop() {
+        String shutdownTimeout = SystemVariableUtil.getValue(SHUTDOWN_TIMEOUT, DEFAULT_SHUTDOWN_TIMEOUT_MILLIS);
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(shutdownTimeout.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid shutdown timeout '" + shutdownTimeout + "', using " + DEFAULT_SHUTDOWN_TIMEOUT_MILLIS +
+                    "ms");
+            timeoutMillis = Long.parseLong(DEFAULT_SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        stop(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop this Microservices runner gracefully. Responses are sent with {@code Connection: close} so that clients
+     * stop reusing their connections, server-sent event streams are ended so that their clients reconnect elsewhere,
+     * and the runner waits for the requests which are being processed, including streamed responses which have not
+     * been written yet, before it stops all the Netty transports. The {@code PreDestroy} methods of the microservices
+     * are called once the transports have stopped. Only the first call has an effect.
+     *
+     * @param timeout  maximum time to wait for the requests which are being processed, 0 to stop right away
+     * @param timeUnit unit of the timeout
+     */
+    public void stop(long timeout, TimeUnit timeUnit) {
+        if (!isStopped.compareAndSet(false, true)) {
+            return;
+        }
+        InFlightRequests inFlightRequests = msRegistry.getInFlightRequests();
+        inFlightRequests.startDraining();
+        if (!inFlightRequests.awaitCompletion(timeout, timeUnit)) {
+            log.warn("Stopping with " + inFlightRequests.getCount() + " requests still in flight after " +
+                    timeUnit.toMillis(timeout) + "ms");
+        }
         transportManager.stopTransports();
+        if (isStarted) {
+            msRegistry.preDestroyServices();
+        }
         log.info("Microservices server stopped");
     }
 
@@ -180,9 +224,10 @@ public class MicroservicesRunner {
 
     protected void handleServiceLifecycleMethods() {
         msRegistry.initServices();
+        // Lets rolling deploys drain the server instead of dropping the requests which are being processed
         Runtime.getRuntime().addShutdownHook(new Thread() {
             public void run() {
-                msRegistry.preDestroyServices();
+                MicroservicesRunner.this.stop();
             }
         });
     }
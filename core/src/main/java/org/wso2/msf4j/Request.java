@@ -2,6 +2,7 @@ package org.wso2.msf4j;
 
 import org.wso2.carbon.messaging.CarbonMessage;
 import org.wso2.carbon.messaging.Constants;
+import org.wso2.msf4j.io.TempFileManager;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -18,6 +19,9 @@ public class Request {
     private final CarbonMessage carbonMessage;
     private List<String> acceptTypes = null;
     private String contentType = null;
+    private final RequestTimings timings = new RequestTimings();
+    private TempFileManager tempFileManager;
+    private Deadline deadline;
 
     public Request(CarbonMessage carbonMessage) {
         this.carbonMessage = carbonMessage;
@@ -116,6 +120,60 @@ public class Request {
         carbonMessage.removeProperty(key);
     }
 
+    /**
+     * @return phase timings of this request
+     */
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * @return deadline of this request, which has no timeout if none was configured or sent by the client
+     */
+    public Deadline getDeadline() {
+        if (deadline == null) {
+            setDeadline(Deadline.none());
+        }
+        return deadline;
+    }
+
+    /**
+     * Set the deadline of this request. Called by MSF4J once the request has been routed.
+     *
+     * @param deadline deadline of the request
+     */
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+        carbonMessage.setProperty(Deadline.PROPERTY, deadline);
+    }
+
+    /**
+     * @return manager of the temporary files which are deleted once the response of this request is complete, which
+     * for a streamed response is once its last chunk has been written to it
+     */
+    public TempFileManager getTempFileManager() {
+        if (tempFileManager == null) {
+            tempFileManager = new TempFileManager();
+        }
+        return tempFileManager;
+    }
+
+    /**
+     * @return true if temporary files may have been created for this request
+     */
+    public boolean hasTempFiles() {
+        return tempFileManager != null;
+    }
+
+    /**
+     * Delete the temporary files created for this request. Called by MSF4J once the response is complete.
+     */
+    public void deleteTempFiles() {
+        if (tempFileManager != null) {
+            tempFileManager.close();
+        }
+    }
+
     /**
      * @return URL of the request.
      */
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits applied to the request body of a resource method, or of every resource method of a microservice when placed
+ * on the class. Limits are enforced while the body arrives and a violation is answered with
+ * {@code 413 Request Entity Too Large}. A request which declares a larger {@code Content-Length} is rejected before
+ * any of its body is read.
+ * <p>
+ * An attribute left at {@link #GLOBAL} falls back to the class level annotation and then to the server wide value,
+ * which can be set through a system property or an environment variable of the same name.
+ *
+ * @since 2.0.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestLimits {
+
+    /**
+     * Use the value configured for the enclosing class or for the server.
+     */
+    long GLOBAL = -2;
+
+    /**
+     * Do not limit.
+     */
+    long UNLIMITED = -1;
+
+    /**
+     * Maximum size of the request body in bytes. Server wide value: {@code MSF4J_MAX_REQUEST_BODY_SIZE}.
+     */
+    long maxBodySize() default GLOBAL;
+
+    /**
+     * Maximum number of parts in a <code>multipart/form-data</code> body. Server wide value:
+     * {@code MSF4J_MAX_FORM_PART_COUNT}.
+     */
+    long maxPartCount() default GLOBAL;
+
+    /**
+     * Maximum size of a single part of a <code>multipart/form-data</code> body in bytes. Server wide value:
+     * {@code MSF4J_MAX_FORM_PART_SIZE}.
+     */
+    long maxPartSize() default GLOBAL;
+
+    /**
+     * Size in bytes up to which an uploaded file is kept in memory. Larger files are written to a temporary file as
+     * they arrive, 0 writes every file to disk and {@link #UNLIMITED} keeps every file in memory. Server wide value:
+     * {@code MSF4J_FORM_PART_MEMORY_THRESHOLD}, 10240 bytes by default.
+     */
+    long memoryThreshold() default GLOBAL;
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time a resource method has to send its response. When placed on the class, it applies to every resource method of
+ * the microservice which is not annotated itself. Once the time is up, the client gets a {@code 504 Gateway Timeout}
+ * response and the {@link Deadline} of the request is expired. A timeout of 0 turns the server wide
+ * {@code MSF4J_REQUEST_TIMEOUT} off, for example for long polling resources.
+ *
+ * @since 2.0.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestTimeout {
+
+    /**
+     * @return time the resource method has to respond, 0 for no timeout
+     */
+    long value();
+
+    /**
+     * @return unit of the timeout
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j;
+
+/**
+ * {@link System#nanoTime()} marks taken while a request moves through the framework, so that the time spent in
+ * routing, interceptors, the resource method and response serialization can be told apart.
+ * <p>
+ * A mark is zero until the corresponding phase has ended. Marks are taken by the request thread and are meant to be
+ * read by the same thread, for example in {@link Interceptor#postCall}.
+ *
+ * @since 2.0.0
+ */
+public final class RequestTimings {
+
+    /**
+     * Points in the request processing flow.
+     */
+    public enum Phase {
+        /**
+         * The request was handed over to MSF4J.
+         */
+        RECEIVED,
+        /**
+         * The resource method was resolved.
+         */
+        ROUTED,
+        /**
+         * All interceptor preCalls returned.
+         */
+        PRE_CALLS_DONE,
+        /**
+         * The resource method returned.
+         */
+        INVOKED,
+        /**
+         * The response entity was written.
+         */
+        SERIALIZED
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] marks = new long[PHASES.length];
+
+    public RequestTimings() {
+        marks[Phase.RECEIVED.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Record that a phase ended now.
+     *
+     * @param phase phase which ended
+     */
+    public void mark(Phase phase) {
+        marks[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * @param phase phase to look up
+     * @return {@link System#nanoTime()} at which the phase ended, or zero if it has not ended
+     */
+    public long get(Phase phase) {
+        return marks[phase.ordinal()];
+    }
+
+    /**
+     * @param phase phase to look up
+     * @return true if the phase has ended
+     */
+    public boolean isMarked(Phase phase) {
+        return marks[phase.ordinal()] != 0;
+    }
+}
@@ -240,19 +240,44 @@ public class Response {
      * Send the HTTP response using the content in this object.
      */
     public void send() {
+        send(carbonCallback);
+    }
+
+    /**
+     * Serialize the response and hand it over to the given callback instead of sending it to the client.
+     *
+     * @param callback callback which gets the serialized carbon message
+     */
+    public void send(CarbonCallback callback) {
         carbonMessage.setProperty(Constants.HTTP_STATUS_CODE, getStatusCode());
-        processEntity();
+        processEntity(callback);
+    }
+
+    /**
+     * Send a response which has already been serialized, such as one shared between coalesced requests.
+     *
+     * @param statusCode HTTP status code
+     * @param headers    headers to add to the response, including the content headers
+     * @param body       complete body of the response
+     */
+    public void send(int statusCode, Map<String, String> headers, ByteBuffer body) {
+        setStatus(statusCode);
+        setHeaders(headers);
+        carbonMessage.setProperty(Constants.HTTP_STATUS_CODE, statusCode);
+        carbonMessage.addMessageBody(body);
+        carbonMessage.setEndOfMsgAdded(true);
+        carbonCallback.done(carbonMessage);
     }
 
     @SuppressWarnings("unchecked")
-    private void processEntity() {
+    private void processEntity(CarbonCallback callback) {
         if (entity != null) {
             EntityWriter entityWriter = EntityWriterRegistry.getEntityWriter(entity.getClass());
-            entityWriter.writeData(carbonMessage, entity, mediaType, chunkSize, carbonCallback);
+            entityWriter.writeData(carbonMessage, entity, mediaType, chunkSize, callback);
         } else {
             carbonMessage.addMessageBody(ByteBuffer.allocate(0));
             carbonMessage.setEndOfMsgAdded(true);
-            carbonCallback.done(carbonMessage);
+            callback.done(carbonMessage);
         }
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the number of concurrent calls to a dependency with a semaphore, so that a slow dependency can only tie up
+ * that many request threads. Calls run on the calling thread, there is no thread pool to hand them over to.
+ *
+ * @since 2.0.0
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore semaphore;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a bulkhead which rejects calls right away when it is full.
+     *
+     * @param name               name of the bulkhead, used in metrics
+     * @param maxConcurrentCalls maximum number of concurrent calls
+     */
+    public Bulkhead(String name, int maxConcurrentCalls) {
+        this(name, maxConcurrentCalls, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates a bulkhead.
+     *
+     * @param name               name of the bulkhead, used in metrics
+     * @param maxConcurrentCalls maximum number of concurrent calls
+     * @param maxWait            maximum time a call waits for a permit when the bulkhead is full
+     * @param timeUnit           unit of maxWait
+     */
+    public Bulkhead(String name, int maxConcurrentCalls, long maxWait, TimeUnit timeUnit) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Maximum concurrent calls of " + name + " should be a positive value");
+        }
+        if (maxWait < 0) {
+            throw new IllegalArgumentException("Maximum wait of " + name + " should not be negative");
+        }
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = timeUnit.toNanos(maxWait);
+        this.semaphore = new Semaphore(maxConcurrentCalls);
+    }
+
+    /**
+     * Ask for a permit to make a call. A permitted call must be followed by {@link #release()}.
+     *
+     * @return false if no permit became available within the maximum wait
+     */
+    public boolean tryAcquire() {
+        boolean acquired;
+        if (maxWaitNanos == 0) {
+            acquired = semaphore.tryAcquire();
+        } else {
+            try {
+                acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+        }
+        if (!acquired) {
+            rejected.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    /**
+     * Make a call within the bulkhead.
+     *
+     * @param callable call to make
+     * @param <T>      type of the result
+     * @return result of the call
+     * @throws CallNotPermittedException if the bulkhead is full
+     * @throws Exception                 thrown by the call
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        if (!tryAcquire()) {
+            throw new CallNotPermittedException(name, 1);
+        }
+        try {
+            return callable.call();
+        } finally {
+            release();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * @return number of calls which can still be made
+     */
+    public int getAvailablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    /**
+     * @return number of calls rejected so far
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
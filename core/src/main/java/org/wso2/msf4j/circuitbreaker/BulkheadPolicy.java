@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guards a resource method, or every resource method of a microservice when placed on the class, with a
+ * {@link Bulkhead}. Requests which find the bulkhead full are answered with {@code 503 Service Unavailable} and a
+ * {@code Retry-After} header without calling the method.
+ * <p>
+ * Methods which use the same name share a bulkhead, which can also be used programmatically through
+ * {@link CircuitBreakers#bulkhead(String, int)}.
+ *
+ * @since 2.0.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface BulkheadPolicy {
+
+    /**
+     * Name of the bulkhead. Defaults to the class and method name.
+     */
+    String name() default "";
+
+    int maxConcurrentCalls() default 25;
+
+    /**
+     * Maximum time a request waits for a permit when the bulkhead is full.
+     */
+    long maxWaitMillis() default 0;
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+/**
+ * Thrown when an open {@link CircuitBreaker} or a full {@link Bulkhead} does not permit a call. Carries no stack
+ * trace, since it is raised on every rejected call. When it escapes a resource method, MSF4J answers the request
+ * with {@code 503 Service Unavailable} and a {@code Retry-After} header.
+ *
+ * @since 2.0.0
+ */
+public class CallNotPermittedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final long retryAfterSeconds;
+
+    public CallNotPermittedException(String name, long retryAfterSeconds) {
+        super("Call not permitted by " + name, null, false, false);
+        this.name = name;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return name of the circuit breaker or bulkhead which rejected the call
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return seconds after which the call may be permitted again
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Circuit breaker which stops calling a failing or slow dependency for a while and fails fast instead.
+ * <p>
+ * While {@link State#CLOSED}, the outcome of the last calls is kept in a sliding window. Once the window holds the
+ * minimum number of calls and the rate of failed or slow calls reaches its threshold, the circuit opens and every
+ * call is rejected with a {@link CallNotPermittedException}. After the wait duration a limited number of trial
+ * calls is permitted. If their rates stay below the thresholds the circuit closes, otherwise it opens again.
+ * <p>
+ * Calls run on the calling thread. Permission checks and outcome recording only use atomic variables.
+ *
+ * @since 2.0.0
+ */
+public final class CircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * State of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Calls are permitted and their outcome is tracked.
+         */
+        CLOSED,
+        /**
+         * Calls are rejected.
+         */
+        OPEN,
+        /**
+         * A limited number of trial calls is permitted.
+         */
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int minimumNumberOfCalls;
+    private final long waitDurationInOpenStateNanos;
+    private final int permittedCallsInHalfOpenState;
+    private final OutcomeWindow window;
+    private final OutcomeWindow halfOpenWindow;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile long openUntilNanos;
+
+    public CircuitBreaker(String name) {
+        this(name, new CircuitBreakerConfig());
+    }
+
+    public CircuitBreaker(String name, CircuitBreakerConfig config) {
+        if (config.getFailureRateThreshold() <= 0 || config.getFailureRateThreshold() > 100 ||
+                config.getSlowCallRateThreshold() <= 0 || config.getSlowCallRateThreshold() > 100) {
+            throw new IllegalArgumentException("Rate thresholds of " + name + " should be between 0 and 100");
+        }
+        if (config.getSlidingWindowSize() <= 0 || config.getMinimumNumberOfCalls() <= 0 ||
+                config.getPermittedCallsInHalfOpenState() <= 0) {
+            throw new IllegalArgumentException("Call counts of " + name + " should be positive values");
+        }
+        if (config.getWaitDurationInOpenStateNanos() < 0 || config.getSlowCallDurationNanos() <= 0) {
+            throw new IllegalArgumentException("Durations of " + name + " should be positive values");
+        }
+        this.name = name;
+        this.failureRateThreshold = config.getFailureRateThreshold();
+        this.slowCallRateThreshold = config.getSlowCallRateThreshold();
+        this.slowCallDurationNanos = config.getSlowCallDurationNanos();
+        this.minimumNumberOfCalls = Math.min(config.getMinimumNumberOfCalls(), config.getSlidingWindowSize());
+        this.waitDurationInOpenStateNanos = config.getWaitDurationInOpenStateNanos();
+        this.permittedCallsInHalfOpenState = config.getPermittedCallsInHalfOpenState();
+        this.window = new OutcomeWindow(config.getSlidingWindowSize());
+        this.halfOpenWindow = new OutcomeWindow(permittedCallsInHalfOpenState);
+    }
+
+    /**
+     * Ask for permission to make a call. A permitted call must be followed by {@link #onSuccess(long)},
+     * {@link #onError(long)} or {@link #releasePermission()}.
+     *
+     * @return false if the circuit is open
+     */
+    public boolean tryAcquirePermission() {
+        while (true) {
+            switch (state.get()) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openUntilNanos < 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                        halfOpenWindow.reset();
+                        halfOpenPermits.set(permittedCallsInHalfOpenState);
+                        log.info("Circuit breaker {} is half open", name);
+                    }
+                    break;
+                default:
+                    if (halfOpenPermits.getAndDecrement() > 0) {
+                        return true;
+                    }
+                    halfOpenPermits.incrementAndGet();
+                    rejected.increment();
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * Give back a permission which was not used for a call.
+     */
+    public void releasePermission() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.incrementAndGet();
+        }
+    }
+
+    /**
+     * Record a successful call.
+     *
+     * @param durationNanos time the call took
+     */
+    public void onSuccess(long durationNanos) {
+        onResult(durationNanos, false);
+    }
+
+    /**
+     * Record a failed call.
+     *
+     * @param durationNanos time the call took
+     */
+    public void onError(long durationNanos) {
+        onResult(durationNanos, true);
+    }
+
+    /**
+     * Make a call through the circuit breaker.
+     *
+     * @param callable call to make
+     * @param <T>      type of the result
+     * @return result of the call
+     * @throws CallNotPermittedException if the circuit is open
+     * @throws Exception                 thrown by the call
+     */
+    public <T> T call(Callable<T> callable) throws Exception {
+        if (!tryAcquirePermission()) {
+            throw new CallNotPermittedException(name, getRetryAfterSeconds());
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = callable.call();
+        } catch (Exception | Error e) {
+            onError(System.nanoTime() - start);
+            throw e;
+        }
+        onSuccess(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Make a call through the circuit breaker, falling back to another value if the call fails or is not permitted.
+     *
+     * @param callable call to make
+     * @param fallback provides the result from the exception of a failed or rejected call
+     * @param <T>      type of the result
+     * @return result of the call or of the fallback
+     */
+    public <T> T call(Callable<T> callable, Function<Exception, T> fallback) {
+        try {
+            return call(callable);
+        } catch (Exception e) {
+            return fallback.apply(e);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return percentage of failed calls in the sliding window, or -1 if it holds less than the minimum number of calls
+     */
+    public float getFailureRate() {
+        return getRate(window, window.getFailedCalls(), minimumNumberOfCalls);
+    }
+
+    /**
+     * @return percentage of slow calls in the sliding window, or -1 if it holds less than the minimum number of calls
+     */
+    public float getSlowCallRate() {
+        return getRate(window, window.getSlowCalls(), minimumNumberOfCalls);
+    }
+
+    /**
+     * @return number of calls in the sliding window
+     */
+    public int getBufferedCalls() {
+        return window.getCalls();
+    }
+
+    /**
+     * @return number of calls rejected so far
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return seconds until the circuit permits trial calls, or 0 if it is not open
+     */
+    public long getRetryAfterSeconds() {
+        if (state.get() != State.OPEN) {
+            return 0;
+        }
+        long remaining = openUntilNanos - System.nanoTime();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remaining + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos >= slowCallDurationNanos;
+        switch (state.get()) {
+            case CLOSED:
+                if (window.record(failed, slow) >= minimumNumberOfCalls && isOverThreshold(window,
+                        minimumNumberOfCalls)) {
+                    open(State.CLOSED);
+                }
+                break;
+            case HALF_OPEN:
+                if (halfOpenWindow.record(failed, slow) >= permittedCallsInHalfOpenState) {
+                    if (isOverThreshold(halfOpenWindow, permittedCallsInHalfOpenState)) {
+                        open(State.HALF_OPEN);
+                    } else if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+                        window.reset();
+                        log.info("Circuit breaker {} is closed", name);
+                    }
+                }
+                break;
+            default:
+                // Calls permitted before the circuit opened do not count
+        }
+    }
+
+    private boolean isOverThreshold(OutcomeWindow outcomeWindow, int minimumCalls) {
+        return getRate(outcomeWindow, outcomeWindow.getFailedCalls(), minimumCalls) >= failureRateThreshold ||
+                getRate(outcomeWindow, outcomeWindow.getSlowCalls(), minimumCalls) >= slowCallRateThreshold;
+    }
+
+    private void open(State expected) {
+        openUntilNanos = System.nanoTime() + waitDurationInOpenStateNanos;
+        if (state.compareAndSet(expected, State.OPEN)) {
+            log.warn("Circuit breaker {} is open for {} ms", name,
+                    TimeUnit.NANOSECONDS.toMillis(waitDurationInOpenStateNanos));
+            window.reset();
+        }
+    }
+
+    private static float getRate(OutcomeWindow outcomeWindow, int count, int minimumCalls) {
+        int calls = outcomeWindow.getCalls();
+        if (calls < minimumCalls || calls <= 0) {
+            return -1;
+        }
+        return count * 100f / calls;
+    }
+}
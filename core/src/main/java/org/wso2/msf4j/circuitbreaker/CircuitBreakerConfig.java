@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings of a {@link CircuitBreaker}. The breaker copies the settings when it is created.
+ *
+ * @since 2.0.0
+ */
+public class CircuitBreakerConfig {
+
+    private float failureRateThreshold = 50;
+    private float slowCallRateThreshold = 100;
+    private long slowCallDurationNanos = TimeUnit.SECONDS.toNanos(60);
+    private int slidingWindowSize = 100;
+    private int minimumNumberOfCalls = 20;
+    private long waitDurationInOpenStateNanos = TimeUnit.SECONDS.toNanos(30);
+    private int permittedCallsInHalfOpenState = 5;
+
+    /**
+     * @param failureRateThreshold percentage of failed calls at which the circuit opens, 50 by default
+     */
+    public CircuitBreakerConfig failureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+        return this;
+    }
+
+    /**
+     * @param slowCallRateThreshold percentage of slow calls at which the circuit opens, 100 by default
+     */
+    public CircuitBreakerConfig slowCallRateThreshold(float slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        return this;
+    }
+
+    /**
+     * @param duration duration from which a call is slow, 60 seconds by default
+     * @param timeUnit unit of the duration
+     */
+    public CircuitBreakerConfig slowCallDuration(long duration, TimeUnit timeUnit) {
+        this.slowCallDurationNanos = timeUnit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param slidingWindowSize number of recent calls the rates are computed over, 100 by default
+     */
+    public CircuitBreakerConfig slidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+        return this;
+    }
+
+    /**
+     * @param minimumNumberOfCalls number of calls needed before the rates are checked, 20 by default
+     */
+    public CircuitBreakerConfig minimumNumberOfCalls(int minimumNumberOfCalls) {
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        return this;
+    }
+
+    /**
+     * @param duration time the circuit stays open before trial calls are permitted, 30 seconds by default
+     * @param timeUnit unit of the duration
+     */
+    public CircuitBreakerConfig waitDurationInOpenState(long duration, TimeUnit timeUnit) {
+        this.waitDurationInOpenStateNanos = timeUnit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param permittedCallsInHalfOpenState number of trial calls which decide whether the circuit closes again,
+     *                                      5 by default
+     */
+    public CircuitBreakerConfig permittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+        this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        return this;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationNanos() {
+        return slowCallDurationNanos;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public long getWaitDurationInOpenStateNanos() {
+        return waitDurationInOpenStateNanos;
+    }
+
+    public int getPermittedCallsInHalfOpenState() {
+        return permittedCallsInHalfOpenState;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Guards a resource method, or every resource method of a microservice when placed on the class, with a
+ * {@link CircuitBreaker}. While the circuit is open, requests are answered with {@code 503 Service Unavailable}
+ * and a {@code Retry-After} header without calling the method. A call fails when its response has a 5xx status,
+ * whether the method returned it or an exception was mapped to it, or when the deadline of the request expires. An
+ * exception which is mapped to any other status, such as a 4xx validation error, does not count as a failure.
+ * <p>
+ * Methods which use the same name share a circuit breaker, which can also be used programmatically through
+ * {@link CircuitBreakers#circuitBreaker(String)}.
+ *
+ * @since 2.0.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CircuitBreakerPolicy {
+
+    /**
+     * Name of the circuit breaker. Defaults to the class and method name.
+     */
+    String name() default "";
+
+    float failureRateThreshold() default 50;
+
+    float slowCallRateThreshold() default 100;
+
+    long slowCallDurationMillis() default 60000;
+
+    int slidingWindowSize() default 100;
+
+    int minimumNumberOfCalls() default 20;
+
+    long waitDurationInOpenStateMillis() default 30000;
+
+    int permittedCallsInHalfOpenState() default 5;
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breakers and bulkheads by name, shared between the resource methods annotated with
+ * {@link CircuitBreakerPolicy} or {@link BulkheadPolicy} and the code which uses them programmatically, and
+ * reported as metrics.
+ *
+ * @since 2.0.0
+ */
+public final class CircuitBreakers {
+
+    private static final Map<String, CircuitBreaker> CIRCUIT_BREAKERS = new ConcurrentHashMap<>();
+    private static final Map<String, Bulkhead> BULKHEADS = new ConcurrentHashMap<>();
+
+    private CircuitBreakers() {
+    }
+
+    /**
+     * @param name name of the circuit breaker
+     * @return the circuit breaker of the name, created with the default settings if it does not exist yet
+     */
+    public static CircuitBreaker circuitBreaker(String name) {
+        return CIRCUIT_BREAKERS.computeIfAbsent(name, CircuitBreaker::new);
+    }
+
+    /**
+     * @param name   name of the circuit breaker
+     * @param config settings used if the circuit breaker does not exist yet
+     * @return the circuit breaker of the name
+     */
+    public static CircuitBreaker circuitBreaker(String name, CircuitBreakerConfig config) {
+        return CIRCUIT_BREAKERS.computeIfAbsent(name, key -> new CircuitBreaker(key, config));
+    }
+
+    /**
+     * @param name               name of the bulkhead
+     * @param maxConcurrentCalls maximum number of concurrent calls, used if the bulkhead does not exist yet
+     * @return the bulkhead of the name
+     */
+    public static Bulkhead bulkhead(String name, int maxConcurrentCalls) {
+        return BULKHEADS.computeIfAbsent(name, key -> new Bulkhead(key, maxConcurrentCalls));
+    }
+
+    public static Collection<CircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableCollection(CIRCUIT_BREAKERS.values());
+    }
+
+    public static Collection<Bulkhead> getBulkheads() {
+        return Collections.unmodifiableCollection(BULKHEADS.values());
+    }
+
+    /**
+     * Get the circuit breaker of a resource method from its {@link CircuitBreakerPolicy} annotation, or the annotation
+     * of its class. Called by MSF4J when a microservice is deployed.
+     *
+     * @param method resource method
+     * @return circuit breaker of the method, or an empty Optional if the method is not guarded by one
+     */
+    public static Optional<CircuitBreaker> circuitBreakerForMethod(Method method) {
+        CircuitBreakerPolicy policy = method.getAnnotation(CircuitBreakerPolicy.class);
+        if (policy == null) {
+            policy = method.getDeclaringClass().getAnnotation(CircuitBreakerPolicy.class);
+        }
+        if (policy == null) {
+            return Optional.empty();
+        }
+        CircuitBreakerConfig config = new CircuitBreakerConfig()
+                .failureRateThreshold(policy.failureRateThreshold())
+                .slowCallRateThreshold(policy.slowCallRateThreshold())
+                .slowCallDuration(policy.slowCallDurationMillis(), TimeUnit.MILLISECONDS)
+                .slidingWindowSize(policy.slidingWindowSize())
+                .minimumNumberOfCalls(policy.minimumNumberOfCalls())
+                .waitDurationInOpenState(policy.waitDurationInOpenStateMillis(), TimeUnit.MILLISECONDS)
+                .permittedCallsInHalfOpenState(policy.permittedCallsInHalfOpenState());
+        return Optional.of(circuitBreaker(getName(policy.name(), method), config));
+    }
+
+    /**
+     * Get the bulkhead of a resource method from its {@link BulkheadPolicy} annotation, or the annotation of its
+     * class. Called by MSF4J when a microservice is deployed.
+     *
+     * @param method resource method
+     * @return bulkhead of the method, or an empty Optional if the method is not guarded by one
+     */
+    public static Optional<Bulkhead> bulkheadForMethod(Method method) {
+        BulkheadPolicy policy = method.getAnnotation(BulkheadPolicy.class);
+        if (policy == null) {
+            policy = method.getDeclaringClass().getAnnotation(BulkheadPolicy.class);
+        }
+        if (policy == null) {
+            return Optional.empty();
+        }
+        BulkheadPolicy bulkheadPolicy = policy;
+        return Optional.of(BULKHEADS.computeIfAbsent(getName(policy.name(), method),
+                key -> new Bulkhead(key, bulkheadPolicy.maxConcurrentCalls(), bulkheadPolicy.maxWaitMillis(),
+                        TimeUnit.MILLISECONDS)));
+    }
+
+    private static String getName(String name, Method method) {
+        return name.isEmpty() ? method.getDeclaringClass().getName() + "." + method.getName() : name;
+    }
+}
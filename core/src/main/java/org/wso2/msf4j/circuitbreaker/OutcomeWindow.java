@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcomes of the last calls of a {@link CircuitBreaker}, kept in a ring buffer. Recording a call overwrites the
+ * oldest slot and adjusts the running totals by the difference, so neither recording nor reading the rates takes a
+ * lock or walks the buffer. Totals can be off by the calls being recorded at that moment, which does not matter
+ * for a threshold check.
+ */
+final class OutcomeWindow {
+
+    private static final int RECORDED = 1;
+    private static final int FAILED = 2;
+    private static final int SLOW = 4;
+
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger failedCalls = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    OutcomeWindow(int size) {
+        this.outcomes = new AtomicIntegerArray(size);
+    }
+
+    /**
+     * @return number of calls recorded with this call
+     */
+    int record(boolean failed, boolean slow) {
+        int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+        int slot = (int) (cursor.getAndIncrement() % outcomes.length());
+        int previous = outcomes.getAndSet(slot, outcome);
+        adjust(previous, -1);
+        return adjust(outcome, 1);
+    }
+
+    void reset() {
+        for (int i = 0; i < outcomes.length(); i++) {
+            adjust(outcomes.getAndSet(i, 0), -1);
+        }
+    }
+
+    int getCalls() {
+        return calls.get();
+    }
+
+    int getFailedCalls() {
+        return failedCalls.get();
+    }
+
+    int getSlowCalls() {
+        return slowCalls.get();
+    }
+
+    private int adjust(int outcome, int delta) {
+        if ((outcome & RECORDED) == 0) {
+            return calls.get();
+        }
+        if ((outcome & FAILED) != 0) {
+            failedCalls.addAndGet(delta);
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls.addAndGet(delta);
+        }
+        return calls.addAndGet(delta);
+    }
+}
@@ -19,10 +19,14 @@ import org.wso2.msf4j.formparam.exception.FormUploadException;
 import org.wso2.msf4j.formparam.util.Closeable;
 import org.wso2.msf4j.formparam.util.FormItemHeader;
 import org.wso2.msf4j.formparam.util.StreamUtil;
+import org.wso2.msf4j.io.RequestSizeLimitExceededException;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
+import static java.lang.String.format;
+
 /**
  * <p> This interface provides access to a file or form item that was
  * received within a <code>multipart/form-data</code> POST request.
@@ -38,6 +42,8 @@ import java.io.InputStream;
  */
 public class FormItem {
 
+    private static final String SIZE_EXCEEDED_MESSAGE = "The field %s exceeds its maximum permitted size of %d bytes";
+
     /**
      * The file items content type.
      */
@@ -58,6 +64,11 @@ public class FormItem {
      */
     private final boolean formField;
 
+    /**
+     * The items content length, if known, or -1.
+     */
+    private final long contentLength;
+
     /**
      * The file items input stream.
      */
@@ -76,15 +87,22 @@ public class FormItem {
      * @param pContentType   The items content type, or null.
      * @param pFormField     Whether the item is a form field.
      * @param pContentLength The items content length, if known, or -1
-     * @throws IOException Creating the file item failed.
+     * @param pMaxSize       The maximum size of the items content, or -1
+     * @throws RequestSizeLimitExceededException The content length of the item exceeds the maximum size.
      */
     FormItem(String pName, String pFieldName, String pContentType, boolean pFormField, long pContentLength,
-             MultipartStream multi) {
+             long pMaxSize, MultipartStream multi) {
         name = pName;
         fieldName = pFieldName;
         contentType = pContentType;
         formField = pFormField;
-        stream = multi.newInputStream();
+        contentLength = pContentLength;
+        if (pMaxSize >= 0 && pContentLength > pMaxSize) {
+            throw new RequestSizeLimitExceededException(
+                    format(SIZE_EXCEEDED_MESSAGE, pFieldName, pMaxSize), pMaxSize);
+        }
+        MultipartStream.ItemInputStream itemStream = multi.newInputStream();
+        stream = (pMaxSize >= 0) ? new LimitedInputStream(itemStream, pFieldName, pMaxSize) : itemStream;
     }
 
     /**
@@ -114,6 +132,15 @@ public class FormItem {
         return StreamUtil.checkFileName(name);
     }
 
+    /**
+     * Returns the content length declared in the items headers.
+     *
+     * @return Content length, if known, or -1.
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
     /**
      * Returns, whether this is a form field.
      *
@@ -169,6 +196,55 @@ public class FormItem {
         headers = pHeaders;
     }
 
+    /**
+     * Fails when more than the permitted number of bytes is read from an item.
+     */
+    private static final class LimitedInputStream extends FilterInputStream implements Closeable {
+
+        private final MultipartStream.ItemInputStream itemStream;
+        private final String fieldName;
+        private final long maxSize;
+        private long count;
+
+        LimitedInputStream(MultipartStream.ItemInputStream itemStream, String fieldName, long maxSize) {
+            super(itemStream);
+            this.itemStream = itemStream;
+            this.fieldName = fieldName;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int res = super.read(b, off, len);
+            if (res > 0) {
+                count(res);
+            }
+            return res;
+        }
+
+        private void count(int bytes) {
+            count += bytes;
+            if (count > maxSize) {
+                throw new RequestSizeLimitExceededException(format(SIZE_EXCEEDED_MESSAGE, fieldName, maxSize),
+                                                            maxSize);
+            }
+        }
+
+        @Override
+        public boolean isClosed() {
+            return itemStream.isClosed();
+        }
+    }
+
     static class ItemSkippedException extends RuntimeException {
 
         /**
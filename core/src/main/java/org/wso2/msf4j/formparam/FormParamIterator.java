@@ -20,6 +20,7 @@ import org.wso2.msf4j.Request;
 import org.wso2.msf4j.formparam.exception.FormUploadException;
 import org.wso2.msf4j.formparam.exception.InvalidContentTypeException;
 import org.wso2.msf4j.formparam.util.FormItemHeader;
+import org.wso2.msf4j.io.RequestSizeLimitExceededException;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,9 +34,15 @@ import java.util.NoSuchElementException;
 import static java.lang.String.format;
 
 /**
- *
+ * Iterates over the parts of a <code>multipart/form-data</code> request while the request body is arriving.
+ * <p>
+ * A resource method receives an instance with a {@code @Context FormParamIterator} or
+ * {@code @Context Iterator<FormItem>} parameter. Parts are parsed lazily: nothing is buffered in memory or written to
+ * temporary files, so the content of each part can be read from {@link FormItem#openStream()} and sent straight to its
+ * destination. Parts must be consumed in order; moving to the next part discards what was not read from the
+ * previous one.
  */
-public class FormParamIterator implements Iterator {
+public class FormParamIterator implements Iterator<FormItem> {
 
     /**
      * HTTP content type header name.
@@ -112,6 +119,21 @@ public class FormParamIterator implements Iterator {
      */
     private boolean eof;
 
+    /**
+     * Maximum number of items, or -1 for no limit.
+     */
+    private final long maxItemCount;
+
+    /**
+     * Maximum size of an item, or -1 for no limit.
+     */
+    private final long maxItemSize;
+
+    /**
+     * Number of items found so far.
+     */
+    private long itemCount;
+
     // ----------------------------------------------------------- Data members
 
     /**
@@ -126,7 +148,25 @@ public class FormParamIterator implements Iterator {
      *                             storing the uploaded content.
      */
     public FormParamIterator(Request request) throws FormUploadException, IOException {
-        this(new RequestContext(request));
+        this(new RequestContext(request), -1, -1);
+    }
+
+    /**
+     * Processes a <code>multipart/form-data</code> stream, failing with a
+     * {@link RequestSizeLimitExceededException} as soon as one of the given limits is exceeded.
+     * A negative limit means unlimited.
+     *
+     * @param request      The context for the request to be parsed.
+     * @param maxBodySize  Maximum size of the request body in bytes.
+     * @param maxItemCount Maximum number of items in the request.
+     * @param maxItemSize  Maximum size of the content of a single item in bytes.
+     * @throws FormUploadException if there are problems reading/parsing
+     *                             the request.
+     * @throws IOException         An I/O error occurred.
+     */
+    public FormParamIterator(Request request, long maxBodySize, long maxItemCount, long maxItemSize)
+            throws FormUploadException, IOException {
+        this(new RequestContext(request, maxBodySize), maxItemCount, maxItemSize);
     }
 
     // ------------------------------------------------------ Protected methods
@@ -328,15 +368,20 @@ public class FormParamIterator implements Iterator {
     /**
      * Creates a new instance.
      *
-     * @param ctx The request context.
+     * @param ctx          The request context.
+     * @param maxItemCount Maximum number of items, or -1.
+     * @param maxItemSize  Maximum size of an item, or -1.
      * @throws FormUploadException An error occurred while
      *                             parsing the request.
      * @throws IOException         An I/O error occurred.
      */
-    private FormParamIterator(RequestContext ctx) throws FormUploadException, IOException {
+    private FormParamIterator(RequestContext ctx, long maxItemCount, long maxItemSize)
+            throws FormUploadException, IOException {
         if (ctx == null) {
             throw new NullPointerException("ctx parameter");
         }
+        this.maxItemCount = maxItemCount;
+        this.maxItemSize = maxItemSize;
 
         String contentType = ctx.getContentType();
         if ((null == contentType) || (!contentType.toLowerCase(Locale.ENGLISH).startsWith(MULTIPART))) {
@@ -416,8 +461,9 @@ public class FormParamIterator implements Iterator {
                         continue;
                     }
                     String fileName = getFileName(headers);
+                    countItem();
                     currentItem = new FormItem(fileName, fieldName, headers.getHeader(CONTENT_TYPE), fileName == null,
-                                               getContentLength(headers), multi);
+                                               getContentLength(headers), maxItemSize, multi);
                     currentItem.setHeaders(headers);
                     itemValid = true;
                     return true;
@@ -425,8 +471,9 @@ public class FormParamIterator implements Iterator {
             } else {
                 String fileName = getFileName(headers);
                 if (fileName != null) {
+                    countItem();
                     currentItem = new FormItem(fileName, currentFieldName, headers.getHeader(CONTENT_TYPE), false,
-                                               getContentLength(headers), multi);
+                                               getContentLength(headers), maxItemSize, multi);
                     currentItem.setHeaders(headers);
                     itemValid = true;
                     return true;
@@ -436,6 +483,13 @@ public class FormParamIterator implements Iterator {
         }
     }
 
+    private void countItem() {
+        if (maxItemCount >= 0 && ++itemCount > maxItemCount) {
+            throw new RequestSizeLimitExceededException(
+                    format("The request has more than the permitted %d parts", maxItemCount), maxItemCount);
+        }
+    }
+
     private long getContentLength(FormItemHeader pHeaders) {
         try {
             return Long.parseLong(pHeaders.getHeader(CONTENT_LENGTH));
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.formparam;
+
+import org.wso2.msf4j.formparam.util.FormItemHeader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the parts found by a {@link MultipartParser}, in the order they appear in the request body.
+ */
+public interface MultipartListener {
+
+    /**
+     * A new part begins.
+     *
+     * @param headers headers of the part
+     * @throws Exception if the part cannot be handled
+     */
+    void onPartStart(FormItemHeader headers) throws Exception;
+
+    /**
+     * Content of the current part. The buffer is usually a view of the chunk given to the parser, so it is only
+     * valid until this method returns and must be copied if it has to be kept.
+     *
+     * @param data next piece of content of the current part
+     * @throws Exception if the content cannot be handled
+     */
+    void onPartData(ByteBuffer data) throws Exception;
+
+    /**
+     * The current part ended.
+     *
+     * @throws Exception if the part cannot be handled
+     */
+    void onPartEnd() throws Exception;
+
+    /**
+     * The closing boundary was found and the request body ended.
+     *
+     * @throws Exception if the completion cannot be handled
+     */
+    void onComplete() throws Exception;
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.formparam;
+
+import org.wso2.msf4j.formparam.exception.FormUploadException;
+import org.wso2.msf4j.formparam.util.FormItemHeader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental parser of <code>multipart/form-data</code> and <code>multipart/mixed</code> bodies, driven by the
+ * {@link ByteBuffer} chunks of the request as they arrive.
+ * <p>
+ * Unlike {@link MultipartStream}, the parser never blocks and does not copy part content: the buffers handed to
+ * {@link MultipartListener#onPartData(ByteBuffer)} are views of the given chunks. Only a delimiter which is split
+ * between two chunks is carried over, in a buffer no longer than the delimiter. Delimiters are found with the
+ * Boyer-Moore-Horspool algorithm, so most bytes of a part are never compared at all.
+ * <p>
+ * Instances are not thread safe. Chunks must be fed in order from one thread at a time.
+ */
+public final class MultipartParser {
+
+    /**
+     * Maximum size of the headers of a part.
+     */
+    public static final int MAX_HEADER_SIZE = 10240;
+
+    private static final byte CR = 0x0D;
+    private static final byte LF = 0x0A;
+    private static final byte DASH = 0x2D;
+    private static final byte[] HEADER_TERMINATOR = {CR, LF, CR, LF};
+
+    private enum State {
+        PREAMBLE, DELIMITER_SUFFIX, HEADERS, BODY, EPILOGUE, FAILED
+    }
+
+    private final MultipartListener listener;
+    // CRLF "--" boundary
+    private final byte[] delimiter;
+    private final int[] skipTable = new int[256];
+    private final byte[] carry;
+    private int carryLength;
+
+    private State state = State.PREAMBLE;
+    private byte delimiterSuffix;
+    private byte[] headerBuffer = new byte[256];
+    private int headerLength;
+    private int headerTerminatorMatched;
+
+    /**
+     * Create a parser for a multipart body.
+     *
+     * @param contentType value of the Content-Type header of the request
+     * @param listener    listener which receives the parts
+     * @throws FormUploadException if the content type has no boundary
+     */
+    public MultipartParser(String contentType, MultipartListener listener) {
+        this(getBoundary(contentType), listener);
+    }
+
+    /**
+     * Create a parser for a multipart body.
+     *
+     * @param boundary boundary which separates the parts
+     * @param listener listener which receives the parts
+     */
+    public MultipartParser(byte[] boundary, MultipartListener listener) {
+        if (boundary == null || boundary.length == 0) {
+            throw new FormUploadException("The request was rejected because no multipart boundary was found");
+        }
+        this.listener = listener;
+        delimiter = new byte[boundary.length + 4];
+        delimiter[0] = CR;
+        delimiter[1] = LF;
+        delimiter[2] = DASH;
+        delimiter[3] = DASH;
+        System.arraycopy(boundary, 0, delimiter, 4, boundary.length);
+        int last = delimiter.length - 1;
+        Arrays.fill(skipTable, delimiter.length);
+        for (int i = 0; i < last; i++) {
+            skipTable[delimiter[i] & 0xFF] = last - i;
+        }
+        carry = new byte[delimiter.length];
+        // The first boundary may be at the very beginning of the body, without a preceding line break
+        carry[0] = CR;
+        carry[1] = LF;
+        carryLength = 2;
+    }
+
+    /**
+     * Parse the next chunk of the body. The position of the chunk is not changed.
+     *
+     * @param chunk next chunk of the request body
+     * @throws Exception if the body is malformed or the listener failed
+     */
+    public void feed(ByteBuffer chunk) throws Exception {
+        int position = chunk.position();
+        int limit = chunk.limit();
+        try {
+            while (position < limit) {
+                switch (state) {
+                case PREAMBLE:
+                case BODY:
+                    position = findDelimiter(chunk, position, limit);
+                    if (position < 0) {
+                        return;
+                    }
+                    if (state == State.BODY) {
+                        listener.onPartEnd();
+                    }
+                    delimiterSuffix = 0;
+                    state = State.DELIMITER_SUFFIX;
+                    break;
+                case DELIMITER_SUFFIX:
+                    position = readDelimiterSuffix(chunk, position, limit);
+                    break;
+                case HEADERS:
+                    position = readHeaders(chunk, position, limit);
+                    break;
+                case EPILOGUE:
+                    return;
+                default:
+                    throw new FormUploadException("The multipart parser has already failed");
+                }
+            }
+        } catch (Exception e) {
+            state = State.FAILED;
+            throw e;
+        }
+    }
+
+    /**
+     * Signal the end of the body.
+     *
+     * @throws Exception if the body ended before the closing boundary or the listener failed
+     */
+    public void end() throws Exception {
+        if (state != State.EPILOGUE) {
+            state = State.FAILED;
+            throw new FormUploadException("Stream ended unexpectedly");
+        }
+        listener.onComplete();
+    }
+
+    /**
+     * @return true if the closing boundary was found
+     */
+    public boolean isComplete() {
+        return state == State.EPILOGUE;
+    }
+
+    /**
+     * Return the field name of a part from its Content-Disposition header.
+     *
+     * @param headers headers of the part
+     * @return field name or null
+     */
+    public static String getFieldName(FormItemHeader headers) {
+        return getDispositionParameter(headers, "name");
+    }
+
+    /**
+     * Return the file name of a part from its Content-Disposition header.
+     *
+     * @param headers headers of the part
+     * @return file name or null if the part is not a file
+     */
+    public static String getFileName(FormItemHeader headers) {
+        return getDispositionParameter(headers, "filename");
+    }
+
+    private static String getDispositionParameter(FormItemHeader headers, String name) {
+        String contentDisposition = headers.getHeader("Content-Disposition");
+        if (contentDisposition == null) {
+            return null;
+        }
+        String lowerCase = contentDisposition.toLowerCase(Locale.ENGLISH);
+        if (!lowerCase.startsWith("form-data") && !lowerCase.startsWith("attachment")) {
+            return null;
+        }
+        ParameterParser parser = new ParameterParser();
+        parser.setLowerCaseNames(true);
+        String value = parser.parse(contentDisposition, ';').get(name);
+        return value == null ? null : value.trim();
+    }
+
+    private static byte[] getBoundary(String contentType) {
+        ParameterParser parser = new ParameterParser();
+        parser.setLowerCaseNames(true);
+        Map<String, String> params = parser.parse(contentType, new char[] { ';', ',' });
+        String boundary = params.get("boundary");
+        return boundary == null ? null : boundary.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Find the next delimiter, handing everything before it to the listener when in the body of a part.
+     *
+     * @return position right after the delimiter, or -1 if the chunk was consumed without finding it
+     */
+    private int findDelimiter(ByteBuffer chunk, int position, int limit) throws Exception {
+        int delimiterLength = delimiter.length;
+        if (carryLength > 0) {
+            // Check whether the delimiter starts in the carried over bytes and continues in this chunk
+            for (int start = 0; start < carryLength; start++) {
+                int carried = carryLength - start;
+                if (!carryMatches(start, carried)) {
+                    continue;
+                }
+                int needed = delimiterLength - carried;
+                int available = Math.min(needed, limit - position);
+                if (!chunkMatches(chunk, position, carried, available)) {
+                    continue;
+                }
+                emitCarry(start);
+                if (available == needed) {
+                    carryLength = 0;
+                    return position + needed;
+                }
+                System.arraycopy(carry, start, carry, 0, carried);
+                carryLength = carried;
+                appendToCarry(chunk, position, limit);
+                return -1;
+            }
+            emitCarry(carryLength);
+            carryLength = 0;
+        }
+
+        int last = delimiterLength - 1;
+        int index = position;
+        while (index <= limit - delimiterLength) {
+            int j = last;
+            while (j >= 0 && chunk.get(index + j) == delimiter[j]) {
+                j--;
+            }
+            if (j < 0) {
+                emit(chunk, position, index);
+                return index + delimiterLength;
+            }
+            index += skipTable[chunk.get(index + last) & 0xFF];
+        }
+        // Keep a possible beginning of a delimiter at the end of the chunk for the next one
+        for (int start = Math.max(position, limit - last); start < limit; start++) {
+            if (chunkMatches(chunk, start, 0, limit - start)) {
+                emit(chunk, position, start);
+                appendToCarry(chunk, start, limit);
+                return -1;
+            }
+        }
+        emit(chunk, position, limit);
+        return -1;
+    }
+
+    private int readDelimiterSuffix(ByteBuffer chunk, int position, int limit) {
+        while (position < limit) {
+            byte b = chunk.get(position++);
+            if (delimiterSuffix == 0) {
+                if (b == DASH || b == CR) {
+                    delimiterSuffix = b;
+                } else if (b != ' ' && b != '\t') {
+                    // Transport padding is allowed before the line break
+                    throw new FormUploadException("Unexpected characters follow a boundary");
+                }
+            } else if (delimiterSuffix == DASH && b == DASH) {
+                state = State.EPILOGUE;
+                return limit;
+            } else if (delimiterSuffix == CR && b == LF) {
+                headerLength = 0;
+                // The line break after the delimiter also starts the blank line of a part without headers
+                headerTerminatorMatched = 2;
+                state = State.HEADERS;
+                return position;
+            } else {
+                throw new FormUploadException("Unexpected characters follow a boundary");
+            }
+        }
+        return position;
+    }
+
+    private int readHeaders(ByteBuffer chunk, int position, int limit) throws Exception {
+        while (position < limit) {
+            byte b = chunk.get(position++);
+            if (headerLength == headerBuffer.length) {
+                if (headerLength >= MAX_HEADER_SIZE) {
+                    throw new FormUploadException("Header section has more than " + MAX_HEADER_SIZE + " bytes");
+                }
+                headerBuffer = Arrays.copyOf(headerBuffer, Math.min(headerLength * 2, MAX_HEADER_SIZE));
+            }
+            headerBuffer[headerLength++] = b;
+            if (b == HEADER_TERMINATOR[headerTerminatorMatched]) {
+                headerTerminatorMatched++;
+            } else {
+                headerTerminatorMatched = b == CR ? 1 : 0;
+            }
+            if (headerTerminatorMatched == HEADER_TERMINATOR.length) {
+                listener.onPartStart(parseHeaders());
+                carryLength = 0;
+                state = State.BODY;
+                return position;
+            }
+        }
+        return position;
+    }
+
+    private FormItemHeader parseHeaders() {
+        FormItemHeader headers = new FormItemHeader();
+        String[] lines = new String(headerBuffer, 0, headerLength, StandardCharsets.UTF_8).split("\r\n");
+        StringBuilder header = null;
+        for (String line : lines) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            if ((line.charAt(0) == ' ' || line.charAt(0) == '\t') && header != null) {
+                // Folded header line
+                header.append(' ').append(line.trim());
+                continue;
+            }
+            addHeader(headers, header);
+            header = new StringBuilder(line);
+        }
+        addHeader(headers, header);
+        return headers;
+    }
+
+    private static void addHeader(FormItemHeader headers, StringBuilder header) {
+        if (header == null) {
+            return;
+        }
+        int colon = header.indexOf(":");
+        if (colon > 0) {
+            headers.addHeader(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+        }
+    }
+
+    private boolean carryMatches(int start, int length) {
+        for (int i = 0; i < length; i++) {
+            if (carry[start + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean chunkMatches(ByteBuffer chunk, int position, int delimiterOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (chunk.get(position + i) != delimiter[delimiterOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendToCarry(ByteBuffer chunk, int position, int limit) {
+        for (int i = position; i < limit; i++) {
+            carry[carryLength++] = chunk.get(i);
+        }
+    }
+
+    private void emitCarry(int length) throws Exception {
+        if (state == State.BODY && length > 0) {
+            listener.onPartData(ByteBuffer.wrap(carry, 0, length).asReadOnlyBuffer());
+        }
+    }
+
+    private void emit(ByteBuffer chunk, int start, int end) throws Exception {
+        if (state == State.BODY && end > start) {
+            ByteBuffer data = chunk.duplicate();
+            data.limit(end).position(start);
+            listener.onPartData(data);
+        }
+    }
+}
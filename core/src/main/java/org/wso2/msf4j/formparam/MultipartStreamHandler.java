@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.formparam;
+
+import org.wso2.msf4j.HttpStreamHandler;
+import org.wso2.msf4j.Response;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link HttpStreamHandler} which parses a multipart request body with a {@link MultipartParser} as the chunks
+ * arrive. Register a subclass with {@link org.wso2.msf4j.HttpStreamer#callback(HttpStreamHandler)} and send the
+ * response from {@link #onComplete()}.
+ */
+public abstract class MultipartStreamHandler implements HttpStreamHandler, MultipartListener {
+
+    private final MultipartParser parser;
+    private Response response;
+
+    /**
+     * @param contentType value of the Content-Type header of the request
+     */
+    protected MultipartStreamHandler(String contentType) {
+        this.parser = new MultipartParser(contentType, this);
+    }
+
+    @Override
+    public void init(Response response) {
+        this.response = response;
+    }
+
+    @Override
+    public void chunk(ByteBuffer content) throws Exception {
+        parser.feed(content);
+    }
+
+    @Override
+    public void end() throws Exception {
+        parser.end();
+    }
+
+    /**
+     * @return response of the request being parsed
+     */
+    protected Response getResponse() {
+        return response;
+    }
+}
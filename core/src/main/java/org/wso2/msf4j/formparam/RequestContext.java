@@ -28,9 +28,19 @@ import java.nio.charset.Charset;
 public class RequestContext {
 
     private Request request;
+    private long maxBodySize;
 
     public RequestContext(Request request) {
+        this(request, -1);
+    }
+
+    /**
+     * @param request     request to read
+     * @param maxBodySize maximum size of the request body in bytes, or a negative value for no limit
+     */
+    public RequestContext(Request request, long maxBodySize) {
         this.request = request;
+        this.maxBodySize = maxBodySize;
     }
 
     /**
@@ -58,7 +68,7 @@ public class RequestContext {
      * @throws IOException
      */
     public InputStream getInputStream() throws IOException {
-        return new MSF4JRequestInputStream(request);
+        return new MSF4JRequestInputStream(request, maxBodySize);
     }
 
 }
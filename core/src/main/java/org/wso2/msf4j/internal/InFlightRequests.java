@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal;
+
+import org.wso2.carbon.messaging.CarbonMessage;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests which are being processed, so that a server can wait for them before it stops. The count is
+ * striped over cells, so request threads do not contend on a single counter; it is only summed up while draining.
+ * <p>
+ * A response which is still being streamed when the processing of its request finishes, such as a publisher, a
+ * stream or server-sent events, counts until its end has been added and the transport has taken its last chunk.
+ * Streamed responses which never end by themselves can set a {@link #CLOSE_ON_DRAIN} property, which ends them
+ * once the server starts draining.
+ */
+public final class InFlightRequests {
+
+    /**
+     * Property of a streamed response message holding a {@link Runnable} which ends the response.
+     */
+    public static final String CLOSE_ON_DRAIN = "MSF4J_CLOSE_ON_DRAIN";
+
+    private static final long POLL_INTERVAL_MILLIS = 10;
+    private static final int MIN_PRUNE_THRESHOLD = 64;
+
+    private final LongAdder inFlight = new LongAdder();
+    private final Set<CarbonMessage> streamedResponses = ConcurrentHashMap.newKeySet();
+    private volatile int pruneThreshold = MIN_PRUNE_THRESHOLD;
+    private volatile boolean draining;
+
+    /**
+     * Called when a request is received.
+     */
+    public void enter() {
+        inFlight.increment();
+    }
+
+    /**
+     * Called once the processing of a request has finished, with the response which was sent for it.
+     *
+     * @param response response message, or null if no response was sent
+     */
+    public void exit(CarbonMessage response) {
+        if (response != null && !isComplete(response)) {
+            streamedResponses.add(response);
+            if (draining) {
+                closeOnDrain(response);
+            }
+            // Responses which have ended are removed in batches, so adding a response stays constant time
+            if (streamedResponses.size() >= pruneThreshold) {
+                prune();
+            }
+        }
+        inFlight.decrement();
+    }
+
+    /**
+     * @return number of requests which are being processed, including responses which are still being streamed
+     */
+    public long getCount() {
+        prune();
+        return inFlight.sum() + streamedResponses.size();
+    }
+
+    /**
+     * Start draining. Responses are sent with {@code Connection: close} from now on, so that keep-alive clients
+     * move to other servers, and the streamed responses which have a {@link #CLOSE_ON_DRAIN} property are ended.
+     */
+    public void startDraining() {
+        draining = true;
+        streamedResponses.forEach(InFlightRequests::closeOnDrain);
+    }
+
+    /**
+     * @return true once the server has started draining
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Wait until no request is being processed.
+     *
+     * @param timeout  maximum time to wait
+     * @param timeUnit unit of the timeout
+     * @return false if requests were still being processed when the time ran out
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit timeUnit) {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        while (getCount() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized void prune() {
+        streamedResponses.removeIf(InFlightRequests::isComplete);
+        pruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, streamedResponses.size() * 2);
+    }
+
+    private static boolean isComplete(CarbonMessage response) {
+        return response.isEndOfMsgAdded() && response.isEmpty();
+    }
+
+    private static void closeOnDrain(CarbonMessage response) {
+        Object close = response.getProperty(CLOSE_ON_DRAIN);
+        if (close instanceof Runnable) {
+            ((Runnable) close).run();
+        }
+    }
+}
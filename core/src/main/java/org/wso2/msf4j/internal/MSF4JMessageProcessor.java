@@ -23,18 +23,33 @@ import org.wso2.carbon.messaging.CarbonCallback;
 import org.wso2.carbon.messaging.CarbonMessage;
 import org.wso2.carbon.messaging.CarbonMessageProcessor;
 import org.wso2.carbon.messaging.TransportSender;
+import org.wso2.carbon.transport.http.netty.common.Constants;
+import org.wso2.msf4j.Deadline;
 import org.wso2.msf4j.Request;
+import org.wso2.msf4j.RequestTimings;
 import org.wso2.msf4j.Response;
+import org.wso2.msf4j.circuitbreaker.Bulkhead;
+import org.wso2.msf4j.circuitbreaker.CallNotPermittedException;
+import org.wso2.msf4j.circuitbreaker.CircuitBreaker;
+import org.wso2.msf4j.internal.entitywriter.TransportDrainWatcher;
 import org.wso2.msf4j.internal.router.HandlerException;
 import org.wso2.msf4j.internal.router.HttpMethodInfo;
 import org.wso2.msf4j.internal.router.HttpMethodInfoBuilder;
 import org.wso2.msf4j.internal.router.HttpResourceModel;
 import org.wso2.msf4j.internal.router.PatternPathRouter;
+import org.wso2.msf4j.internal.router.RequestSizeLimits;
+import org.wso2.msf4j.internal.router.RequestTimeouts;
+import org.wso2.msf4j.io.RequestSizeLimitExceededException;
+import org.wso2.msf4j.limit.ConcurrencyLimitExceededException;
+import org.wso2.msf4j.limit.ConcurrencyLimiter;
+import org.wso2.msf4j.limit.ConcurrencyLimiters;
 import org.wso2.msf4j.util.HttpUtil;
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.ext.ExceptionMapper;
 
@@ -51,6 +66,8 @@ public class MSF4JMessageProcessor implements CarbonMessageProcessor {
     private static final Logger log = LoggerFactory.getLogger(MSF4JMessageProcessor.class);
     private MicroservicesRegistry microservicesRegistry;
     private static final String MSF4J_MSG_PROC_ID = "MSF4J-CM-PROCESSOR";
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final ConcurrencyLimiter globalLimiter = ConcurrencyLimiters.getGlobalLimiter().orElse(null);
 
     public MSF4JMessageProcessor() {
     }
@@ -67,47 +84,194 @@ public class MSF4JMessageProcessor implements CarbonMessageProcessor {
         if (microservicesRegistry == null) {
             microservicesRegistry = DataHolder.getInstance().getMicroservicesRegistry();
         }
+        InFlightRequests inFlightRequests = microservicesRegistry.getInFlightRequests();
+        inFlightRequests.enter();
+        InFlightCallback inFlightCallback = new InFlightCallback(carbonCallback, inFlightRequests);
+        try {
+            process(carbonMessage, inFlightCallback);
+        } finally {
+            inFlightRequests.exit(inFlightCallback.response);
+        }
+        return true;
+    }
+
+    /**
+     * Admit the request and respond to it.
+     */
+    private void process(CarbonMessage carbonMessage, InFlightCallback carbonCallback) {
+        // Admission control happens before any work is done for the request, so rejecting stays cheap
+        if (globalLimiter != null && !globalLimiter.tryAcquire()) {
+            handleServiceUnavailable(globalLimiter.getRetryAfterSeconds(), carbonCallback);
+            return;
+        }
+        long admittedAt = System.nanoTime();
+        // Only server errors and timeouts tell the limiter that the server is overloaded
+        boolean failed = true;
         Request request = new Request(carbonMessage);
-        Response response = new Response(carbonCallback);
+        // When a deadline may expire, the 504 response and the response of the resource method race for the callback
+        SingleResponseCallback singleResponseCallback =
+                RequestTimeouts.mayApply(request) ? new SingleResponseCallback(carbonCallback) : null;
+        CarbonCallback responseCallback = (singleResponseCallback != null) ? singleResponseCallback : carbonCallback;
+        Response response = new Response(responseCallback);
         try {
-            dispatchMethod(request, response);
-        } catch (HandlerException e) {
-            handleHandlerException(e, carbonCallback);
-        } catch (InvocationTargetException e) {
-            Throwable targetException = e.getTargetException();
-            if (targetException instanceof HandlerException) {
-                handleHandlerException((HandlerException) targetException, carbonCallback);
-            } else {
-                handleThrowable(targetException, carbonCallback);
-            }
-        } catch (InterceptorException e) {
-            log.warn("Interceptors threw an exception", e);
-            // TODO: improve the response
-            carbonCallback.done(HttpUtil
-                    .createTextResponse(javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-                            HttpUtil.EMPTY_BODY));
+            failed = dispatchMethod(request, response, responseCallback, singleResponseCallback);
+        } catch (ConcurrencyLimitExceededException | CallNotPermittedException e) {
+            // Rejected by a guard of the route, which is overloaded or protecting a failing dependency, not the server
+            failed = false;
+            handleException(e, responseCallback);
         } catch (Throwable t) {
-            handleThrowable(t, carbonCallback);
+            failed = isServerError(handleException(t, responseCallback));
+        } finally {
+            deleteTempFiles(request, carbonCallback.response);
+            if (globalLimiter != null) {
+                globalLimiter.release(admittedAt, failed);
+            }
         }
-        return true;
     }
 
     /**
-     * Dispatch appropriate resource method.
+     * Delete the temporary files of a request once its response is complete. A streamed response may still be
+     * reading an uploaded file after the resource method has returned.
      */
-    private void dispatchMethod(Request request, Response response) throws Exception {
-        HttpUtil.setConnectionHeader(request, response);
+    private static void deleteTempFiles(Request request, CarbonMessage response) {
+        if (!request.hasTempFiles() || response == null) {
+            request.deleteTempFiles();
+        } else {
+            TransportDrainWatcher.whenEnded(response, request::deleteTempFiles);
+        }
+    }
+
+    /**
+     * Route the request and dispatch the resource method within the deadline of the request, if it has one.
+     *
+     * @return true if the request failed on the server side or timed out
+     */
+    private boolean dispatchMethod(Request request, Response response, CarbonCallback responseCallback,
+                                   SingleResponseCallback singleResponseCallback) throws Exception {
+        // While the server drains, keep-alive clients are sent to other servers
+        HttpUtil.setConnectionHeader(request, response, microservicesRegistry.getInFlightRequests().isDraining());
         PatternPathRouter.RoutableDestination<HttpResourceModel> destination =
                 microservicesRegistry.
                         getMetadata().
                         getDestinationMethod(request.getUri(), request.getHttpMethod(), request.getContentType(),
                                 request.getAcceptTypes());
         HttpResourceModel resourceModel = destination.getDestination();
+        request.getTimings().mark(RequestTimings.Phase.ROUTED);
+        long timeoutNanos = (singleResponseCallback == null) ? -1 :
+                RequestTimeouts.resolve(request, resourceModel.getRequestTimeoutNanos());
+        if (timeoutNanos < 0) {
+            return dispatchMethod(request, response, responseCallback, destination, resourceModel, null);
+        }
+        Deadline deadline = startDeadline(request, timeoutNanos, singleResponseCallback);
+        try {
+            // The 504 response has already been sent if the time was used up before the request got here
+            return deadline.isExpired() ||
+                    dispatchMethod(request, response, responseCallback, destination, resourceModel, deadline);
+        } finally {
+            deadline.complete();
+        }
+    }
+
+    /**
+     * Start the deadline of a request, counted from when MSF4J received it. The client gets a 504 response as soon
+     * as the deadline expires.
+     */
+    private static Deadline startDeadline(Request request, long timeoutNanos, CarbonCallback carbonCallback) {
+        long elapsedNanos = System.nanoTime() - request.getTimings().get(RequestTimings.Phase.RECEIVED);
+        Deadline deadline = Deadline.after(timeoutNanos - elapsedNanos, TimeUnit.NANOSECONDS);
+        request.setDeadline(deadline);
+        deadline.onCancel(() -> {
+            if (deadline.isExpired()) {
+                carbonCallback.done(HttpUtil.createTextResponse(
+                        javax.ws.rs.core.Response.Status.GATEWAY_TIMEOUT.getStatusCode(), HttpUtil.EMPTY_BODY));
+            }
+        });
+        return deadline;
+    }
+
+    /**
+     * Dispatch the resource method, within the circuit breaker, bulkhead and concurrency limit of the method if it
+     * has them. When the method is guarded, its exceptions are responded to here, so that the guards record the
+     * outcome from the status code which the client gets.
+     *
+     * @return true if the request failed on the server side or timed out
+     */
+    private boolean dispatchMethod(Request request, Response response, CarbonCallback responseCallback,
+                                   PatternPathRouter.RoutableDestination<HttpResourceModel> destination,
+                                   HttpResourceModel resourceModel, Deadline deadline) throws Exception {
+        CircuitBreaker circuitBreaker = resourceModel.getCircuitBreaker();
+        Bulkhead bulkhead = resourceModel.getBulkhead();
+        ConcurrencyLimiter concurrencyLimiter = resourceModel.getConcurrencyLimiter();
+        if (circuitBreaker == null && bulkhead == null && concurrencyLimiter == null) {
+            invokeResourceMethod(request, response, destination, resourceModel);
+            return isFailed(response, deadline);
+        }
+        acquire(circuitBreaker, bulkhead, concurrencyLimiter);
+        long admittedAt = System.nanoTime();
+        boolean failed = true;
+        try {
+            invokeResourceMethod(request, response, destination, resourceModel);
+            failed = isFailed(response, deadline);
+        } catch (Exception e) {
+            failed = isServerError(handleException(e, responseCallback)) || (deadline != null && deadline.isExpired());
+        } finally {
+            if (concurrencyLimiter != null) {
+                concurrencyLimiter.release(admittedAt, failed);
+            }
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (circuitBreaker != null) {
+                if (failed) {
+                    circuitBreaker.onError(System.nanoTime() - admittedAt);
+                } else {
+                    circuitBreaker.onSuccess(System.nanoTime() - admittedAt);
+                }
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Acquire the permissions a request needs from the guards of its resource method. Permissions which were already
+     * acquired are given back when a later guard rejects the request, without recording an outcome.
+     */
+    private static void acquire(CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                                ConcurrencyLimiter concurrencyLimiter) throws ConcurrencyLimitExceededException {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            throw new CallNotPermittedException(circuitBreaker.getName(), circuitBreaker.getRetryAfterSeconds());
+        }
+        if (bulkhead != null && !bulkhead.tryAcquire()) {
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            throw new CallNotPermittedException(bulkhead.getName(), 1);
+        }
+        if (concurrencyLimiter != null && !concurrencyLimiter.tryAcquire()) {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.releasePermission();
+            }
+            throw new ConcurrencyLimitExceededException(concurrencyLimiter);
+        }
+    }
+
+    /**
+     * Dispatch appropriate resource method.
+     */
+    private void invokeResourceMethod(Request request, Response response,
+                                      PatternPathRouter.RoutableDestination<HttpResourceModel> destination,
+                                      HttpResourceModel resourceModel) throws Exception {
+        RequestSizeLimits requestSizeLimits = resourceModel.getRequestSizeLimits();
+        requestSizeLimits.checkContentLength(request);
         response.setMediaType(getResponseType(request.getAcceptTypes(),
                 resourceModel.getProducesMediaTypes()));
         InterceptorExecutor interceptorExecutor =
                 new InterceptorExecutor(resourceModel, request, response, microservicesRegistry.getInterceptors());
         if (interceptorExecutor.execPreCalls()) { // preCalls can throw exceptions
+            request.getTimings().mark(RequestTimings.Phase.PRE_CALLS_DONE);
 
             HttpMethodInfoBuilder httpMethodInfoBuilder =
                     new HttpMethodInfoBuilder().
@@ -118,10 +282,10 @@ public class MSF4JMessageProcessor implements CarbonMessageProcessor {
 
             HttpMethodInfo httpMethodInfo = httpMethodInfoBuilder.build();
             if (httpMethodInfo.isStreamingSupported()) {
-                while (!(request.isEmpty() && request.isEomAdded())) {
-                    httpMethodInfo.chunk(request.getMessageBody());
-                }
-                httpMethodInfo.end();
+                httpMethodInfo.stream(request, requestSizeLimits.getMaxBodySize());
+                request.getTimings().mark(RequestTimings.Phase.INVOKED);
+            } else if (resourceModel.getRequestCoalescer() != null) {
+                resourceModel.getRequestCoalescer().invoke(httpMethodInfo, request, response);
             } else {
                 httpMethodInfo.invoke();
             }
@@ -129,22 +293,97 @@ public class MSF4JMessageProcessor implements CarbonMessageProcessor {
         }
     }
 
-    private void handleThrowable(Throwable throwable, CarbonCallback carbonCallback) {
+    /**
+     * Respond to an exception thrown while dispatching a request.
+     *
+     * @return status code of the response
+     */
+    private int handleException(Throwable throwable, CarbonCallback carbonCallback) {
+        if (throwable instanceof InvocationTargetException) {
+            Throwable targetException = ((InvocationTargetException) throwable).getTargetException();
+            if (targetException instanceof HandlerException ||
+                    targetException instanceof RequestSizeLimitExceededException ||
+                    targetException instanceof CallNotPermittedException) {
+                // A CallNotPermittedException from the resource method means that a dependency of it is failing
+                return handleException(targetException, carbonCallback);
+            }
+            return handleThrowable(targetException, carbonCallback);
+        } else if (throwable instanceof HandlerException) {
+            handleHandlerException((HandlerException) throwable, carbonCallback);
+            return ((HandlerException) throwable).getFailureStatus().getStatusCode();
+        } else if (throwable instanceof RequestSizeLimitExceededException) {
+            handleRequestSizeLimitExceeded((RequestSizeLimitExceededException) throwable, carbonCallback);
+            return javax.ws.rs.core.Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode();
+        } else if (throwable instanceof ConcurrencyLimitExceededException) {
+            handleServiceUnavailable(((ConcurrencyLimitExceededException) throwable).getLimiter()
+                    .getRetryAfterSeconds(), carbonCallback);
+            return javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE.getStatusCode();
+        } else if (throwable instanceof CallNotPermittedException) {
+            handleServiceUnavailable(((CallNotPermittedException) throwable).getRetryAfterSeconds(), carbonCallback);
+            return javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE.getStatusCode();
+        } else if (throwable instanceof InterceptorException) {
+            log.warn("Interceptors threw an exception", throwable);
+            // TODO: improve the response
+            carbonCallback.done(HttpUtil
+                    .createTextResponse(javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
+                            HttpUtil.EMPTY_BODY));
+            return javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+        }
+        return handleThrowable(throwable, carbonCallback);
+    }
+
+    /**
+     * Respond with the exception mapper of the exception, or with a 500 response if it has none.
+     *
+     * @return status code of the response
+     */
+    private int handleThrowable(Throwable throwable, CarbonCallback carbonCallback) {
         Optional<ExceptionMapper> exceptionMapper = microservicesRegistry.getExceptionMapper(throwable);
         if (exceptionMapper.isPresent()) {
             org.wso2.msf4j.Response msf4jResponse = new org.wso2.msf4j.Response(carbonCallback);
             msf4jResponse.setEntity(exceptionMapper.get().toResponse(throwable));
             msf4jResponse.send();
+            return msf4jResponse.getStatusCode();
         } else {
             log.warn("Unmapped exception", throwable);
-            carbonCallback.done(HttpUtil.
-                    createTextResponse(javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(),
-                            "Exception occurred :" + throwable.getMessage()));
+            int statusCode = javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+            carbonCallback.done(HttpUtil.createTextResponse(statusCode,
+                    "Exception occurred :" + throwable.getMessage()));
+            return statusCode;
         }
     }
 
+    private void handleServiceUnavailable(long retryAfterSeconds, CarbonCallback carbonCallback) {
+        CarbonMessage response = HttpUtil.createTextResponse(
+                javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE.getStatusCode(), HttpUtil.EMPTY_BODY);
+        response.setHeader(RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        carbonCallback.done(response);
+    }
+
+    private static boolean isFailed(Response response, Deadline deadline) {
+        return isServerError(response.getStatusCode()) || (deadline != null && deadline.isExpired());
+    }
+
+    private static boolean isServerError(int statusCode) {
+        return statusCode >= javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+    }
+
     private void handleHandlerException(HandlerException e, CarbonCallback carbonCallback) {
-        carbonCallback.done(e.getFailureResponse());
+        CarbonMessage response = e.getFailureResponse();
+        if (e.getFailureStatus() == javax.ws.rs.core.Response.Status.REQUEST_ENTITY_TOO_LARGE) {
+            // The rest of the body is not read, so the connection cannot be reused for another request
+            response.setHeader(Constants.HTTP_CONNECTION, HttpUtil.CLOSE);
+        }
+        carbonCallback.done(response);
+    }
+
+    private void handleRequestSizeLimitExceeded(RequestSizeLimitExceededException e,
+                                                CarbonCallback carbonCallback) {
+        CarbonMessage response = HttpUtil.createTextResponse(
+                javax.ws.rs.core.Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), e.getMessage());
+        // The rest of the body is not read, so the connection cannot be reused for another request
+        response.setHeader(Constants.HTTP_CONNECTION, HttpUtil.CLOSE);
+        carbonCallback.done(response);
     }
 
     /**
@@ -166,6 +405,54 @@ public class MSF4JMessageProcessor implements CarbonMessageProcessor {
         return responseType;
     }
 
+    /**
+     * Sends only the first response it is given, so that a resource method which responds after its deadline has
+     * expired does not write a second response to the connection.
+     */
+    private static final class SingleResponseCallback implements CarbonCallback {
+
+        private final CarbonCallback carbonCallback;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private SingleResponseCallback(CarbonCallback carbonCallback) {
+            this.carbonCallback = carbonCallback;
+        }
+
+        @Override
+        public void done(CarbonMessage carbonMessage) {
+            if (done.compareAndSet(false, true)) {
+                carbonCallback.done(carbonMessage);
+            } else {
+                log.debug("Dropped a response which was sent after the request timed out");
+            }
+        }
+    }
+
+    /**
+     * Keeps the response which was sent, so that a streamed response counts as in flight until it ends, and closes
+     * the connection of every response, including rejections, while the server drains.
+     */
+    private static final class InFlightCallback implements CarbonCallback {
+
+        private final CarbonCallback carbonCallback;
+        private final InFlightRequests inFlightRequests;
+        private volatile CarbonMessage response;
+
+        private InFlightCallback(CarbonCallback carbonCallback, InFlightRequests inFlightRequests) {
+            this.carbonCallback = carbonCallback;
+            this.inFlightRequests = inFlightRequests;
+        }
+
+        @Override
+        public void done(CarbonMessage carbonMessage) {
+            if (inFlightRequests.isDraining()) {
+                carbonMessage.setHeader(Constants.HTTP_CONNECTION, HttpUtil.CLOSE);
+            }
+            response = carbonMessage;
+            carbonCallback.done(carbonMessage);
+        }
+    }
+
     @Override
     public void setTransportSender(TransportSender transportSender) {
     }
@@ -43,13 +43,19 @@ import javax.ws.rs.ext.ExceptionMapper;
 public class MicroservicesRegistry {
 
     private static final Logger log = LoggerFactory.getLogger(MicroservicesRegistry.class);
+    private static final String WEBSOCKET_ENDPOINT_ANNOTATION = "javax.websocket.server.ServerEndpoint";
     private final Set<Object> services = new HashSet<>();
+    private final InFlightRequests inFlightRequests = new InFlightRequests();
 
     private final List<Interceptor> interceptors = new ArrayList<>();
     private volatile MicroserviceMetadata metadata = new MicroserviceMetadata(Collections.emptyList());
     private Map<Class, ExceptionMapper> exceptionMappers = new TreeMap<>(new ClassComparator());
 
     public void addService(Object... service) {
+        Arrays.stream(service).filter(MicroservicesRegistry::isWebSocketEndpoint).findAny().ifPresent(svc -> {
+            throw new IllegalArgumentException("Cannot deploy " + svc + ", WebSocket endpoints are not supported " +
+                    "since the carbon HTTP transport does not handle WebSocket upgrades");
+        });
         Collections.addAll(services, service);
         updateMetadata();
         Arrays.stream(service).forEach(svc -> log.info("Added microservice: " + svc));
@@ -144,6 +150,13 @@ public class MicroservicesRegistry {
         invokeLifecycleMethod(httpService, PostConstruct.class);
     }
 
+    /**
+     * @return counter of the requests to the services of this registry which are being processed
+     */
+    public InFlightRequests getInFlightRequests() {
+        return inFlightRequests;
+    }
+
     public void preDestroyServices() {
         invokeLifecycleMethods(PreDestroy.class);
     }
@@ -152,6 +165,12 @@ public class MicroservicesRegistry {
         invokeLifecycleMethod(httpService, PreDestroy.class);
     }
 
+    private static boolean isWebSocketEndpoint(Object service) {
+        // matched by name, so that deploying an endpoint fails without a dependency on the WebSocket API
+        return Arrays.stream(service.getClass().getAnnotations()).
+                anyMatch(annotation -> WEBSOCKET_ENDPOINT_ANNOTATION.equals(annotation.annotationType().getName()));
+    }
+
     private void invokeLifecycleMethods(Class lcAnnotation) {
         services.stream().forEach(httpService -> invokeLifecycleMethod(httpService, lcAnnotation));
     }
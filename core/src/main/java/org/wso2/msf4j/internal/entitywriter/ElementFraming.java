@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.wso2.msf4j.internal.beanconversion.BeanConverter;
+import org.wso2.msf4j.sse.SseEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * How the elements of a streamed entity are framed in the response body, based on the response media type.
+ */
+enum ElementFraming {
+
+    /**
+     * One JSON document per line.
+     */
+    NDJSON("", "\n", "") {
+        @Override
+        ByteBuffer serialize(Object element, String mediaType) {
+            return BeanConverter.getConverter(MediaType.APPLICATION_JSON).convertToMedia(element);
+        }
+    },
+
+    /**
+     * A single JSON array.
+     */
+    JSON_ARRAY("[", ",", "]") {
+        @Override
+        ByteBuffer serialize(Object element, String mediaType) {
+            return BeanConverter.getConverter(MediaType.APPLICATION_JSON).convertToMedia(element);
+        }
+    },
+
+    /**
+     * One server-sent event per element. {@link SseEvent}s keep their id and name, strings are sent as they are and
+     * other elements as JSON.
+     */
+    SERVER_SENT_EVENTS("", "", "") {
+        @Override
+        ByteBuffer serialize(Object element, String mediaType) {
+            if (element instanceof SseEvent) {
+                SseEvent event = (SseEvent) element;
+                return ByteBuffer.wrap(SseEncoder.encode(event.getId(), event.getName(), event.getData()));
+            }
+            return ByteBuffer.wrap(SseEncoder.encode(null, null, element));
+        }
+    },
+
+    /**
+     * Elements converted with the converter of the response media type, written back to back.
+     */
+    RAW("", "", "") {
+        @Override
+        ByteBuffer serialize(Object element, String mediaType) {
+            return BeanConverter.getConverter(mediaType).convertToMedia(element);
+        }
+    };
+
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+    static final String APPLICATION_STREAM_JSON = "application/stream+json";
+    static final String TEXT_EVENT_STREAM = SseEvent.MEDIA_TYPE;
+
+    private final byte[] prefix;
+    private final byte[] separator;
+    private final byte[] suffix;
+
+    ElementFraming(String prefix, String separator, String suffix) {
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+        this.suffix = suffix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Pick the framing for a response media type. Without a specific media type the elements are sent as a JSON
+     * array.
+     *
+     * @param mediaType response media type, may be null
+     * @return the framing
+     */
+    static ElementFraming of(String mediaType) {
+        if (mediaType == null || MediaType.WILDCARD.equals(mediaType)) {
+            return JSON_ARRAY;
+        }
+        String type = mediaType.toLowerCase(Locale.US);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        switch (type) {
+            case APPLICATION_NDJSON:
+            case APPLICATION_STREAM_JSON:
+                return NDJSON;
+            case MediaType.APPLICATION_JSON:
+                return JSON_ARRAY;
+            case TEXT_EVENT_STREAM:
+                return SERVER_SENT_EVENTS;
+            default:
+                return RAW;
+        }
+    }
+
+    /**
+     * Content type to send for a response media type.
+     */
+    static String contentType(String mediaType) {
+        return mediaType == null || MediaType.WILDCARD.equals(mediaType) ? MediaType.APPLICATION_JSON : mediaType;
+    }
+
+    byte[] prefix() {
+        return prefix;
+    }
+
+    /**
+     * Bytes written after each element. JSON arrays write their separator before each element but the first.
+     */
+    byte[] separator() {
+        return separator;
+    }
+
+    boolean separatesBefore() {
+        return this == JSON_ARRAY;
+    }
+
+    byte[] suffix() {
+        return suffix;
+    }
+
+    /**
+     * Serialize a single element, without framing.
+     */
+    abstract ByteBuffer serialize(Object element, String mediaType);
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.msf4j.Response;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes the elements of a streamed entity into the body chunks of a response as a publisher emits them.
+ * <p>
+ * Elements are requested in small batches, and the next batch is only requested once the transport has taken the
+ * chunks written so far off the carbon message. The carbon message therefore never holds more than a batch of
+ * elements, however many elements the publisher produces. Drained chunks have only been handed to Netty though, which
+ * keeps buffering them for a client that reads slower than the publisher produces.
+ * Chunks are written when they are full and at the end of each batch, and for server-sent events after each event.
+ * <p>
+ * The signals of the publisher are handled under the lock of the subscriber, since a timed out write can end the
+ * response while the publisher is completing it.
+ */
+final class ElementStreamSubscriber implements Subscriber<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(ElementStreamSubscriber.class);
+
+    static final int DEFAULT_CHUNK_SIZE = 8192;
+    static final int REQUEST_BATCH_SIZE = 64;
+
+    private final CarbonMessage carbonMessage;
+    private final ElementFraming framing;
+    private final String mediaType;
+    private final int chunkSize;
+    private Subscription subscription;
+    private byte[] buffer;
+    private int size;
+    private long outstanding;
+    private boolean first = true;
+    private volatile boolean done;
+
+    ElementStreamSubscriber(CarbonMessage carbonMessage, String mediaType, int chunkSize) {
+        this.carbonMessage = carbonMessage;
+        this.framing = ElementFraming.of(mediaType);
+        this.mediaType = mediaType;
+        this.chunkSize = chunkSize == Response.NO_CHUNK || chunkSize == Response.DEFAULT_CHUNK_SIZE
+                ? DEFAULT_CHUNK_SIZE : chunkSize;
+        this.buffer = new byte[this.chunkSize];
+    }
+
+    @Override
+    public synchronized void onSubscribe(Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        write(framing.prefix());
+        requestMore();
+    }
+
+    @Override
+    public synchronized void onNext(Object element) {
+        if (done) {
+            return;
+        }
+        outstanding--;
+        try {
+            if (framing.separatesBefore() && !first) {
+                write(framing.separator());
+            }
+            write(framing.serialize(element, mediaType));
+            if (!framing.separatesBefore()) {
+                write(framing.separator());
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while serializing a streamed response element", e);
+            subscription.cancel();
+            finish(false);
+            return;
+        }
+        first = false;
+        if (size >= chunkSize || framing == ElementFraming.SERVER_SENT_EVENTS) {
+            flush();
+        }
+        if (outstanding == 0) {
+            flush();
+            requestMore();
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable cause) {
+        if (done) {
+            return;
+        }
+        log.error("Streamed response failed after the response was committed", cause);
+        // The status line is already sent, so the client can only tell from the truncated body
+        finish(false);
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        if (done) {
+            return;
+        }
+        finish(true);
+    }
+
+    private void requestMore() {
+        outstanding = REQUEST_BATCH_SIZE;
+        TransportDrainWatcher.whenDrained(carbonMessage, TransportDrainWatcher.WRITE_TIMEOUT_NANOS,
+                this::requestBatch, this::timedOut);
+    }
+
+    private void requestBatch() {
+        if (!done) {
+            subscription.request(REQUEST_BATCH_SIZE);
+        }
+    }
+
+    private synchronized void timedOut() {
+        if (done) {
+            return;
+        }
+        log.warn("Cancelled a streamed response since the client did not read it for {} ms",
+                TimeUnit.NANOSECONDS.toMillis(TransportDrainWatcher.WRITE_TIMEOUT_NANOS));
+        subscription.cancel();
+        finish(false);
+    }
+
+    private void finish(boolean completed) {
+        done = true;
+        if (completed) {
+            write(framing.suffix());
+        }
+        flush();
+        carbonMessage.setEndOfMsgAdded(true);
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void write(ByteBuffer bytes) {
+        int length = bytes.remaining();
+        ensureCapacity(length);
+        bytes.get(buffer, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, size + length));
+        }
+    }
+
+    private void flush() {
+        if (size == 0) {
+            return;
+        }
+        carbonMessage.addMessageBody(ByteBuffer.wrap(buffer, 0, size));
+        buffer = new byte[chunkSize];
+        size = 0;
+    }
+}
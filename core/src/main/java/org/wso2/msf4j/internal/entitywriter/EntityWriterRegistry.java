@@ -34,6 +34,9 @@ public class EntityWriterRegistry {
         registerEntityWriter(new FileEntityWriter());
         registerEntityWriter(new InputStreamEntityWriter());
         registerEntityWriter(new StreamingOutputEntityWriter());
+        registerEntityWriter(new PublisherEntityWriter());
+        registerEntityWriter(new StreamEntityWriter());
+        registerEntityWriter(new SseEventStreamEntityWriter());
     }
 
     private EntityWriterRegistry() {
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publisher which emits the elements of an iterator on the thread that requests them. Used to stream a
+ * {@link java.util.stream.Stream} entity, which is closed once it is fully emitted, fails or is cancelled. Only a
+ * single subscriber is supported.
+ *
+ * @param <T> type of the elements
+ */
+final class IteratorPublisher<T> implements Publisher<T> {
+
+    private final Iterator<? extends T> iterator;
+    private final Runnable onClose;
+
+    IteratorPublisher(Iterator<? extends T> iterator, Runnable onClose) {
+        this.iterator = iterator;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        subscriber.onSubscribe(new IteratorSubscription<>(subscriber, iterator, onClose));
+    }
+
+    private static final class IteratorSubscription<T> implements Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final Iterator<? extends T> iterator;
+        private final Runnable onClose;
+        private final AtomicLong demand = new AtomicLong();
+        // Number of pending drain requests, so that only one thread emits at a time and nested requests only add demand
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        private IteratorSubscription(Subscriber<? super T> subscriber, Iterator<? extends T> iterator,
+                                     Runnable onClose) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                if (pending.getAndIncrement() == 0) {
+                    close();
+                    subscriber.onError(new IllegalArgumentException(
+                            "Number of requested elements should be positive, but was " + n));
+                }
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = demand.get();
+                next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!demand.compareAndSet(current, next));
+            if (pending.getAndIncrement() == 0) {
+                emit();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (pending.getAndIncrement() == 0) {
+                close();
+            }
+        }
+
+        private void emit() {
+            int missed = 1;
+            do {
+                long requested = demand.get();
+                long emitted = 0;
+                try {
+                    while (emitted != requested) {
+                        if (cancelled) {
+                            close();
+                            return;
+                        }
+                        if (!iterator.hasNext()) {
+                            complete();
+                            return;
+                        }
+                        subscriber.onNext(iterator.next());
+                        emitted++;
+                    }
+                    if (cancelled) {
+                        close();
+                        return;
+                    }
+                    if (!iterator.hasNext()) {
+                        complete();
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    cancelled = true;
+                    close();
+                    subscriber.onError(e);
+                    return;
+                }
+                if (requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-emitted);
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void complete() {
+            cancelled = true;
+            close();
+            subscriber.onComplete();
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                onClose.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.reactivestreams.Publisher;
+import org.wso2.carbon.messaging.CarbonCallback;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.transport.http.netty.common.Constants;
+
+/**
+ * EntityWriter for entity of type {@link org.reactivestreams.Publisher}. Each element is serialized as it is
+ * published, framed as NDJSON, a JSON array or server-sent events depending on the media type, and the elements are
+ * requested as the transport writes the response. No thread is held while waiting for the publisher or the client.
+ */
+public class PublisherEntityWriter implements EntityWriter<Publisher> {
+
+    /**
+     * Supported entity type.
+     */
+    @Override
+    public Class<Publisher> getType() {
+        return Publisher.class;
+    }
+
+    /**
+     * Write the entity to the carbon message.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeData(CarbonMessage carbonMessage, Publisher publisher,
+                          String mediaType, int chunkSize, CarbonCallback cb) {
+        carbonMessage.setHeader(Constants.HTTP_CONTENT_TYPE, ElementFraming.contentType(mediaType));
+        carbonMessage.setHeader(Constants.HTTP_TRANSFER_ENCODING, CHUNKED);
+        if (ElementFraming.of(mediaType) == ElementFraming.SERVER_SENT_EVENTS) {
+            carbonMessage.setHeader("Cache-Control", "no-cache");
+        }
+        carbonMessage.setBufferContent(false);
+        cb.done(carbonMessage);
+        publisher.subscribe(new ElementStreamSubscriber(carbonMessage, mediaType, chunkSize));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.wso2.msf4j.internal.beanconversion.BeanConverter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Encodes server-sent events in the text/event-stream format.
+ */
+public final class SseEncoder {
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private SseEncoder() {
+    }
+
+    /**
+     * Encode a single event.
+     *
+     * @param id   event id, may be null
+     * @param name event name, may be null
+     * @param data event data. Character sequences are sent as they are and other objects as JSON. Each line of the
+     *             data goes into its own data field.
+     * @return the encoded event, including the blank line which ends it
+     */
+    public static byte[] encode(String id, String name, Object data) {
+        String text = toText(data);
+        StringBuilder event = new StringBuilder(text.length() + 16);
+        if (id != null) {
+            appendField(event, "id", id);
+        }
+        if (name != null) {
+            appendField(event, "event", name);
+        }
+        int start = 0;
+        int length = text.length();
+        while (true) {
+            int end = lineEnd(text, start);
+            event.append("data: ").append(text, start, end).append('\n');
+            if (end == length) {
+                break;
+            }
+            // Treat \r\n as a single line break
+            start = text.charAt(end) == '\r' && end + 1 < length && text.charAt(end + 1) == '\n' ? end + 2 : end + 1;
+        }
+        return event.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return an empty comment, which clients ignore but which keeps idle connections and proxies alive
+     */
+    public static ByteBuffer heartbeat() {
+        return ByteBuffer.wrap(HEARTBEAT).asReadOnlyBuffer();
+    }
+
+    private static String toText(Object data) {
+        if (data instanceof CharSequence) {
+            return data.toString();
+        }
+        ByteBuffer json = BeanConverter.getConverter(MediaType.APPLICATION_JSON).convertToMedia(data);
+        return Charset.defaultCharset().decode(json).toString();
+    }
+
+    private static void appendField(StringBuilder event, String field, String value) {
+        if (lineEnd(value, 0) != value.length()) {
+            throw new IllegalArgumentException("Server-sent event " + field + " cannot contain line breaks");
+        }
+        event.append(field).append(": ").append(value).append('\n');
+    }
+
+    private static int lineEnd(String text, int start) {
+        int end = start;
+        while (end < text.length() && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+            end++;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.wso2.carbon.messaging.CarbonCallback;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.transport.http.netty.common.Constants;
+import org.wso2.msf4j.sse.SseEvent;
+import org.wso2.msf4j.sse.SseEventStream;
+
+/**
+ * EntityWriter for entity of type {@link org.wso2.msf4j.sse.SseEventStream}. Sends the response headers and leaves
+ * the response open for the broadcaster to write events to.
+ */
+public class SseEventStreamEntityWriter implements EntityWriter<SseEventStream> {
+
+    /**
+     * Supported entity type.
+     */
+    @Override
+    public Class<SseEventStream> getType() {
+        return SseEventStream.class;
+    }
+
+    /**
+     * Write the entity to the carbon message.
+     */
+    @Override
+    public void writeData(CarbonMessage carbonMessage, SseEventStream eventStream,
+                          String mediaType, int chunkSize, CarbonCallback cb) {
+        carbonMessage.setHeader(Constants.HTTP_CONTENT_TYPE, SseEvent.MEDIA_TYPE);
+        carbonMessage.setHeader(Constants.HTTP_TRANSFER_ENCODING, CHUNKED);
+        carbonMessage.setHeader("Cache-Control", "no-cache");
+        carbonMessage.setBufferContent(false);
+        cb.done(carbonMessage);
+        eventStream.open(carbonMessage);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.wso2.carbon.messaging.CarbonCallback;
+import org.wso2.carbon.messaging.CarbonMessage;
+
+import java.util.stream.Stream;
+
+/**
+ * EntityWriter for entity of type {@link java.util.stream.Stream}. The stream is consumed lazily as the transport
+ * writes the response, in the same way as a {@link org.reactivestreams.Publisher} entity, and closed at the end.
+ */
+public class StreamEntityWriter implements EntityWriter<Stream> {
+
+    private final PublisherEntityWriter publisherEntityWriter = new PublisherEntityWriter();
+
+    /**
+     * Supported entity type.
+     */
+    @Override
+    public Class<Stream> getType() {
+        return Stream.class;
+    }
+
+    /**
+     * Write the entity to the carbon message.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeData(CarbonMessage carbonMessage, Stream stream,
+                          String mediaType, int chunkSize, CarbonCallback cb) {
+        publisherEntityWriter.writeData(carbonMessage, new IteratorPublisher<Object>(stream.iterator(), stream::close),
+                mediaType, chunkSize, cb);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Notifies streamed responses when the transport has taken every queued chunk off their carbon message, which is
+ * the closest signal of the connection being writable that the carbon transport exposes. Messages are checked from a
+ * single timer thread with an increasing back off, and the callbacks run on a dedicated pool of daemon threads so
+ * that the timer thread never serializes response content and blocking element sources, such as a {@code Stream}
+ * over a database cursor, never occupy the common fork join pool.
+ * <p>
+ * A drained message only means that its chunks were handed to Netty, not that the client has read them. Netty keeps
+ * queueing writes for a slow client in its own outbound buffer, so the write timeout and the bounded memory of a
+ * streamed response only hold up to the point where the carbon transport passes chunks on to Netty.
+ */
+public final class TransportDrainWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TransportDrainWatcher.class);
+
+    private static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 60000;
+
+    /**
+     * How long a streamed response waits for the transport to take what was written to it before giving up on the
+     * client, configured in milliseconds with MSF4J_STREAM_WRITE_TIMEOUT.
+     */
+    public static final long WRITE_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            parseWriteTimeout(SystemVariableUtil.getValue("MSF4J_STREAM_WRITE_TIMEOUT",
+                                                          String.valueOf(DEFAULT_WRITE_TIMEOUT_MILLIS))));
+
+    private static final long MIN_CHECK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long MAX_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_END_CHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "msf4j-transport-drain-watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final AtomicInteger callbackThreadCount = new AtomicInteger();
+    private static final ExecutorService callbackExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "msf4j-stream-writer-" + callbackThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TransportDrainWatcher() {
+    }
+
+    private static long parseWriteTimeout(String value) {
+        try {
+            long timeout = Long.parseLong(value.trim());
+            if (timeout > 0) {
+                return timeout;
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through to the default below
+        }
+        log.warn("Invalid stream write timeout '{}', using {}ms", value, DEFAULT_WRITE_TIMEOUT_MILLIS);
+        return DEFAULT_WRITE_TIMEOUT_MILLIS;
+    }
+
+    /**
+     * Run a callback once the transport has drained the body chunks queued on a carbon message.
+     *
+     * @param carbonMessage message to watch
+     * @param timeoutNanos  how long to wait for the transport
+     * @param onDrained     called once the message has no queued chunks
+     * @param onTimeout     called if the transport does not drain the message in time
+     */
+    public static void whenDrained(CarbonMessage carbonMessage, long timeoutNanos,
+                                   Runnable onDrained, Runnable onTimeout) {
+        if (carbonMessage.isEmpty()) {
+            onDrained.run();
+            return;
+        }
+        new Check(carbonMessage, System.nanoTime() + timeoutNanos, onDrained, onTimeout).schedule();
+    }
+
+    /**
+     * Run a callback once the end of a streamed response has been added to its carbon message, which happens when
+     * the response is complete or when its writer gives up on the client.
+     *
+     * @param carbonMessage message to watch
+     * @param onEnded       called once the end of the message has been added
+     */
+    public static void whenEnded(CarbonMessage carbonMessage, Runnable onEnded) {
+        if (carbonMessage.isEndOfMsgAdded()) {
+            onEnded.run();
+            return;
+        }
+        new EndCheck(carbonMessage, onEnded).schedule();
+    }
+
+    private static final class EndCheck implements Runnable {
+
+        private final CarbonMessage carbonMessage;
+        private final Runnable onEnded;
+        private long delay = MIN_CHECK_NANOS;
+
+        private EndCheck(CarbonMessage carbonMessage, Runnable onEnded) {
+            this.carbonMessage = carbonMessage;
+            this.onEnded = onEnded;
+        }
+
+        private void schedule() {
+            timer.schedule(this, delay, TimeUnit.NANOSECONDS);
+            // Streamed responses can last long, and nothing waits for the callback
+            delay = Math.min(delay << 1, MAX_END_CHECK_NANOS);
+        }
+
+        @Override
+        public void run() {
+            if (carbonMessage.isEndOfMsgAdded()) {
+                callbackExecutor.execute(onEnded);
+            } else {
+                schedule();
+            }
+        }
+    }
+
+    private static final class Check implements Runnable {
+
+        private final CarbonMessage carbonMessage;
+        private final long deadline;
+        private final Runnable onDrained;
+        private final Runnable onTimeout;
+        private long delay = MIN_CHECK_NANOS;
+
+        private Check(CarbonMessage carbonMessage, long deadline, Runnable onDrained, Runnable onTimeout) {
+            this.carbonMessage = carbonMessage;
+            this.deadline = deadline;
+            this.onDrained = onDrained;
+            this.onTimeout = onTimeout;
+        }
+
+        private void schedule() {
+            timer.schedule(this, delay, TimeUnit.NANOSECONDS);
+            delay = Math.min(delay << 1, MAX_CHECK_NANOS);
+        }
+
+        @Override
+        public void run() {
+            if (carbonMessage.isEmpty()) {
+                callbackExecutor.execute(onDrained);
+            } else if (System.nanoTime() - deadline >= 0) {
+                callbackExecutor.execute(onTimeout);
+            } else {
+                schedule();
+            }
+        }
+    }
+}
@@ -20,7 +20,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.msf4j.HttpStreamHandler;
 import org.wso2.msf4j.HttpStreamer;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.RequestTimings;
 import org.wso2.msf4j.Response;
+import org.wso2.msf4j.io.MSF4JRequestInputStream;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -39,6 +42,7 @@ public class HttpMethodInfo {
     private final Object[] args;
     private Response responder;
     private HttpStreamHandler httpStreamHandler;
+    private RequestTimings requestTimings;
     private static final Logger log = LoggerFactory.getLogger(HttpMethodInfo.class);
 
     /**
@@ -103,9 +107,32 @@ public class HttpMethodInfo {
      * Calls the http resource method.
      */
     public void invoke() throws Exception {
-        Object returnVal = method.invoke(handler, args);
+        Object returnVal = call();
         responder.setEntity(returnVal);
         responder.send();
+        markSerialized();
+    }
+
+    /**
+     * Calls the http resource method without sending what it returned.
+     *
+     * @return value returned by the resource method
+     */
+    Object call() throws Exception {
+        Object returnVal = method.invoke(handler, args);
+        if (requestTimings != null) {
+            requestTimings.mark(RequestTimings.Phase.INVOKED);
+        }
+        return returnVal;
+    }
+
+    /**
+     * Mark the response of the http resource method as written.
+     */
+    void markSerialized() {
+        if (requestTimings != null) {
+            requestTimings.mark(RequestTimings.Phase.SERIALIZED);
+        }
     }
 
     /**
@@ -136,6 +163,41 @@ public class HttpMethodInfo {
         }
     }
 
+    /**
+     * If chunk handling is supported, stream the request body to the handler as it requests chunks, and end the
+     * stream after the last chunk.
+     *
+     * @param request     request to stream the body of
+     * @param maxBodySize maximum number of body bytes, or a negative value for no limit
+     * @return false if the handler cancelled its subscription before the whole body was streamed
+     * @throws Exception if reading the body or the handler failed, after the handler was notified of the error
+     */
+    public boolean stream(Request request, long maxBodySize) throws Exception {
+        StreamSubscription subscription =
+                new StreamSubscription(this, new MSF4JRequestInputStream(request, maxBodySize));
+        try {
+            httpStreamHandler.onSubscribe(subscription);
+        } catch (Throwable e) {
+            log.error("Exception while invoking streaming handlers", e);
+            httpStreamHandler.error(e);
+            throw e;
+        }
+        return subscription.deliver();
+    }
+
+    /**
+     * If chunk handling is supported, let the handler clean up after the request failed while streaming.
+     *
+     * @param cause cause of the failure
+     */
+    public void error(Throwable cause) {
+        httpStreamHandler.error(cause);
+    }
+
+    void setRequestTimings(RequestTimings requestTimings) {
+        this.requestTimings = requestTimings;
+    }
+
     /**
      * Return true if the handler method supports streaming.
      */
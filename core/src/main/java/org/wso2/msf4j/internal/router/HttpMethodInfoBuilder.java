@@ -75,6 +75,7 @@ public class HttpMethodInfoBuilder {
         if (httpMethodInfo == null) {
             httpMethodInfo = (new HttpResourceModelProcessor(httpResourceModel))
                     .buildHttpMethodInfo(request, responder, groupValues);
+            httpMethodInfo.setRequestTimings(request.getTimings());
         }
         return httpMethodInfo;
     }
@@ -21,7 +21,12 @@ import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.wso2.msf4j.HttpStreamer;
+import org.wso2.msf4j.circuitbreaker.Bulkhead;
+import org.wso2.msf4j.circuitbreaker.CircuitBreaker;
+import org.wso2.msf4j.circuitbreaker.CircuitBreakers;
 import org.wso2.msf4j.formparam.FormDataParam;
+import org.wso2.msf4j.limit.ConcurrencyLimiter;
+import org.wso2.msf4j.limit.ConcurrencyLimiters;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -63,6 +68,12 @@ public final class HttpResourceModel {
     private final Method method;
     private final Object handler;
     private final List<ParameterInfo<?>> paramInfoList;
+    private final RequestSizeLimits requestSizeLimits;
+    private final long requestTimeoutNanos;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RequestCoalescer requestCoalescer;
     private List<String> consumesMediaTypes;
     private List<String> producesMediaTypes;
     private int isStreamingReqSupported = STREAMING_REQ_UNKNOWN;
@@ -81,6 +92,12 @@ public final class HttpResourceModel {
         this.method = method;
         this.handler = handler;
         this.paramInfoList = makeParamInfoList(method);
+        this.requestSizeLimits = RequestSizeLimits.of(method);
+        this.requestTimeoutNanos = RequestTimeouts.of(method);
+        this.concurrencyLimiter = ConcurrencyLimiters.forMethod(method).orElse(null);
+        this.circuitBreaker = CircuitBreakers.circuitBreakerForMethod(method).orElse(null);
+        this.bulkhead = CircuitBreakers.bulkheadForMethod(method).orElse(null);
+        this.requestCoalescer = RequestCoalescer.of(method);
         consumesMediaTypes = parseConsumesMediaTypes();
         producesMediaTypes = parseProducesMediaTypes();
     }
@@ -134,6 +151,48 @@ public final class HttpResourceModel {
         return path;
     }
 
+    /**
+     * @return limits which apply to the request body.
+     */
+    public RequestSizeLimits getRequestSizeLimits() {
+        return requestSizeLimits;
+    }
+
+    /**
+     * @return time the method has to respond in nanoseconds, or a negative value if it does not time out.
+     */
+    public long getRequestTimeoutNanos() {
+        return requestTimeoutNanos;
+    }
+
+    /**
+     * @return coalescer of identical concurrent requests, or null if the method is not annotated with Coalesce.
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * @return limiter of the concurrent requests, or null if the method is not limited.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * @return circuit breaker which guards the method, or null if the method is not guarded by one.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return bulkhead which guards the method, or null if the method is not guarded by one.
+     */
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
     /**
      * @return handler method that handles an http end-point.
      */
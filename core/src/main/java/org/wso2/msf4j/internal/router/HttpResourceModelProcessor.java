@@ -17,7 +17,8 @@
 package org.wso2.msf4j.internal.router;
 
 import com.google.common.base.Preconditions;
-import org.apache.commons.io.FileCleaningTracker;
+import org.apache.commons.io.IOUtils;
+import org.wso2.msf4j.Deadline;
 import org.wso2.msf4j.HttpStreamer;
 import org.wso2.msf4j.Request;
 import org.wso2.msf4j.Response;
@@ -30,22 +31,25 @@ import org.wso2.msf4j.formparam.FormParamIterator;
 import org.wso2.msf4j.formparam.exception.FormUploadException;
 import org.wso2.msf4j.formparam.util.StreamUtil;
 import org.wso2.msf4j.internal.beanconversion.BeanConverter;
+import org.wso2.msf4j.io.MSF4JRequestInputStream;
+import org.wso2.msf4j.io.RequestSizeLimitExceededException;
+import org.wso2.msf4j.io.TempFileManager;
 import org.wso2.msf4j.util.BufferUtil;
 import org.wso2.msf4j.util.QueryStringDecoderUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -70,11 +74,10 @@ public class HttpResourceModelProcessor {
     private HttpStreamer httpStreamer;
     private MultivaluedMap<String, Object> formParameters = null;
     private Map<String, String> formParamContentType = new HashMap<>();
-    private static Path tempRepoPath = Paths.get(System.getProperty("java.io.tmpdir"), "msf4jtemp");
-    private Path tmpPathForRequest;
-    // Temp File cleaning thread
-    private static FileCleaningTracker fileCleaningTracker = new FileCleaningTracker();
+    // Shared by all the query parameters of the request so the query string is only indexed once
+    private QueryStringDecoderUtil queryStringDecoder;
     private static final String FILEINFO_POSTFIX = "file.info";
+    private static final int BUFFER_SIZE = 8192;
 
     public HttpResourceModelProcessor(HttpResourceModel httpResourceModel) {
         this.httpResourceModel = httpResourceModel;
@@ -143,6 +146,8 @@ public class HttpResourceModelProcessor {
                         responder,
                         httpStreamer);
             }
+        } catch (RequestSizeLimitExceededException e) {
+            throw new HandlerException(javax.ws.rs.core.Response.Status.REQUEST_ENTITY_TOO_LARGE, e.getMessage(), e);
         } catch (Throwable e) {
             throw new HandlerException(javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR,
                     String.format("Error in executing request: %s %s", request.getHttpMethod(),
@@ -150,35 +155,57 @@ public class HttpResourceModelProcessor {
         }
     }
 
-    private void createObject(Request request, Object[] args, int idx, HttpResourceModel.ParameterInfo<?> paramInfo) {
-        ByteBuffer fullContent = BufferUtil.merge(request.getFullMessageBody());
+    private void createObject(Request request, Object[] args, int idx, HttpResourceModel.ParameterInfo<?> paramInfo)
+            throws IOException {
+        ByteBuffer fullContent = readFullBody(request);
         Type paramType = paramInfo.getParameterType();
         args[idx] =
                 BeanConverter.getConverter((request.getContentType() != null) ? request.getContentType() :
                         MediaType.WILDCARD).convertToObject(fullContent, paramType);
     }
 
-    private Object getFormDataParamValue(HttpResourceModel.ParameterInfo<List<Object>> paramInfo, Request request)
-            throws FormUploadException, IOException {
-        if (Files.notExists(tempRepoPath)) {
-            Files.createDirectory(tempRepoPath);
+    /**
+     * Read the whole request body, failing as soon as it exceeds the body size limit of the resource.
+     */
+    private ByteBuffer readFullBody(Request request) throws IOException {
+        MSF4JRequestInputStream inputStream =
+                new MSF4JRequestInputStream(request, httpResourceModel.getRequestSizeLimits().getMaxBodySize());
+        List<ByteBuffer> chunks = new ArrayList<>();
+        ByteBuffer chunk;
+        while ((chunk = inputStream.readChunk()) != null) {
+            chunks.add(chunk);
         }
+        return BufferUtil.merge(chunks);
+    }
+
+    private FormParamIterator newFormParamIterator(Request request) throws IOException {
+        RequestSizeLimits limits = httpResourceModel.getRequestSizeLimits();
+        return new FormParamIterator(request, limits.getMaxBodySize(), limits.getMaxPartCount(),
+                                     limits.getMaxPartSize());
+    }
 
+    private Object getFormDataParamValue(HttpResourceModel.ParameterInfo<List<Object>> paramInfo, Request request)
+            throws FormUploadException, IOException {
         Type paramType = paramInfo.getParameterType();
         FormDataParam formDataParam = paramInfo.getAnnotation();
         if (getFormParameters() == null) {
-            setFormParameters(extractRequestFormParams(request, true));
+            setFormParameters(extractRequestFormParams(request, true,
+                                                       httpResourceModel.getRequestSizeLimits().getMemoryThreshold()));
         }
 
         List<Object> parameter = getParameter(formDataParam.value());
         boolean isNotNull = (parameter != null);
+        boolean isFile = isNotNull && isFilePart(parameter.get(0));
         if (paramInfo.getConverter() != null) {
             // We need to skip the conversion for java.io.File types and handle special cases
-            if (paramType instanceof ParameterizedType && isNotNull &&
-                parameter.get(0).getClass().isAssignableFrom(File.class)) {
-                return parameter;
-            } else if (isNotNull && parameter.get(0).getClass().isAssignableFrom(File.class)) {
-                return parameter.get(0);
+            if (paramType instanceof ParameterizedType && isFile) {
+                List<Object> files = new ArrayList<>(parameter.size());
+                for (Object part : parameter) {
+                    files.add(isFilePart(part) ? toFile(part, request) : part);
+                }
+                return files;
+            } else if (isFile) {
+                return toFile(parameter.get(0), request);
             } else if (MediaType.TEXT_PLAIN.equalsIgnoreCase(formParamContentType.get(formDataParam.value()))) {
                 return paramInfo.convert(parameter);
             }
@@ -186,8 +213,10 @@ public class HttpResourceModelProcessor {
             return createBean(parameter, formDataParam, paramType, isNotNull);
         }
         // We only support InputStream for a single file. Therefore only get first element from the list
-        if (paramType == InputStream.class && isNotNull && parameter.get(0).getClass().isAssignableFrom(File.class)) {
-            return new FileInputStream((File) parameter.get(0));
+        if (paramType == InputStream.class && isFile) {
+            Object part = parameter.get(0);
+            return (part instanceof BufferedFilePart) ?
+                   new ByteArrayInputStream(((BufferedFilePart) part).content) : new FileInputStream((File) part);
         } else if (paramType == FileInfo.class) {
             List<Object> fileInfo = getParameter(formDataParam.value() + FILEINFO_POSTFIX);
             return fileInfo == null ? null : fileInfo.get(0);
@@ -201,12 +230,13 @@ public class HttpResourceModelProcessor {
      *
      * @param request Request which need to be processed
      * @param addFileInfo if FileInfo object needed to be added to params. In a case of InputStream this should be true
+     * @param memoryThreshold files up to this size are kept in memory instead of being written to temporary files
      * @return MultivaluedMap of form items
      * @throws IOException
      */
-    private MultivaluedMap<String, Object> extractRequestFormParams(Request request, boolean addFileInfo)
-            throws IOException {
-        FormParamIterator formParamIterator = new FormParamIterator(request);
+    private MultivaluedMap<String, Object> extractRequestFormParams(Request request, boolean addFileInfo,
+                                                                    int memoryThreshold) throws IOException {
+        FormParamIterator formParamIterator = newFormParamIterator(request);
         MultivaluedMap<String, Object> parameters = new MultivaluedHashMap<>();
         while (formParamIterator.hasNext()) {
             FormItem item = formParamIterator.next();
@@ -222,13 +252,13 @@ public class HttpResourceModelProcessor {
                              MediaType.APPLICATION_OCTET_STREAM.equals(item.getHeaders().getHeader("content-type"));
             formParamContentType.putIfAbsent(item.getFieldName(), cType);
 
+            Object value = isFile ? readFilePart(item, memoryThreshold, request) :
+                           StreamUtil.asString(item.openStream());
             List<Object> existingValues = parameters.get(item.getFieldName());
             if (existingValues == null) {
-                parameters.put(item.getFieldName(),
-                               isFile ? new ArrayList<>(Collections.singletonList(createAndTrackTempFile(item))) :
-                               new ArrayList<>(Collections.singletonList(StreamUtil.asString(item.openStream()))));
+                parameters.put(item.getFieldName(), new ArrayList<>(Collections.singletonList(value)));
             } else {
-                existingValues.add(isFile ? createAndTrackTempFile(item) : StreamUtil.asString(item.openStream()));
+                existingValues.add(value);
             }
 
             if (addFileInfo && isFile) {
@@ -251,15 +281,54 @@ public class HttpResourceModelProcessor {
         throw new BeanConversionException("Content cannot be null");
     }
 
-    private File createAndTrackTempFile(FormItem item) throws IOException {
-        if (tmpPathForRequest == null) {
-            tmpPathForRequest = Files.createTempDirectory(tempRepoPath, "tmp");
+    /**
+     * Read the content of an uploaded file. Content up to the threshold is kept in memory and anything larger is
+     * written to a temporary file as it arrives.
+     *
+     * @return a {@link BufferedFilePart} or a {@link File}
+     */
+    private Object readFilePart(FormItem item, int memoryThreshold, Request request) throws IOException {
+        InputStream inputStream = item.openStream();
+        ByteArrayOutputStream memory = null;
+        if (memoryThreshold > 0) {
+            memory = new ByteArrayOutputStream(Math.min(memoryThreshold, BUFFER_SIZE));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while (memory.size() <= memoryThreshold && (read = inputStream.read(buffer)) != -1) {
+                memory.write(buffer, 0, read);
+            }
+            if (memory.size() <= memoryThreshold) {
+                return new BufferedFilePart(item.getName(), memory.toByteArray());
+            }
+        }
+        TempFileManager tempFileManager = request.getTempFileManager();
+        Path file = tempFileManager.createTempFile(item.getName());
+        OutputStream outputStream = tempFileManager.openOutputStream(file, item.getContentLength());
+        if (memory != null) {
+            try {
+                memory.writeTo(outputStream);
+            } catch (IOException e) {
+                IOUtils.closeQuietly(outputStream);
+                throw e;
+            }
+        }
+        StreamUtil.copy(inputStream, outputStream, true);
+        return file.toFile();
+    }
+
+    private static boolean isFilePart(Object part) {
+        return part instanceof File || part instanceof BufferedFilePart;
+    }
+
+    /**
+     * Return an uploaded file as a {@link File}, writing it to a temporary file if it was kept in memory.
+     */
+    private File toFile(Object part, Request request) throws IOException {
+        if (part instanceof File) {
+            return (File) part;
         }
-        Path path = Paths.get(tmpPathForRequest.toString(), item.getName());
-        File file = path.toFile();
-        StreamUtil.copy(item.openStream(), new FileOutputStream(file), true);
-        fileCleaningTracker.track(file, file);
-        return file;
+        BufferedFilePart bufferedFilePart = (BufferedFilePart) part;
+        return request.getTempFileManager().writeTempFile(bufferedFilePart.name, bufferedFilePart.content).toFile();
     }
 
     private Object getFormParamValue(HttpResourceModel.ParameterInfo<List<Object>> paramInfo, Request request)
@@ -268,7 +337,7 @@ public class HttpResourceModelProcessor {
         if (getFormParameters() == null) {
             MultivaluedMap<String, Object> parameters = new MultivaluedHashMap<>();
             if (MediaType.MULTIPART_FORM_DATA.equals(request.getContentType())) {
-                FormParamIterator formParamIterator = new FormParamIterator(request);
+                FormParamIterator formParamIterator = newFormParamIterator(request);
                 while (formParamIterator.hasNext()) {
                     FormItem item = formParamIterator.next();
                     List<Object> existingValues = parameters.get(item.getFieldName());
@@ -280,7 +349,7 @@ public class HttpResourceModelProcessor {
                     }
                 }
             } else if (MediaType.APPLICATION_FORM_URLENCODED.equals(request.getContentType())) {
-                ByteBuffer fullContent = BufferUtil.merge(request.getFullMessageBody());
+                ByteBuffer fullContent = readFullBody(request);
                 String bodyStr = BeanConverter.getConverter(
                         (request.getContentType() != null) ? request.getContentType() : MediaType.WILDCARD)
                                               .convertToObject(fullContent, paramInfo.getParameterType()).toString();
@@ -305,24 +374,30 @@ public class HttpResourceModelProcessor {
     private Object getContextParamValue(HttpResourceModel.ParameterInfo<Object> paramInfo, Request request,
                                         Response responder) throws FormUploadException, IOException {
         Type paramType = paramInfo.getParameterType();
+        Class<?> paramClass = (Class<?>) ((paramType instanceof ParameterizedType) ?
+                ((ParameterizedType) paramType).getRawType() : paramType);
         Object value = null;
-        if (((Class) paramType).isAssignableFrom(Request.class)) {
+        if (paramClass.isAssignableFrom(Request.class)) {
             value = request;
-        } else if (((Class) paramType).isAssignableFrom(Response.class)) {
+        } else if (paramClass.isAssignableFrom(Response.class)) {
             value = responder;
-        } else if (((Class) paramType).isAssignableFrom(HttpStreamer.class)) {
+        } else if (paramClass.isAssignableFrom(Deadline.class)) {
+            value = request.getDeadline();
+        } else if (paramClass.isAssignableFrom(HttpStreamer.class)) {
             if (httpStreamer == null) {
                 httpStreamer = new HttpStreamer();
             }
             value = httpStreamer;
-        } else if (((Class) paramType).isAssignableFrom(FormParamIterator.class)) {
-            value = new FormParamIterator(request);
-        } else if (((Class) paramType).isAssignableFrom(MultivaluedMap.class)) {
+        } else if (paramClass.isAssignableFrom(FormParamIterator.class)) {
+            // Streaming mode, parts are parsed while the resource method consumes them
+            value = newFormParamIterator(request);
+        } else if (paramClass.isAssignableFrom(MultivaluedMap.class)) {
             MultivaluedMap<String, Object> listMultivaluedMap = new MultivaluedHashMap<>();
             if (MediaType.MULTIPART_FORM_DATA.equals(request.getContentType())) {
-                listMultivaluedMap = extractRequestFormParams(request, false);
+                // Files are handed over as java.io.File, so there is no point in keeping them in memory
+                listMultivaluedMap = extractRequestFormParams(request, false, 0);
             } else if (MediaType.APPLICATION_FORM_URLENCODED.equals(request.getContentType())) {
-                ByteBuffer fullContent = BufferUtil.merge(request.getFullMessageBody());
+                ByteBuffer fullContent = readFullBody(request);
                 String bodyStr = BeanConverter.getConverter(
                         (request.getContentType() != null) ? request.getContentType() : MediaType.WILDCARD)
                                               .convertToObject(fullContent, paramInfo.getParameterType()).toString();
@@ -354,7 +429,10 @@ public class HttpResourceModelProcessor {
     @SuppressWarnings("unchecked")
     private Object getQueryParamValue(HttpResourceModel.ParameterInfo<List<String>> info, String uri) {
         QueryParam queryParam = info.getAnnotation();
-        List<String> values = new QueryStringDecoderUtil(uri).parameters().get(queryParam.value());
+        if (queryStringDecoder == null) {
+            queryStringDecoder = new QueryStringDecoderUtil(uri);
+        }
+        List<String> values = queryStringDecoder.parameter(queryParam.value());
         if (values == null || values.isEmpty()) {
             String defaultVal = info.getDefaultVal();
             if (defaultVal != null) {
@@ -402,4 +480,18 @@ public class HttpResourceModelProcessor {
     public void setFormParameters(MultivaluedMap<String, Object> parameters) {
         this.formParameters = parameters;
     }
+
+    /**
+     * Uploaded file which was small enough to be kept in memory.
+     */
+    private static final class BufferedFilePart {
+
+        private final String name;
+        private final byte[] content;
+
+        private BufferedFilePart(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+    }
 }
@@ -23,7 +23,6 @@ import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Maps;
 import com.google.common.primitives.Primitives;
 import com.google.common.reflect.TypeToken;
 import org.apache.commons.beanutils.ConvertUtils;
@@ -35,7 +34,6 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 
@@ -44,22 +42,6 @@ import java.util.SortedSet;
  */
 public final class ParamConvertUtils {
 
-    private static final Map<Class<?>, Method> PRIMITIVES_PARSE_METHODS;
-
-    // Setup methods for converting string into primitive/boxed types
-    static {
-        Map<Class<?>, Method> methods = Maps.newIdentityHashMap();
-        for (Class<?> wrappedType : Primitives.allWrapperTypes()) {
-            try {
-                methods.put(wrappedType, wrappedType.getMethod("valueOf", String.class));
-            } catch (NoSuchMethodException e) {
-                // Void and Character has no valueOf. It's ok to ignore them
-            }
-        }
-
-        PRIMITIVES_PARSE_METHODS = methods;
-    }
-
     private ParamConvertUtils() {
     }
 
@@ -75,10 +57,24 @@ public final class ParamConvertUtils {
         if (!(resultType instanceof Class)) {
             throw new IllegalArgumentException("Unsupported @PathParam type " + resultType);
         }
-        return new Function<String, Object>() {
-            @Override
-            public Object apply(String value) {
-                return ConvertUtils.convert(value, (Class<?>) resultType);
+        final Class<?> resultClass = (Class<?>) resultType;
+        if (resultClass == String.class) {
+            return value -> value;
+        }
+        final Function<String, Object> parser = resultClass == boolean.class || resultClass == Boolean.class
+                ? ParamParsers::parseBooleanStrictly : ParamParsers.get(resultClass);
+        if (parser == null) {
+            return value -> ConvertUtils.convert(value, resultClass);
+        }
+        if (!Primitives.isWrapperType(Primitives.wrap(resultClass))) {
+            return parser;
+        }
+        // Values rejected by the direct parser are handed over to ConvertUtils, which is more lenient
+        return value -> {
+            try {
+                return parser.apply(value);
+            } catch (RuntimeException e) {
+                return ConvertUtils.convert(value, resultClass);
             }
         };
     }
@@ -185,6 +181,12 @@ public final class ParamConvertUtils {
             return converter;
         }
 
+        // Enum, UUID and java.time types
+        converter = createParserConverter(resultClass);
+        if (converter != null) {
+            return converter;
+        }
+
         // String constructor
         converter = createStringConstructorConverter(resultClass);
         if (converter != null) {
@@ -220,21 +222,32 @@ public final class ParamConvertUtils {
             return null;
         }
 
+        // Void is the only wrapper type without a parser
+        final Function<String, Object> parser = ParamParsers.get(boxedType);
         return new BasicConverter(defaultValue) {
             @Override
             protected Object convert(String value) throws Exception {
-                Method method = PRIMITIVES_PARSE_METHODS.get(boxedType);
-                if (method != null) {
-                    // It's primitive/wrapper type (except char)
-                    return method.invoke(null, value);
-                }
-                // One exception is char type
-                if (boxedType == Character.class) {
-                    return value.charAt(0);
-                }
+                return parser != null ? parser.apply(value) : null;
+            }
+        };
+    }
 
-                // Should not happen.
-                return null;
+    /**
+     * Creates a converter function that converts value into an enum, {@link java.util.UUID} or java.time type
+     * without reflection.
+     *
+     * @param resultClass The result class
+     * @return A converter function or {@code null} if the given type doesn't have a direct parser
+     */
+    private static Function<List<String>, Object> createParserConverter(Class<?> resultClass) {
+        final Function<String, Object> parser = ParamParsers.get(resultClass);
+        if (parser == null) {
+            return null;
+        }
+        return new BasicConverter(null) {
+            @Override
+            protected Object convert(String value) throws Exception {
+                return parser.apply(value);
             }
         };
     }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.router;
+
+import com.google.common.base.Function;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Direct parsers which convert a parameter value into primitive, wrapper, enum, {@link UUID} and java.time types
+ * without reflection. The java.time types and {@link UUID} are parsed from the {@link CharSequence} as is, without
+ * splitting it into substrings.
+ */
+final class ParamParsers {
+
+    private static final Map<Class<?>, Function<String, Object>> PARSERS = new IdentityHashMap<>();
+
+    static {
+        register(Boolean::valueOf, boolean.class, Boolean.class);
+        register(Byte::valueOf, byte.class, Byte.class);
+        register(Short::valueOf, short.class, Short.class);
+        register(Integer::valueOf, int.class, Integer.class);
+        register(Long::valueOf, long.class, Long.class);
+        register(Float::valueOf, float.class, Float.class);
+        register(Double::valueOf, double.class, Double.class);
+        register(value -> value.charAt(0), char.class, Character.class);
+
+        register(ParamParsers::parseUuid, UUID.class);
+
+        register(Instant::parse, Instant.class);
+        register(LocalDate::parse, LocalDate.class);
+        register(LocalTime::parse, LocalTime.class);
+        register(LocalDateTime::parse, LocalDateTime.class);
+        register(OffsetTime::parse, OffsetTime.class);
+        register(OffsetDateTime::parse, OffsetDateTime.class);
+        register(ZonedDateTime::parse, ZonedDateTime.class);
+        register(Year::parse, Year.class);
+        register(YearMonth::parse, YearMonth.class);
+        register(MonthDay::parse, MonthDay.class);
+        register(Duration::parse, Duration.class);
+        register(Period::parse, Period.class);
+        register(ZoneId::of, ZoneId.class);
+        register(ZoneOffset::of, ZoneOffset.class);
+    }
+
+    private ParamParsers() {
+    }
+
+    private static void register(Function<String, Object> parser, Class<?>... types) {
+        for (Class<?> type : types) {
+            PARSERS.put(type, parser);
+        }
+    }
+
+    /**
+     * Returns the parser for the given type.
+     *
+     * @param type type to parse values into
+     * @return the parser or {@code null} if the type does not have a direct parser
+     */
+    @SuppressWarnings("unchecked")
+    static Function<String, Object> get(Class<?> type) {
+        Function<String, Object> parser = PARSERS.get(type);
+        if (parser == null && type.isEnum()) {
+            Class<? extends Enum> enumType = type.asSubclass(Enum.class);
+            // Same as the static valueOf method of the enum, but without reflection
+            parser = value -> Enum.valueOf(enumType, value);
+        }
+        return parser;
+    }
+
+    /**
+     * Parses a boolean which is exactly {@code true} or {@code false}, ignoring case.
+     *
+     * @param value value to parse
+     * @return the boolean
+     * @throws IllegalArgumentException if the value is not a boolean
+     */
+    static Boolean parseBooleanStrictly(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("Invalid boolean: " + value);
+    }
+
+    /**
+     * Parses a {@link UUID} in the canonical 8-4-4-4-12 form directly from the characters. Other forms which are
+     * accepted by {@link UUID#fromString(String)} are handed over to it.
+     *
+     * @param value value to parse
+     * @return the UUID
+     * @throws IllegalArgumentException if the value is not a UUID
+     */
+    static UUID parseUuid(CharSequence value) {
+        if (value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-' || value.charAt(18) != '-'
+                || value.charAt(23) != '-') {
+            return UUID.fromString(value.toString());
+        }
+        long mostSigBits = parseHex(value, 0, 8) << 32 | parseHex(value, 9, 13) << 16 | parseHex(value, 14, 18);
+        long leastSigBits = parseHex(value, 19, 23) << 48 | parseHex(value, 24, 36);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static long parseHex(CharSequence value, int begin, int end) {
+        long result = 0;
+        for (int i = begin; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid UUID string: " + value);
+            }
+            result = result << 4 | digit;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.internal.router;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.msf4j.Coalesce;
+import org.wso2.msf4j.Deadline;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.internal.entitywriter.EntityWriterRegistry;
+import org.wso2.msf4j.internal.entitywriter.ObjectEntityWriter;
+import org.wso2.msf4j.util.BufferUtil;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+
+/**
+ * Single flight for the GET requests of a resource method annotated with {@link Coalesce}. The first request with a
+ * key invokes the method and serializes the response once. Requests with the same key which arrive while it runs wait
+ * for it and send a copy of the same bytes.
+ */
+public final class RequestCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final String[] headers;
+    private final ConcurrentMap<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    RequestCoalescer(String... headers) {
+        this.headers = headers.clone();
+    }
+
+    /**
+     * Create the coalescer of a resource method.
+     *
+     * @param method resource method
+     * @return coalescer of the method, or null if the method is not annotated with {@link Coalesce}
+     */
+    static RequestCoalescer of(Method method) {
+        Coalesce coalesce = method.getAnnotation(Coalesce.class);
+        if (coalesce == null) {
+            return null;
+        }
+        if (!method.isAnnotationPresent(GET.class)) {
+            log.warn("Ignoring @Coalesce on {}.{}, only GET requests are coalesced",
+                    method.getDeclaringClass().getName(), method.getName());
+            return null;
+        }
+        return new RequestCoalescer(coalesce.headers());
+    }
+
+    /**
+     * Invoke the resource method for a request, or wait for the invocation of an identical request which is in
+     * flight and send its response.
+     *
+     * @param httpMethodInfo invocation of the resource method for the request
+     * @param request        request to respond to
+     * @param response       response of the request
+     * @throws Exception if the invocation failed, for the request which made it and the requests which waited for it
+     */
+    public void invoke(HttpMethodInfo httpMethodInfo, Request request, Response response) throws Exception {
+        if (!HttpMethod.GET.equals(request.getHttpMethod())) {
+            httpMethodInfo.invoke();
+            return;
+        }
+        String key = key(request);
+        CompletableFuture<SharedResponse> flight = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            join(leader, httpMethodInfo, request, response);
+            return;
+        }
+        SharedResponse sharedResponse;
+        try {
+            sharedResponse = serialize(httpMethodInfo, response);
+        } catch (Throwable t) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(t);
+            throw t;
+        }
+        // Requests which arrive from now on start a new invocation
+        inFlight.remove(key, flight);
+        flight.complete(sharedResponse);
+        if (sharedResponse != null) {
+            sharedResponse.sendTo(response);
+        }
+        httpMethodInfo.markSerialized();
+    }
+
+    /**
+     * @return number of requests which waited for the invocation of an identical request
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    private void join(CompletableFuture<SharedResponse> flight, HttpMethodInfo httpMethodInfo, Request request,
+                      Response response) throws Exception {
+        coalesced.increment();
+        SharedResponse sharedResponse;
+        try {
+            Deadline deadline = request.getDeadline();
+            sharedResponse = deadline.hasTimeout() ?
+                    flight.get(deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS) :
+                    flight.get();
+        } catch (TimeoutException e) {
+            // The request timed out while waiting and has already been answered
+            return;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+        if (sharedResponse == null) {
+            // A streamed response cannot be shared
+            httpMethodInfo.invoke();
+            return;
+        }
+        sharedResponse.sendTo(response);
+        httpMethodInfo.markSerialized();
+    }
+
+    /**
+     * Invoke the resource method and serialize what it returned without sending it, or send it right away if it is
+     * streamed.
+     *
+     * @return the serialized response, or null if it was streamed
+     */
+    private static SharedResponse serialize(HttpMethodInfo httpMethodInfo, Response response) throws Exception {
+        Map<String, String> headersBefore = new HashMap<>(response.getHeaders());
+        Object returnVal = httpMethodInfo.call();
+        response.setEntity(returnVal);
+        if (!isBuffered(returnVal)) {
+            response.send();
+            return null;
+        }
+        AtomicReference<CarbonMessage> serialized = new AtomicReference<>();
+        response.send(serialized::set);
+        // Take the body off the message, it is added back when the response is sent
+        CarbonMessage carbonMessage = serialized.get();
+        List<ByteBuffer> chunks = new ArrayList<>();
+        while (!carbonMessage.isEmpty()) {
+            chunks.add(carbonMessage.getMessageBody());
+        }
+        ByteBuffer body = BufferUtil.merge(chunks).asReadOnlyBuffer();
+        Map<String, String> headers = new HashMap<>();
+        response.getHeaders().forEach((name, value) -> {
+            if (!Objects.equals(value, headersBefore.get(name))) {
+                headers.put(name, value);
+            }
+        });
+        return new SharedResponse(response.getStatusCode(), headers, body);
+    }
+
+    /**
+     * Tell whether the entity is written to the response in one go, rather than streamed after the response is sent.
+     */
+    private static boolean isBuffered(Object returnVal) {
+        Object entity = (returnVal instanceof javax.ws.rs.core.Response) ?
+                ((javax.ws.rs.core.Response) returnVal).getEntity() : returnVal;
+        return entity == null || EntityWriterRegistry.getEntityWriter(entity.getClass()) instanceof ObjectEntityWriter;
+    }
+
+    private String key(Request request) {
+        StringBuilder key = new StringBuilder(request.getUri()).append('\n');
+        appendHeader(key, request, HttpHeaders.ACCEPT);
+        for (String header : headers) {
+            appendHeader(key, request, header);
+        }
+        return key.toString();
+    }
+
+    private static void appendHeader(StringBuilder key, Request request, String name) {
+        String value = request.getHeader(name);
+        // Tell a missing header apart from an empty one
+        key.append(value == null ? "\u0000" : value).append('\n');
+    }
+
+    /**
+     * Serialized response of an invocation, shared by the requests which waited for it.
+     */
+    private static final class SharedResponse {
+
+        private final int statusCode;
+        private final Map<String, String> headers;
+        private final ByteBuffer body;
+
+        private SharedResponse(int statusCode, Map<String, String> headers, ByteBuffer body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        private void sendTo(Response response) {
+            response.send(statusCode, headers, body.duplicate());
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.internal.router;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.RequestLimits;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.lang.reflect.Method;
+import javax.ws.rs.core.Response;
+
+/**
+ * Request body limits resolved for a resource method from its {@link RequestLimits} annotation, the annotation of
+ * its class and the server wide configuration. A negative value means unlimited.
+ */
+public final class RequestSizeLimits {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestSizeLimits.class);
+
+    private static final String MAX_REQUEST_BODY_SIZE = "MSF4J_MAX_REQUEST_BODY_SIZE";
+    private static final String MAX_FORM_PART_COUNT = "MSF4J_MAX_FORM_PART_COUNT";
+    private static final String MAX_FORM_PART_SIZE = "MSF4J_MAX_FORM_PART_SIZE";
+    private static final String FORM_PART_MEMORY_THRESHOLD = "MSF4J_FORM_PART_MEMORY_THRESHOLD";
+    private static final long DEFAULT_MEMORY_THRESHOLD = 10240;
+    private static final String CONTENT_LENGTH = "Content-Length";
+
+    static final RequestSizeLimits GLOBAL = new RequestSizeLimits(
+            getConfiguredValue(MAX_REQUEST_BODY_SIZE, RequestLimits.UNLIMITED),
+            getConfiguredValue(MAX_FORM_PART_COUNT, RequestLimits.UNLIMITED),
+            getConfiguredValue(MAX_FORM_PART_SIZE, RequestLimits.UNLIMITED),
+            getConfiguredValue(FORM_PART_MEMORY_THRESHOLD, DEFAULT_MEMORY_THRESHOLD));
+
+    private final long maxBodySize;
+    private final long maxPartCount;
+    private final long maxPartSize;
+    private final int memoryThreshold;
+
+    private RequestSizeLimits(long maxBodySize, long maxPartCount, long maxPartSize, long memoryThreshold) {
+        this.maxBodySize = maxBodySize;
+        this.maxPartCount = maxPartCount;
+        this.maxPartSize = maxPartSize;
+        // A part never grows beyond the part size limit, so neither does the in memory copy
+        long threshold = (memoryThreshold < 0) ? Long.MAX_VALUE : memoryThreshold;
+        if (maxPartSize >= 0) {
+            threshold = Math.min(threshold, maxPartSize);
+        }
+        this.memoryThreshold = (int) Math.min(threshold, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * Resolve the limits of a resource method.
+     *
+     * @param method resource method
+     * @return limits which apply to the method
+     */
+    static RequestSizeLimits of(Method method) {
+        RequestLimits methodLimits = method.getAnnotation(RequestLimits.class);
+        RequestLimits classLimits = method.getDeclaringClass().getAnnotation(RequestLimits.class);
+        if (methodLimits == null && classLimits == null) {
+            return GLOBAL;
+        }
+        return new RequestSizeLimits(
+                resolve(methodLimits == null ? RequestLimits.GLOBAL : methodLimits.maxBodySize(),
+                        classLimits == null ? RequestLimits.GLOBAL : classLimits.maxBodySize(),
+                        GLOBAL.maxBodySize),
+                resolve(methodLimits == null ? RequestLimits.GLOBAL : methodLimits.maxPartCount(),
+                        classLimits == null ? RequestLimits.GLOBAL : classLimits.maxPartCount(),
+                        GLOBAL.maxPartCount),
+                resolve(methodLimits == null ? RequestLimits.GLOBAL : methodLimits.maxPartSize(),
+                        classLimits == null ? RequestLimits.GLOBAL : classLimits.maxPartSize(),
+                        GLOBAL.maxPartSize),
+                resolve(methodLimits == null ? RequestLimits.GLOBAL : methodLimits.memoryThreshold(),
+                        classLimits == null ? RequestLimits.GLOBAL : classLimits.memoryThreshold(),
+                        GLOBAL.memoryThreshold));
+    }
+
+    private static long resolve(long methodValue, long classValue, long globalValue) {
+        if (methodValue != RequestLimits.GLOBAL) {
+            return methodValue;
+        }
+        return (classValue != RequestLimits.GLOBAL) ? classValue : globalValue;
+    }
+
+    private static long getConfiguredValue(String name, long defaultValue) {
+        String value = SystemVariableUtil.getValue(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value '{}' for {}, using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reject a request which declares a body larger than the limit, before any of the body is read.
+     *
+     * @param request request to check
+     * @throws HandlerException with status 413 if the declared Content-Length is larger than the limit
+     */
+    public void checkContentLength(Request request) throws HandlerException {
+        if (maxBodySize < 0) {
+            return;
+        }
+        String contentLength = request.getHeader(CONTENT_LENGTH);
+        if (contentLength == null) {
+            return;
+        }
+        long length;
+        try {
+            length = Long.parseLong(contentLength.trim());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (length > maxBodySize) {
+            throw new HandlerException(Response.Status.REQUEST_ENTITY_TOO_LARGE,
+                    String.format("Request body of %d bytes exceeds the limit of %d bytes", length, maxBodySize));
+        }
+    }
+
+    public long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    public long getMaxPartCount() {
+        return maxPartCount;
+    }
+
+    public long getMaxPartSize() {
+        return maxPartSize;
+    }
+
+    /**
+     * @return size up to which an uploaded file is kept in memory
+     */
+    public int getMemoryThreshold() {
+        return memoryThreshold;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.internal.router;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.Deadline;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.RequestTimeout;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves the timeout of a request from the {@link RequestTimeout} annotation of its resource method, the
+ * annotation of the class, the server wide {@code MSF4J_REQUEST_TIMEOUT} and the timeout sent by the client. A
+ * client can only shorten the timeout configured for the server. Timeouts are in nanoseconds, and a negative value
+ * means no timeout.
+ */
+public final class RequestTimeouts {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestTimeouts.class);
+
+    private static final String REQUEST_TIMEOUT = "MSF4J_REQUEST_TIMEOUT";
+
+    static final long GLOBAL = getConfiguredTimeout();
+
+    private static volatile boolean declared;
+
+    private RequestTimeouts() {
+    }
+
+    /**
+     * Resolve the timeout of a resource method.
+     *
+     * @param method resource method
+     * @return timeout of the method
+     */
+    static long of(Method method) {
+        RequestTimeout timeout = method.getAnnotation(RequestTimeout.class);
+        if (timeout == null) {
+            timeout = method.getDeclaringClass().getAnnotation(RequestTimeout.class);
+        }
+        if (timeout == null) {
+            return GLOBAL;
+        }
+        declared = true;
+        return (timeout.value() > 0) ? timeout.unit().toNanos(timeout.value()) : -1;
+    }
+
+    /**
+     * Tell whether a request may get a deadline, before it is routed.
+     *
+     * @param request request to check
+     * @return false if no timeout is configured and the client did not send one
+     */
+    public static boolean mayApply(Request request) {
+        return GLOBAL >= 0 || declared || request.getHeader(Deadline.REQUEST_TIMEOUT_HEADER) != null
+                || request.getHeader(Deadline.GRPC_TIMEOUT_HEADER) != null;
+    }
+
+    /**
+     * Resolve the timeout of a request.
+     *
+     * @param request       routed request
+     * @param methodTimeout timeout of the resource method of the request
+     * @return the shorter of the method timeout and the timeout sent by the client
+     */
+    public static long resolve(Request request, long methodTimeout) {
+        long requested = Deadline.parseTimeoutNanos(request.getHeader(Deadline.REQUEST_TIMEOUT_HEADER));
+        if (requested < 0) {
+            requested = Deadline.parseTimeoutNanos(request.getHeader(Deadline.GRPC_TIMEOUT_HEADER));
+        }
+        if (requested < 0) {
+            return methodTimeout;
+        }
+        return (methodTimeout < 0) ? requested : Math.min(requested, methodTimeout);
+    }
+
+    private static long getConfiguredTimeout() {
+        String value = SystemVariableUtil.getValue(REQUEST_TIMEOUT, null);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            long millis = Long.parseLong(value.trim());
+            return (millis > 0) ? TimeUnit.MILLISECONDS.toNanos(millis) : -1;
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value '{}' for {}, requests will not time out", value, REQUEST_TIMEOUT);
+            return -1;
+        }
+    }
+}
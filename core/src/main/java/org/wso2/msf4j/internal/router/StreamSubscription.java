@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.router;
+
+import org.wso2.msf4j.HttpStreamSubscription;
+import org.wso2.msf4j.io.MSF4JRequestInputStream;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers the body chunks of a request to the stream handler of a {@link HttpMethodInfo} as the handler signals
+ * demand. The next chunk is taken off the request before waiting for demand, so that the end of the body is
+ * signalled even to a handler which requested exactly the chunks the body had. The delivering thread parks while
+ * the handler has no outstanding demand, and {@link MSF4JRequestInputStream} parks it with a back off while the next
+ * chunk has not arrived yet.
+ */
+final class StreamSubscription implements HttpStreamSubscription {
+
+    private final HttpMethodInfo httpMethodInfo;
+    private final MSF4JRequestInputStream inputStream;
+    private final Thread deliveringThread;
+    private final AtomicLong demand = new AtomicLong();
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException invalidRequest;
+
+    StreamSubscription(HttpMethodInfo httpMethodInfo, MSF4JRequestInputStream inputStream) {
+        this.httpMethodInfo = httpMethodInfo;
+        this.inputStream = inputStream;
+        this.deliveringThread = Thread.currentThread();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            invalidRequest = new IllegalArgumentException(
+                    "Number of requested chunks should be positive, but was " + n);
+            cancel();
+            return;
+        }
+        long current;
+        long next;
+        do {
+            current = demand.get();
+            if (current == Long.MAX_VALUE) {
+                return;
+            }
+            next = current + n;
+            if (next < 0) {
+                next = Long.MAX_VALUE;
+            }
+        } while (!demand.compareAndSet(current, next));
+        if (current == 0) {
+            LockSupport.unpark(deliveringThread);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        LockSupport.unpark(deliveringThread);
+    }
+
+    /**
+     * Deliver the request body on the calling thread, which must be the thread that created the subscription.
+     *
+     * @return false if the handler cancelled the subscription before the whole body was delivered
+     * @throws Exception if reading the body or the stream handler failed
+     */
+    boolean deliver() throws Exception {
+        while (true) {
+            ByteBuffer chunk;
+            try {
+                if (cancelled) {
+                    return cancelled();
+                }
+                chunk = inputStream.readChunk();
+                if (chunk == null) {
+                    break;
+                }
+                if (!awaitDemand()) {
+                    return cancelled();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Failures of the handler itself are reported to it by HttpMethodInfo
+                httpMethodInfo.error(e);
+                throw e;
+            }
+            if (demand.get() != Long.MAX_VALUE) {
+                demand.decrementAndGet();
+            }
+            httpMethodInfo.chunk(chunk);
+        }
+        // The end of the body does not need demand
+        httpMethodInfo.end();
+        return true;
+    }
+
+    private boolean cancelled() {
+        if (invalidRequest != null) {
+            throw invalidRequest;
+        }
+        return false;
+    }
+
+    private boolean awaitDemand() throws IOException {
+        while (!cancelled && demand.get() == 0) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the stream handler to request chunks");
+            }
+        }
+        return !cancelled;
+    }
+}
@@ -19,32 +19,231 @@ import org.wso2.msf4j.Request;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
- * Wrapper {@link InputStream} for {@link Request}
+ * Wrapper {@link InputStream} for {@link Request}.
+ * <p>
+ * Reads are served straight from the chunks of the underlying CarbonMessage. A read waits only when the current
+ * chunk is used up and the next one has not arrived yet, polling the message with a bounded back off, and bulk reads
+ * never wait for more chunks once they have read some data. Like other input streams, an instance must not be read
+ * by more than one thread at a time.
+ * <p>
+ * When a maximum size is given, the stream throws a {@link RequestSizeLimitExceededException} as soon as a chunk
+ * takes the body over the limit, so an oversized body is never read completely.
  */
 public class MSF4JRequestInputStream extends InputStream {
-    private Request request;
+
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+    private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Request request;
+    private final long maxSize;
+    private long received;
     private ByteBuffer buffer;
 
     public MSF4JRequestInputStream(Request request) {
+        this(request, -1);
+    }
+
+    /**
+     * Create a stream which fails when the request body exceeds the given size.
+     *
+     * @param request request to read the body of
+     * @param maxSize maximum number of body bytes, or a negative value for no limit
+     */
+    public MSF4JRequestInputStream(Request request, long maxSize) {
         this.request = request;
-        buffer = request.getMessageBody();
+        this.maxSize = maxSize;
     }
 
     @Override
     public int read() throws IOException {
-        if (request.isEomAdded() && request.isEmpty() && !buffer.hasRemaining()) {
+        if (!fill()) {
             return -1;
-        } else if (!buffer.hasRemaining()) {
-            buffer = request.getMessageBody();
         }
         return buffer.get() & 0xFF;
     }
 
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || length > bytes.length - offset) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int read = 0;
+        do {
+            int count = Math.min(length - read, buffer.remaining());
+            buffer.get(bytes, offset + read, count);
+            read += count;
+        } while (read < length && fillWithoutBlocking());
+        return read;
+    }
+
+    /**
+     * Read bytes into the given buffer. Blocks until at least one byte is available.
+     *
+     * @param destination buffer to read into
+     * @return number of bytes read, or -1 at the end of the request body
+     * @throws IOException if the thread was interrupted while waiting for the request body
+     */
+    public int read(ByteBuffer destination) throws IOException {
+        if (!destination.hasRemaining()) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int read = 0;
+        do {
+            int count = Math.min(destination.remaining(), buffer.remaining());
+            ByteBuffer source = buffer.duplicate();
+            source.limit(source.position() + count);
+            destination.put(source);
+            buffer.position(buffer.position() + count);
+            read += count;
+        } while (destination.hasRemaining() && fillWithoutBlocking());
+        return read;
+    }
+
+    /**
+     * Return the rest of the current chunk of the request body, or the next chunk, without copying it. Blocks until
+     * a chunk is available.
+     *
+     * @return a non empty chunk, or null at the end of the request body
+     * @throws IOException if the thread was interrupted while waiting for the request body
+     */
+    public ByteBuffer readChunk() throws IOException {
+        if (!fill()) {
+            return null;
+        }
+        ByteBuffer chunk = buffer;
+        buffer = null;
+        return chunk;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        if (count <= 0 || !fill()) {
+            return 0;
+        }
+        long skipped = 0;
+        do {
+            int step = (int) Math.min(count - skipped, buffer.remaining());
+            buffer.position(buffer.position() + step);
+            skipped += step;
+        } while (skipped < count && fillWithoutBlocking());
+        return skipped;
+    }
+
+    /**
+     * Write the rest of the request body to the given stream, chunk by chunk.
+     *
+     * @param out stream to write to
+     * @return number of bytes transferred
+     * @throws IOException if writing failed or the thread was interrupted while waiting for the request body
+     */
+    public long transferTo(OutputStream out) throws IOException {
+        long transferred = 0;
+        byte[] transferBuffer = null;
+        ByteBuffer chunk;
+        while ((chunk = readChunk()) != null) {
+            int length = chunk.remaining();
+            if (chunk.hasArray()) {
+                out.write(chunk.array(), chunk.arrayOffset() + chunk.position(), length);
+            } else {
+                if (transferBuffer == null) {
+                    transferBuffer = new byte[TRANSFER_BUFFER_SIZE];
+                }
+                while (chunk.hasRemaining()) {
+                    int count = Math.min(chunk.remaining(), transferBuffer.length);
+                    chunk.get(transferBuffer, 0, count);
+                    out.write(transferBuffer, 0, count);
+                }
+            }
+            transferred += length;
+        }
+        return transferred;
+    }
+
     @Override
     public int available() throws IOException {
-        return buffer.remaining();
+        return buffer == null ? 0 : buffer.remaining();
+    }
+
+    /**
+     * Make sure the current buffer has data, waiting for the next chunk if needed.
+     *
+     * @return false at the end of the request body
+     */
+    private boolean fill() throws IOException {
+        while (buffer == null || !buffer.hasRemaining()) {
+            awaitChunk();
+            if (request.isEmpty()) {
+                // End of message flagged and every chunk consumed
+                return false;
+            }
+            buffer = nextChunk();
+        }
+        return true;
+    }
+
+    /**
+     * Move to the next chunk only if it has already arrived.
+     *
+     * @return false if no data is available without blocking
+     */
+    private boolean fillWithoutBlocking() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (request.isEmpty()) {
+                return false;
+            }
+            buffer = nextChunk();
+        }
+        return true;
+    }
+
+    /**
+     * Take the next chunk off the request, accounting for its size.
+     */
+    private ByteBuffer nextChunk() throws IOException {
+        ByteBuffer chunk = request.getMessageBody();
+        if (chunk == null) {
+            throw new InterruptedIOException("Interrupted while waiting for the request body");
+        }
+        received += chunk.remaining();
+        if (maxSize >= 0 && received > maxSize) {
+            throw new RequestSizeLimitExceededException(
+                    String.format("Request body exceeds the limit of %d bytes", maxSize), maxSize);
+        }
+        return chunk;
+    }
+
+    /**
+     * Wait until a chunk is queued or the end of the message is flagged. The transport queues the last chunk before
+     * it flags the end of the message, so blocking on the chunk queue once it is drained could wait forever. The
+     * carbon message does not notify anyone when a chunk arrives either, so this polls it, parking for a period which
+     * doubles from a microsecond up to a millisecond.
+     */
+    private void awaitChunk() throws IOException {
+        long parkNanos = MIN_PARK_NANOS;
+        while (request.isEmpty() && !request.isEomAdded()) {
+            LockSupport.parkNanos(this, parkNanos);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the request body");
+            }
+            parkNanos = Math.min(parkNanos << 1, MAX_PARK_NANOS);
+        }
     }
 }
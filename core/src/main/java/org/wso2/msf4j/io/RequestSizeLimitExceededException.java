@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.io;
+
+/**
+ * Thrown while a request body is read when it turns out to be larger than a configured limit. MSF4J answers the
+ * request with {@code 413 Request Entity Too Large}.
+ *
+ * @see org.wso2.msf4j.RequestLimits
+ * @since 2.0.0
+ */
+public class RequestSizeLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = -2815373411628823519L;
+
+    private final long permittedSize;
+
+    /**
+     * Creates an exception.
+     *
+     * @param message       detail message
+     * @param permittedSize the limit which was exceeded
+     */
+    public RequestSizeLimitExceededException(String message, long permittedSize) {
+        super(message);
+        this.permittedSize = permittedSize;
+    }
+
+    /**
+     * @return the limit which was exceeded
+     */
+    public long getPermittedSize() {
+        return permittedSize;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temporary files which live as long as a request, such as uploaded files which are too large to be kept in memory.
+ * <p>
+ * Files are created in a directory of their own under the temp root ({@code MSF4J_TEMP_DIR}, by default
+ * {@code msf4jtemp} in {@code java.io.tmpdir}) and are deleted as soon as the response of the request is complete.
+ * For a streamed response, such as a {@code Publisher} or a {@code Stream} which reads an uploaded file, that is
+ * once the last chunk has been written to the response rather than when the resource method returns.
+ * Bytes written through {@link #openOutputStream(Path, long)} are accounted against a server wide quota
+ * ({@code MSF4J_TEMP_DISK_QUOTA} in bytes, unlimited by default) and writing beyond it fails with a
+ * {@link RequestSizeLimitExceededException}. An instance is used by one thread at a time.
+ *
+ * @since 2.0.0
+ */
+public final class TempFileManager implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(TempFileManager.class);
+
+    private static final Path ROOT = Paths.get(SystemVariableUtil.getValue("MSF4J_TEMP_DIR",
+            Paths.get(System.getProperty("java.io.tmpdir"), "msf4jtemp").toString()));
+    private static final long QUOTA = parseQuota(SystemVariableUtil.getValue("MSF4J_TEMP_DISK_QUOTA", "-1"));
+
+    private static final AtomicLong outstandingBytes = new AtomicLong();
+    private static final AtomicInteger outstandingFiles = new AtomicInteger();
+
+    private final List<Path> files = new ArrayList<>();
+    private final List<Path> directories = new ArrayList<>();
+    private long accountedBytes;
+    private boolean closed;
+
+    /**
+     * Create an empty temporary file. The last segment of the given name is kept so that the file can be handed
+     * over as an upload with its original name.
+     *
+     * @param fileName name of the file
+     * @return path of the new file
+     * @throws IOException if the file could not be created
+     */
+    public Path createTempFile(String fileName) throws IOException {
+        checkNotClosed();
+        String name = toSafeName(fileName);
+        Path file = null;
+        for (Path directory : directories) {
+            if (Files.notExists(directory.resolve(name))) {
+                file = directory.resolve(name);
+                break;
+            }
+        }
+        if (file == null) {
+            // Every directory of the request already has a file of this name
+            Files.createDirectories(ROOT);
+            Path directory = Files.createTempDirectory(directories.isEmpty() ? ROOT : directories.get(0), "tmp");
+            directories.add(directory);
+            file = directory.resolve(name);
+        }
+        Files.createFile(file);
+        files.add(file);
+        outstandingFiles.incrementAndGet();
+        return file;
+    }
+
+    /**
+     * Open a file created by this manager for writing. When the expected size is known it is reserved against the
+     * quota up front, so that an upload which cannot fit fails before anything is written, and the file is
+     * allocated at that size.
+     *
+     * @param file         file created by {@link #createTempFile(String)}
+     * @param expectedSize expected number of bytes, or -1 if unknown
+     * @return stream which accounts the written bytes against the quota
+     * @throws IOException if the file could not be opened
+     */
+    public OutputStream openOutputStream(Path file, long expectedSize) throws IOException {
+        if (!files.contains(file)) {
+            throw new IllegalArgumentException(file + " is not a temporary file of this request");
+        }
+        long reserved = 0;
+        if (expectedSize > 0) {
+            reserve(expectedSize);
+            reserved = expectedSize;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            if (reserved > 0) {
+                // Extend the file to its final size so that the blocks can be allocated in one go
+                channel.write(ByteBuffer.allocate(1), reserved - 1);
+            }
+        } catch (IOException e) {
+            release(reserved);
+            throw e;
+        }
+        return new TempFileOutputStream(channel, reserved);
+    }
+
+    /**
+     * Write the given content to a new temporary file.
+     *
+     * @param fileName name of the file
+     * @param content  content of the file
+     * @return path of the new file
+     * @throws IOException if writing the file failed
+     */
+    public Path writeTempFile(String fileName, byte[] content) throws IOException {
+        Path file = createTempFile(fileName);
+        try (OutputStream outputStream = openOutputStream(file, content.length)) {
+            outputStream.write(content);
+        }
+        return file;
+    }
+
+    /**
+     * Delete all the temporary files of the request. Called by MSF4J once the response is complete.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Path file : files) {
+            delete(file);
+        }
+        outstandingFiles.addAndGet(-files.size());
+        files.clear();
+        for (int i = directories.size() - 1; i >= 0; i--) {
+            delete(directories.get(i));
+        }
+        directories.clear();
+        release(accountedBytes);
+        accountedBytes = 0;
+    }
+
+    /**
+     * @return bytes currently held in temporary files by requests in progress
+     */
+    public static long getOutstandingBytes() {
+        return outstandingBytes.get();
+    }
+
+    /**
+     * @return number of temporary files held by requests in progress
+     */
+    public static int getOutstandingFileCount() {
+        return outstandingFiles.get();
+    }
+
+    /**
+     * @return maximum number of bytes all the temporary files may hold, or -1 if unlimited
+     */
+    public static long getQuota() {
+        return QUOTA;
+    }
+
+    /**
+     * @return directory under which temporary files are created
+     */
+    public static Path getRoot() {
+        return ROOT;
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Temporary files of the request have already been deleted");
+        }
+    }
+
+    private void reserve(long bytes) {
+        checkNotClosed();
+        while (true) {
+            long current = outstandingBytes.get();
+            if (QUOTA >= 0 && current + bytes > QUOTA) {
+                throw new RequestSizeLimitExceededException(
+                        String.format("Temporary storage quota of %d bytes exceeded", QUOTA), QUOTA);
+            }
+            if (outstandingBytes.compareAndSet(current, current + bytes)) {
+                accountedBytes += bytes;
+                return;
+            }
+        }
+    }
+
+    private void release(long bytes) {
+        if (bytes > 0) {
+            outstandingBytes.addAndGet(-bytes);
+            accountedBytes -= bytes;
+        }
+    }
+
+    private static String toSafeName(String fileName) {
+        Path name = (fileName == null) ? null : Paths.get(fileName).getFileName();
+        return (name == null || name.toString().isEmpty()) ? "upload" : name.toString();
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", path, e);
+        }
+    }
+
+    private static long parseQuota(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid temporary storage quota '{}', the quota is disabled", value);
+            return -1;
+        }
+    }
+
+    /**
+     * Accounts written bytes against the quota. Bytes within the reservation made when the stream was opened are
+     * not accounted again, and an unused part of the reservation is given back when the stream is closed.
+     */
+    private final class TempFileOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private final long reserved;
+        private long written;
+
+        TempFileOutputStream(FileChannel channel, long reserved) {
+            this.channel = channel;
+            this.reserved = reserved;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long excess = Math.min(len, written + len - reserved);
+            if (excess > 0) {
+                reserve(excess);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, written + buffer.position() - off);
+            }
+            written += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!channel.isOpen()) {
+                return;
+            }
+            try {
+                if (written < reserved) {
+                    channel.truncate(written);
+                    if (!closed) {
+                        release(reserved - written);
+                    }
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additive increase, multiplicative decrease. The limit only grows while it is being used, so an idle route does
+ * not build up a limit it has never been tested with.
+ */
+final class AimdLimit implements LimitAlgorithm {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit.get();
+    }
+
+    @Override
+    public void onSample(long latencyNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit.updateAndGet(current -> Math.max(minLimit, Math.min(current - 1, (int) (current * BACKOFF_RATIO))));
+        } else {
+            limit.updateAndGet(current -> (inFlight * 2 >= current) ? Math.min(maxLimit, current + 1) : current);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+/**
+ * Thrown when a request goes over the concurrency limit of its resource method. Carries no stack trace, since it is
+ * raised on every rejection while the server is overloaded.
+ *
+ * @since 2.0.0
+ */
+public class ConcurrencyLimitExceededException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitExceededException(ConcurrencyLimiter limiter) {
+        super("Concurrency limit of " + limiter.getName() + " exceeded", null, false, false);
+        this.limiter = limiter;
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+}
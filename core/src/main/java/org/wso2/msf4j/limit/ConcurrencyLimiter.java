@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+import org.wso2.msf4j.ConcurrencyLimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests as long as the number of requests in progress stays below a static or adaptive limit.
+ * Admission is a single CAS on the in flight counter, and a rejected request does not change any shared state
+ * other than the rejection counter.
+ *
+ * @since 2.0.0
+ */
+public final class ConcurrencyLimiter {
+
+    private final String name;
+    private final ConcurrencyLimit.Algorithm algorithm;
+    private final LimitAlgorithm limitAlgorithm;
+    private final int retryAfterSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a concurrency limiter.
+     *
+     * @param name              name of the limiter, used in metrics
+     * @param algorithm         how the limit is maintained
+     * @param limit             static limit, or the initial limit of an adaptive algorithm
+     * @param minLimit          lower bound of an adaptive limit
+     * @param maxLimit          upper bound of an adaptive limit
+     * @param retryAfterSeconds value of the Retry-After header sent with a rejection
+     */
+    public ConcurrencyLimiter(String name, ConcurrencyLimit.Algorithm algorithm, int limit, int minLimit,
+                              int maxLimit, int retryAfterSeconds) {
+        if (limit <= 0 || minLimit <= 0) {
+            throw new IllegalArgumentException("Concurrency limit of " + name + " should be a positive value");
+        }
+        if (algorithm != ConcurrencyLimit.Algorithm.STATIC && (limit < minLimit || limit > maxLimit)) {
+            throw new IllegalArgumentException("Concurrency limit " + limit + " of " + name + " is not between " +
+                    minLimit + " and " + maxLimit);
+        }
+        if (retryAfterSeconds < 0) {
+            throw new IllegalArgumentException("Retry-After of " + name + " should not be negative");
+        }
+        this.name = name;
+        this.algorithm = algorithm;
+        this.retryAfterSeconds = retryAfterSeconds;
+        switch (algorithm) {
+            case AIMD:
+                limitAlgorithm = new AimdLimit(limit, minLimit, maxLimit);
+                break;
+            case GRADIENT:
+                limitAlgorithm = new GradientLimit(limit, minLimit, maxLimit);
+                break;
+            default:
+                limitAlgorithm = new FixedLimit(limit);
+        }
+    }
+
+    /**
+     * Creates a concurrency limiter from an annotation.
+     *
+     * @param name             name of the limiter, used in metrics
+     * @param concurrencyLimit settings of the limiter
+     */
+    public ConcurrencyLimiter(String name, ConcurrencyLimit concurrencyLimit) {
+        this(name, concurrencyLimit.algorithm(), concurrencyLimit.value(), concurrencyLimit.minLimit(),
+                concurrencyLimit.maxLimit(), concurrencyLimit.retryAfterSeconds());
+    }
+
+    /**
+     * Try to admit a request. Every successful call must be followed by a call to {@link #release(long, boolean)}.
+     *
+     * @return false if the limit has been reached
+     */
+    public boolean tryAcquire() {
+        int limit = limitAlgorithm.getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a request admitted by {@link #tryAcquire()} and feed its outcome to the limit algorithm, together with
+     * the number of requests in progress at release time, including this one.
+     *
+     * @param startNanos {@link System#nanoTime()} when the request was admitted
+     * @param dropped    true if the request failed in a way that indicates overload
+     */
+    public void release(long startNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        limitAlgorithm.onSample(System.nanoTime() - startNanos, current, dropped);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ConcurrencyLimit.Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return current limit
+     */
+    public int getLimit() {
+        return limitAlgorithm.getLimit();
+    }
+
+    /**
+     * @return number of admitted requests which are still in progress
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return number of requests admitted so far
+     */
+    public long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    /**
+     * @return number of requests rejected so far
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.msf4j.ConcurrencyLimit;
+import org.wso2.msf4j.util.SystemVariableUtil;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The server wide concurrency limiter and the limiters of the resource methods annotated with
+ * {@link ConcurrencyLimit}, so that they can be reported as metrics.
+ *
+ * @since 2.0.0
+ */
+public final class ConcurrencyLimiters {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiters.class);
+
+    private static final String MAX_CONCURRENT_REQUESTS = "MSF4J_MAX_CONCURRENT_REQUESTS";
+    private static final String CONCURRENCY_LIMIT_ALGORITHM = "MSF4J_CONCURRENCY_LIMIT_ALGORITHM";
+    private static final String CONCURRENCY_MIN_LIMIT = "MSF4J_CONCURRENCY_MIN_LIMIT";
+    private static final String CONCURRENCY_MAX_LIMIT = "MSF4J_CONCURRENCY_MAX_LIMIT";
+    private static final String RETRY_AFTER_SECONDS = "MSF4J_RETRY_AFTER_SECONDS";
+    private static final String GLOBAL_LIMITER_NAME = "global";
+
+    private static final Optional<ConcurrencyLimiter> GLOBAL_LIMITER = Optional.ofNullable(createGlobalLimiter());
+    private static final Map<String, ConcurrencyLimiter> ROUTE_LIMITERS = new ConcurrentHashMap<>();
+
+    private ConcurrencyLimiters() {
+    }
+
+    /**
+     * @return the limiter which is checked for every request before routing, if {@code MSF4J_MAX_CONCURRENT_REQUESTS}
+     * is set
+     */
+    public static Optional<ConcurrencyLimiter> getGlobalLimiter() {
+        return GLOBAL_LIMITER;
+    }
+
+    /**
+     * @return limiters of the resource methods which have been deployed
+     */
+    public static Collection<ConcurrencyLimiter> getRouteLimiters() {
+        return Collections.unmodifiableCollection(ROUTE_LIMITERS.values());
+    }
+
+    /**
+     * Create the limiter of a resource method from its {@link ConcurrencyLimit} annotation, or the annotation of its
+     * class. Called by MSF4J when a microservice is deployed. A redeployed method replaces its old limiter. The
+     * limiter is named after the class, the method and its parameter types, so overloaded methods get their own
+     * limiters.
+     *
+     * @param method resource method
+     * @return limiter of the method, or an empty Optional if the method is not limited
+     */
+    public static Optional<ConcurrencyLimiter> forMethod(Method method) {
+        ConcurrencyLimit concurrencyLimit = method.getAnnotation(ConcurrencyLimit.class);
+        if (concurrencyLimit == null) {
+            concurrencyLimit = method.getDeclaringClass().getAnnotation(ConcurrencyLimit.class);
+        }
+        if (concurrencyLimit == null) {
+            return Optional.empty();
+        }
+        String name = limiterName(method);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(name, concurrencyLimit);
+        ROUTE_LIMITERS.put(name, limiter);
+        return Optional.of(limiter);
+    }
+
+    private static String limiterName(Method method) {
+        StringJoiner parameterTypes = new StringJoiner(",", "(", ")");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            parameterTypes.add(parameterType.getTypeName());
+        }
+        return method.getDeclaringClass().getName() + "." + method.getName() + parameterTypes;
+    }
+
+    private static ConcurrencyLimiter createGlobalLimiter() {
+        int limit = getConfiguredValue(MAX_CONCURRENT_REQUESTS, -1);
+        if (limit <= 0) {
+            return null;
+        }
+        ConcurrencyLimit.Algorithm algorithm = ConcurrencyLimit.Algorithm.STATIC;
+        String algorithmName = SystemVariableUtil.getValue(CONCURRENCY_LIMIT_ALGORITHM, null);
+        if (algorithmName != null) {
+            try {
+                algorithm = ConcurrencyLimit.Algorithm.valueOf(algorithmName.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid value '{}' for {}, using {}", algorithmName, CONCURRENCY_LIMIT_ALGORITHM,
+                        algorithm);
+            }
+        }
+        int minLimit = Math.min(limit, getConfiguredValue(CONCURRENCY_MIN_LIMIT, 1));
+        int maxLimit = Math.max(limit, getConfiguredValue(CONCURRENCY_MAX_LIMIT, limit * 4));
+        return new ConcurrencyLimiter(GLOBAL_LIMITER_NAME, algorithm, limit, Math.max(minLimit, 1), maxLimit,
+                getConfiguredValue(RETRY_AFTER_SECONDS, 1));
+    }
+
+    private static int getConfiguredValue(String name, int defaultValue) {
+        String value = SystemVariableUtil.getValue(name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value '{}' for {}, using {}", value, name, defaultValue);
+            return defaultValue;
+        }
+    }
+}
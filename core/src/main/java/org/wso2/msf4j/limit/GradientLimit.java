@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adjusts the limit by the ratio between the lowest observed latency and the latency of each request, in the style
+ * of TCP Vegas. While latency stays close to the minimum the limit grows by its square root, which leaves room for
+ * some queuing. Once requests start to wait behind a slow dependency the ratio drops and so does the limit.
+ * <p>
+ * Only one thread updates the estimate at a time. Samples which arrive during an update are skipped instead of
+ * waiting, which keeps request threads from contending on the limiter.
+ */
+final class GradientLimit implements LimitAlgorithm {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    // The lowest latency is forgotten every so many samples, so that it follows a dependency which got slower
+    private static final int MIN_LATENCY_RESET_INTERVAL = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicBoolean updating = new AtomicBoolean();
+    private volatile int limit;
+
+    // Guarded by updating
+    private double estimatedLimit;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private int samples;
+
+    GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long latencyNanos, int inFlight, boolean dropped) {
+        if (!updating.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (++samples >= MIN_LATENCY_RESET_INTERVAL) {
+                samples = 0;
+                minLatencyNanos = Long.MAX_VALUE;
+            }
+            long latency = Math.max(latencyNanos, 1);
+            minLatencyNanos = Math.min(minLatencyNanos, latency);
+            double newLimit;
+            if (dropped) {
+                newLimit = estimatedLimit * BACKOFF_RATIO;
+            } else if (inFlight * 2 < estimatedLimit) {
+                // Not enough load to tell anything about the limit
+                return;
+            } else {
+                double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, (double) minLatencyNanos / latency));
+                newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            }
+            newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            limit = (int) estimatedLimit;
+        } finally {
+            updating.set(false);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+/**
+ * Maintains the concurrency limit of a {@link ConcurrencyLimiter} from the outcome of the requests it admitted.
+ * Implementations are called concurrently from request threads.
+ */
+interface LimitAlgorithm {
+
+    /**
+     * @return current limit
+     */
+    int getLimit();
+
+    /**
+     * Account a completed request.
+     *
+     * @param latencyNanos time the request took
+     * @param inFlight     number of requests in progress when the request completed, including itself. Algorithms
+     *                     use it to tell whether the current limit is being used, not the load at admission
+     * @param dropped      true if the request failed in a way that indicates overload
+     */
+    void onSample(long latencyNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.ratelimit;
+
+import org.wso2.msf4j.Interceptor;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.ServiceMethodInfo;
+
+/**
+ * Rate limits requests with a {@link RateLimiter}, one bucket per key picked by a {@link RateLimitKeyExtractor}.
+ * Requests without a key share a single bucket.
+ * <p>
+ * Every response carries the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and {@code RateLimit-Reset}
+ * headers. A request over the limit is answered with {@code 429 Too Many Requests} and a {@code Retry-After}
+ * header, before the resource method is called.
+ *
+ * @since 2.0.0
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    public static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final String NO_KEY = "";
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitKeyExtractor keyExtractor;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, RateLimitKeyExtractor keyExtractor) {
+        this.rateLimiter = rateLimiter;
+        this.keyExtractor = keyExtractor;
+    }
+
+    @Override
+    public boolean preCall(Request request, Response responder, ServiceMethodInfo serviceMethodInfo)
+            throws Exception {
+        String key = keyExtractor.getKey(request);
+        RateLimitResult result = rateLimiter.tryAcquire((key != null) ? key : NO_KEY);
+        responder.setHeader(RATE_LIMIT_LIMIT, String.valueOf(result.getLimit()));
+        responder.setHeader(RATE_LIMIT_REMAINING, String.valueOf(result.getRemaining()));
+        responder.setHeader(RATE_LIMIT_RESET, String.valueOf(result.getResetSeconds()));
+        if (result.isAllowed()) {
+            return true;
+        }
+        responder.setHeader(RETRY_AFTER, String.valueOf(result.getRetryAfterSeconds()));
+        responder.setStatus(TOO_MANY_REQUESTS);
+        responder.send();
+        return false;
+    }
+
+    @Override
+    public void postCall(Request request, int status, ServiceMethodInfo serviceMethodInfo) throws Exception {
+        // Nothing to do
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.ratelimit;
+
+import org.wso2.msf4j.Request;
+
+/**
+ * Picks the key of the {@link RateLimiter} bucket a request is counted against.
+ *
+ * @since 2.0.0
+ */
+@FunctionalInterface
+public interface RateLimitKeyExtractor {
+
+    /**
+     * @param request request to be rate limited
+     * @return key of the bucket, or null if the request does not carry one
+     */
+    String getKey(Request request);
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.ratelimit;
+
+import com.nimbusds.jwt.JWTParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetSocketAddress;
+import java.text.ParseException;
+
+/**
+ * Commonly used {@link RateLimitKeyExtractor}s.
+ *
+ * @since 2.0.0
+ */
+public final class RateLimitKeyExtractors {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitKeyExtractors.class);
+
+    private static final String REMOTE_ADDRESS = "REMOTE_ADDRESS";
+    private static final String X_FORWARDED_FOR = "X-Forwarded-For";
+    private static final String JWT_HEADER = "X-JWT-Assertion";
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private RateLimitKeyExtractors() {
+    }
+
+    /**
+     * @param headerName name of the header, for example the header which carries the API key
+     * @return extractor which uses the value of a request header as the key
+     */
+    public static RateLimitKeyExtractor header(String headerName) {
+        return request -> request.getHeader(headerName);
+    }
+
+    /**
+     * @return extractor which uses the address of the client connection as the key
+     */
+    public static RateLimitKeyExtractor remoteAddress() {
+        return request -> {
+            Object remoteAddress = request.getProperty(REMOTE_ADDRESS);
+            if (remoteAddress instanceof InetSocketAddress) {
+                InetSocketAddress socketAddress = (InetSocketAddress) remoteAddress;
+                return (socketAddress.getAddress() != null) ?
+                        socketAddress.getAddress().getHostAddress() : socketAddress.getHostString();
+            }
+            return (remoteAddress != null) ? remoteAddress.toString() : null;
+        };
+    }
+
+    /**
+     * Use the client address added by a reverse proxy. Only use this behind a proxy which overwrites the header,
+     * since clients can set it to anything.
+     *
+     * @return extractor which uses the first address of the X-Forwarded-For header as the key
+     */
+    public static RateLimitKeyExtractor forwardedFor() {
+        return request -> {
+            String forwardedFor = request.getHeader(X_FORWARDED_FOR);
+            if (forwardedFor == null) {
+                return null;
+            }
+            int comma = forwardedFor.indexOf(',');
+            return ((comma < 0) ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+        };
+    }
+
+    /**
+     * Use a claim of the JWT in the X-JWT-Assertion header as the key. The signature is not verified, so this should
+     * come after the interceptor which authenticates the request.
+     *
+     * @param claimName name of the claim, for example {@code sub}
+     * @return extractor which uses the value of a JWT claim as the key
+     */
+    public static RateLimitKeyExtractor jwtClaim(String claimName) {
+        return jwtClaim(JWT_HEADER, claimName);
+    }
+
+    /**
+     * Use a claim of a JWT as the key. A {@code Bearer} prefix of the header value is ignored. The signature is not
+     * verified, so this should come after the interceptor which authenticates the request.
+     *
+     * @param headerName name of the header which carries the JWT
+     * @param claimName  name of the claim, for example {@code sub}
+     * @return extractor which uses the value of a JWT claim as the key
+     */
+    public static RateLimitKeyExtractor jwtClaim(String headerName, String claimName) {
+        return request -> {
+            String token = request.getHeader(headerName);
+            if (token == null) {
+                return null;
+            }
+            if (token.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+                token = token.substring(BEARER_PREFIX.length()).trim();
+            }
+            try {
+                Object claim = JWTParser.parse(token).getJWTClaimsSet().getClaim(claimName);
+                return (claim != null) ? claim.toString() : null;
+            } catch (ParseException e) {
+                log.debug("Unable to parse the JWT in {}", headerName, e);
+                return null;
+            }
+        };
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of taking a token from a {@link RateLimiter} bucket.
+ *
+ * @since 2.0.0
+ */
+public final class RateLimitResult {
+
+    private final boolean allowed;
+    private final long limit;
+    private final long remaining;
+    private final long resetNanos;
+    private final long retryAfterNanos;
+
+    RateLimitResult(boolean allowed, long limit, long remaining, long resetNanos, long retryAfterNanos) {
+        this.allowed = allowed;
+        this.limit = limit;
+        this.remaining = remaining;
+        this.resetNanos = resetNanos;
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    /**
+     * @return true if a token was taken and the request can proceed
+     */
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    /**
+     * @return number of requests a key can make within the period
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return number of tokens left in the bucket
+     */
+    public long getRemaining() {
+        return remaining;
+    }
+
+    /**
+     * @return seconds, rounded up, until the bucket is full again
+     */
+    public long getResetSeconds() {
+        return toSeconds(resetNanos);
+    }
+
+    /**
+     * @return seconds, rounded up, until the next token is available, or 0 if the request is allowed
+     */
+    public long getRetryAfterSeconds() {
+        return toSeconds(retryAfterNanos);
+    }
+
+    private static long toSeconds(long nanos) {
+        long unit = TimeUnit.SECONDS.toNanos(1);
+        return (nanos + unit - 1) / unit;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket rate limiter which keeps one bucket per key, for example per API key or per client address.
+ * <p>
+ * A bucket is a single {@link AtomicLong} holding the time at which it will be full again, as in the generic cell
+ * rate algorithm, so taking a token is one CAS and does not allocate. Buckets are spread over independent stripes.
+ * When a stripe goes over its share of the key budget, the buckets which are full again are dropped, which loses no
+ * information since a full bucket behaves exactly like a new one. If that is not enough, arbitrary buckets are
+ * dropped, which can only let a few more requests through.
+ *
+ * @since 2.0.0
+ */
+public final class RateLimiter {
+
+    private static final int DEFAULT_MAX_KEYS = 1 << 20;
+    private static final int MAX_STRIPES = 64;
+
+    private final long limit;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final int maxKeysPerStripe;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a rate limiter which keeps at most a million keys.
+     *
+     * @param limit    number of requests a key can make within the period
+     * @param period   period over which the tokens of a bucket are refilled
+     * @param timeUnit unit of the period
+     */
+    public RateLimiter(long limit, long period, TimeUnit timeUnit) {
+        this(limit, period, timeUnit, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param limit    number of requests a key can make within the period, which is also the burst size
+     * @param period   period over which the tokens of a bucket are refilled
+     * @param timeUnit unit of the period
+     * @param maxKeys  approximate maximum number of keys kept in memory
+     */
+    public RateLimiter(long limit, long period, TimeUnit timeUnit, int maxKeys) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit should be a positive value");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period should be a positive value");
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys should be a positive value");
+        }
+        this.limit = limit;
+        this.emissionIntervalNanos = Math.max(timeUnit.toNanos(period) / limit, 1);
+        this.burstNanos = emissionIntervalNanos * limit;
+        int stripeCount = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(maxKeys / 1024, 1)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxKeysPerStripe = Math.max(maxKeys / stripeCount, 1);
+    }
+
+    /**
+     * Take a token from the bucket of a key.
+     *
+     * @param key key of the bucket
+     * @return whether the request is allowed, together with the state of the bucket
+     */
+    public RateLimitResult tryAcquire(String key) {
+        long now = System.nanoTime();
+        AtomicLong bucket = getBucket(key, now);
+        while (true) {
+            long fullAt = bucket.get();
+            // Time until the bucket would be full again after taking a token
+            long debt = Math.max(fullAt - now, 0) + emissionIntervalNanos;
+            if (debt > burstNanos) {
+                rejected.increment();
+                return new RateLimitResult(false, limit, 0, debt - emissionIntervalNanos, debt - burstNanos);
+            }
+            if (bucket.compareAndSet(fullAt, now + debt)) {
+                allowed.increment();
+                return new RateLimitResult(true, limit, (burstNanos - debt) / emissionIntervalNanos, debt, 0);
+            }
+        }
+    }
+
+    /**
+     * @return number of requests a key can make within the period
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return approximate number of keys kept in memory
+     */
+    public long getKeyCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.buckets.size();
+        }
+        return count;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private AtomicLong getBucket(String key, long now) {
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & stripeMask];
+        AtomicLong bucket = stripe.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (stripe.buckets.size() >= maxKeysPerStripe) {
+            stripe.evict(now, maxKeysPerStripe);
+        }
+        AtomicLong newBucket = new AtomicLong(now);
+        bucket = stripe.buckets.putIfAbsent(key, newBucket);
+        return (bucket != null) ? bucket : newBucket;
+    }
+
+    /**
+     * A share of the buckets. Only one thread at a time evicts from a stripe, others go on without waiting.
+     */
+    private static final class Stripe {
+
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        void evict(long now, int maxKeys) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+                int excess = buckets.size() - (maxKeys - (maxKeys >> 2));
+                if (excess > 0) {
+                    for (Iterator<AtomicLong> iterator = buckets.values().iterator();
+                         excess > 0 && iterator.hasNext(); excess--) {
+                        iterator.next();
+                        iterator.remove();
+                    }
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
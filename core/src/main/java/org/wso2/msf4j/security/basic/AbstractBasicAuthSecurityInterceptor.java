@@ -23,10 +23,15 @@ import org.wso2.msf4j.ServiceMethodInfo;
 
 import java.nio.charset.Charset;
 import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 /**
  * AbstractBasicAuthSecurityInterceptor hides Netty based header processing and provide authenticate() method to plug-in
  * custom authentication logic.
+ * <p>
+ * When authenticate() is expensive (e.g. bcrypt or LDAP), subclasses can pass a {@link BasicAuthCredentialCache} to
+ * the constructor so that repeated requests carrying the same Authorization header skip authenticate() until the
+ * cached entry expires.
  *
  * @since 1.1.0
  */
@@ -35,25 +40,44 @@ public abstract class AbstractBasicAuthSecurityInterceptor implements Intercepto
     private static final String AUTH_TYPE_BASIC = "Basic";
     public static final String CHARSET_UTF_8 = "UTF-8";
     private static final int AUTH_TYPE_BASIC_LENGTH = AUTH_TYPE_BASIC.length();
+    private static final Charset UTF_8 = Charset.forName(CHARSET_UTF_8);
+
+    private final BasicAuthCredentialCache credentialCache;
+
+    protected AbstractBasicAuthSecurityInterceptor() {
+        this(null);
+    }
+
+    /**
+     * @param credentialCache cache of authenticated header values, or null to call authenticate() on every request
+     */
+    protected AbstractBasicAuthSecurityInterceptor(BasicAuthCredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+    }
+
+    /**
+     * @param ttl      time an authenticated header value stays valid in the cache
+     * @param timeUnit unit of the ttl
+     * @param maxSize  maximum number of header values kept in the cache
+     */
+    protected AbstractBasicAuthSecurityInterceptor(long ttl, TimeUnit timeUnit, long maxSize) {
+        this(new BasicAuthCredentialCache(ttl, timeUnit, maxSize));
+    }
 
     @Override
     public boolean preCall(Request request, Response responder, ServiceMethodInfo serviceMethodInfo) throws Exception {
         String authHeader = request.getHeader(javax.ws.rs.core.HttpHeaders.AUTHORIZATION);
-        if (authHeader != null) {
-            String authType = authHeader.substring(0, AUTH_TYPE_BASIC_LENGTH);
+        if (authHeader != null && authHeader.startsWith(AUTH_TYPE_BASIC)) {
+            if (credentialCache != null && credentialCache.isAuthenticated(authHeader)) {
+                return true;
+            }
             String authEncoded = authHeader.substring(AUTH_TYPE_BASIC_LENGTH).trim();
-            if (AUTH_TYPE_BASIC.equals(authType) && !authEncoded.isEmpty()) {
-                byte[] decodedByte = authEncoded.getBytes(Charset.forName(CHARSET_UTF_8));
-                String authDecoded = new String(Base64.getDecoder().decode(decodedByte),
-                        Charset.forName(CHARSET_UTF_8));
-                String[] authParts = authDecoded.split(":");
-                String username = authParts[0];
-                String password = authParts[1];
-                if (authenticate(username, password)) {
-                    return true;
+            if (!authEncoded.isEmpty() && isAuthenticated(authEncoded)) {
+                if (credentialCache != null) {
+                    credentialCache.authenticated(authHeader);
                 }
+                return true;
             }
-
         }
         responder.setStatus(javax.ws.rs.core.Response.Status.UNAUTHORIZED.getStatusCode());
         responder.setHeader(javax.ws.rs.core.HttpHeaders.WWW_AUTHENTICATE, AUTH_TYPE_BASIC);
@@ -66,6 +90,26 @@ public abstract class AbstractBasicAuthSecurityInterceptor implements Intercepto
 
     }
 
+    /**
+     * @return the credential cache used by this interceptor, or null if caching is disabled
+     */
+    public BasicAuthCredentialCache getCredentialCache() {
+        return credentialCache;
+    }
+
+    private boolean isAuthenticated(String authEncoded) {
+        String authDecoded;
+        try {
+            authDecoded = new String(Base64.getDecoder().decode(authEncoded.getBytes(UTF_8)), UTF_8);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // The password may contain ':' but the user-id may not (RFC 7617)
+        int separatorIndex = authDecoded.indexOf(':');
+        return separatorIndex >= 0 &&
+                authenticate(authDecoded.substring(0, separatorIndex), authDecoded.substring(separatorIndex + 1));
+    }
+
     protected abstract boolean authenticate(String username, String password);
 
 }
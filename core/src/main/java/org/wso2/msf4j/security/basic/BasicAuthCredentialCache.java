@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.security.basic;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of successfully authenticated Basic Authorization header values.
+ * <p>
+ * Header values are never stored as is. Each value is hashed with SHA-256 together with a random salt generated
+ * per cache instance, so a heap dump does not reveal credentials and cache keys cannot be precomputed.
+ * Entries expire after the configured time to live and the cache never holds more than the configured
+ * number of entries.
+ *
+ * @since 2.0.0
+ */
+public class BasicAuthCredentialCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final int SALT_LENGTH = 16;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported by the JVM", e);
+        }
+    });
+
+    private final byte[] salt = new byte[SALT_LENGTH];
+    private final Cache<ByteBuffer, Boolean> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a credential cache.
+     *
+     * @param ttl      time an authenticated header value stays valid in the cache
+     * @param timeUnit unit of the ttl
+     * @param maxSize  maximum number of header values kept in the cache
+     */
+    public BasicAuthCredentialCache(long ttl, TimeUnit timeUnit, long maxSize) {
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl should be a positive value");
+        }
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize should be a positive value");
+        }
+        new SecureRandom().nextBytes(salt);
+        cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl, timeUnit)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Check whether the given Authorization header value was authenticated recently.
+     *
+     * @param authHeader value of the Authorization header
+     * @return true if the header value is present in the cache and has not expired
+     */
+    public boolean isAuthenticated(String authHeader) {
+        if (cache.getIfPresent(digest(authHeader)) != null) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Record an Authorization header value that was successfully authenticated.
+     *
+     * @param authHeader value of the Authorization header
+     */
+    public void authenticated(String authHeader) {
+        cache.put(digest(authHeader), Boolean.TRUE);
+    }
+
+    /**
+     * Remove all the cached header values. Should be called when credentials in the underlying user store change.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return number of lookups which were served from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups which had to fall back to authentication
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return approximate number of header values currently in the cache
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private ByteBuffer digest(String authHeader) {
+        MessageDigest messageDigest = DIGEST.get();
+        messageDigest.reset();
+        messageDigest.update(salt);
+        return ByteBuffer.wrap(messageDigest.digest(authHeader.getBytes(StandardCharsets.UTF_8)));
+    }
+}
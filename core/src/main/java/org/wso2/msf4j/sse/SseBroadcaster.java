@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.sse;
+
+import org.wso2.msf4j.internal.entitywriter.SseEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes server-sent events to every connected client.
+ * <p>
+ * Each event is serialized once, and all the connections write the same bytes. The most recent events are kept in a
+ * bounded replay buffer, so a client which reconnects with a Last-Event-ID header gets the events it missed. While no
+ * events are broadcast, a comment is sent to every client at the heartbeat interval to keep idle connections from
+ * being closed by proxies. Clients which fall too far behind are disconnected rather than letting their events pile
+ * up in memory.
+ * <p>
+ * A resource subscribes a client by returning {@link #subscribe(String)}:
+ * <pre>
+ * &#64;GET
+ * &#64;Path("/quotes")
+ * &#64;Produces(SseEvent.MEDIA_TYPE)
+ * public SseEventStream quotes(&#64;HeaderParam("Last-Event-ID") String lastEventId) {
+ *     return broadcaster.subscribe(lastEventId);
+ * }
+ * </pre>
+ * A broadcaster should be closed once it is no longer used.
+ * <p>
+ * The carbon transport does not report clients which close their connection, so a client which goes away stays
+ * subscribed until it is evicted, either because its queue fills up or because the transport does not take its
+ * events within the stream write timeout (60 seconds by default), or until the broadcaster is closed. Events keep
+ * being serialized for such a client in the meantime.
+ *
+ * @since 2.0.0
+ */
+public class SseBroadcaster implements AutoCloseable {
+
+    public static final int DEFAULT_REPLAY_BUFFER_SIZE = 256;
+    public static final int DEFAULT_MAX_QUEUED_EVENTS = 1024;
+    public static final long DEFAULT_HEARTBEAT_INTERVAL_SECONDS = 15;
+
+    private static final ScheduledExecutorService heartbeatTimer = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "msf4j-sse-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final List<SseConnection> connections = new CopyOnWriteArrayList<>();
+    private final String[] replayIds;
+    private final ByteBuffer[] replayEvents;
+    private final int maxQueuedEvents;
+    private final ScheduledFuture<?> heartbeat;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder evictions = new LongAdder();
+    private int replayHead;
+    private int replayCount;
+    private boolean closed;
+    private volatile boolean broadcastSinceHeartbeat;
+
+    /**
+     * Creates a broadcaster with the default replay buffer size, queue limit and heartbeat interval.
+     */
+    public SseBroadcaster() {
+        this(DEFAULT_REPLAY_BUFFER_SIZE, DEFAULT_MAX_QUEUED_EVENTS, DEFAULT_HEARTBEAT_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a broadcaster.
+     *
+     * @param replayBufferSize  number of recent events kept for clients which reconnect, 0 to disable replay
+     * @param maxQueuedEvents   number of events a client can fall behind before it is disconnected
+     * @param heartbeatInterval time without events after which a heartbeat is sent, 0 to disable heartbeats
+     * @param timeUnit          unit of the heartbeat interval
+     */
+    public SseBroadcaster(int replayBufferSize, int maxQueuedEvents, long heartbeatInterval, TimeUnit timeUnit) {
+        if (replayBufferSize < 0) {
+            throw new IllegalArgumentException("Replay buffer size cannot be negative");
+        }
+        if (maxQueuedEvents <= 0) {
+            throw new IllegalArgumentException("Max queued events should be a positive value");
+        }
+        if (heartbeatInterval < 0) {
+            throw new IllegalArgumentException("Heartbeat interval cannot be negative");
+        }
+        this.replayIds = new String[replayBufferSize];
+        this.replayEvents = new ByteBuffer[replayBufferSize];
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.heartbeat = heartbeatInterval == 0 ? null : heartbeatTimer.scheduleAtFixedRate(this::heartbeat,
+                heartbeatInterval, heartbeatInterval, timeUnit);
+    }
+
+    /**
+     * Subscribe a client.
+     *
+     * @param lastEventId value of the Last-Event-ID header of the request, null for a new client. If the event is
+     *                    still in the replay buffer, the events after it are sent first. If it is not, all the
+     *                    events in the replay buffer are sent.
+     * @return response entity which streams the events to the client
+     */
+    public SseEventStream subscribe(String lastEventId) {
+        return new SseEventStream(this, lastEventId);
+    }
+
+    /**
+     * Send an unnamed event to every client.
+     *
+     * @param data event data. Character sequences are sent as they are and other objects as JSON.
+     */
+    public void broadcast(Object data) {
+        broadcast(new SseEvent(data));
+    }
+
+    /**
+     * Send an event to every client. Events without an id get an increasing number as their id, so that clients
+     * can resume from them.
+     *
+     * @param event event to send
+     */
+    public void broadcast(SseEvent event) {
+        Objects.requireNonNull(event, "Event cannot be null");
+        String id = event.getId() != null ? event.getId() : Long.toString(sequence.incrementAndGet());
+        ByteBuffer bytes = ByteBuffer.wrap(SseEncoder.encode(id, event.getName(), event.getData()))
+                .asReadOnlyBuffer();
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Broadcaster is closed");
+            }
+            retain(id, bytes);
+            broadcastSinceHeartbeat = true;
+            for (SseConnection connection : connections) {
+                connection.send(bytes.duplicate());
+            }
+        }
+    }
+
+    /**
+     * @return number of connected clients
+     */
+    public int getSubscriberCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return number of clients disconnected for falling behind
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Stop sending heartbeats and end the responses of all the connected clients.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        connections.forEach(SseConnection::close);
+        connections.clear();
+    }
+
+    int getMaxQueuedEvents() {
+        return maxQueuedEvents;
+    }
+
+    synchronized void register(SseConnection connection, String lastEventId) {
+        if (closed) {
+            connection.close();
+            return;
+        }
+        if (lastEventId != null) {
+            for (int i = replayStart(lastEventId); i < replayCount; i++) {
+                connection.send(replayEvents[replayIndex(i)].duplicate());
+            }
+        }
+        if (connection.isOpen()) {
+            connections.add(connection);
+        }
+    }
+
+    void unregister(SseConnection connection) {
+        connections.remove(connection);
+    }
+
+    void evicted(SseConnection connection) {
+        if (connections.remove(connection)) {
+            evictions.increment();
+        }
+    }
+
+    private void retain(String id, ByteBuffer bytes) {
+        if (replayEvents.length == 0) {
+            return;
+        }
+        replayIds[replayHead] = id;
+        replayEvents[replayHead] = bytes;
+        replayHead = (replayHead + 1) % replayEvents.length;
+        replayCount = Math.min(replayCount + 1, replayEvents.length);
+    }
+
+    /**
+     * @return position, counting from the oldest retained event, of the first event to replay
+     */
+    private int replayStart(String lastEventId) {
+        for (int i = replayCount - 1; i >= 0; i--) {
+            if (lastEventId.equals(replayIds[replayIndex(i)])) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private int replayIndex(int position) {
+        return (replayHead - replayCount + position + replayEvents.length) % replayEvents.length;
+    }
+
+    private void heartbeat() {
+        if (broadcastSinceHeartbeat) {
+            broadcastSinceHeartbeat = false;
+            return;
+        }
+        ByteBuffer bytes = SseEncoder.heartbeat();
+        for (SseConnection connection : connections) {
+            connection.send(bytes.duplicate());
+        }
+    }
+}
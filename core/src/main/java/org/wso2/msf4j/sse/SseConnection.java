@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.sse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.msf4j.internal.entitywriter.TransportDrainWatcher;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * A client connected to a {@link SseBroadcaster}.
+ * <p>
+ * Events are handed to the transport in groups. While the transport is still writing one group, new events wait in a
+ * bounded queue of the connection, and they are handed over together once the transport has drained the response.
+ * A client which lets the queue fill up, or which does not read anything within the stream write timeout, is
+ * evicted: its response is ended and it has to reconnect, with Last-Event-ID, once it catches up.
+ * <p>
+ * A client which disconnects is not noticed by the connection, since the carbon transport does not report it. It is
+ * only removed from the broadcaster once it is evicted in the same way, or when the broadcaster is closed.
+ */
+final class SseConnection {
+
+    private static final Logger log = LoggerFactory.getLogger(SseConnection.class);
+
+    private final SseBroadcaster broadcaster;
+    private final CarbonMessage carbonMessage;
+    private final int maxQueuedEvents;
+    private final Queue<ByteBuffer> queued = new ArrayDeque<>();
+    private boolean writing;
+    private boolean closed;
+
+    SseConnection(SseBroadcaster broadcaster, CarbonMessage carbonMessage) {
+        this.broadcaster = broadcaster;
+        this.carbonMessage = carbonMessage;
+        this.maxQueuedEvents = broadcaster.getMaxQueuedEvents();
+    }
+
+    /**
+     * Send an encoded event. The buffer is handed to the transport as it is, so every connection should get its own
+     * duplicate of a shared buffer.
+     */
+    synchronized void send(ByteBuffer event) {
+        if (closed) {
+            return;
+        }
+        if (queued.size() >= maxQueuedEvents) {
+            log.warn("Evicted a server-sent event client which fell {} events behind", maxQueuedEvents);
+            evict();
+            return;
+        }
+        queued.add(event);
+        if (!writing) {
+            write();
+        }
+    }
+
+    synchronized boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * End the response once the queued events are written.
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ByteBuffer event;
+        while ((event = queued.poll()) != null) {
+            carbonMessage.addMessageBody(event);
+        }
+        carbonMessage.setEndOfMsgAdded(true);
+    }
+
+    /**
+     * Unsubscribe the client and end the response once the queued events are written.
+     */
+    void disconnect() {
+        broadcaster.unregister(this);
+        close();
+    }
+
+    private void write() {
+        writing = true;
+        ByteBuffer event;
+        while ((event = queued.poll()) != null) {
+            carbonMessage.addMessageBody(event);
+        }
+        TransportDrainWatcher.whenDrained(carbonMessage, TransportDrainWatcher.WRITE_TIMEOUT_NANOS,
+                this::drained, this::timedOut);
+    }
+
+    private synchronized void drained() {
+        writing = false;
+        if (!closed && !queued.isEmpty()) {
+            write();
+        }
+    }
+
+    private synchronized void timedOut() {
+        if (closed) {
+            return;
+        }
+        log.warn("Evicted a server-sent event client which did not read any events within the write timeout");
+        evict();
+    }
+
+    private void evict() {
+        broadcaster.evicted(this);
+        queued.clear();
+        close();
+    }
+}
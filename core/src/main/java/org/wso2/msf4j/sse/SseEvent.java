@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.sse;
+
+import java.util.Objects;
+
+/**
+ * A server-sent event. Resources can return a {@link SseBroadcaster} subscription, or a
+ * {@link org.reactivestreams.Publisher} or {@link java.util.stream.Stream} of events with the text/event-stream media
+ * type.
+ *
+ * @since 2.0.0
+ */
+public final class SseEvent {
+
+    /**
+     * Media type of a server-sent event stream. JAX-RS only defines it from 2.1 onwards.
+     */
+    public static final String MEDIA_TYPE = "text/event-stream";
+
+    private final String id;
+    private final String name;
+    private final Object data;
+
+    /**
+     * Creates an unnamed event.
+     *
+     * @param data event data. Character sequences are sent as they are and other objects as JSON.
+     */
+    public SseEvent(Object data) {
+        this(null, null, data);
+    }
+
+    /**
+     * Creates a named event.
+     *
+     * @param name event name, which clients use to pick the listener of the event. May be null.
+     * @param data event data. Character sequences are sent as they are and other objects as JSON.
+     */
+    public SseEvent(String name, Object data) {
+        this(null, name, data);
+    }
+
+    /**
+     * Creates a named event with an id.
+     *
+     * @param id   event id, which clients send back in the Last-Event-ID header when they reconnect. May be null.
+     * @param name event name, which clients use to pick the listener of the event. May be null.
+     * @param data event data. Character sequences are sent as they are and other objects as JSON.
+     */
+    public SseEvent(String id, String name, Object data) {
+        this.id = id;
+        this.name = name;
+        this.data = Objects.requireNonNull(data, "Event data cannot be null");
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Object getData() {
+        return data;
+    }
+}
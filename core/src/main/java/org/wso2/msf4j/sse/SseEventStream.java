@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.sse;
+
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.msf4j.internal.InFlightRequests;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response entity which connects a client to a {@link SseBroadcaster}. Return it from a resource method which
+ * produces text/event-stream.
+ *
+ * @since 2.0.0
+ */
+public final class SseEventStream {
+
+    private final SseBroadcaster broadcaster;
+    private final String lastEventId;
+    private final AtomicBoolean opened = new AtomicBoolean();
+
+    SseEventStream(SseBroadcaster broadcaster, String lastEventId) {
+        this.broadcaster = broadcaster;
+        this.lastEventId = lastEventId;
+    }
+
+    /**
+     * @return id of the last event the client received, or null for a new client
+     */
+    public String getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Start sending events to a response. Called by MSF4J once the response headers are written.
+     *
+     * @param carbonMessage response message
+     */
+    public void open(CarbonMessage carbonMessage) {
+        if (!opened.compareAndSet(false, true)) {
+            throw new IllegalStateException("Event stream is already open");
+        }
+        SseConnection connection = new SseConnection(broadcaster, carbonMessage);
+        // A draining server ends the response, so that the client reconnects to another server
+        carbonMessage.setProperty(InFlightRequests.CLOSE_ON_DRAIN, (Runnable) connection::disconnect);
+        broadcaster.register(connection, lastEventId);
+    }
+}
@@ -59,8 +59,20 @@ public class HttpUtil {
      * @param response HTTP response object
      */
     public static void setConnectionHeader(Request request, Response response) {
+        setConnectionHeader(request, response, false);
+    }
+
+    /**
+     * Set connection header of the response object according to the
+     * connection header of the request, or close the connection regardless.
+     *
+     * @param request  HTTP request object
+     * @param response HTTP response object
+     * @param close    true to close the connection after the response even if the client asked to keep it alive
+     */
+    public static void setConnectionHeader(Request request, Response response, boolean close) {
         String connection = request.getHeader(Constants.HTTP_CONNECTION);
-        if (connection != null && CLOSE.equalsIgnoreCase(connection)) {
+        if (close || (connection != null && CLOSE.equalsIgnoreCase(connection))) {
             response.setHeader(Constants.HTTP_CONNECTION, CLOSE);
         } else {
             response.setHeader(Constants.HTTP_CONNECTION, KEEP_ALIVE);
@@ -19,6 +19,7 @@ package org.wso2.msf4j.util;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -42,6 +43,9 @@ import java.util.Map;
  * ...
  * </pre>
  * <p>
+ * When only a few parameters are needed, {@link #parameter(String)} avoids building the full map: the query string is
+ * indexed once without creating any strings, and only the values of the requested parameters are decoded.
+ * <p>
  * <h3>HashDOS vulnerability fix</h3>
  * <p>
  * As a workaround to the <a href="http://netty.io/s/hashdos">HashDOS</a> vulnerability, the decoder
@@ -59,7 +63,10 @@ public class QueryStringDecoderUtil {
     private final int maxParams;
     private String path;
     private Map<String, List<String>> params;
+    // Offsets of the name and value of each parameter in the uri, four entries per parameter
+    private int[] index;
     private int nParams;
+    private String[] decodedNames;
 
     /**
      * Creates a new decoder that decodes the specified URI. The decoder will
@@ -192,81 +199,168 @@ public class QueryStringDecoderUtil {
      */
     public Map<String, List<String>> parameters() {
         if (params == null) {
-            if (hasPath) {
-                int pathLength = path().length();
-                if (uri.length() == pathLength) {
-                    return Collections.emptyMap();
-                }
-                decodeParams(uri.substring(pathLength + 1));
-            } else {
-                if (uri.isEmpty()) {
-                    return Collections.emptyMap();
+            indexParams();
+            if (nParams == 0) {
+                return Collections.emptyMap();
+            }
+            Map<String, List<String>> params = this.params = new LinkedHashMap<>();
+            for (int i = 0; i < nParams; i++) {
+                String name = name(i);
+                List<String> values = params.get(name);
+                if (values == null) {
+                    values = new ArrayList<>(1);  // Often there's only 1 value.
+                    params.put(name, values);
                 }
-                decodeParams(uri);
+                values.add(value(i));
             }
         }
         return params;
     }
 
-    private void decodeParams(String s) {
-        Map<String, List<String>> params = this.params = new LinkedHashMap<>();
+    /**
+     * Returns the decoded values of a single parameter of the URI. Unlike {@link #parameters()}, only the values of
+     * the requested parameter are decoded, so this is cheaper when a few of many parameters are needed.
+     *
+     * @param name name of the parameter
+     * @return values of the parameter in the order they appear, or null if the URI does not have the parameter
+     */
+    public List<String> parameter(String name) {
+        indexParams();
+        List<String> values = null;
+        for (int i = 0; i < nParams; i++) {
+            if (nameEquals(i, name)) {
+                if (values == null) {
+                    values = new ArrayList<>(1);
+                }
+                values.add(value(i));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Record the offsets of the names and values in the query string in a single pass, without creating strings.
+     */
+    private void indexParams() {
+        if (index != null) {
+            return;
+        }
+        index = new int[16];
         nParams = 0;
-        String name = null;
-        int pos = 0; // Beginning of the unprocessed region
-        int i;       // End of the unprocessed region
-        char c;  // Current character
-        for (i = 0; i < s.length(); i++) {
+        int start;
+        if (hasPath) {
+            start = path().length() + 1;
+            if (start > uri.length()) {
+                return;
+            }
+        } else {
+            start = 0;
+        }
+        String s = uri;
+        int nameStart = -1;
+        int nameEnd = -1;
+        int pos = start; // Beginning of the unprocessed region
+        int i;           // End of the unprocessed region
+        char c;          // Current character
+        for (i = start; i < s.length(); i++) {
             c = s.charAt(i);
-            if (c == '=' && name == null) {
+            if (c == '=' && nameStart < 0) {
                 if (pos != i) {
-                    name = decodeComponent(s.substring(pos, i), charset);
+                    nameStart = pos;
+                    nameEnd = i;
                 }
                 pos = i + 1;
                 // http://www.w3.org/TR/html401/appendix/notes.html#h-B.2.2
             } else if (c == '&' || c == ';') {
-                if (name == null && pos != i) {
+                if (nameStart < 0 && pos != i) {
                     // We haven't seen an `=' so far but moved forward.
                     // Must be a param of the form '&a&' so add it with
                     // an empty value.
-                    if (!addParam(params, decodeComponent(s.substring(pos, i), charset), "")) {
+                    if (!addParam(pos, i, i, i)) {
                         return;
                     }
-                } else if (name != null) {
-                    if (!addParam(params, name, decodeComponent(s.substring(pos, i), charset))) {
+                } else if (nameStart >= 0) {
+                    if (!addParam(nameStart, nameEnd, pos, i)) {
                         return;
                     }
-                    name = null;
+                    nameStart = -1;
                 }
                 pos = i + 1;
             }
         }
 
         if (pos != i) {  // Are there characters we haven't dealt with?
-            if (name == null) {     // Yes and we haven't seen any `='.
-                addParam(params, decodeComponent(s.substring(pos, i), charset), "");
+            if (nameStart < 0) {     // Yes and we haven't seen any `='.
+                addParam(pos, i, i, i);
             } else {                // Yes and this must be the last value.
-                addParam(params, name, decodeComponent(s.substring(pos, i), charset));
+                addParam(nameStart, nameEnd, pos, i);
             }
-        } else if (name != null) {  // Have we seen a name without value?
-            addParam(params, name, "");
+        } else if (nameStart >= 0) {  // Have we seen a name without value?
+            addParam(nameStart, nameEnd, i, i);
         }
     }
 
-    private boolean addParam(Map<String, List<String>> params, String name, String value) {
+    private boolean addParam(int nameStart, int nameEnd, int valueStart, int valueEnd) {
         if (nParams >= maxParams) {
             return false;
         }
-
-        List<String> values = params.get(name);
-        if (values == null) {
-            values = new ArrayList<>(1);  // Often there's only 1 value.
-            params.put(name, values);
+        int offset = nParams << 2;
+        if (offset == index.length) {
+            index = Arrays.copyOf(index, index.length << 1);
         }
-        values.add(value);
+        index[offset] = nameStart;
+        index[offset + 1] = nameEnd;
+        index[offset + 2] = valueStart;
+        index[offset + 3] = valueEnd;
         nParams++;
         return true;
     }
 
+    private boolean nameEquals(int param, String name) {
+        int start = index[param << 2];
+        int end = index[(param << 2) + 1];
+        if (!needsDecoding(uri, start, end)) {
+            // Compare in place
+            return end - start == name.length() && uri.regionMatches(start, name, 0, end - start);
+        }
+        return name(param).equals(name);
+    }
+
+    private String name(int param) {
+        int start = index[param << 2];
+        int end = index[(param << 2) + 1];
+        if (!needsDecoding(uri, start, end)) {
+            return uri.substring(start, end);
+        }
+        if (decodedNames == null) {
+            decodedNames = new String[nParams];
+        }
+        String name = decodedNames[param];
+        if (name == null) {
+            name = decodedNames[param] = decodeComponent(uri, start, end, charset);
+        }
+        return name;
+    }
+
+    private String value(int param) {
+        int start = index[(param << 2) + 2];
+        int end = index[(param << 2) + 3];
+        if (!needsDecoding(uri, start, end)) {
+            return uri.substring(start, end);
+        }
+        return decodeComponent(uri, start, end, charset);
+    }
+
+    private static boolean needsDecoding(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '%' || c == '+') {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Decodes a bit of an URL encoded by a browser.
      * <p>
@@ -309,21 +403,20 @@ public class QueryStringDecoderUtil {
         if (s == null) {
             return "";
         }
-        final int size = s.length();
-        boolean modified = false;
-        for (int i = 0; i < size; i++) {
-            final char c = s.charAt(i);
-            if (c == '%' || c == '+') {
-                modified = true;
-                break;
-            }
-        }
-        if (!modified) {
+        if (!needsDecoding(s, 0, s.length())) {
             return s;
         }
-        final byte[] buf = new byte[size];
+        return decodeComponent(s, 0, s.length(), charset);
+    }
+
+    /**
+     * Decodes the region of a string between the given offsets, which has at least one character to decode.
+     */
+    private static String decodeComponent(final String s, final int from, final int to, final Charset charset) {
+        final int size = to;
+        final byte[] buf = new byte[to - from];
         int pos = 0;  // position in `buf'.
-        for (int i = 0; i < size; i++) {
+        for (int i = from; i < size; i++) {
             char c = s.charAt(i);
             switch (c) {
                 case '+':
@@ -332,7 +425,7 @@ public class QueryStringDecoderUtil {
                 case '%':
                     if (i == size - 1) {
                         throw new IllegalArgumentException("unterminated escape"
-                                + " sequence at end of string: " + s);
+                                + " sequence at end of string: " + s.substring(from, to));
                     }
                     c = s.charAt(++i);
                     if (c == '%') {
@@ -341,15 +434,15 @@ public class QueryStringDecoderUtil {
                     }
                     if (i == size - 1) {
                         throw new IllegalArgumentException("partial escape"
-                                + " sequence at end of string: " + s);
+                                + " sequence at end of string: " + s.substring(from, to));
                     }
                     c = decodeHexNibble(c);
                     final char c2 = decodeHexNibble(s.charAt(++i));
                     if (c == Character.MAX_VALUE || c2 == Character.MAX_VALUE) {
                         throw new IllegalArgumentException(
                                 "invalid escape sequence `%" + s.charAt(i - 1)
-                                        + s.charAt(i) + "' at index " + (i - 2)
-                                        + " of: " + s);
+                                        + s.charAt(i) + "' at index " + (i - 2 - from)
+                                        + " of: " + s.substring(from, to));
                     }
                     c = (char) (c * 16 + c2);
                     // Fall through.
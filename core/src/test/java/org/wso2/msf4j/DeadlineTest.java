@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.internal.router.RequestTimeouts;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link Deadline} and {@link RequestTimeouts}.
+ */
+public class DeadlineTest {
+
+    @Test
+    public void testParseTimeout() {
+        assertEquals(TimeUnit.HOURS.toNanos(2), Deadline.parseTimeoutNanos("2H"));
+        assertEquals(TimeUnit.MINUTES.toNanos(3), Deadline.parseTimeoutNanos("3M"));
+        assertEquals(TimeUnit.SECONDS.toNanos(5), Deadline.parseTimeoutNanos("5S"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), Deadline.parseTimeoutNanos("250m"));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(100), Deadline.parseTimeoutNanos("100u"));
+        assertEquals(42, Deadline.parseTimeoutNanos("42n"));
+        assertEquals("A value without a unit should be read as seconds",
+                TimeUnit.SECONDS.toNanos(7), Deadline.parseTimeoutNanos(" 7 "));
+
+        assertEquals(-1, Deadline.parseTimeoutNanos(null));
+        assertEquals(-1, Deadline.parseTimeoutNanos(""));
+        assertEquals(-1, Deadline.parseTimeoutNanos("m"));
+        assertEquals(-1, Deadline.parseTimeoutNanos("-5S"));
+        assertEquals(-1, Deadline.parseTimeoutNanos("1.5S"));
+        assertEquals(-1, Deadline.parseTimeoutNanos("5x"));
+        assertEquals("More than 8 digits should be rejected", -1L, Deadline.parseTimeoutNanos("123456789m"));
+    }
+
+    @Test
+    public void testExpiryNotifiesListeners() throws InterruptedException {
+        Deadline deadline = Deadline.after(50, TimeUnit.MILLISECONDS);
+        CountDownLatch expired = new CountDownLatch(1);
+        deadline.onCancel(expired::countDown);
+        assertTrue(deadline.hasTimeout());
+        assertFalse(deadline.isCancelled());
+        assertTrue(deadline.timeRemaining(TimeUnit.MILLISECONDS) <= 50);
+
+        assertTrue("Deadline should expire", expired.await(5, TimeUnit.SECONDS));
+        assertTrue(deadline.isExpired());
+        assertTrue(deadline.isCancelled());
+        assertEquals(0, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+        assertEquals("0m", deadline.toTimeoutHeaderValue());
+
+        AtomicInteger lateListener = new AtomicInteger();
+        deadline.onCancel(lateListener::incrementAndGet);
+        assertEquals("A listener added after expiry should run right away", 1, lateListener.get());
+    }
+
+    @Test
+    public void testCompletedDeadlineDoesNotNotify() throws InterruptedException {
+        Deadline deadline = Deadline.after(20, TimeUnit.MILLISECONDS);
+        AtomicInteger calls = new AtomicInteger();
+        deadline.onCancel(calls::incrementAndGet);
+        deadline.complete();
+        Thread.sleep(60);
+        assertEquals(0, calls.get());
+        assertFalse(deadline.isCancelled());
+        deadline.cancel();
+        assertEquals("A completed request cannot be cancelled", 0, calls.get());
+    }
+
+    @Test
+    public void testCancel() {
+        Deadline deadline = Deadline.none();
+        AtomicInteger calls = new AtomicInteger();
+        deadline.onCancel(calls::incrementAndGet);
+        assertFalse(deadline.hasTimeout());
+        assertEquals(Long.MAX_VALUE, deadline.timeRemaining(TimeUnit.SECONDS));
+        assertNull(deadline.toTimeoutHeaderValue());
+
+        deadline.cancel();
+        deadline.cancel();
+        assertEquals(1, calls.get());
+        assertTrue(deadline.isCancelled());
+        assertFalse(deadline.isExpired());
+        try {
+            deadline.throwIfCancelled();
+            throw new AssertionError("Cancelled deadline should throw");
+        } catch (CancellationException e) {
+            assertEquals("Request cancelled", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testElapsedDeadline() {
+        Deadline deadline = Deadline.after(0, TimeUnit.SECONDS);
+        assertTrue(deadline.isExpired());
+        AtomicInteger calls = new AtomicInteger();
+        deadline.onCancel(calls::incrementAndGet);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testClientCanOnlyShortenTimeout() {
+        long methodTimeout = TimeUnit.SECONDS.toNanos(2);
+        assertEquals(methodTimeout, RequestTimeouts.resolve(request(null, null), methodTimeout));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500),
+                RequestTimeouts.resolve(request("500m", null), methodTimeout));
+        assertEquals(methodTimeout, RequestTimeouts.resolve(request("10S", null), methodTimeout));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300),
+                RequestTimeouts.resolve(request(null, "300m"), methodTimeout));
+        assertEquals("The client timeout should apply when the method has none",
+                TimeUnit.SECONDS.toNanos(10), RequestTimeouts.resolve(request("10S", null), -1));
+        assertEquals(-1, RequestTimeouts.resolve(request("soon", null), -1));
+        assertTrue(RequestTimeouts.mayApply(request(null, "1S")));
+    }
+
+    @Test
+    public void testDeadlineIsSetOnCarbonMessage() {
+        DefaultCarbonMessage carbonMessage = new DefaultCarbonMessage();
+        Request request = new Request(carbonMessage);
+        Deadline deadline = request.getDeadline();
+        assertFalse(deadline.hasTimeout());
+        assertSame(deadline, request.getDeadline());
+        assertSame(deadline, carbonMessage.getProperty(Deadline.PROPERTY));
+    }
+
+    private static Request request(String requestTimeout, String grpcTimeout) {
+        DefaultCarbonMessage carbonMessage = new DefaultCarbonMessage();
+        if (requestTimeout != null) {
+            carbonMessage.setHeader(Deadline.REQUEST_TIMEOUT_HEADER, requestTimeout);
+        }
+        if (grpcTimeout != null) {
+            carbonMessage.setHeader(Deadline.GRPC_TIMEOUT_HEADER, grpcTimeout);
+        }
+        return new Request(carbonMessage);
+    }
+}
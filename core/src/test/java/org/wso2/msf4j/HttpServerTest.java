@@ -846,6 +846,104 @@ public class HttpServerTest {
         assertEquals(response, file.getName());
     }
 
+    @Test
+    public void testStreamingFormItems() throws IOException, URISyntaxException {
+        HttpURLConnection connection = request("/test/v1/streamFormItems", HttpMethod.POST);
+        File file = new File(Resources.getResource("testJpgFile.jpg").toURI());
+        HttpEntity reqEntity = MultipartEntityBuilder.create()
+                .addTextBody("id", "12345")
+                .addBinaryBody("file", file, ContentType.DEFAULT_BINARY, file.getName())
+                .build();
+        connection.setRequestProperty("Content-Type", reqEntity.getContentType().getValue());
+        try (OutputStream out = connection.getOutputStream()) {
+            reqEntity.writeTo(out);
+        }
+
+        InputStream inputStream = connection.getInputStream();
+        String response = StreamUtil.asString(inputStream);
+        IOUtils.closeQuietly(inputStream);
+        connection.disconnect();
+        assertEquals(response, "id=5;file=" + file.length() + ";");
+    }
+
+    @Test
+    public void testRequestBodyLimit() throws IOException {
+        HttpURLConnection urlConn = request("/test/v1/limitedBody", HttpMethod.POST);
+        writeContent(urlConn, "within the limit");
+        assertEquals(200, urlConn.getResponseCode());
+        assertEquals("within the limit", getContent(urlConn));
+        urlConn.disconnect();
+
+        // Rejected on the declared Content-Length
+        urlConn = request("/test/v1/limitedBody", HttpMethod.POST);
+        writeContent(urlConn, "exceeds the limit");
+        assertEquals(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), urlConn.getResponseCode());
+        urlConn.disconnect();
+
+        // Rejected while the body arrives
+        urlConn = request("/test/v1/limitedBody", HttpMethod.POST);
+        urlConn.setChunkedStreamingMode(8);
+        writeContent(urlConn, "exceeds the limit");
+        assertEquals(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), urlConn.getResponseCode());
+        urlConn.disconnect();
+    }
+
+    @Test
+    public void testFormPartLimits() throws IOException, URISyntaxException {
+        File txtFile = new File(Resources.getResource("testTxtFile.txt").toURI());
+        File pngFile = new File(Resources.getResource("testPngFile.png").toURI());
+
+        HttpEntity reqEntity = MultipartEntityBuilder.create()
+                .addBinaryBody("file", txtFile, ContentType.DEFAULT_BINARY, txtFile.getName())
+                .build();
+        HttpURLConnection connection = postEntity("/test/v1/limitedForm", reqEntity);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(txtFile.getName() + ":" + txtFile.length(), getContent(connection));
+        connection.disconnect();
+
+        reqEntity = MultipartEntityBuilder.create()
+                .addBinaryBody("file", pngFile, ContentType.DEFAULT_BINARY, pngFile.getName())
+                .build();
+        connection = postEntity("/test/v1/limitedForm", reqEntity);
+        assertEquals(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), connection.getResponseCode());
+        connection.disconnect();
+
+        reqEntity = MultipartEntityBuilder.create()
+                .addTextBody("id", "1")
+                .addTextBody("name", "wso2")
+                .addBinaryBody("file", txtFile, ContentType.DEFAULT_BINARY, txtFile.getName())
+                .build();
+        connection = postEntity("/test/v1/limitedForm", reqEntity);
+        assertEquals(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode(), connection.getResponseCode());
+        connection.disconnect();
+    }
+
+    @Test
+    public void testStreamResponse() throws IOException {
+        HttpURLConnection connection = request("/test/v1/streamNumbers?count=10000", HttpMethod.GET);
+        connection.setRequestProperty("Accept", "application/x-ndjson");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("application/x-ndjson", connection.getHeaderField(HttpHeaders.CONTENT_TYPE));
+        assertEquals(IntStream.range(0, 10000).mapToObj(i -> i + "\n").collect(Collectors.joining()),
+                getContent(connection));
+        connection.disconnect();
+
+        connection = request("/test/v1/streamNumbers?count=3", HttpMethod.GET);
+        connection.setRequestProperty("Accept", MediaType.APPLICATION_JSON);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("[0,1,2]", getContent(connection));
+        connection.disconnect();
+    }
+
+    private HttpURLConnection postEntity(String path, HttpEntity entity) throws IOException {
+        HttpURLConnection connection = request(path, HttpMethod.POST);
+        connection.setRequestProperty("Content-Type", entity.getContentType().getValue());
+        try (OutputStream out = connection.getOutputStream()) {
+            entity.writeTo(out);
+        }
+        return connection;
+    }
+
     @Test
     public void testFormDataParamWithComplexForm() throws IOException, URISyntaxException {
         HttpURLConnection connection = request("/test/v1/complexForm", HttpMethod.POST);
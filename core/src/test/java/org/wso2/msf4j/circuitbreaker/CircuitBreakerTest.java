@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.circuitbreaker;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests for {@link CircuitBreaker} and {@link Bulkhead}.
+ */
+public class CircuitBreakerTest {
+
+    private static CircuitBreakerConfig config() {
+        return new CircuitBreakerConfig()
+                .slidingWindowSize(10)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(50, TimeUnit.MILLISECONDS)
+                .permittedCallsInHalfOpenState(2);
+    }
+
+    @Test
+    public void testCircuitOpensWhenFailureRateIsReached() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("failures", config());
+        circuitBreaker.call(() -> "ok");
+        circuitBreaker.call(() -> "ok");
+        failCall(circuitBreaker);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1f, circuitBreaker.getFailureRate());
+        failCall(circuitBreaker);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        try {
+            circuitBreaker.call(() -> "ok");
+            fail("Call should not be permitted while the circuit is open");
+        } catch (CallNotPermittedException e) {
+            assertEquals("failures", e.getName());
+            assertEquals(1, e.getRetryAfterSeconds());
+        }
+        assertEquals("fallback", circuitBreaker.call(() -> "ok", e -> "fallback"));
+        assertEquals(2, circuitBreaker.getRejectedCount());
+    }
+
+    @Test
+    public void testCircuitClosesAfterSuccessfulTrialCalls() throws Exception {
+        CircuitBreaker circuitBreaker = openCircuit();
+        Thread.sleep(80);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertFalse("Only two trial calls are permitted", circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getBufferedCalls());
+    }
+
+    @Test
+    public void testCircuitOpensAgainAfterFailedTrialCalls() throws Exception {
+        CircuitBreaker circuitBreaker = openCircuit();
+        Thread.sleep(80);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onSuccess(0);
+        circuitBreaker.onError(0);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testUnusedTrialPermissionIsGivenBack() throws Exception {
+        CircuitBreaker circuitBreaker = openCircuit();
+        Thread.sleep(80);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.releasePermission();
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    public void testCircuitOpensWhenCallsAreSlow() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("slow", config()
+                .slowCallDuration(1, TimeUnit.SECONDS)
+                .slowCallRateThreshold(75));
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onSuccess(TimeUnit.SECONDS.toNanos(2));
+        }
+        circuitBreaker.onSuccess(0);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testBulkheadRejectsCallsWhenFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("bulkhead", 2);
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertEquals(0, bulkhead.getAvailablePermits());
+        try {
+            bulkhead.call(() -> "ok");
+            fail("Call should not be permitted while the bulkhead is full");
+        } catch (CallNotPermittedException e) {
+            assertEquals("bulkhead", e.getName());
+        }
+        bulkhead.release();
+        assertEquals("ok", bulkhead.call(() -> "ok"));
+        assertEquals(1, bulkhead.getAvailablePermits());
+        assertEquals(1, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    public void testPoliciesAreResolvedFromTheAnnotations() throws NoSuchMethodException {
+        CircuitBreaker first = CircuitBreakers.circuitBreakerForMethod(GuardedService.class.getMethod("first")).get();
+        CircuitBreaker second = CircuitBreakers.circuitBreakerForMethod(GuardedService.class.getMethod("second")).get();
+        assertSame("Methods with the same name should share a circuit breaker", first, second);
+        assertSame(first, CircuitBreakers.circuitBreaker("database"));
+
+        Bulkhead bulkhead = CircuitBreakers.bulkheadForMethod(GuardedService.class.getMethod("second")).get();
+        assertEquals(GuardedService.class.getName() + ".second", bulkhead.getName());
+        assertEquals(3, bulkhead.getMaxConcurrentCalls());
+        assertTrue(CircuitBreakers.getBulkheads().contains(bulkhead));
+        assertFalse(CircuitBreakers.bulkheadForMethod(GuardedService.class.getMethod("first")).isPresent());
+    }
+
+    private static CircuitBreaker openCircuit() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("open", config());
+        for (int i = 0; i < 4; i++) {
+            failCall(circuitBreaker);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+
+    private static void failCall(CircuitBreaker circuitBreaker) {
+        try {
+            circuitBreaker.call(() -> {
+                throw new IOException("Connection refused");
+            });
+            fail("Call should fail");
+        } catch (Exception e) {
+            assertTrue(e instanceof IOException);
+        }
+    }
+
+    @CircuitBreakerPolicy(name = "database")
+    private static class GuardedService {
+
+        public void first() {
+        }
+
+        @BulkheadPolicy(maxConcurrentCalls = 3)
+        public void second() {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.formparam;
+
+import org.testng.annotations.Test;
+import org.wso2.msf4j.formparam.exception.FormUploadException;
+import org.wso2.msf4j.formparam.util.FormItemHeader;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for MultipartParser.
+ */
+public class MultipartParserTest {
+
+    private static final String BOUNDARY = "----WebKitFormBoundary7MA4YWxkTrZu0gW";
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+    private static final String BODY = "preamble\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"id\"\r\n"
+            + "\r\n"
+            + "12345\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"a.txt\"\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "\r\n"
+            + "line 1\r\n--" + BOUNDARY.substring(0, 10) + "\r\nline 2\r\n"
+            + "--" + BOUNDARY + "--\r\n"
+            + "epilogue";
+
+    @Test
+    public void testWholeBody() throws Exception {
+        RecordingListener listener = parse(BODY.getBytes(StandardCharsets.ISO_8859_1), Integer.MAX_VALUE);
+        assertParts(listener);
+    }
+
+    @Test
+    public void testSplitAtEveryByte() throws Exception {
+        byte[] body = BODY.getBytes(StandardCharsets.ISO_8859_1);
+        for (int chunkSize = 1; chunkSize < 64; chunkSize++) {
+            assertParts(parse(body, chunkSize));
+        }
+    }
+
+    @Test(expectedExceptions = FormUploadException.class)
+    public void testMissingClosingBoundary() throws Exception {
+        String body = BODY.substring(0, BODY.indexOf("--" + BOUNDARY + "--"));
+        parse(body.getBytes(StandardCharsets.ISO_8859_1), 16);
+    }
+
+    @Test(expectedExceptions = FormUploadException.class)
+    public void testMissingBoundaryParameter() {
+        new MultipartParser("multipart/form-data", new RecordingListener());
+    }
+
+    private static RecordingListener parse(byte[] body, int chunkSize) throws Exception {
+        RecordingListener listener = new RecordingListener();
+        MultipartParser parser = new MultipartParser(CONTENT_TYPE, listener);
+        for (int position = 0; position < body.length; position += chunkSize) {
+            parser.feed(ByteBuffer.wrap(body, position, Math.min(chunkSize, body.length - position)));
+        }
+        parser.end();
+        return listener;
+    }
+
+    private static void assertParts(RecordingListener listener) {
+        assertTrue(listener.complete);
+        assertEquals(2, listener.names.size());
+        assertEquals("id", listener.names.get(0));
+        assertEquals("12345", listener.contents.get(0));
+        assertEquals("file", listener.names.get(1));
+        assertEquals("a.txt", listener.fileNames.get(1));
+        assertEquals("line 1\r\n--" + BOUNDARY.substring(0, 10) + "\r\nline 2", listener.contents.get(1));
+    }
+
+    private static class RecordingListener implements MultipartListener {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<String> fileNames = new ArrayList<>();
+        private final List<String> contents = new ArrayList<>();
+        private ByteArrayOutputStream content;
+        private boolean complete;
+
+        @Override
+        public void onPartStart(FormItemHeader headers) {
+            names.add(MultipartParser.getFieldName(headers));
+            fileNames.add(MultipartParser.getFileName(headers));
+            content = new ByteArrayOutputStream();
+        }
+
+        @Override
+        public void onPartData(ByteBuffer data) {
+            while (data.hasRemaining()) {
+                content.write(data.get());
+            }
+        }
+
+        @Override
+        public void onPartEnd() {
+            contents.add(new String(content.toByteArray(), StandardCharsets.ISO_8859_1));
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.internal.entitywriter.SseEventStreamEntityWriter;
+import org.wso2.msf4j.sse.SseBroadcaster;
+import org.wso2.msf4j.sse.SseEvent;
+import org.wso2.msf4j.util.HttpUtil;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link InFlightRequests} and closing connections while draining.
+ */
+public class InFlightRequestsTest {
+
+    private static final String CONNECTION = "Connection";
+
+    @Test
+    public void testAwaitCompletion() throws Exception {
+        InFlightRequests inFlightRequests = new InFlightRequests();
+        assertTrue(inFlightRequests.awaitCompletion(0, TimeUnit.MILLISECONDS));
+
+        inFlightRequests.enter();
+        inFlightRequests.enter();
+        assertEquals(2, inFlightRequests.getCount());
+        assertFalse("Requests are still in flight", inFlightRequests.awaitCompletion(20, TimeUnit.MILLISECONDS));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> drained = executor.submit(() -> inFlightRequests.awaitCompletion(5, TimeUnit.SECONDS));
+            inFlightRequests.exit(null);
+            Thread.sleep(20);
+            assertFalse(drained.isDone());
+            inFlightRequests.exit(null);
+            assertTrue(drained.get(5, TimeUnit.SECONDS));
+            assertEquals(0, inFlightRequests.getCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStreamedResponseCountsUntilItEnds() {
+        InFlightRequests inFlightRequests = new InFlightRequests();
+        DefaultCarbonMessage streamed = new DefaultCarbonMessage();
+        streamed.addMessageBody(ByteBuffer.wrap(new byte[]{1}));
+        DefaultCarbonMessage complete = new DefaultCarbonMessage();
+        complete.setEndOfMsgAdded(true);
+
+        inFlightRequests.enter();
+        inFlightRequests.enter();
+        inFlightRequests.exit(streamed);
+        inFlightRequests.exit(complete);
+        assertEquals(1, inFlightRequests.getCount());
+
+        streamed.setEndOfMsgAdded(true);
+        assertEquals("The transport has not taken the last chunk yet", 1L, inFlightRequests.getCount());
+        streamed.getMessageBody();
+        assertEquals(0, inFlightRequests.getCount());
+    }
+
+    @Test
+    public void testEventStreamsAreEndedWhenDraining() {
+        InFlightRequests inFlightRequests = new InFlightRequests();
+        SseBroadcaster broadcaster = new SseBroadcaster(0, 16, 0, TimeUnit.SECONDS);
+        try {
+            CarbonMessage response = new DefaultCarbonMessage();
+            inFlightRequests.enter();
+            new SseEventStreamEntityWriter().writeData(response, broadcaster.subscribe(null), SseEvent.MEDIA_TYPE,
+                    Response.DEFAULT_CHUNK_SIZE, message -> { });
+            inFlightRequests.exit(response);
+            assertEquals(1, inFlightRequests.getCount());
+            assertEquals(1, broadcaster.getSubscriberCount());
+
+            inFlightRequests.startDraining();
+            assertEquals(0, broadcaster.getSubscriberCount());
+            assertTrue(response.isEndOfMsgAdded());
+            assertEquals(0, broadcaster.getEvictionCount());
+            assertEquals(0, inFlightRequests.getCount());
+        } finally {
+            broadcaster.close();
+        }
+    }
+
+    @Test
+    public void testConnectionIsClosedWhileDraining() {
+        InFlightRequests inFlightRequests = new InFlightRequests();
+        DefaultCarbonMessage carbonMessage = new DefaultCarbonMessage();
+        carbonMessage.setHeader(CONNECTION, HttpUtil.KEEP_ALIVE);
+        Request request = new Request(carbonMessage);
+
+        Response response = new Response(message -> { });
+        HttpUtil.setConnectionHeader(request, response, inFlightRequests.isDraining());
+        assertEquals(HttpUtil.KEEP_ALIVE, response.getHeader(CONNECTION));
+
+        inFlightRequests.startDraining();
+        response = new Response(message -> { });
+        HttpUtil.setConnectionHeader(request, response, inFlightRequests.isDraining());
+        assertEquals(HttpUtil.CLOSE, response.getHeader(CONNECTION));
+    }
+}
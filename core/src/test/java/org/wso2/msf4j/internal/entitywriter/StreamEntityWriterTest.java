@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.internal.entitywriter;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Response;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.ws.rs.core.MediaType;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for streaming Stream and Publisher entities.
+ */
+public class StreamEntityWriterTest {
+
+    @Test
+    public void testNdjson() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> stream = IntStream.range(0, 10000).boxed().onClose(() -> closed.set(true));
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        new StreamEntityWriter().writeData(carbonMessage, stream, "application/x-ndjson", Response.NO_CHUNK,
+                message -> { });
+        assertEquals(IntStream.range(0, 10000).mapToObj(i -> i + "\n").collect(Collectors.joining()),
+                readBody(carbonMessage));
+        assertEquals("application/x-ndjson", carbonMessage.getHeader("Content-Type"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testJsonArray() throws Exception {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        new StreamEntityWriter().writeData(carbonMessage, Stream.of("a", "b", "c"), MediaType.WILDCARD,
+                Response.DEFAULT_CHUNK_SIZE, message -> { });
+        assertEquals("[\"a\",\"b\",\"c\"]", readBody(carbonMessage));
+        assertEquals(MediaType.APPLICATION_JSON, carbonMessage.getHeader("Content-Type"));
+
+        carbonMessage = new DefaultCarbonMessage();
+        new StreamEntityWriter().writeData(carbonMessage, Stream.empty(), MediaType.APPLICATION_JSON,
+                Response.DEFAULT_CHUNK_SIZE, message -> { });
+        assertEquals("[]", readBody(carbonMessage));
+    }
+
+    @Test
+    public void testServerSentEvents() throws Exception {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        new StreamEntityWriter().writeData(carbonMessage, Stream.of("first", "multi\nline", 42),
+                ElementFraming.TEXT_EVENT_STREAM, Response.DEFAULT_CHUNK_SIZE, message -> { });
+        assertEquals("data: first\n\ndata: multi\ndata: line\n\ndata: 42\n\n", readBody(carbonMessage));
+        assertEquals("no-cache", carbonMessage.getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void testElementsAreRequestedAsTheTransportDrains() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        Stream<Integer> stream = Stream.iterate(0, i -> i + 1).peek(i -> produced.incrementAndGet());
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        new StreamEntityWriter().writeData(carbonMessage, stream, "application/x-ndjson", 64, message -> { });
+
+        // Nothing is drained, so only the first batch is produced. The iterator looks one element ahead.
+        Thread.sleep(100);
+        int firstBatch = produced.get();
+        assertTrue(firstBatch <= ElementStreamSubscriber.REQUEST_BATCH_SIZE + 1);
+        for (int i = 0; i < 10; i++) {
+            carbonMessage.getMessageBody();
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (produced.get() == firstBatch && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(100);
+        // Draining lets more elements through, but not more than a batch at a time
+        assertTrue(produced.get() > firstBatch);
+        assertTrue(produced.get() <= 3 * ElementStreamSubscriber.REQUEST_BATCH_SIZE + 1);
+    }
+
+    @Test
+    public void testPublisherFailure() throws Exception {
+        Publisher<Object> publisher = subscriber -> subscriber.onSubscribe(new Subscription() {
+            private boolean sent;
+
+            @Override
+            public void request(long n) {
+                if (!sent) {
+                    sent = true;
+                    subscriber.onNext("ok");
+                    subscriber.onError(new IllegalStateException("Failed"));
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        new PublisherEntityWriter().writeData(carbonMessage, publisher, MediaType.APPLICATION_JSON,
+                Response.DEFAULT_CHUNK_SIZE, message -> { });
+        // The body is cut short, which leaves the JSON array open
+        assertEquals("[\"ok\"", readBody(carbonMessage));
+    }
+
+    @Test
+    public void testIteratorPublisherCancel() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger received = new AtomicInteger();
+        Stream<Integer> stream = Stream.iterate(0, i -> i + 1).onClose(() -> closed.set(true));
+        new IteratorPublisher<>(stream.iterator(), stream::close).subscribe(new Subscriber<Integer>() {
+            private Subscription subscription;
+
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer element) {
+                if (received.incrementAndGet() == 5) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertEquals(5, received.get());
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Take the body off the message the way the transport does, until the end of the message.
+     */
+    private static String readBody(CarbonMessage carbonMessage) throws InterruptedException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!(carbonMessage.isEndOfMsgAdded() && carbonMessage.isEmpty())) {
+            if (carbonMessage.isEmpty()) {
+                assertTrue("Response was not completed", System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+                continue;
+            }
+            ByteBuffer chunk = carbonMessage.getMessageBody();
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            body.write(bytes, 0, bytes.length);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.internal.router;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.TypeToken;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests for ParamConvertUtils.
+ */
+public class ParamConvertUtilsTest {
+
+    @Test
+    public void testPathParamPrimitives() {
+        assertEquals(42, ParamConvertUtils.createPathParamConverter(int.class).apply("42"));
+        assertEquals(-42L, ParamConvertUtils.createPathParamConverter(Long.class).apply("-42"));
+        assertEquals(1.5d, ParamConvertUtils.createPathParamConverter(double.class).apply("1.5"));
+        assertEquals('x', ParamConvertUtils.createPathParamConverter(char.class).apply("xyz"));
+        assertEquals(Boolean.TRUE, ParamConvertUtils.createPathParamConverter(boolean.class).apply("TRUE"));
+        assertEquals("value", ParamConvertUtils.createPathParamConverter(String.class).apply("value"));
+    }
+
+    @Test
+    public void testPathParamLenientConversion() {
+        // Values the direct parsers reject keep the commons-beanutils behaviour
+        assertEquals(42, ParamConvertUtils.createPathParamConverter(int.class).apply(" 42 "));
+        assertEquals(0, ParamConvertUtils.createPathParamConverter(int.class).apply("abc"));
+        assertEquals(Boolean.TRUE, ParamConvertUtils.createPathParamConverter(boolean.class).apply("yes"));
+    }
+
+    @Test
+    public void testPathParamTypesWithoutReflection() {
+        UUID uuid = UUID.randomUUID();
+        assertEquals(uuid, ParamConvertUtils.createPathParamConverter(UUID.class).apply(uuid.toString()));
+        assertEquals(TimeUnit.SECONDS, ParamConvertUtils.createPathParamConverter(TimeUnit.class).apply("SECONDS"));
+        assertEquals(LocalDate.of(2016, 2, 29),
+                ParamConvertUtils.createPathParamConverter(LocalDate.class).apply("2016-02-29"));
+    }
+
+    @Test
+    public void testQueryParamConversion() {
+        assertEquals(42, ParamConvertUtils.createQueryParamConverter(int.class).apply(ImmutableList.of("42", "1")));
+        assertEquals(0, ParamConvertUtils.createQueryParamConverter(int.class).apply(Collections.emptyList()));
+        assertNull(ParamConvertUtils.createQueryParamConverter(Integer.class).apply(null));
+        assertEquals(Boolean.FALSE, ParamConvertUtils.createQueryParamConverter(boolean.class)
+                .apply(ImmutableList.of("yes")));
+        assertEquals(Duration.ofMinutes(5), ParamConvertUtils.createQueryParamConverter(Duration.class)
+                .apply(ImmutableList.of("PT5M")));
+        assertEquals(ZoneId.of("UTC"), ParamConvertUtils.createQueryParamConverter(ZoneId.class)
+                .apply(ImmutableList.of("UTC")));
+
+        Function<List<String>, Object> converter =
+                ParamConvertUtils.createQueryParamConverter(new TypeToken<Set<TimeUnit>>() { }.getType());
+        assertEquals(ImmutableList.of(TimeUnit.SECONDS, TimeUnit.DAYS),
+                ImmutableList.copyOf((Set<?>) converter.apply(ImmutableList.of("SECONDS", "DAYS", "SECONDS"))));
+    }
+
+    @Test
+    public void testInvalidQueryParam() {
+        try {
+            ParamConvertUtils.createQueryParamConverter(int.class).apply(ImmutableList.of("abc"));
+            fail("Invalid int should not be converted");
+        } catch (NumberFormatException expected) {
+            // Expected
+        }
+        try {
+            ParamConvertUtils.createQueryParamConverter(TimeUnit.class).apply(ImmutableList.of("WEEKS"));
+            fail("Unknown enum constant should not be converted");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testUuid() {
+        UUID uuid = new UUID(0x123456789abcdef0L, 0xfedcba9876543210L);
+        assertEquals(uuid, ParamParsers.parseUuid(uuid.toString()));
+        assertEquals(uuid, ParamParsers.parseUuid(uuid.toString().toUpperCase()));
+        // Non canonical forms are parsed by UUID.fromString
+        assertEquals(new UUID(0x0000000100020003L, 0x0004000000000005L), ParamParsers.parseUuid("1-2-3-4-5"));
+        try {
+            ParamParsers.parseUuid("123456789abcdef0-fedc-ba98-7654-3210xyz");
+            fail("Invalid UUID should not be parsed");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        try {
+            ParamParsers.parseUuid("12345678-9abc-def0-fedc-ba987654321g");
+            fail("Invalid UUID should not be parsed");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+}
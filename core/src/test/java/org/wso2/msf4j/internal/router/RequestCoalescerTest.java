@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.internal.router;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.Constants;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Coalesce;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.util.BufferUtil;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.core.MediaType;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests for {@link RequestCoalescer}.
+ */
+public class RequestCoalescerTest {
+
+    private static final String URI = "/quotes/IBM";
+    private static final int FOLLOWERS = 8;
+
+    @Test
+    public void testIdenticalRequestsShareOneInvocation() throws Exception {
+        QuoteResource resource = new QuoteResource();
+        RequestCoalescer coalescer = RequestCoalescer.of(QuoteResource.class.getMethod("get", String.class));
+        ExecutorService executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+        try {
+            List<Future<CarbonMessage>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> invoke(coalescer, resource, "slow", "GET", "user")));
+            assertTrue(resource.entered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < FOLLOWERS; i++) {
+                responses.add(executor.submit(() -> invoke(coalescer, resource, "slow", "GET", "user")));
+            }
+            waitFor(() -> coalescer.getCoalescedCount() == FOLLOWERS);
+            resource.release.countDown();
+
+            for (Future<CarbonMessage> response : responses) {
+                CarbonMessage carbonMessage = response.get(5, TimeUnit.SECONDS);
+                assertEquals(200, carbonMessage.getProperty(
+                        org.wso2.carbon.transport.http.netty.common.Constants.HTTP_STATUS_CODE));
+                assertEquals("quote-1", body(carbonMessage));
+                assertEquals("1", carbonMessage.getHeader("X-Quote-Version"));
+            }
+            assertEquals(1, resource.invocations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRequestsWithDifferentKeysAreNotCoalesced() throws Exception {
+        QuoteResource resource = new QuoteResource();
+        RequestCoalescer coalescer = RequestCoalescer.of(QuoteResource.class.getMethod("get", String.class));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CarbonMessage> slow = executor.submit(() -> invoke(coalescer, resource, "slow", "GET", "user"));
+            assertTrue(resource.entered.await(5, TimeUnit.SECONDS));
+            // Another user, so the response of the slow request cannot be shared
+            assertEquals("quote-2", body(invoke(coalescer, resource, "fast", "GET", "admin")));
+            resource.release.countDown();
+            assertEquals("quote-1", body(slow.get(5, TimeUnit.SECONDS)));
+            assertEquals(0, coalescer.getCoalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsSharedWithWaitingRequests() throws Exception {
+        QuoteResource resource = new QuoteResource();
+        RequestCoalescer coalescer = RequestCoalescer.of(QuoteResource.class.getMethod("get", String.class));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<CarbonMessage> leader = executor.submit(() -> invoke(coalescer, resource, "fail", "GET", null));
+            assertTrue(resource.entered.await(5, TimeUnit.SECONDS));
+            Future<CarbonMessage> follower = executor.submit(() -> invoke(coalescer, resource, "fail", "GET", null));
+            waitFor(() -> coalescer.getCoalescedCount() == 1);
+            resource.release.countDown();
+            for (Future<CarbonMessage> response : Arrays.asList(leader, follower)) {
+                try {
+                    response.get(5, TimeUnit.SECONDS);
+                    fail("The failure of the invocation should be shared");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof InvocationTargetException);
+                }
+            }
+            assertEquals(1, resource.invocations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOnlyGetRequestsAreCoalesced() throws Exception {
+        assertNull(RequestCoalescer.of(QuoteResource.class.getMethod("update", String.class)));
+
+        QuoteResource resource = new QuoteResource();
+        resource.release.countDown();
+        RequestCoalescer coalescer = RequestCoalescer.of(QuoteResource.class.getMethod("get", String.class));
+        assertEquals("quote-1", body(invoke(coalescer, resource, "fast", "HEAD", null)));
+        assertEquals("quote-2", body(invoke(coalescer, resource, "fast", "HEAD", null)));
+    }
+
+    private static CarbonMessage invoke(RequestCoalescer coalescer, QuoteResource resource, String id,
+                                        String httpMethod, String authorization) throws Exception {
+        DefaultCarbonMessage carbonMessage = new DefaultCarbonMessage();
+        carbonMessage.setProperty(Constants.TO, URI);
+        carbonMessage.setProperty(org.wso2.carbon.transport.http.netty.common.Constants.HTTP_METHOD, httpMethod);
+        if (authorization != null) {
+            carbonMessage.setHeader("Authorization", authorization);
+        }
+        AtomicReference<CarbonMessage> sent = new AtomicReference<>();
+        Response response = new Response(sent::set);
+        response.setMediaType(MediaType.TEXT_PLAIN);
+        HttpMethodInfo httpMethodInfo = new HttpMethodInfo(QuoteResource.class.getMethod("get", String.class),
+                resource, new Object[]{id}, response);
+        coalescer.invoke(httpMethodInfo, new Request(carbonMessage), response);
+        return sent.get();
+    }
+
+    private static String body(CarbonMessage carbonMessage) {
+        return StandardCharsets.UTF_8.decode(BufferUtil.merge(carbonMessage.getFullMessageBody())).toString();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() - deadline > 0) {
+                fail("Condition was not met in time");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Resource which blocks the slow requests until it is released.
+     */
+    public static class QuoteResource {
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @GET
+        @Coalesce
+        public javax.ws.rs.core.Response get(String id) throws InterruptedException {
+            int invocation = invocations.incrementAndGet();
+            if (!"fast".equals(id)) {
+                entered.countDown();
+                release.await();
+            }
+            if ("fail".equals(id)) {
+                throw new IllegalStateException("Quote service is down");
+            }
+            return javax.ws.rs.core.Response.ok("quote-" + invocation).header("X-Quote-Version", invocation).build();
+        }
+
+        @POST
+        @Coalesce
+        public void update(String id) {
+        }
+    }
+}
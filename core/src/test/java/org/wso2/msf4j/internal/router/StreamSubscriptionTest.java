@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.internal.router;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.HttpStreamHandler;
+import org.wso2.msf4j.HttpStreamSubscription;
+import org.wso2.msf4j.HttpStreamer;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.io.RequestSizeLimitExceededException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests for streaming request bodies to HttpStreamHandlers through HttpMethodInfo.
+ */
+public class StreamSubscriptionTest {
+
+    private static final String BODY = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    public void testDefaultDemand() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        assertTrue(createMethodInfo(handler).stream(createRequest(5), -1));
+        assertEquals(BODY, handler.body.toString());
+        assertTrue(handler.ended);
+        assertNull(handler.error);
+    }
+
+    @Test
+    public void testDemandFromAnotherThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger outstanding = new AtomicInteger();
+        RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void onSubscribe(HttpStreamSubscription subscription) {
+                this.subscription = subscription;
+                requestLater(1);
+            }
+
+            @Override
+            public void chunk(ByteBuffer content) throws Exception {
+                if (outstanding.decrementAndGet() < 0) {
+                    fail("Chunk delivered without demand");
+                }
+                super.chunk(content);
+                requestLater(1);
+            }
+
+            private void requestLater(long n) {
+                executor.execute(() -> {
+                    try {
+                        Thread.sleep(2);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    outstanding.incrementAndGet();
+                    subscription.request(n);
+                });
+            }
+        };
+        try {
+            assertTrue(createMethodInfo(handler).stream(createRequest(4), -1));
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        assertEquals(BODY, handler.body.toString());
+        assertTrue(handler.ended);
+    }
+
+    @Test
+    public void testEndWithoutDemand() throws Exception {
+        RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void onSubscribe(HttpStreamSubscription subscription) {
+                this.subscription = subscription;
+                // Exactly the chunks of the body, 36 bytes in chunks of 12
+                subscription.request(3);
+            }
+        };
+        assertTrue(createMethodInfo(handler).stream(createRequest(12), -1));
+        assertEquals(BODY, handler.body.toString());
+        assertTrue(handler.ended);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void chunk(ByteBuffer content) throws Exception {
+                super.chunk(content);
+                subscription.cancel();
+            }
+        };
+        assertFalse(createMethodInfo(handler).stream(createRequest(10), -1));
+        assertEquals(BODY.substring(0, 10), handler.body.toString());
+        assertFalse(handler.ended);
+    }
+
+    @Test
+    public void testInvalidDemand() throws Exception {
+        RecordingHandler handler = new RecordingHandler() {
+            @Override
+            public void onSubscribe(HttpStreamSubscription subscription) {
+                subscription.request(0);
+            }
+        };
+        try {
+            createMethodInfo(handler).stream(createRequest(10), -1);
+            fail("Non positive demand should fail the stream");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(expected, handler.error);
+        }
+        assertEquals("", handler.body.toString());
+    }
+
+    @Test
+    public void testBodySizeLimit() throws Exception {
+        RecordingHandler handler = new RecordingHandler();
+        try {
+            createMethodInfo(handler).stream(createRequest(10), 15);
+            fail("Oversized body should fail the stream");
+        } catch (RequestSizeLimitExceededException expected) {
+            assertEquals(expected, handler.error);
+        }
+        assertEquals(BODY.substring(0, 10), handler.body.toString());
+        assertFalse(handler.ended);
+    }
+
+    private static HttpMethodInfo createMethodInfo(HttpStreamHandler handler) throws Exception {
+        StreamingResource resource = new StreamingResource(handler);
+        HttpStreamer httpStreamer = new HttpStreamer();
+        return new HttpMethodInfo(StreamingResource.class.getMethod("upload", HttpStreamer.class), resource,
+                new Object[]{httpStreamer}, new Response(message -> { }), httpStreamer);
+    }
+
+    private static Request createRequest(int chunkSize) {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        byte[] body = BODY.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < body.length; i += chunkSize) {
+            carbonMessage.addMessageBody(ByteBuffer.wrap(body, i, Math.min(chunkSize, body.length - i)));
+        }
+        // The transport ends a message with an empty chunk
+        carbonMessage.addMessageBody(ByteBuffer.allocate(0));
+        carbonMessage.setEndOfMsgAdded(true);
+        return new Request(carbonMessage);
+    }
+
+    /**
+     * Resource which streams the request body to the given handler.
+     */
+    public static class StreamingResource {
+
+        private final HttpStreamHandler handler;
+
+        StreamingResource(HttpStreamHandler handler) {
+            this.handler = handler;
+        }
+
+        public void upload(HttpStreamer httpStreamer) {
+            httpStreamer.callback(handler);
+        }
+    }
+
+    private static class RecordingHandler implements HttpStreamHandler {
+
+        final StringBuilder body = new StringBuilder();
+        volatile HttpStreamSubscription subscription;
+        boolean ended;
+        Throwable error;
+
+        @Override
+        public void init(Response response) {
+        }
+
+        @Override
+        public void onSubscribe(HttpStreamSubscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void chunk(ByteBuffer content) throws Exception {
+            body.append(StandardCharsets.US_ASCII.decode(content));
+        }
+
+        @Override
+        public void end() throws Exception {
+            ended = true;
+        }
+
+        @Override
+        public void error(Throwable cause) {
+            error = cause;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.io;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests for MSF4JRequestInputStream.
+ */
+public class MSF4JRequestInputStreamTest {
+
+    private static final String BODY = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    public void testBulkRead() throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(createRequest(5));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] bytes = new byte[7];
+        int read;
+        while ((read = inputStream.read(bytes, 0, bytes.length)) != -1) {
+            out.write(bytes, 0, read);
+        }
+        assertEquals(BODY, new String(out.toByteArray(), StandardCharsets.US_ASCII));
+        assertEquals(-1, inputStream.read());
+    }
+
+    @Test
+    public void testSingleByteReadAndSkip() throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(createRequest(4));
+        assertEquals('0', inputStream.read());
+        assertEquals(10, inputStream.skip(10));
+        assertEquals('b', inputStream.read());
+        assertEquals(BODY.length() - 12, inputStream.skip(100));
+        assertEquals(0, inputStream.skip(1));
+        assertEquals(-1, inputStream.read());
+    }
+
+    @Test
+    public void testByteBufferRead() throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(createRequest(3));
+        ByteBuffer destination = ByteBuffer.allocate(BODY.length() + 10);
+        while (inputStream.read(destination) != -1) {
+            assertEquals(0, inputStream.read(ByteBuffer.allocate(0)));
+        }
+        destination.flip();
+        assertEquals(BODY, StandardCharsets.US_ASCII.decode(destination).toString());
+    }
+
+    @Test
+    public void testTransferTo() throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(createRequest(8));
+        assertEquals('0', inputStream.read());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(BODY.length() - 1, inputStream.transferTo(out));
+        assertEquals(BODY.substring(1), new String(out.toByteArray(), StandardCharsets.US_ASCII));
+        assertNull(inputStream.readChunk());
+    }
+
+    @Test
+    public void testReadWaitsForChunks() throws Exception {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < BODY.length(); i += 6) {
+                    Thread.sleep(5);
+                    carbonMessage.addMessageBody(ByteBuffer.wrap(
+                            BODY.substring(i, Math.min(i + 6, BODY.length())).getBytes(StandardCharsets.US_ASCII)));
+                }
+                carbonMessage.addMessageBody(ByteBuffer.allocate(0));
+                carbonMessage.setEndOfMsgAdded(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(new Request(carbonMessage));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        inputStream.transferTo(out);
+        producer.join();
+        assertEquals(BODY, new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    private static Request createRequest(int chunkSize) {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        byte[] body = BODY.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < body.length; i += chunkSize) {
+            carbonMessage.addMessageBody(ByteBuffer.wrap(body, i, Math.min(chunkSize, body.length - i)));
+        }
+        // The transport ends a message with an empty chunk
+        carbonMessage.addMessageBody(ByteBuffer.allocate(0));
+        carbonMessage.setEndOfMsgAdded(true);
+        return new Request(carbonMessage);
+    }
+}
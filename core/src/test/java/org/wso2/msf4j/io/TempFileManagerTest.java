@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.io;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.internal.entitywriter.TransportDrainWatcher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for TempFileManager.
+ */
+public class TempFileManagerTest {
+
+    @Test
+    public void testFilesAreDeletedOnClose() throws IOException {
+        long outstandingBytes = TempFileManager.getOutstandingBytes();
+        int outstandingFiles = TempFileManager.getOutstandingFileCount();
+        TempFileManager tempFileManager = new TempFileManager();
+        Path first = tempFileManager.writeTempFile("first.txt", "first".getBytes(StandardCharsets.US_ASCII));
+        Path second = tempFileManager.writeTempFile("second.txt", "second".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals("first.txt", first.getFileName().toString());
+        assertTrue(first.startsWith(TempFileManager.getRoot()));
+        assertEquals("second", new String(Files.readAllBytes(second), StandardCharsets.US_ASCII));
+        assertEquals(outstandingBytes + 11, TempFileManager.getOutstandingBytes());
+        assertEquals(outstandingFiles + 2, TempFileManager.getOutstandingFileCount());
+
+        tempFileManager.close();
+        assertFalse(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertFalse(Files.exists(first.getParent()));
+        assertEquals(outstandingBytes, TempFileManager.getOutstandingBytes());
+        assertEquals(outstandingFiles, TempFileManager.getOutstandingFileCount());
+    }
+
+    @Test
+    public void testFilesOutliveStreamedResponse() throws Exception {
+        TempFileManager tempFileManager = new TempFileManager();
+        Path upload = tempFileManager.writeTempFile("upload.txt", "upload".getBytes(StandardCharsets.US_ASCII));
+        DefaultCarbonMessage response = new DefaultCarbonMessage();
+        TransportDrainWatcher.whenEnded(response, tempFileManager::close);
+
+        Thread.sleep(50);
+        assertTrue("The response is still being streamed", Files.exists(upload));
+        response.setEndOfMsgAdded(true);
+        for (int i = 0; i < 300 && Files.exists(upload); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(upload));
+    }
+
+    @Test
+    public void testPreallocatedFileIsTruncatedToWrittenSize() throws IOException {
+        long outstandingBytes = TempFileManager.getOutstandingBytes();
+        try (TempFileManager tempFileManager = new TempFileManager()) {
+            Path file = tempFileManager.createTempFile("upload.bin");
+            OutputStream outputStream = tempFileManager.openOutputStream(file, 1024);
+            assertEquals(1024, Files.size(file));
+            assertEquals(outstandingBytes + 1024, TempFileManager.getOutstandingBytes());
+
+            outputStream.write(new byte[100]);
+            outputStream.close();
+            assertEquals(100, Files.size(file));
+            assertEquals(outstandingBytes + 100, TempFileManager.getOutstandingBytes());
+        }
+        assertEquals(outstandingBytes, TempFileManager.getOutstandingBytes());
+    }
+
+    @Test
+    public void testWritingBeyondExpectedSize() throws IOException {
+        long outstandingBytes = TempFileManager.getOutstandingBytes();
+        try (TempFileManager tempFileManager = new TempFileManager()) {
+            Path file = tempFileManager.createTempFile("upload.bin");
+            try (OutputStream outputStream = tempFileManager.openOutputStream(file, 10)) {
+                outputStream.write(new byte[8]);
+                outputStream.write(new byte[8]);
+                outputStream.write(1);
+            }
+            assertEquals(17, Files.size(file));
+            assertEquals(outstandingBytes + 17, TempFileManager.getOutstandingBytes());
+        }
+        assertEquals(outstandingBytes, TempFileManager.getOutstandingBytes());
+    }
+
+    @Test
+    public void testFileNames() throws IOException {
+        try (TempFileManager tempFileManager = new TempFileManager()) {
+            Path first = tempFileManager.createTempFile("same.txt");
+            Path second = tempFileManager.createTempFile("same.txt");
+            assertEquals("same.txt", second.getFileName().toString());
+            assertFalse(first.getParent().equals(second.getParent()));
+
+            Path traversal = tempFileManager.createTempFile("../../escape.txt");
+            assertEquals(first.getParent(), traversal.getParent());
+            assertEquals("upload", tempFileManager.createTempFile("").getFileName().toString());
+        }
+    }
+}
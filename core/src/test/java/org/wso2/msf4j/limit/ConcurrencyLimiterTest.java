@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.limit;
+
+import org.testng.annotations.Test;
+import org.wso2.msf4j.ConcurrencyLimit;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the admission and the limit algorithms of {@link ConcurrencyLimiter}.
+ */
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testStaticLimitRejectsRequestsOverTheLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("static", ConcurrencyLimit.Algorithm.STATIC, 2, 1, 2, 5);
+        long start = System.nanoTime();
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(start, true);
+        assertEquals(2, limiter.getLimit());
+        assertTrue(limiter.tryAcquire());
+        assertEquals(3, limiter.getAcceptedCount());
+        assertEquals(1, limiter.getRejectedCount());
+        assertEquals(5, limiter.getRetryAfterSeconds());
+    }
+
+    @Test
+    public void testAimdLimitGrowsWhenUsedAndBacksOffOnFailures() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("aimd", ConcurrencyLimit.Algorithm.AIMD, 10, 2, 12, 1);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.release(System.nanoTime(), false);
+        }
+        assertEquals(12, limiter.getLimit());
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(System.nanoTime(), true);
+        assertEquals(10, limiter.getLimit());
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(System.nanoTime(), true);
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    public void testAimdLimitDoesNotGrowWhileIdle() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("idle", ConcurrencyLimit.Algorithm.AIMD, 10, 1, 100, 1);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(System.nanoTime(), false);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testGradientLimitShrinksWhenLatencyGrows() {
+        GradientLimit gradientLimit = new GradientLimit(100, 1, 200);
+        long baseLatency = TimeUnit.MILLISECONDS.toNanos(1);
+        for (int i = 0; i < 20; i++) {
+            gradientLimit.onSample(baseLatency, gradientLimit.getLimit(), false);
+        }
+        int unloadedLimit = gradientLimit.getLimit();
+        assertTrue("Limit should grow while latency is stable, was " + unloadedLimit, unloadedLimit > 100);
+
+        for (int i = 0; i < 20; i++) {
+            gradientLimit.onSample(baseLatency * 4, gradientLimit.getLimit(), false);
+        }
+        int loadedLimit = gradientLimit.getLimit();
+        assertTrue("Limit should shrink when latency grows, was " + loadedLimit, loadedLimit < unloadedLimit / 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInitialLimitOutsideOfBoundsIsRejected() {
+        new ConcurrencyLimiter("invalid", ConcurrencyLimit.Algorithm.GRADIENT, 50, 1, 10, 1);
+    }
+
+    @Test
+    public void testLimiterIsResolvedFromTheAnnotations() throws NoSuchMethodException {
+        Optional<ConcurrencyLimiter> methodLimiter =
+                ConcurrencyLimiters.forMethod(LimitedService.class.getMethod("limited"));
+        assertTrue(methodLimiter.isPresent());
+        assertEquals(ConcurrencyLimit.Algorithm.AIMD, methodLimiter.get().getAlgorithm());
+        assertEquals(5, methodLimiter.get().getLimit());
+
+        Optional<ConcurrencyLimiter> classLimiter =
+                ConcurrencyLimiters.forMethod(LimitedService.class.getMethod("inherited"));
+        assertTrue(classLimiter.isPresent());
+        assertEquals(ConcurrencyLimit.Algorithm.STATIC, classLimiter.get().getAlgorithm());
+        assertEquals(20, classLimiter.get().getLimit());
+        assertTrue(ConcurrencyLimiters.getRouteLimiters().contains(classLimiter.get()));
+
+        assertFalse(ConcurrencyLimiters.forMethod(Object.class.getMethod("toString")).isPresent());
+    }
+
+    @Test
+    public void testOverloadedMethodsHaveTheirOwnLimiters() throws NoSuchMethodException {
+        ConcurrencyLimiter noArguments =
+                ConcurrencyLimiters.forMethod(LimitedService.class.getMethod("overloaded")).get();
+        ConcurrencyLimiter withArguments = ConcurrencyLimiters.forMethod(
+                LimitedService.class.getMethod("overloaded", String.class, int[].class)).get();
+
+        assertEquals(LimitedService.class.getName() + ".overloaded()", noArguments.getName());
+        assertEquals(LimitedService.class.getName() + ".overloaded(java.lang.String,int[])", withArguments.getName());
+        assertTrue(ConcurrencyLimiters.getRouteLimiters().contains(noArguments));
+        assertTrue(ConcurrencyLimiters.getRouteLimiters().contains(withArguments));
+    }
+
+    @ConcurrencyLimit(20)
+    private static class LimitedService {
+
+        @ConcurrencyLimit(value = 5, algorithm = ConcurrencyLimit.Algorithm.AIMD, maxLimit = 10)
+        public void limited() {
+        }
+
+        public void inherited() {
+        }
+
+        public void overloaded() {
+        }
+
+        public void overloaded(String id, int[] values) {
+        }
+    }
+}
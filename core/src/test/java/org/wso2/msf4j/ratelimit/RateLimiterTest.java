@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.ratelimit;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.Constants;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link RateLimiter}, the key extractors and {@link RateLimitInterceptor}.
+ */
+public class RateLimiterTest {
+
+    @Test
+    public void testRequestsOverTheLimitAreRejected() {
+        RateLimiter rateLimiter = new RateLimiter(3, 1, TimeUnit.MINUTES);
+        assertEquals(2, rateLimiter.tryAcquire("key").getRemaining());
+        assertEquals(1, rateLimiter.tryAcquire("key").getRemaining());
+        RateLimitResult last = rateLimiter.tryAcquire("key");
+        assertTrue(last.isAllowed());
+        assertEquals(0, last.getRemaining());
+        assertEquals(0, last.getRetryAfterSeconds());
+
+        RateLimitResult rejected = rateLimiter.tryAcquire("key");
+        assertFalse(rejected.isAllowed());
+        assertEquals(3, rejected.getLimit());
+        // One token is refilled every 20 seconds
+        assertEquals(20, rejected.getRetryAfterSeconds());
+        assertEquals(60, rejected.getResetSeconds());
+        assertEquals(3, rateLimiter.getAllowedCount());
+        assertEquals(1, rateLimiter.getRejectedCount());
+
+        assertTrue("Keys should have their own buckets", rateLimiter.tryAcquire("other").isAllowed());
+    }
+
+    @Test
+    public void testTokensAreRefilled() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(2, 200, TimeUnit.MILLISECONDS);
+        assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+        assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+        assertFalse(rateLimiter.tryAcquire("key").isAllowed());
+        Thread.sleep(150);
+        assertTrue(rateLimiter.tryAcquire("key").isAllowed());
+    }
+
+    @Test
+    public void testNumberOfKeysIsBounded() {
+        RateLimiter rateLimiter = new RateLimiter(10, 1, TimeUnit.MINUTES, 4096);
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(rateLimiter.tryAcquire("client-" + i).isAllowed());
+        }
+        assertTrue("Too many keys: " + rateLimiter.getKeyCount(), rateLimiter.getKeyCount() <= 4096);
+    }
+
+    @Test
+    public void testKeyExtractors() {
+        String claims = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"alice\"}".getBytes(StandardCharsets.UTF_8));
+        String jwt = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "." + claims + ".";
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        carbonMessage.setHeader("X-API-Key", "key-1");
+        carbonMessage.setHeader("X-Forwarded-For", "10.0.0.1, 10.0.0.2");
+        carbonMessage.setHeader("Authorization", "Bearer " + jwt);
+        Request request = new Request(carbonMessage);
+
+        assertEquals("key-1", RateLimitKeyExtractors.header("X-API-Key").getKey(request));
+        assertEquals("10.0.0.1", RateLimitKeyExtractors.forwardedFor().getKey(request));
+        assertEquals("alice", RateLimitKeyExtractors.jwtClaim("Authorization", "sub").getKey(request));
+        assertNull(RateLimitKeyExtractors.jwtClaim("sub").getKey(request));
+        assertNull(RateLimitKeyExtractors.remoteAddress().getKey(request));
+    }
+
+    @Test
+    public void testInterceptorAddsHeadersAndRejectsWith429() throws Exception {
+        RateLimitInterceptor interceptor =
+                new RateLimitInterceptor(new RateLimiter(1, 1, TimeUnit.MINUTES), RateLimitKeyExtractors.header("Key"));
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        carbonMessage.setHeader("Key", "client");
+        Request request = new Request(carbonMessage);
+
+        AtomicReference<CarbonMessage> sent = new AtomicReference<>();
+        Response allowedResponse = new Response(sent::set);
+        assertTrue(interceptor.preCall(request, allowedResponse, null));
+        assertEquals("1", allowedResponse.getHeader(RateLimitInterceptor.RATE_LIMIT_LIMIT));
+        assertEquals("0", allowedResponse.getHeader(RateLimitInterceptor.RATE_LIMIT_REMAINING));
+        assertNull(sent.get());
+
+        Response rejectedResponse = new Response(sent::set);
+        assertFalse(interceptor.preCall(request, rejectedResponse, null));
+        assertEquals(429, sent.get().getProperty(Constants.HTTP_STATUS_CODE));
+        assertEquals("60", sent.get().getHeader("Retry-After"));
+    }
+}
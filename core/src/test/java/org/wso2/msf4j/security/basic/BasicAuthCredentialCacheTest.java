@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.security.basic;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for BasicAuthCredentialCache.
+ */
+public class BasicAuthCredentialCacheTest {
+
+    private static final String HEADER_1 = "Basic dXNlcjE6cGFzczE=";
+    private static final String HEADER_2 = "Basic dXNlcjI6cGFzczI=";
+
+    @Test
+    public void testHitAndMissCounters() {
+        BasicAuthCredentialCache cache = new BasicAuthCredentialCache(1, TimeUnit.MINUTES, 10);
+        assertFalse(cache.isAuthenticated(HEADER_1));
+        cache.authenticated(HEADER_1);
+        assertTrue(cache.isAuthenticated(HEADER_1));
+        assertTrue(cache.isAuthenticated(HEADER_1));
+        assertFalse(cache.isAuthenticated(HEADER_2));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        BasicAuthCredentialCache cache = new BasicAuthCredentialCache(50, TimeUnit.MILLISECONDS, 10);
+        cache.authenticated(HEADER_1);
+        assertTrue(cache.isAuthenticated(HEADER_1));
+        Thread.sleep(100);
+        assertFalse(cache.isAuthenticated(HEADER_1));
+    }
+
+    @Test
+    public void testMaxSize() {
+        BasicAuthCredentialCache cache = new BasicAuthCredentialCache(1, TimeUnit.MINUTES, 1);
+        cache.authenticated(HEADER_1);
+        cache.authenticated(HEADER_2);
+        assertEquals(1, cache.size());
+        assertTrue(cache.isAuthenticated(HEADER_2));
+    }
+
+    @Test
+    public void testInvalidateAll() {
+        BasicAuthCredentialCache cache = new BasicAuthCredentialCache(1, TimeUnit.MINUTES, 10);
+        cache.authenticated(HEADER_1);
+        cache.invalidateAll();
+        assertFalse(cache.isAuthenticated(HEADER_1));
+    }
+}
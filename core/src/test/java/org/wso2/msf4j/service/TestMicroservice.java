@@ -28,6 +28,7 @@ import org.wso2.msf4j.HttpStreamHandler;
 import org.wso2.msf4j.HttpStreamer;
 import org.wso2.msf4j.Microservice;
 import org.wso2.msf4j.Request;
+import org.wso2.msf4j.RequestLimits;
 import org.wso2.msf4j.exception.MappedException;
 import org.wso2.msf4j.exception.MappedException2;
 import org.wso2.msf4j.formparam.FileInfo;
@@ -52,9 +53,12 @@ import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
@@ -552,6 +556,48 @@ public class TestMicroservice implements Microservice {
         return Response.ok().entity(response).build();
     }
 
+    @POST
+    @Path("/streamFormItems")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    public Response streamFormItems(@Context Iterator<FormItem> formItems) throws IOException {
+        StringBuilder response = new StringBuilder();
+        byte[] buffer = new byte[1024];
+        while (formItems.hasNext()) {
+            FormItem item = formItems.next();
+            long size = 0;
+            try (InputStream inputStream = item.openStream()) {
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    size += read;
+                }
+            }
+            response.append(item.getFieldName()).append('=').append(size).append(';');
+        }
+        return Response.ok().entity(response.toString()).build();
+    }
+
+    @POST
+    @Path("/limitedBody")
+    @RequestLimits(maxBodySize = 16)
+    public String limitedBody(String body) {
+        return body;
+    }
+
+    @POST
+    @Path("/limitedForm")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @RequestLimits(maxPartCount = 2, maxPartSize = 2048, memoryThreshold = 0)
+    public Response limitedForm(@FormDataParam("file") File file) {
+        return Response.ok().entity(file.getName() + ":" + file.length()).build();
+    }
+
+    @GET
+    @Path("/streamNumbers")
+    @Produces({"application/x-ndjson", MediaType.APPLICATION_JSON})
+    public Stream<Integer> streamNumbers(@QueryParam("count") int count) {
+        return IntStream.range(0, count).boxed();
+    }
+
     @POST
     @Path("/complexForm")
     @Consumes(MediaType.MULTIPART_FORM_DATA)
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.sse;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Response;
+import org.wso2.msf4j.internal.entitywriter.SseEventStreamEntityWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests for {@link SseBroadcaster}.
+ */
+public class SseBroadcasterTest {
+
+    @Test
+    public void testBroadcast() throws Exception {
+        SseBroadcaster broadcaster = new SseBroadcaster();
+        CarbonMessage first = connect(broadcaster, null);
+        CarbonMessage second = connect(broadcaster, null);
+        assertEquals(2, broadcaster.getSubscriberCount());
+        assertEquals(SseEvent.MEDIA_TYPE, first.getHeader("Content-Type"));
+        assertEquals("no-cache", first.getHeader("Cache-Control"));
+
+        broadcaster.broadcast("first");
+        broadcaster.broadcast(new SseEvent("quote", "multi\nline"));
+        broadcaster.broadcast(new SseEvent("custom-id", null, 42));
+        broadcaster.close();
+
+        String expected = "id: 1\ndata: first\n\n"
+                + "id: 2\nevent: quote\ndata: multi\ndata: line\n\n"
+                + "id: custom-id\ndata: 42\n\n";
+        assertEquals(expected, readBody(first));
+        assertEquals(expected, readBody(second));
+        assertEquals(0, broadcaster.getSubscriberCount());
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        SseBroadcaster broadcaster = new SseBroadcaster(3, 10, 0, TimeUnit.SECONDS);
+        for (int i = 0; i < 5; i++) {
+            broadcaster.broadcast("event-" + i);
+        }
+        CarbonMessage resumed = connect(broadcaster, "3");
+        CarbonMessage unknown = connect(broadcaster, "1");
+        CarbonMessage fresh = connect(broadcaster, null);
+        broadcaster.close();
+
+        assertEquals("id: 4\ndata: event-3\n\nid: 5\ndata: event-4\n\n", readBody(resumed));
+        // The event is too old to be replayed, so the client gets whatever is retained
+        assertEquals("id: 3\ndata: event-2\n\nid: 4\ndata: event-3\n\nid: 5\ndata: event-4\n\n",
+                readBody(unknown));
+        assertEquals("", readBody(fresh));
+    }
+
+    @Test
+    public void testHeartbeat() throws Exception {
+        SseBroadcaster broadcaster = new SseBroadcaster(0, 10, 20, TimeUnit.MILLISECONDS);
+        CarbonMessage carbonMessage = connect(broadcaster, null);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (carbonMessage.isEmpty()) {
+            assertTrue("No heartbeat was sent", System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+        assertEquals(":\n\n", StandardCharsets.UTF_8.decode(carbonMessage.getMessageBody()).toString());
+        broadcaster.close();
+    }
+
+    @Test
+    public void testSlowConsumerIsEvicted() throws Exception {
+        SseBroadcaster broadcaster = new SseBroadcaster(10, 2, 0, TimeUnit.SECONDS);
+        CarbonMessage slow = connect(broadcaster, null);
+        // The first event is handed to the transport, which never writes it, and the next two are queued
+        for (int i = 0; i < 3; i++) {
+            broadcaster.broadcast("event-" + i);
+        }
+        assertEquals(1, broadcaster.getSubscriberCount());
+        broadcaster.broadcast("event-3");
+        assertEquals(0, broadcaster.getSubscriberCount());
+        assertEquals(1, broadcaster.getEvictionCount());
+        assertEquals("id: 1\ndata: event-0\n\n", readBody(slow));
+
+        // The client catches up by reconnecting
+        CarbonMessage reconnected = connect(broadcaster, "1");
+        broadcaster.close();
+        assertEquals("id: 2\ndata: event-1\n\nid: 3\ndata: event-2\n\nid: 4\ndata: event-3\n\n",
+                readBody(reconnected));
+    }
+
+    private static CarbonMessage connect(SseBroadcaster broadcaster, String lastEventId) {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        new SseEventStreamEntityWriter().writeData(carbonMessage, broadcaster.subscribe(lastEventId),
+                SseEvent.MEDIA_TYPE, Response.DEFAULT_CHUNK_SIZE, message -> { });
+        return carbonMessage;
+    }
+
+    /**
+     * Take the body off the message the way the transport does, until the end of the message.
+     */
+    private static String readBody(CarbonMessage carbonMessage) throws InterruptedException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!(carbonMessage.isEndOfMsgAdded() && carbonMessage.isEmpty())) {
+            if (carbonMessage.isEmpty()) {
+                assertTrue("Response was not completed", System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+                continue;
+            }
+            ByteBuffer chunk = carbonMessage.getMessageBody();
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            body.write(bytes, 0, bytes.length);
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -22,6 +22,8 @@ import org.testng.annotations.Test;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -30,7 +32,9 @@ import java.util.Map.Entry;
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
 
 /**
  * Tests for QueryStringDecoderUtil.
@@ -290,4 +294,47 @@ public class QueryStringDecoderUtilTest {
 
         assertFalse(entries.hasNext());
     }
+
+    @Test
+    public void testLazyParameter() {
+        QueryStringDecoderUtil d = new QueryStringDecoderUtil("/foo?a=1&b=x+y&c&a=2;%61%62=%25&d=%zz&e=");
+        assertEquals(Arrays.asList("1", "2"), d.parameter("a"));
+        assertEquals(Collections.singletonList("x y"), d.parameter("b"));
+        assertEquals(Collections.singletonList(""), d.parameter("c"));
+        assertEquals(Collections.singletonList("%"), d.parameter("ab"));
+        assertEquals(Collections.singletonList(""), d.parameter("e"));
+        assertNull(d.parameter("%61%62"));
+        assertNull(d.parameter("missing"));
+        // Values are only decoded on access, so a malformed value does not affect the other parameters
+        try {
+            d.parameter("d");
+            fail("Malformed value should not be decoded");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("%zz"));
+        }
+
+        assertNull(new QueryStringDecoderUtil("/foo").parameter("a"));
+        assertNull(new QueryStringDecoderUtil("/foo?").parameter("a"));
+        assertEquals(Collections.singletonList("1"), new QueryStringDecoderUtil("a=1", false).parameter("a"));
+    }
+
+    @Test
+    public void testLazyParameterMatchesParameters() {
+        String[] uris = {"/foo?a=b=c", "/foo?a=1&a=&a=", "/foo?&a&b=&=c&", "/foo?a=%E2%82%AC;b=%2B+1", "/foo?=",
+                "/foo?a+b=1&a%20b=2"};
+        for (String uri : uris) {
+            QueryStringDecoderUtil decoder = new QueryStringDecoderUtil(uri);
+            for (Entry<String, List<String>> entry : new QueryStringDecoderUtil(uri).parameters().entrySet()) {
+                assertEquals(uri, entry.getValue(), decoder.parameter(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void testLazyParameterLimit() {
+        QueryStringDecoderUtil d = new QueryStringDecoderUtil("/foo?a=1&b=2&c=3", Charset.defaultCharset(), true, 2);
+        assertEquals(Collections.singletonList("2"), d.parameter("b"));
+        assertNull(d.parameter("c"));
+        assertEquals(2, d.parameters().size());
+    }
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.perftest.microbenchmarks;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.msf4j.internal.router.ParamConvertUtils;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting path and query parameter values with the converters created by {@link ParamConvertUtils}.
+ * The {@code reflective*} benchmarks convert the same values the way the query parameter converters used to,
+ * through {@code valueOf} and {@code fromString} methods looked up by reflection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParamConverterBenchmark {
+
+    private final String id = "12345";
+    private final List<String> limit = ImmutableList.of("50");
+    private final List<String> uuid = ImmutableList.of(UUID.randomUUID().toString());
+
+    private final Function<String, Object> pathLongConverter = ParamConvertUtils.createPathParamConverter(long.class);
+    private final Function<List<String>, Object> queryIntConverter =
+            ParamConvertUtils.createQueryParamConverter(int.class);
+    private final Function<List<String>, Object> queryUuidConverter =
+            ParamConvertUtils.createQueryParamConverter(UUID.class);
+
+    private final Method longValueOf;
+    private final Method uuidFromString;
+
+    public ParamConverterBenchmark() {
+        try {
+            longValueOf = Long.class.getMethod("valueOf", String.class);
+            uuidFromString = UUID.class.getMethod("fromString", String.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Benchmark
+    public Object pathParamLong() {
+        return pathLongConverter.apply(id);
+    }
+
+    @Benchmark
+    public Object reflectivePathParamLong() throws ReflectiveOperationException {
+        return longValueOf.invoke(null, id);
+    }
+
+    @Benchmark
+    public Object queryParamInt() {
+        return queryIntConverter.apply(limit);
+    }
+
+    @Benchmark
+    public Object queryParamUuid() {
+        return queryUuidConverter.apply(uuid);
+    }
+
+    @Benchmark
+    public Object reflectiveQueryParamUuid() throws ReflectiveOperationException {
+        return uuidFromString.invoke(null, uuid.get(0));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.perftest.microbenchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wso2.msf4j.util.QueryStringDecoderUtil;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving a few query parameters of a request with many of them, which is what a search endpoint with
+ * several optional {@code @QueryParam}s does for every request.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryStringDecoderBenchmark {
+
+    @Param({"32"})
+    private int paramCount;
+
+    @Param({"3"})
+    private int readCount;
+
+    private String uri;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void createUri() {
+        StringBuilder builder = new StringBuilder("/search?");
+        for (int i = 0; i < paramCount; i++) {
+            if (i > 0) {
+                builder.append('&');
+            }
+            // Every other value needs decoding
+            builder.append("param").append(i).append('=').append(i % 2 == 0 ? "value" + i : "value+%2F" + i);
+        }
+        uri = builder.toString();
+        names = new String[readCount];
+        for (int i = 0; i < readCount; i++) {
+            names[i] = "param" + (i * paramCount / readCount);
+        }
+    }
+
+    @Benchmark
+    public void decoderPerParameter(Blackhole blackhole) {
+        // One decoder per parameter, which is how query parameters used to be resolved
+        for (String name : names) {
+            blackhole.consume(new QueryStringDecoderUtil(uri).parameters().get(name));
+        }
+    }
+
+    @Benchmark
+    public void parameterMap(Blackhole blackhole) {
+        QueryStringDecoderUtil decoder = new QueryStringDecoderUtil(uri);
+        for (String name : names) {
+            blackhole.consume(decoder.parameters().get(name));
+        }
+    }
+
+    @Benchmark
+    public void lazyParameter(Blackhole blackhole) {
+        QueryStringDecoderUtil decoder = new QueryStringDecoderUtil(uri);
+        for (String name : names) {
+            blackhole.consume(decoder.parameter(name));
+        }
+    }
+}
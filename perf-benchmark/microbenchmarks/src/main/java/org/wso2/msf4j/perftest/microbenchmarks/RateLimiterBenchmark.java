@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.perftest.microbenchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.msf4j.ratelimit.RateLimitResult;
+import org.wso2.msf4j.ratelimit.RateLimiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a rate limit check with many distinct keys active at the same time, as with per client
+ * address limits on a busy public endpoint. All the keys are in the limiter before measuring starts, so the
+ * benchmark measures lookups and token updates rather than bucket creation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Threads(4)
+public class RateLimiterBenchmark {
+
+    @Param({"1000", "1000000", "4000000"})
+    private int keyCount;
+
+    private RateLimiter rateLimiter;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void createLimiter() {
+        // A limit which is never reached, so every check takes a token. Room for twice the keys keeps the stripes
+        // from evicting while they are filled up.
+        rateLimiter = new RateLimiter(Long.MAX_VALUE / TimeUnit.SECONDS.toNanos(1), 1, TimeUnit.SECONDS,
+                keyCount * 2);
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "10." + (i >>> 16 & 0xff) + '.' + (i >>> 8 & 0xff) + '.' + (i & 0xff) + '-' + i;
+            rateLimiter.tryAcquire(keys[i]);
+        }
+    }
+
+    @Benchmark
+    public RateLimitResult distinctKeys() {
+        return rateLimiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public RateLimitResult singleKey() {
+        // Every thread updates the same bucket
+        return rateLimiter.tryAcquire(keys[0]);
+    }
+}
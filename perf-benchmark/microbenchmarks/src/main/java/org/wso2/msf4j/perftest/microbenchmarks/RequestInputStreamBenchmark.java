@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://wso2.com) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wso2.msf4j.perftest.microbenchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wso2.carbon.messaging.CarbonMessage;
+import org.wso2.carbon.messaging.DefaultCarbonMessage;
+import org.wso2.msf4j.Request;
+import org.wso2.msf4j.io.MSF4JRequestInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast a request body can be read through {@link MSF4JRequestInputStream}. Each invocation reads a
+ * whole body, so the score multiplied by the body size gives the streaming throughput.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestInputStreamBenchmark {
+
+    @Param({"1048576"})
+    private int bodySize;
+
+    @Param({"8192"})
+    private int chunkSize;
+
+    private byte[] body;
+    private final byte[] readBuffer = new byte[8192];
+    private Request request;
+
+    @Setup(Level.Trial)
+    public void createBody() {
+        body = new byte[bodySize];
+        new Random(42).nextBytes(body);
+    }
+
+    @Setup(Level.Invocation)
+    public void createRequest() {
+        CarbonMessage carbonMessage = new DefaultCarbonMessage();
+        for (int i = 0; i < body.length; i += chunkSize) {
+            carbonMessage.addMessageBody(ByteBuffer.wrap(body, i, Math.min(chunkSize, body.length - i)));
+        }
+        carbonMessage.addMessageBody(ByteBuffer.allocate(0));
+        carbonMessage.setEndOfMsgAdded(true);
+        request = new Request(carbonMessage);
+    }
+
+    @Benchmark
+    public long perByteRead() throws IOException {
+        MSF4JRequestInputStream delegate = new MSF4JRequestInputStream(request);
+        // Only read() is available, so InputStream.read(byte[], int, int) copies one byte per call
+        InputStream inputStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return delegate.read();
+            }
+        };
+        long total = 0;
+        int read;
+        while ((read = inputStream.read(readBuffer, 0, readBuffer.length)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long bulkRead() throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(request);
+        long total = 0;
+        int read;
+        while ((read = inputStream.read(readBuffer, 0, readBuffer.length)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long chunkRead(Blackhole blackhole) throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(request);
+        long total = 0;
+        ByteBuffer chunk;
+        while ((chunk = inputStream.readChunk()) != null) {
+            blackhole.consume(chunk);
+            total += chunk.remaining();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long transferTo(Blackhole blackhole) throws IOException {
+        MSF4JRequestInputStream inputStream = new MSF4JRequestInputStream(request);
+        return inputStream.transferTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                blackhole.consume(bytes);
+            }
+        });
+    }
+}
@@ -16,6 +16,11 @@
 
 package org.example.service;
 
+import org.wso2.msf4j.circuitbreaker.CircuitBreaker;
+import org.wso2.msf4j.circuitbreaker.CircuitBreakerConfig;
+import org.wso2.msf4j.circuitbreaker.CircuitBreakers;
+
+import java.util.concurrent.TimeUnit;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -34,6 +39,16 @@ public class StockQuoteService {
 
     private StockQuoteDatabase db = new StockQuoteDatabase();
 
+    // Calls which take longer than 10ms count as slow. The circuit opens when half of the last 50 calls failed or
+    // were slow, and permits trial calls again after 5 seconds.
+    private CircuitBreaker circuitBreaker = CircuitBreakers.circuitBreaker("stockquote-db", new CircuitBreakerConfig()
+            .slidingWindowSize(50)
+            .minimumNumberOfCalls(50)
+            .failureRateThreshold(50)
+            .slowCallRateThreshold(50)
+            .slowCallDuration(10, TimeUnit.MILLISECONDS)
+            .waitDurationInOpenState(5, TimeUnit.SECONDS));
+
     /**
      * Retrieve a stock for a given symbol.
      * http://localhost:8080/stockquote/IBM
@@ -45,7 +60,10 @@ public class StockQuoteService {
     @Path("/{symbol}")
     @Produces({"application/json", "text/xml"})
     public Response getQuote(@PathParam("symbol") String symbol) {
-        Stock stock = new CircuitBreakerCommand(db, symbol).execute();
+        Stock stock = circuitBreaker.call(() -> db.getStock(symbol), e -> {
+            System.out.println("Serving from cache, circuit is " + circuitBreaker.getState());
+            return db.getCachedStock(symbol);
+        });
         return (stock == null) ?
                 Response.status(Response.Status.NOT_FOUND).build() :
                 Response.status(Response.Status.OK).entity(stock).build();
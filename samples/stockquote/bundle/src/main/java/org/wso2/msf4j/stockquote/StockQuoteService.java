@@ -32,6 +32,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.wso2.msf4j.Microservice;
 import org.wso2.msf4j.Request;
+import org.wso2.msf4j.sse.SseBroadcaster;
+import org.wso2.msf4j.sse.SseEvent;
+import org.wso2.msf4j.sse.SseEventStream;
 import org.wso2.msf4j.stockquote.exception.DuplicateSymbolException;
 import org.wso2.msf4j.stockquote.exception.SymbolNotFoundException;
 
@@ -39,6 +42,7 @@ import java.util.HashMap;
 import java.util.Map;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -71,6 +75,9 @@ public class StockQuoteService implements Microservice {
 
     private Map<String, Stock> stockQuotes = new HashMap<>();
 
+    // Pushes added stocks to the clients of /stockquote/updates.
+    private final SseBroadcaster stockUpdates = new SseBroadcaster();
+
     /**
      * Add initial stocks IBM, GOOG, AMZN.
      */
@@ -87,7 +94,7 @@ public class StockQuoteService implements Microservice {
 
     @Deactivate
     protected void deactivate(BundleContext bundleContext) {
-        // Nothing to do
+        stockUpdates.close();
     }
 
 
@@ -137,6 +144,24 @@ public class StockQuoteService implements Microservice {
             throw new DuplicateSymbolException("Symbol " + symbol + " already exists");
         }
         stockQuotes.put(symbol, stock);
+        stockUpdates.broadcast(new SseEvent("stock", stock));
+    }
+
+    /**
+     * Stream stocks as they are added, as server-sent events.
+     * curl -N http://localhost:8080/stockquote/updates
+     *
+     * @param lastEventId id of the last event received by a client which reconnects. Missed events are sent first.
+     * @return stream of added stocks
+     */
+    @GET
+    @Path("/updates")
+    @Produces(SseEvent.MEDIA_TYPE)
+    @ApiOperation(
+            value = "Stream added stocks",
+            notes = "Sends each stock item added from now on as a server-sent event")
+    public SseEventStream getUpdates(@HeaderParam("Last-Event-ID") String lastEventId) {
+        return stockUpdates.subscribe(lastEventId);
     }
 
     /**
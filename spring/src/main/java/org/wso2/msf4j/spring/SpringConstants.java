@@ -31,4 +31,11 @@ public class SpringConstants {
     public static final String PARAMETER_STR = ".parameter.";
     public static final String DEFAULT_HOST = "0.0.0.0";
 
+    // Listener parameters for the socket options of a transport, as read by the carbon listener
+    public static final String TCP_NO_DELAY_PARAMETER = "server.bootstrap.nodelay";
+    public static final String SO_BACKLOG_PARAMETER = "server.bootstrap.socket.backlog";
+    public static final String SEND_BUFFER_SIZE_PARAMETER = "server.bootstrap.sendbuffersize";
+    // Spelled the way the carbon listener reads it
+    public static final String RECEIVE_BUFFER_SIZE_PARAMETER = "server.bootstrap.recievebuffersize";
+
 }
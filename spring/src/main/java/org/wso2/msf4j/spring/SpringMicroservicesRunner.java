@@ -36,6 +36,7 @@ import org.wso2.msf4j.spring.transport.TransportConfig;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.ws.rs.Path;
@@ -138,7 +139,9 @@ public class SpringMicroservicesRunner extends MicroservicesRunner implements Ap
                                                                          transportConfig.getPort());
         listenerConfig.setScheme(transportConfig.getScheme());
         List<Parameter> parameters = new ArrayList<>();
-        for (Map.Entry<String, String> entry : transportConfig.getParameters().entrySet()) {
+        Map<String, String> transportParameters = new HashMap<>(transportConfig.getSocketOptionParameters());
+        transportParameters.putAll(transportConfig.getParameters());
+        for (Map.Entry<String, String> entry : transportParameters.entrySet()) {
             parameters.add(createParameter(entry.getKey(), entry.getValue()));
         }
 
@@ -65,6 +65,26 @@ public class HTTPSTransportConfig extends TransportConfig {
         super.setCertPassProperty(certPass);
     }
 
+    @Value("${https.nodelay:}")
+    public void setTcpNoDelayProperty(String tcpNoDelay) {
+        super.setTcpNoDelayProperty(tcpNoDelay);
+    }
+
+    @Value("${https.backlog:}")
+    public void setSoBacklogProperty(String soBacklog) {
+        super.setSoBacklogProperty(soBacklog);
+    }
+
+    @Value("${https.sendbuffersize:}")
+    public void setSendBufferSizeProperty(String sendBufferSize) {
+        super.setSendBufferSizeProperty(sendBufferSize);
+    }
+
+    @Value("${https.receivebuffersize:}")
+    public void setReceiveBufferSizeProperty(String receiveBufferSize) {
+        super.setReceiveBufferSizeProperty(receiveBufferSize);
+    }
+
     public HTTPSTransportConfig port(int port) {
         setPort(port);
         return this;
@@ -99,4 +119,24 @@ public class HTTPSTransportConfig extends TransportConfig {
         setEnabled(true);
         return this;
     }
+
+    public HTTPSTransportConfig tcpNoDelay(boolean tcpNoDelay) {
+        setTcpNoDelay(tcpNoDelay);
+        return this;
+    }
+
+    public HTTPSTransportConfig backlog(int backlog) {
+        setSoBacklog(backlog);
+        return this;
+    }
+
+    public HTTPSTransportConfig sendBufferSize(int sendBufferSize) {
+        setSendBufferSize(sendBufferSize);
+        return this;
+    }
+
+    public HTTPSTransportConfig receiveBufferSize(int receiveBufferSize) {
+        setReceiveBufferSize(receiveBufferSize);
+        return this;
+    }
 }
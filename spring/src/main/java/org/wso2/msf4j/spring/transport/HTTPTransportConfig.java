@@ -55,6 +55,26 @@ public class HTTPTransportConfig extends TransportConfig {
         super.setHostProperty(host);
     }
 
+    @Value("${http.nodelay:}")
+    public void setTcpNoDelayProperty(String tcpNoDelay) {
+        super.setTcpNoDelayProperty(tcpNoDelay);
+    }
+
+    @Value("${http.backlog:}")
+    public void setSoBacklogProperty(String soBacklog) {
+        super.setSoBacklogProperty(soBacklog);
+    }
+
+    @Value("${http.sendbuffersize:}")
+    public void setSendBufferSizeProperty(String sendBufferSize) {
+        super.setSendBufferSizeProperty(sendBufferSize);
+    }
+
+    @Value("${http.receivebuffersize:}")
+    public void setReceiveBufferSizeProperty(String receiveBufferSize) {
+        super.setReceiveBufferSizeProperty(receiveBufferSize);
+    }
+
     public HTTPTransportConfig port(int port) {
         setPort(port);
         return this;
@@ -74,4 +94,24 @@ public class HTTPTransportConfig extends TransportConfig {
         setEnabled(true);
         return this;
     }
+
+    public HTTPTransportConfig tcpNoDelay(boolean tcpNoDelay) {
+        setTcpNoDelay(tcpNoDelay);
+        return this;
+    }
+
+    public HTTPTransportConfig backlog(int backlog) {
+        setSoBacklog(backlog);
+        return this;
+    }
+
+    public HTTPTransportConfig sendBufferSize(int sendBufferSize) {
+        setSendBufferSize(sendBufferSize);
+        return this;
+    }
+
+    public HTTPTransportConfig receiveBufferSize(int receiveBufferSize) {
+        setReceiveBufferSize(receiveBufferSize);
+        return this;
+    }
 }
@@ -25,7 +25,9 @@ import org.wso2.msf4j.spring.SpringConstants;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Function;
 import javax.annotation.PostConstruct;
 
 /**
@@ -46,6 +48,10 @@ public abstract class TransportConfig implements BeanNameAware {
     private String bossThreadPoolSizeProperty;
     private String workerThreadPoolSizeProperty;
     private String execHandlerThreadPoolSizeProperty;
+    private String tcpNoDelayProperty;
+    private String soBacklogProperty;
+    private String sendBufferSizeProperty;
+    private String receiveBufferSizeProperty;
     private Boolean enabled;
     private Integer port;
     private String host;
@@ -56,6 +62,10 @@ public abstract class TransportConfig implements BeanNameAware {
     private Integer bossThreadPoolSize;
     private Integer workerThreadPoolSize;
     private Integer execHandlerThreadPoolSize;
+    private Boolean tcpNoDelay;
+    private Integer soBacklog;
+    private Integer sendBufferSize;
+    private Integer receiveBufferSize;
     private String beanName;
     private Map<String, String> parameters = new HashMap<>();
 
@@ -74,6 +84,11 @@ public abstract class TransportConfig implements BeanNameAware {
             certPass = resolveKeyCertPass();
 
         }
+        tcpNoDelay = resolve(tcpNoDelayProperty, tcpNoDelay, Boolean::valueOf);
+        soBacklog = resolve(soBacklogProperty, soBacklog, Integer::valueOf);
+        sendBufferSize = resolve(sendBufferSizeProperty, sendBufferSize, Integer::valueOf);
+        receiveBufferSize = resolve(receiveBufferSizeProperty, receiveBufferSize, Integer::valueOf);
+        validateSocketOptions();
 
         for (Iterator it = ((AbstractEnvironment) env).getPropertySources().iterator(); it.hasNext(); ) {
             Object propertySource = it.next();
@@ -96,6 +111,49 @@ public abstract class TransportConfig implements BeanNameAware {
         this.beanName = name;
     }
 
+    private static <T> T resolve(String property, T value, Function<String, T> parser) {
+        if (property != null && !property.isEmpty()) {
+            return parser.apply(property.trim());
+        }
+        return value;
+    }
+
+    /**
+     * Check the socket options of the transport.
+     *
+     * @throws IllegalArgumentException if an option has an invalid value
+     */
+    public void validateSocketOptions() {
+        requirePositive("SO_BACKLOG", soBacklog);
+        requirePositive("send buffer size", sendBufferSize);
+        requirePositive("receive buffer size", receiveBufferSize);
+    }
+
+    /**
+     * @return the configured socket options as listener parameters, without the options which are not set
+     */
+    public Map<String, String> getSocketOptionParameters() {
+        Map<String, String> socketOptions = new LinkedHashMap<>();
+        putIfSet(socketOptions, SpringConstants.TCP_NO_DELAY_PARAMETER, tcpNoDelay);
+        putIfSet(socketOptions, SpringConstants.SO_BACKLOG_PARAMETER, soBacklog);
+        putIfSet(socketOptions, SpringConstants.SEND_BUFFER_SIZE_PARAMETER, sendBufferSize);
+        putIfSet(socketOptions, SpringConstants.RECEIVE_BUFFER_SIZE_PARAMETER, receiveBufferSize);
+        return socketOptions;
+    }
+
+    private void requirePositive(String option, Integer value) {
+        if (value != null && value <= 0) {
+            throw new IllegalArgumentException("The " + option + " of transport " + id +
+                    " should be a positive value, not " + value);
+        }
+    }
+
+    private static void putIfSet(Map<String, String> parameters, String name, Object value) {
+        if (value != null) {
+            parameters.put(name, value.toString());
+        }
+    }
+
     private String resolveKeyCertPass() {
         if (!keyStorePassProperty.isEmpty()) {
             return keyStorePassProperty;
@@ -316,6 +374,45 @@ public abstract class TransportConfig implements BeanNameAware {
         this.execHandlerThreadPoolSize = execHandlerThreadPoolSize;
     }
 
+    public void setTcpNoDelayProperty(String tcpNoDelayProperty) {
+        this.tcpNoDelayProperty = tcpNoDelayProperty;
+    }
+
+    public void setSoBacklogProperty(String soBacklogProperty) {
+        this.soBacklogProperty = soBacklogProperty;
+    }
+
+    public void setSendBufferSizeProperty(String sendBufferSizeProperty) {
+        this.sendBufferSizeProperty = sendBufferSizeProperty;
+    }
+
+    public void setReceiveBufferSizeProperty(String receiveBufferSizeProperty) {
+        this.receiveBufferSizeProperty = receiveBufferSizeProperty;
+    }
+
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+
+    public void setSoBacklog(int soBacklog) {
+        this.soBacklog = soBacklog;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    /**
+     * Set the listener parameters, which are passed to the carbon transport as they are and take precedence over
+     * the socket options. Socket options such as epoll, SO_REUSEPORT, the allocator or the write buffer water marks
+     * are not exposed, since the carbon 2.1.1 listener does not read them.
+     *
+     * @param parameters listener parameters
+     */
     public void setParameters(Map<String, String> parameters) {
         this.parameters = parameters;
     }
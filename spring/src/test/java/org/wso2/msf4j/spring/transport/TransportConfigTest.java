@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.msf4j.spring.transport;
+
+import org.testng.annotations.Test;
+import org.wso2.msf4j.spring.SpringConstants;
+
+import java.util.Map;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the socket options of {@link TransportConfig}.
+ */
+public class TransportConfigTest {
+
+    @Test
+    public void testOnlyConfiguredSocketOptionsArePassedToTheListener() {
+        HTTPTransportConfig transportConfig = new HTTPTransportConfig(8080)
+                .tcpNoDelay(true)
+                .backlog(1024);
+        transportConfig.validateSocketOptions();
+
+        Map<String, String> parameters = transportConfig.getSocketOptionParameters();
+        assertEquals(2, parameters.size());
+        assertEquals("true", parameters.get(SpringConstants.TCP_NO_DELAY_PARAMETER));
+        assertEquals("1024", parameters.get(SpringConstants.SO_BACKLOG_PARAMETER));
+    }
+
+    @Test
+    public void testNoSocketOptionsByDefault() {
+        assertTrue(new HTTPTransportConfig(8080).getSocketOptionParameters().isEmpty());
+    }
+
+    @Test
+    public void testBufferSizes() {
+        HTTPSTransportConfig transportConfig = new HTTPSTransportConfig()
+                .sendBufferSize(65536)
+                .receiveBufferSize(131072);
+        transportConfig.validateSocketOptions();
+
+        Map<String, String> parameters = transportConfig.getSocketOptionParameters();
+        assertEquals("65536", parameters.get("server.bootstrap.sendbuffersize"));
+        // The carbon listener reads the misspelled key
+        assertEquals("131072", parameters.get("server.bootstrap.recievebuffersize"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositiveBacklogIsRejected() {
+        new HTTPTransportConfig(8080).backlog(0).validateSocketOptions();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositiveSendBufferSizeIsRejected() {
+        new HTTPSTransportConfig().sendBufferSize(0).validateSocketOptions();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositiveReceiveBufferSizeIsRejected() {
+        new HTTPTransportConfig(8080).receiveBufferSize(-1).validateSocketOptions();
+    }
+}